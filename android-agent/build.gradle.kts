@@ -79,10 +79,31 @@ dependencies {
     api(libs.opentelemetry.semconv)
     api(libs.opentelemetry.diskBuffering)
     api(libs.opentelemetry.extension.trace.propagators)
+    compileOnly(libs.okhttp)
 
     testImplementation(libs.robolectric)
     testImplementation(libs.androidx.test.core)
     testImplementation(libs.awaitility)
+    testImplementation(libs.okhttp)
+    testImplementation(libs.okhttp.mockwebserver)
+    testImplementation(libs.opentelemetry.exporter.otlp)
+    testImplementation(libs.jmh.core)
+    testAnnotationProcessor(libs.jmh.generator.annprocess)
+}
+
+// Runs the JMH benchmarks found in the unit test sources, e.g. `./gradlew :android-agent:jmh`.
+// Extra JMH arguments can be passed with `-Pjmh.args="SessionIdBenchmark -f 1"`.
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks of the unit test sources."
+    dependsOn("compileDebugUnitTestJavaWithJavac")
+    mainClass.set("org.openjdk.jmh.Main")
+    classpath(
+        provider {
+            tasks.named("testDebugUnitTest", Test::class.java).get().classpath
+        },
+    )
+    args((findProperty("jmh.args") as String? ?: "").split(" ").filter { it.isNotBlank() })
 }
 
 extra["pomName"] = "OpenTelemetry Android Instrumentation"
@@ -0,0 +1,3 @@
+# OkHttp is optional, it's only used when the OTLP export is configured with the app's client.
+-dontwarn okhttp3.**
+-dontwarn okio.**
@@ -23,7 +23,11 @@ import java.util.function.Supplier;
  *
  * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
  * at any time.
+ *
+ * @deprecated The agent appends the global attributes with its {@code RumAttributesSpanAppender},
+ *     this processor is no longer used and will be removed.
  */
+@Deprecated
 public final class GlobalAttributesSpanAppender implements SpanProcessor {
 
     /**
@@ -7,14 +7,18 @@ package io.opentelemetry.android;
 
 import static java.util.Objects.requireNonNull;
 
+import android.app.ActivityManager;
 import android.app.Application;
 import android.content.Context;
 import android.os.Looper;
 import android.util.Log;
 import io.opentelemetry.android.common.RumConstants;
 import io.opentelemetry.android.config.OtelRumConfig;
+import io.opentelemetry.android.export.OtlpExportConfiguration;
 import io.opentelemetry.android.features.diskbuffering.DiskBufferingConfiguration;
 import io.opentelemetry.android.features.diskbuffering.SignalFromDiskExporter;
+import io.opentelemetry.android.features.diskbuffering.scheduler.DeviceExportConditions;
+import io.opentelemetry.android.features.diskbuffering.scheduler.ExportConditions;
 import io.opentelemetry.android.features.diskbuffering.scheduler.ExportScheduleHandler;
 import io.opentelemetry.android.instrumentation.activity.VisibleScreenTracker;
 import io.opentelemetry.android.instrumentation.anr.AnrDetector;
@@ -23,29 +27,44 @@ import io.opentelemetry.android.instrumentation.common.InstrumentedApplication;
 import io.opentelemetry.android.instrumentation.crash.CrashReporter;
 import io.opentelemetry.android.instrumentation.crash.CrashReporterBuilder;
 import io.opentelemetry.android.instrumentation.network.CurrentNetworkProvider;
-import io.opentelemetry.android.instrumentation.network.NetworkAttributesSpanAppender;
 import io.opentelemetry.android.instrumentation.network.NetworkChangeMonitor;
 import io.opentelemetry.android.instrumentation.slowrendering.SlowRenderingDetector;
 import io.opentelemetry.android.instrumentation.startup.InitializationEvents;
 import io.opentelemetry.android.instrumentation.startup.SdkInitializationEvents;
+import io.opentelemetry.android.internal.export.CompressionMetrics;
+import io.opentelemetry.android.internal.export.OtlpHttpExporters;
+import io.opentelemetry.android.internal.features.persistence.BackgroundFlushListener;
+import io.opentelemetry.android.internal.features.persistence.DeferredDiskExporters.DeferredLogRecordExporter;
+import io.opentelemetry.android.internal.features.persistence.DeferredDiskExporters.DeferredMetricExporter;
+import io.opentelemetry.android.internal.features.persistence.DeferredDiskExporters.DeferredSpanExporter;
+import io.opentelemetry.android.internal.features.persistence.DiskBufferingMetrics;
 import io.opentelemetry.android.internal.features.persistence.DiskManager;
+import io.opentelemetry.android.internal.features.persistence.EncodedDiskExporters;
 import io.opentelemetry.android.internal.features.persistence.SimpleTemporaryFileProvider;
+import io.opentelemetry.android.internal.features.persistence.WriteBehindExporters;
 import io.opentelemetry.android.internal.processors.GlobalAttributesLogRecordAppender;
 import io.opentelemetry.android.internal.services.AppWorkerManager;
+import io.opentelemetry.android.internal.services.PreferencesAppWorker;
+import io.opentelemetry.android.internal.services.periodicwork.PeriodicWorkAppWorker;
 import io.opentelemetry.api.baggage.propagation.W3CBaggagePropagator;
+import io.opentelemetry.api.metrics.Meter;
 import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
 import io.opentelemetry.context.propagation.ContextPropagators;
 import io.opentelemetry.context.propagation.TextMapPropagator;
-import io.opentelemetry.contrib.disk.buffering.SpanFromDiskExporter;
-import io.opentelemetry.contrib.disk.buffering.SpanToDiskExporter;
 import io.opentelemetry.contrib.disk.buffering.StorageConfiguration;
+import io.opentelemetry.exporter.logging.LoggingMetricExporter;
 import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.exporter.logging.SystemOutLogRecordExporter;
 import io.opentelemetry.extension.trace.propagation.JaegerPropagator;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.logs.SdkLoggerProvider;
 import io.opentelemetry.sdk.logs.SdkLoggerProviderBuilder;
+import io.opentelemetry.sdk.logs.export.BatchLogRecordProcessor;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
 import io.opentelemetry.sdk.metrics.SdkMeterProvider;
 import io.opentelemetry.sdk.metrics.SdkMeterProviderBuilder;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
 import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
@@ -60,6 +79,7 @@ import java.util.Map;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.zip.Deflater;
 import javax.annotation.Nullable;
 
 /**
@@ -83,6 +103,13 @@ public final class OpenTelemetryRumBuilder {
     private final VisibleScreenTracker visibleScreenTracker = new VisibleScreenTracker();
 
     private Function<? super SpanExporter, ? extends SpanExporter> spanExporterCustomizer = a -> a;
+    private Function<? super MetricExporter, ? extends MetricExporter> metricExporterCustomizer =
+            a -> a;
+    private Function<? super LogRecordExporter, ? extends LogRecordExporter>
+            logRecordExporterCustomizer = a -> a;
+    // without OTLP nor a customizer, metrics and logs have nowhere to go, so they aren't exported
+    private boolean metricExporterCustomized;
+    private boolean logRecordExporterCustomized;
     private final List<Consumer<InstrumentedApplication>> instrumentationInstallers =
             new ArrayList<>();
 
@@ -282,6 +309,47 @@ public final class OpenTelemetryRumBuilder {
         return this;
     }
 
+    /**
+     * Adds a {@link Function} to invoke with the default {@link MetricExporter} to allow
+     * customization. The return value of the {@link Function} will replace the passed-in argument.
+     *
+     * <p>Multiple calls will execute the customizers in order.
+     */
+    public OpenTelemetryRumBuilder addMetricExporterCustomizer(
+            Function<? super MetricExporter, ? extends MetricExporter> metricExporterCustomizer) {
+        requireNonNull(metricExporterCustomizer, "metricExporterCustomizer");
+        Function<? super MetricExporter, ? extends MetricExporter> existing =
+                this.metricExporterCustomizer;
+        this.metricExporterCustomizer =
+                exporter -> {
+                    MetricExporter intermediate = existing.apply(exporter);
+                    return metricExporterCustomizer.apply(intermediate);
+                };
+        metricExporterCustomized = true;
+        return this;
+    }
+
+    /**
+     * Adds a {@link Function} to invoke with the default {@link LogRecordExporter} to allow
+     * customization. The return value of the {@link Function} will replace the passed-in argument.
+     *
+     * <p>Multiple calls will execute the customizers in order.
+     */
+    public OpenTelemetryRumBuilder addLogRecordExporterCustomizer(
+            Function<? super LogRecordExporter, ? extends LogRecordExporter>
+                    logRecordExporterCustomizer) {
+        requireNonNull(logRecordExporterCustomizer, "logRecordExporterCustomizer");
+        Function<? super LogRecordExporter, ? extends LogRecordExporter> existing =
+                this.logRecordExporterCustomizer;
+        this.logRecordExporterCustomizer =
+                exporter -> {
+                    LogRecordExporter intermediate = existing.apply(exporter);
+                    return logRecordExporterCustomizer.apply(intermediate);
+                };
+        logRecordExporterCustomized = true;
+        return this;
+    }
+
     public SessionId getSessionId() {
         return sessionId;
     }
@@ -303,23 +371,51 @@ public final class OpenTelemetryRumBuilder {
         DiskBufferingConfiguration diskBufferingConfiguration =
                 config.getDiskBufferingConfiguration();
         SpanExporter spanExporter = buildSpanExporter();
-        SignalFromDiskExporter signalFromDiskExporter = null;
+        MetricExporter metricExporter = buildMetricExporter();
+        LogRecordExporter logRecordExporter = buildLogRecordExporter();
+        DiskManager diskManager = null;
+        WriteBehindExporters writeBehindExporters = null;
         if (diskBufferingConfiguration.isEnabled()) {
-            try {
-                StorageConfiguration storageConfiguration = createStorageConfiguration();
-                final SpanExporter originalSpanExporter = spanExporter;
-                spanExporter =
-                        SpanToDiskExporter.create(originalSpanExporter, storageConfiguration);
-
-                signalFromDiskExporter =
-                        new SignalFromDiskExporter(
-                                SpanFromDiskExporter.create(
-                                        originalSpanExporter, storageConfiguration),
-                                null,
-                                null);
-            } catch (IOException e) {
-                Log.e(RumConstants.OTEL_RUM_LOG_TAG, "Could not initialize disk exporters.", e);
-            }
+            // setting up the disk buffer reads and cleans up the cache dir, which is done in the
+            // background while the signals of the app's start are queued in memory
+            DeferredSpanExporter deferredSpanExporter = new DeferredSpanExporter();
+            DeferredMetricExporter deferredMetricExporter =
+                    metricExporter != null ? new DeferredMetricExporter(metricExporter) : null;
+            DeferredLogRecordExporter deferredLogRecordExporter =
+                    logRecordExporter != null ? new DeferredLogRecordExporter() : null;
+            SpanExporter finalSpanExporter = spanExporter;
+            MetricExporter finalMetricExporter = metricExporter;
+            LogRecordExporter finalLogRecordExporter = logRecordExporter;
+            DiskManager finalDiskManager = DiskManager.create(diskBufferingConfiguration);
+            diskManager = finalDiskManager;
+            WriteBehindExporters finalWriteBehindExporters =
+                    diskBufferingConfiguration.isWriteBehindEnabled()
+                            ? new WriteBehindExporters(
+                                    AppWorkerManager.get()
+                                            .getScheduler()
+                                            .forBlockingTask("write-behind"))
+                            : null;
+            writeBehindExporters = finalWriteBehindExporters;
+            AppWorkerManager.get()
+                    .getScheduler()
+                    .forTask("disk-buffering-setup")
+                    .execute(
+                            () ->
+                                    setUpDiskBuffering(
+                                            diskBufferingConfiguration,
+                                            finalDiskManager,
+                                            finalWriteBehindExporters,
+                                            finalSpanExporter,
+                                            finalMetricExporter,
+                                            finalLogRecordExporter,
+                                            deferredSpanExporter,
+                                            deferredMetricExporter,
+                                            deferredLogRecordExporter));
+            spanExporter = deferredSpanExporter;
+            metricExporter = deferredMetricExporter;
+            logRecordExporter = deferredLogRecordExporter;
+        } else {
+            scheduleDiskTelemetryReader(null, diskBufferingConfiguration);
         }
 
         SdkTracerProvider tracerProvider = buildTracerProvider(sessionId, application, spanExporter);
@@ -327,22 +423,153 @@ public final class OpenTelemetryRumBuilder {
         OpenTelemetrySdk sdk =
                 OpenTelemetrySdk.builder()
                         .setTracerProvider(tracerProvider)
-                        .setMeterProvider(buildMeterProvider(application))
-                        .setLoggerProvider(buildLoggerProvider(application))
+                        .setMeterProvider(buildMeterProvider(application, metricExporter))
+                        .setLoggerProvider(buildLoggerProvider(application, logRecordExporter))
                         .setPropagators(propagators)
                         .build();
 
-        scheduleDiskTelemetryReader(signalFromDiskExporter, diskBufferingConfiguration);
+        AppWorkerManager.get()
+                .getScheduler()
+                .registerMetrics(sdk.getMeter("io.opentelemetry.android.scheduler"));
+        if (diskManager != null) {
+            Meter diskBufferingMeter = sdk.getMeter(DiskBufferingMetrics.INSTRUMENTATION_SCOPE);
+            DiskBufferingMetrics.get().registerMetrics(diskBufferingMeter);
+            diskManager.registerMetrics(diskBufferingMeter);
+        }
+        OtlpExportConfiguration otlpExportConfiguration = config.getOtlpExportConfiguration();
+        if (otlpExportConfiguration != null && otlpExportConfiguration.isCompressionEnabled()) {
+            CompressionMetrics.get()
+                    .registerMetrics(sdk.getMeter(CompressionMetrics.INSTRUMENTATION_SCOPE));
+        }
 
         SdkPreconfiguredRumBuilder delegate =
                 new SdkPreconfiguredRumBuilder(application, sdk, sessionId);
         instrumentationInstallers.forEach(delegate::addInstrumentation);
+        // restores the session of a previous app process in the background
+        sessionId.setSessionStore(
+                new SessionStore(
+                        AppWorkerManager.get().getService(PreferencesAppWorker.class),
+                        AppWorkerManager.get().getScheduler().forTask("session-store")));
+        PeriodicWorkAppWorker periodicWork =
+                AppWorkerManager.get().getService(PeriodicWorkAppWorker.class);
+        periodicWork.enqueue(new SessionIdRotationScheduler(sessionId));
+        // periodic work is paused while the app is in the background
+        delegate.addInstrumentation(app -> app.registerApplicationStateListener(periodicWork));
+        if (writeBehindExporters != null) {
+            // the batches being exported are written to disk when the process may go away, and
+            // the ones exported from then on go straight to disk
+            WriteBehindExporters finalWriteBehindExporters = writeBehindExporters;
+            delegate.addInstrumentation(
+                    app -> app.registerApplicationStateListener(finalWriteBehindExporters));
+            application.registerComponentCallbacks(writeBehindExporters);
+        }
+        if (diskBufferingConfiguration.isEnabled()) {
+            // the app's process can be killed once in the background, so the signals held in
+            // memory are written to disk right away
+            BackgroundFlushListener backgroundFlushListener =
+                    new BackgroundFlushListener(
+                            sdk,
+                            AppWorkerManager.get()
+                                    .getScheduler()
+                                    .forBlockingTask("background-flush"),
+                            writeBehindExporters);
+            delegate.addInstrumentation(
+                    app -> app.registerApplicationStateListener(backgroundFlushListener));
+        }
         AppWorkerManager.get().start();
         return delegate.build();
     }
 
-    private StorageConfiguration createStorageConfiguration() throws IOException {
-        DiskManager diskManager = DiskManager.create(config.getDiskBufferingConfiguration());
+    private void setUpDiskBuffering(
+            DiskBufferingConfiguration diskBufferingConfiguration,
+            DiskManager diskManager,
+            @Nullable WriteBehindExporters writeBehindExporters,
+            SpanExporter spanExporter,
+            @Nullable MetricExporter metricExporter,
+            @Nullable LogRecordExporter logRecordExporter,
+            DeferredSpanExporter deferredSpanExporter,
+            @Nullable DeferredMetricExporter deferredMetricExporter,
+            @Nullable DeferredLogRecordExporter deferredLogRecordExporter) {
+        SignalFromDiskExporter signalFromDiskExporter = null;
+        try {
+            EncodedDiskExporters diskExporters =
+                    createDiskExporters(diskManager, diskBufferingConfiguration);
+            // each signal is stored in its own folder, within its own share of the cache size
+            SpanExporter spanToDiskExporter = diskExporters.spanToDisk(spanExporter);
+            MetricExporter metricToDiskExporter =
+                    metricExporter != null ? diskExporters.metricToDisk(metricExporter) : null;
+            LogRecordExporter logRecordToDiskExporter =
+                    logRecordExporter != null
+                            ? diskExporters.logRecordToDisk(logRecordExporter)
+                            : null;
+
+            signalFromDiskExporter =
+                    new SignalFromDiskExporter(
+                            diskExporters.spanFromDisk(spanExporter),
+                            metricExporter != null
+                                    ? diskExporters.metricFromDisk(metricExporter)
+                                    : null,
+                            logRecordExporter != null
+                                    ? diskExporters.logRecordFromDisk(logRecordExporter)
+                                    : null);
+            if (writeBehindExporters != null) {
+                // exported right away, and only written to disk when that doesn't work out
+                spanToDiskExporter = writeBehindExporters.spans(spanExporter, spanToDiskExporter);
+                if (metricExporter != null && metricToDiskExporter != null) {
+                    metricToDiskExporter =
+                            writeBehindExporters.metrics(metricExporter, metricToDiskExporter);
+                }
+                if (logRecordExporter != null && logRecordToDiskExporter != null) {
+                    logRecordToDiskExporter =
+                            writeBehindExporters.logRecords(
+                                    logRecordExporter, logRecordToDiskExporter);
+                }
+            }
+            spanExporter = spanToDiskExporter;
+            metricExporter = metricToDiskExporter;
+            logRecordExporter = logRecordToDiskExporter;
+            ExportConditions.set(
+                    new DeviceExportConditions(
+                            currentNetworkProvider, diskExporters::getPendingBytes));
+        } catch (IOException | RuntimeException e) {
+            Log.e(RumConstants.OTEL_RUM_LOG_TAG, "Could not initialize disk exporters.", e);
+        }
+        // without a disk buffer, the queued signals are exported right away
+        deferredSpanExporter.setDelegate(spanExporter);
+        if (deferredMetricExporter != null && metricExporter != null) {
+            deferredMetricExporter.setDelegate(metricExporter);
+        }
+        if (deferredLogRecordExporter != null && logRecordExporter != null) {
+            deferredLogRecordExporter.setDelegate(logRecordExporter);
+        }
+        scheduleDiskTelemetryReader(signalFromDiskExporter, diskBufferingConfiguration);
+    }
+
+    private EncodedDiskExporters createDiskExporters(
+            DiskManager diskManager, DiskBufferingConfiguration diskBufferingConfiguration)
+            throws IOException {
+        if (diskBufferingConfiguration.isMemoryMappedStorageEnabled()) {
+            return EncodedDiskExporters.withMappedSegments(
+                    diskManager.getSegmentsDir(),
+                    diskManager.getMaxCacheFileSize(),
+                    diskManager.getMaxSegmentsSize(),
+                    diskBufferingConfiguration.getMaxExportBatchSize(),
+                    diskBufferingConfiguration.getMaxExportBatchBytes(),
+                    diskBufferingConfiguration.getPriorityRules(),
+                    diskBufferingConfiguration.getCodec(),
+                    diskBufferingConfiguration.isExportBatchIdEnabled());
+        }
+        if (diskBufferingConfiguration.isExportBatchIdEnabled()) {
+            Log.w(
+                    RumConstants.OTEL_RUM_LOG_TAG,
+                    "The export batch id needs the memory-mapped storage, ignoring it.");
+        }
+        return EncodedDiskExporters.withFiles(
+                createStorageConfiguration(diskManager), diskBufferingConfiguration.getCodec());
+    }
+
+    private StorageConfiguration createStorageConfiguration(DiskManager diskManager)
+            throws IOException {
         return StorageConfiguration.builder()
                 .setMaxFileSize(diskManager.getMaxCacheFileSize())
                 .setMaxFolderSize(diskManager.getMaxFolderSize())
@@ -382,27 +609,9 @@ public final class OpenTelemetryRumBuilder {
         }
         initializationEvents.sdkInitializationStarted();
 
-        // Global attributes
-        if (config.hasGlobalAttributes()) {
-            // Add span processor that appends global attributes.
-            GlobalAttributesSpanAppender appender =
-                    GlobalAttributesSpanAppender.create(config.getGlobalAttributesSupplier());
-            addTracerProviderCustomizer(
-                    (tracerProviderBuilder, app) ->
-                            tracerProviderBuilder.addSpanProcessor(appender));
-        }
-
-        // Network specific attributes
+        // Network specific attributes, appended by the RumAttributesSpanAppender
         if (config.shouldIncludeNetworkAttributes()) {
-            // Add span processor that appends network attributes.
-            CurrentNetworkProvider currentNetworkProvider = getOrCreateCurrentNetworkProvider();
-            addTracerProviderCustomizer(
-                    (tracerProviderBuilder, app) -> {
-                        SpanProcessor networkAttributesSpanAppender =
-                                NetworkAttributesSpanAppender.create(currentNetworkProvider);
-                        return tracerProviderBuilder.addSpanProcessor(
-                                networkAttributesSpanAppender);
-                    });
+            getOrCreateCurrentNetworkProvider();
             initializationEvents.currentNetworkProviderInitialized();
         }
 
@@ -416,23 +625,18 @@ public final class OpenTelemetryRumBuilder {
                     });
         }
 
-        // Add span processor that appends screen attribute(s)
-        if (config.shouldIncludeScreenAttributes()) {
-            addTracerProviderCustomizer(
-                    (tracerProviderBuilder, app) -> {
-                        SpanProcessor screenAttributesAppender =
-                                new ScreenAttributesSpanProcessor(visibleScreenTracker);
-                        return tracerProviderBuilder.addSpanProcessor(screenAttributesAppender);
-                    });
-        }
-
         // Add ANR detection if enabled
         if (config.isAnrDetectionEnabled()) {
             Looper mainLooper = application.getMainLooper();
             addInstrumentation(
                     instrumentedApplication -> {
                         AnrDetectorBuilder builder =
-                                AnrDetector.builder().setMainLooper(mainLooper);
+                                AnrDetector.builder()
+                                        .setMainLooper(mainLooper)
+                                        .setScheduler(
+                                                AppWorkerManager.get()
+                                                        .getScheduler()
+                                                        .forBlockingTask("anr-detection"));
                         anrCustomizer.accept(builder);
                         builder.build().installOn(instrumentedApplication);
                         initializationEvents.anrMonitorInitialized();
@@ -446,6 +650,10 @@ public final class OpenTelemetryRumBuilder {
                         SlowRenderingDetector.builder()
                                 .setSlowRenderingDetectionPollInterval(
                                         config.getSlowRenderingDetectionPollInterval())
+                                .setScheduler(
+                                        AppWorkerManager.get()
+                                                .getScheduler()
+                                                .forTask("slow-rendering-detection"))
                                 .build()
                                 .installOn(instrumentedApplication);
                         initializationEvents.slowRenderingDetectorInitialized();
@@ -472,7 +680,11 @@ public final class OpenTelemetryRumBuilder {
 
     private CurrentNetworkProvider getOrCreateCurrentNetworkProvider() {
         if (currentNetworkProvider == null) {
-            this.currentNetworkProvider = CurrentNetworkProvider.createAndStart(application);
+            this.currentNetworkProvider =
+                    CurrentNetworkProvider.createAndStart(
+                            application,
+                            config.getNetworkChangeDetectionDebounceWindow(),
+                            AppWorkerManager.get().getScheduler().forTask("network-detection"));
         }
         return currentNetworkProvider;
     }
@@ -482,7 +694,7 @@ public final class OpenTelemetryRumBuilder {
         SdkTracerProviderBuilder tracerProviderBuilder =
                 SdkTracerProvider.builder()
                         .setResource(resource)
-                        .addSpanProcessor(new SessionIdSpanAppender(sessionId));
+                        .addSpanProcessor(buildRumAttributesSpanAppender(sessionId));
 
         initializationEvents.spanExporterInitialized(spanExporter);
         BatchSpanProcessor batchSpanProcessor = BatchSpanProcessor.builder(spanExporter).build();
@@ -495,15 +707,69 @@ public final class OpenTelemetryRumBuilder {
         return tracerProviderBuilder.build();
     }
 
+    private SpanProcessor buildRumAttributesSpanAppender(SessionId sessionId) {
+        return new RumAttributesSpanAppender(
+                sessionId,
+                config.hasGlobalAttributes() ? config.getGlobalAttributesSupplier() : null,
+                config.shouldIncludeNetworkAttributes() ? currentNetworkProvider : null,
+                config.shouldIncludeScreenAttributes() ? visibleScreenTracker : null);
+    }
+
+    // OTLP needs an endpoint, and usually auth headers, so it's only the default once they are
+    // configured.
     private SpanExporter buildSpanExporter() {
-        // TODO: Default to otlp...but how can we make endpoint and auth mandatory?
-        SpanExporter defaultExporter = LoggingSpanExporter.create();
+        OtlpExportConfiguration otlpExportConfiguration = config.getOtlpExportConfiguration();
+        SpanExporter defaultExporter =
+                otlpExportConfiguration != null
+                        ? OtlpHttpExporters.spans(otlpExportConfiguration, compressionLevel())
+                        : LoggingSpanExporter.create();
         return spanExporterCustomizer.apply(defaultExporter);
     }
 
-    private SdkMeterProvider buildMeterProvider(Application application) {
+    // unlike spans, metrics and logs are only collected when they can be exported: the periodic
+    // metric reader and the log batches would otherwise run on every app for nothing
+    @Nullable
+    private MetricExporter buildMetricExporter() {
+        OtlpExportConfiguration otlpExportConfiguration = config.getOtlpExportConfiguration();
+        if (otlpExportConfiguration == null && !metricExporterCustomized) {
+            return null;
+        }
+        MetricExporter defaultExporter =
+                otlpExportConfiguration != null
+                        ? OtlpHttpExporters.metrics(otlpExportConfiguration, compressionLevel())
+                        : LoggingMetricExporter.create();
+        return metricExporterCustomizer.apply(defaultExporter);
+    }
+
+    @Nullable
+    private LogRecordExporter buildLogRecordExporter() {
+        OtlpExportConfiguration otlpExportConfiguration = config.getOtlpExportConfiguration();
+        if (otlpExportConfiguration == null && !logRecordExporterCustomized) {
+            return null;
+        }
+        LogRecordExporter defaultExporter =
+                otlpExportConfiguration != null
+                        ? OtlpHttpExporters.logRecords(otlpExportConfiguration, compressionLevel())
+                        : SystemOutLogRecordExporter.create();
+        return logRecordExporterCustomizer.apply(defaultExporter);
+    }
+
+    // compressing costs CPU time on the export threads, which low RAM devices usually lack too
+    private int compressionLevel() {
+        ActivityManager activityManager =
+                (ActivityManager) application.getSystemService(Context.ACTIVITY_SERVICE);
+        return activityManager != null && activityManager.isLowRamDevice()
+                ? Deflater.BEST_SPEED
+                : Deflater.DEFAULT_COMPRESSION;
+    }
+
+    private SdkMeterProvider buildMeterProvider(
+            Application application, @Nullable MetricExporter metricExporter) {
         SdkMeterProviderBuilder meterProviderBuilder =
                 SdkMeterProvider.builder().setResource(resource);
+        if (metricExporter != null) {
+            meterProviderBuilder.registerMetricReader(PeriodicMetricReader.create(metricExporter));
+        }
         for (BiFunction<SdkMeterProviderBuilder, Application, SdkMeterProviderBuilder> customizer :
                 meterProviderCustomizers) {
             meterProviderBuilder = customizer.apply(meterProviderBuilder, application);
@@ -511,13 +777,18 @@ public final class OpenTelemetryRumBuilder {
         return meterProviderBuilder.build();
     }
 
-    private SdkLoggerProvider buildLoggerProvider(Application application) {
+    private SdkLoggerProvider buildLoggerProvider(
+            Application application, @Nullable LogRecordExporter logRecordExporter) {
         SdkLoggerProviderBuilder loggerProviderBuilder =
                 SdkLoggerProvider.builder()
                         .addLogRecordProcessor(
                                 new GlobalAttributesLogRecordAppender(
                                         config.getGlobalAttributesSupplier()))
                         .setResource(resource);
+        if (logRecordExporter != null) {
+            loggerProviderBuilder.addLogRecordProcessor(
+                    BatchLogRecordProcessor.builder(logRecordExporter).build());
+        }
         for (BiFunction<SdkLoggerProviderBuilder, Application, SdkLoggerProviderBuilder>
                 customizer : loggerProviderCustomizers) {
             loggerProviderBuilder = customizer.apply(loggerProviderBuilder, application);
@@ -0,0 +1,149 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android;
+
+import static io.opentelemetry.android.common.RumConstants.SCREEN_NAME_KEY;
+import static io.opentelemetry.android.common.RumConstants.SESSION_ID_KEY;
+
+import androidx.annotation.Nullable;
+import io.opentelemetry.android.instrumentation.activity.VisibleScreenTracker;
+import io.opentelemetry.android.instrumentation.network.CurrentNetworkProvider;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A single {@link SpanProcessor} that appends the session, global, network and screen attributes to
+ * every span.
+ *
+ * <p>All the attributes are combined in one precomputed {@link Attributes} snapshot, applied with a
+ * single {@link ReadWriteSpan#setAllAttributes(Attributes)} call. The snapshot is only rebuilt when
+ * one of its sources returns a different value than the one it was built from: the session ID, the
+ * global attributes, the {@linkplain CurrentNetworkProvider#getCurrentNetworkAttributes() network
+ * attributes} or the visible screen name. Sources usually hand out the same instance until their
+ * value changes, which is then checked with a reference comparison, but a global attributes
+ * supplier that builds new, equal attributes on each call doesn't cause a rebuild either.
+ *
+ * <p>Attributes are applied in that order, so that a later source overrides an earlier one for the
+ * same key, as was the case when each source had its own processor.
+ */
+final class RumAttributesSpanAppender implements SpanProcessor {
+
+    private static final Snapshot EMPTY = new Snapshot("", null, null, null, Attributes.empty());
+
+    private final SessionId sessionId;
+    @Nullable private final Supplier<Attributes> globalAttributesSupplier;
+    @Nullable private final CurrentNetworkProvider currentNetworkProvider;
+    @Nullable private final VisibleScreenTracker visibleScreenTracker;
+    private volatile Snapshot snapshot = EMPTY;
+
+    RumAttributesSpanAppender(
+            SessionId sessionId,
+            @Nullable Supplier<Attributes> globalAttributesSupplier,
+            @Nullable CurrentNetworkProvider currentNetworkProvider,
+            @Nullable VisibleScreenTracker visibleScreenTracker) {
+        this.sessionId = sessionId;
+        this.globalAttributesSupplier = globalAttributesSupplier;
+        this.currentNetworkProvider = currentNetworkProvider;
+        this.visibleScreenTracker = visibleScreenTracker;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        String currentSessionId = sessionId.getSessionId();
+        Attributes globalAttributes =
+                globalAttributesSupplier == null ? null : globalAttributesSupplier.get();
+        Attributes networkAttributes =
+                currentNetworkProvider == null
+                        ? null
+                        : currentNetworkProvider.getCurrentNetworkAttributes();
+        String screenName =
+                visibleScreenTracker == null
+                        ? null
+                        : visibleScreenTracker.getCurrentlyVisibleScreen();
+
+        Snapshot current = snapshot;
+        if (!current.isBuiltFrom(
+                currentSessionId, globalAttributes, networkAttributes, screenName)) {
+            // concurrent rebuilds are harmless, they all produce equivalent snapshots
+            current =
+                    buildSnapshot(currentSessionId, globalAttributes, networkAttributes, screenName);
+            snapshot = current;
+        }
+        span.setAllAttributes(current.attributes);
+    }
+
+    private static Snapshot buildSnapshot(
+            String currentSessionId,
+            @Nullable Attributes globalAttributes,
+            @Nullable Attributes networkAttributes,
+            @Nullable String screenName) {
+        AttributesBuilder builder = Attributes.builder().put(SESSION_ID_KEY, currentSessionId);
+        if (globalAttributes != null) {
+            builder.putAll(globalAttributes);
+        }
+        if (networkAttributes != null) {
+            builder.putAll(networkAttributes);
+        }
+        if (screenName != null) {
+            builder.put(SCREEN_NAME_KEY, screenName);
+        }
+        return new Snapshot(
+                currentSessionId, globalAttributes, networkAttributes, screenName, builder.build());
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return true;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {}
+
+    @Override
+    public boolean isEndRequired() {
+        return false;
+    }
+
+    private static final class Snapshot {
+        private final String sessionId;
+        @Nullable private final Attributes globalAttributes;
+        @Nullable private final Attributes networkAttributes;
+        @Nullable private final String screenName;
+        private final Attributes attributes;
+
+        private Snapshot(
+                String sessionId,
+                @Nullable Attributes globalAttributes,
+                @Nullable Attributes networkAttributes,
+                @Nullable String screenName,
+                Attributes attributes) {
+            this.sessionId = sessionId;
+            this.globalAttributes = globalAttributes;
+            this.networkAttributes = networkAttributes;
+            this.screenName = screenName;
+            this.attributes = attributes;
+        }
+
+        // equals() starts with a reference comparison, which matches for the sources handing out
+        // the same instance until their value changes
+        private boolean isBuiltFrom(
+                String sessionId,
+                @Nullable Attributes globalAttributes,
+                @Nullable Attributes networkAttributes,
+                @Nullable String screenName) {
+            return this.sessionId.equals(sessionId)
+                    && Objects.equals(this.globalAttributes, globalAttributes)
+                    && Objects.equals(this.networkAttributes, networkAttributes)
+                    && Objects.equals(this.screenName, screenName);
+        }
+    }
+}
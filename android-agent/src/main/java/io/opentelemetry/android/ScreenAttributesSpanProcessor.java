@@ -13,6 +13,13 @@ import io.opentelemetry.sdk.trace.ReadWriteSpan;
 import io.opentelemetry.sdk.trace.ReadableSpan;
 import io.opentelemetry.sdk.trace.SpanProcessor;
 
+/**
+ * A {@link SpanProcessor} that appends the name of the visible screen to every span.
+ *
+ * @deprecated The agent appends the screen name with its {@code RumAttributesSpanAppender}, this
+ *     processor is no longer used and will be removed.
+ */
+@Deprecated
 public final class ScreenAttributesSpanProcessor implements SpanProcessor {
 
     private final VisibleScreenTracker visibleScreenTracker;
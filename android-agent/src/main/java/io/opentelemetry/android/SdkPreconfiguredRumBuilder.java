@@ -59,6 +59,8 @@ public final class SdkPreconfiguredRumBuilder {
         ApplicationStateWatcher applicationStateWatcher = new ApplicationStateWatcher();
         application.registerActivityLifecycleCallbacks(applicationStateWatcher);
         applicationStateWatcher.registerListener(sessionId.getTimeoutHandler());
+        // registered after the timeout handler, so that it sees the updated app state
+        applicationStateWatcher.registerListener(sessionId);
 
         Tracer tracer = sdk.getTracer(OpenTelemetryRum.class.getSimpleName());
         sessionId.setSessionIdChangeListener(new SessionIdChangeTracer(tracer));
@@ -5,24 +5,38 @@
 
 package io.opentelemetry.android;
 
-import static java.util.Objects.requireNonNull;
-
 import androidx.annotation.Nullable;
+import io.opentelemetry.android.instrumentation.common.ApplicationStateListener;
 import io.opentelemetry.api.trace.TraceId;
 import io.opentelemetry.sdk.common.Clock;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
 
-class SessionId {
+/**
+ * Holds the current RUM session ID.
+ *
+ * <p>The session is kept as an immutable {@link Session} snapshot, so that {@link #getSessionId()}
+ * (which runs for every span that gets started) only needs a volatile read and a comparison against
+ * the precomputed expiry deadline. Session rotation is expected to happen off the span path: either
+ * from a timer calling {@link #rotateIfExpired()} (see {@link SessionIdRotationScheduler}) or from
+ * an application state transition. The span path only rotates the session itself as a fallback,
+ * when it observes an expired snapshot before the timer got to run.
+ *
+ * <p>When a {@link SessionStore} is set, the session is persisted whenever it gets rotated, the app
+ * goes to the background or activity is recorded while in the background, and a still valid
+ * session saved by a previous app process replaces the initial one as soon as it has been loaded.
+ * The store debounces the writes, so that spans in the background don't each cause one.
+ */
+class SessionId implements ApplicationStateListener {
 
     private static final long SESSION_LIFETIME_NANOS = TimeUnit.HOURS.toNanos(4);
 
     private final Clock clock;
-    private final AtomicReference<String> value = new AtomicReference<>();
     private final SessionIdTimeoutHandler timeoutHandler;
-    private volatile long createTimeNanos;
+    private final Object rotationLock = new Object();
+    private volatile Session session;
     @Nullable private volatile SessionIdChangeListener sessionIdChangeListener;
+    @Nullable private volatile SessionStore sessionStore;
 
     SessionId(SessionIdTimeoutHandler timeoutHandler) {
         this(Clock.getDefault(), timeoutHandler);
@@ -32,12 +46,15 @@ class SessionId {
     SessionId(Clock clock, SessionIdTimeoutHandler timeoutHandler) {
         this.clock = clock;
         this.timeoutHandler = timeoutHandler;
-        value.set(createNewId());
-        createTimeNanos = clock.nanoTime();
+        this.session = createSession(createNewId());
+    }
+
+    private Session createSession(String id) {
+        return new Session(id, clock.nanoTime(), TimeUnit.NANOSECONDS.toMillis(clock.now()));
     }
 
     private static String createNewId() {
-        Random random = new Random();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         // The OTel TraceId has exactly the same format as a RUM SessionId, so let's re-use it here,
         // rather than re-inventing the wheel.
         return TraceId.fromLongs(random.nextLong(), random.nextLong());
@@ -48,37 +65,128 @@ class SessionId {
     }
 
     String getSessionId() {
-        // value will never be null
-        String oldValue = requireNonNull(value.get());
-        String currentValue = oldValue;
-        boolean sessionIdChanged = false;
-
-        if (sessionExpired() || timeoutHandler.hasTimedOut()) {
-            String newId = createNewId();
-            // if this returns false, then another thread updated the value already.
-            sessionIdChanged = value.compareAndSet(oldValue, newId);
-            if (sessionIdChanged) {
-                createTimeNanos = clock.nanoTime();
+        Session current = session;
+        if (!current.hasExpired(clock.nanoTime()) && !timeoutHandler.hasTimedOut()) {
+            if (timeoutHandler.bump()) {
+                // activity in the background keeps the session alive, also across a process kill
+                persist(current);
             }
-            // value will never be null
-            currentValue = requireNonNull(value.get());
+            return current.id;
+        }
+        return refresh(current);
+    }
+
+    /**
+     * Replaces the current session with a new one if it has exceeded its lifetime or timed out.
+     * This is meant to be called off the span path, e.g. by a timer.
+     */
+    void rotateIfExpired() {
+        Session current = session;
+        if (current.hasExpired(clock.nanoTime()) || timeoutHandler.hasTimedOut()) {
+            refresh(current);
         }
+    }
+
+    /** Returns the time left until the current session exceeds its lifetime. */
+    long getMillisUntilExpiry() {
+        long remainingNanos = session.expiresAtNanos - clock.nanoTime();
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+    }
 
+    private String refresh(Session expired) {
+        Session rotated = null;
+        synchronized (rotationLock) {
+            // another thread might have rotated the session already
+            if (session == expired) {
+                rotated = createSession(createNewId());
+                session = rotated;
+            }
+        }
+
+        if (rotated != null) {
+            persist(rotated);
+        }
         timeoutHandler.bump();
         // sessionId change listener needs to be called after bumping the timer because it may
         // create a new span
         SessionIdChangeListener sessionIdChangeListener = this.sessionIdChangeListener;
-        if (sessionIdChanged && sessionIdChangeListener != null) {
-            sessionIdChangeListener.onChange(oldValue, currentValue);
+        if (rotated != null && sessionIdChangeListener != null) {
+            sessionIdChangeListener.onChange(expired.id, rotated.id);
+        }
+        return session.id;
+    }
+
+    @Override
+    public void onApplicationForegrounded() {
+        // the timeout handler has already been notified at this point, so a session that timed out
+        // while in the background gets replaced before the first span is started
+        rotateIfExpired();
+    }
+
+    @Override
+    public void onApplicationBackgrounded() {
+        // the process is likely to be killed while in the background, save the last activity time
+        persist(session);
+    }
+
+    /**
+     * Starts persisting the session to the given store, and asynchronously loads the session saved
+     * by a previous app process from it.
+     */
+    void setSessionStore(SessionStore sessionStore) {
+        this.sessionStore = sessionStore;
+        Session initial = session;
+        sessionStore.load(stored -> restore(initial, stored));
+    }
+
+    private void restore(Session initial, @Nullable SessionStore.StoredSession stored) {
+        Session restored = null;
+        if (stored != null && isStillValid(stored)) {
+            synchronized (rotationLock) {
+                // a session that has been rotated in the meantime takes precedence
+                if (session == initial) {
+                    long ageNanos =
+                            clock.now()
+                                    - TimeUnit.MILLISECONDS.toNanos(stored.getCreatedEpochMillis());
+                    restored =
+                            new Session(
+                                    stored.getId(),
+                                    clock.nanoTime() - ageNanos,
+                                    stored.getCreatedEpochMillis());
+                    session = restored;
+                }
+            }
+        }
+
+        if (restored == null) {
+            persist(session);
+            return;
+        }
+        SessionIdChangeListener sessionIdChangeListener = this.sessionIdChangeListener;
+        if (sessionIdChangeListener != null) {
+            sessionIdChangeListener.onChange(initial.id, restored.id);
         }
+    }
 
-        return currentValue;
+    private boolean isStillValid(SessionStore.StoredSession stored) {
+        long nowNanos = clock.now();
+        long ageNanos = nowNanos - TimeUnit.MILLISECONDS.toNanos(stored.getCreatedEpochMillis());
+        long idleNanos =
+                nowNanos - TimeUnit.MILLISECONDS.toNanos(stored.getLastActivityEpochMillis());
+        return ageNanos >= 0
+                && ageNanos < SESSION_LIFETIME_NANOS
+                && idleNanos < SessionIdTimeoutHandler.SESSION_TIMEOUT_NANOS;
     }
 
-    private boolean sessionExpired() {
-        long nowNanoTime = clock.nanoTime();
-        long elapsedTime = nowNanoTime - createTimeNanos;
-        return elapsedTime >= SESSION_LIFETIME_NANOS;
+    private void persist(Session session) {
+        SessionStore sessionStore = this.sessionStore;
+        if (sessionStore != null) {
+            sessionStore.save(
+                    new SessionStore.StoredSession(
+                            session.id,
+                            session.createdEpochMillis,
+                            TimeUnit.NANOSECONDS.toMillis(clock.now())));
+        }
     }
 
     void setSessionIdChangeListener(SessionIdChangeListener sessionIdChangeListener) {
@@ -87,7 +195,22 @@ class SessionId {
 
     @Override
     public String toString() {
-        // value will never be null
-        return requireNonNull(value.get());
+        return session.id;
+    }
+
+    private static final class Session {
+        private final String id;
+        private final long expiresAtNanos;
+        private final long createdEpochMillis;
+
+        private Session(String id, long createTimeNanos, long createdEpochMillis) {
+            this.id = id;
+            this.expiresAtNanos = createTimeNanos + SESSION_LIFETIME_NANOS;
+            this.createdEpochMillis = createdEpochMillis;
+        }
+
+        private boolean hasExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos >= 0;
+        }
     }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android;
+
+import io.opentelemetry.android.internal.services.periodicwork.PeriodicRunnable;
+
+/**
+ * Periodic background task that rotates the {@link SessionId} once its lifetime is over, so that
+ * the span path doesn't have to.
+ */
+final class SessionIdRotationScheduler extends PeriodicRunnable {
+
+    private final SessionId sessionId;
+    private volatile long delayUntilNextRunInMillis;
+
+    SessionIdRotationScheduler(SessionId sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    @Override
+    public void onRun() {
+        sessionId.rotateIfExpired();
+        delayUntilNextRunInMillis = sessionId.getMillisUntilExpiry();
+    }
+
+    @Override
+    public boolean shouldStopRunning() {
+        return false;
+    }
+
+    @Override
+    public long minimumDelayUntilNextRunInMillis() {
+        return delayUntilNextRunInMillis;
+    }
+}
@@ -22,10 +22,14 @@ import java.util.concurrent.TimeUnit;
  *
  * <p>Consequently, when the app spent >15 minutes without any activity (spans) in the background,
  * after moving to the foreground the first span should trigger the sessionId timeout.
+ *
+ * <p>Since the timeout never applies in the foreground, {@link #bump()} only records the activity
+ * timestamp while the app is not in the foreground; the timeout window starts counting when the app
+ * gets backgrounded.
  */
 final class SessionIdTimeoutHandler implements ApplicationStateListener {
 
-    private static final long SESSION_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(15);
+    static final long SESSION_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(15);
 
     private final Clock clock;
     private volatile long timeoutStartNanos;
@@ -47,6 +51,7 @@ final class SessionIdTimeoutHandler implements ApplicationStateListener {
 
     @Override
     public void onApplicationBackgrounded() {
+        timeoutStartNanos = clock.nanoTime();
         state = State.BACKGROUND;
     }
 
@@ -59,13 +64,25 @@ final class SessionIdTimeoutHandler implements ApplicationStateListener {
         return elapsedTime >= SESSION_TIMEOUT_NANOS;
     }
 
-    void bump() {
+    /**
+     * Records activity, which restarts the timeout window when the app is not in the foreground.
+     *
+     * @return whether the activity was recorded, i.e. the app was not in the foreground.
+     */
+    boolean bump() {
+        State state = this.state;
+        // activity in the foreground doesn't need to be tracked, the timeout window is restarted
+        // when the app gets backgrounded
+        if (state == State.FOREGROUND) {
+            return false;
+        }
         timeoutStartNanos = clock.nanoTime();
 
         // move from the temporary transition state to foreground after the first span
         if (state == State.TRANSITIONING_TO_FOREGROUND) {
-            state = State.FOREGROUND;
+            this.state = State.FOREGROUND;
         }
+        return true;
     }
 
     private enum State {
@@ -0,0 +1,111 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android;
+
+import androidx.annotation.Nullable;
+import io.opentelemetry.android.internal.services.PreferencesAppWorker;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Persists the current RUM session in the app preferences, so that it survives the app process
+ * being killed by the OS.
+ *
+ * <p>Loading happens asynchronously, and writes are debounced and performed on a background
+ * thread: neither the SDK initialization nor the span path ever wait on disk.
+ */
+final class SessionStore {
+
+    static final String SESSION_ID_KEY = "session.id";
+    static final String CREATED_EPOCH_MILLIS_KEY = "session.created_epoch_millis";
+    static final String LAST_ACTIVITY_EPOCH_MILLIS_KEY = "session.last_activity_epoch_millis";
+
+    // all writes requested within this window are coalesced into a single one
+    static final long WRITE_DEBOUNCE_MILLIS = 1000;
+
+    private final PreferencesAppWorker preferences;
+    private final ScheduledExecutorService executor;
+    private final AtomicReference<StoredSession> pendingWrite = new AtomicReference<>();
+
+    SessionStore(PreferencesAppWorker preferences, ScheduledExecutorService executor) {
+        this.preferences = preferences;
+        this.executor = executor;
+    }
+
+    /**
+     * Reads the stored session on the background thread and passes it to the callback, on that same
+     * thread.
+     */
+    void load(LoadCallback callback) {
+        executor.execute(() -> callback.onLoaded(read()));
+    }
+
+    /**
+     * Schedules the session to be written. Only the latest session passed within the debounce
+     * window gets written.
+     */
+    void save(StoredSession session) {
+        if (pendingWrite.getAndSet(session) == null) {
+            executor.schedule(this::flush, WRITE_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        StoredSession session = pendingWrite.getAndSet(null);
+        if (session == null) {
+            return;
+        }
+        // a single edit, so that a kill can't leave an id stored with another session's timestamps
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put(SESSION_ID_KEY, session.getId());
+        values.put(CREATED_EPOCH_MILLIS_KEY, session.getCreatedEpochMillis());
+        values.put(LAST_ACTIVITY_EPOCH_MILLIS_KEY, session.getLastActivityEpochMillis());
+        preferences.storeAll(values);
+    }
+
+    @Nullable
+    private StoredSession read() {
+        String id = preferences.retrieveString(SESSION_ID_KEY, null);
+        long createdEpochMillis = preferences.retrieveLong(CREATED_EPOCH_MILLIS_KEY, -1);
+        long lastActivityEpochMillis = preferences.retrieveLong(LAST_ACTIVITY_EPOCH_MILLIS_KEY, -1);
+        if (id == null || createdEpochMillis < 0 || lastActivityEpochMillis < 0) {
+            return null;
+        }
+        return new StoredSession(id, createdEpochMillis, lastActivityEpochMillis);
+    }
+
+    interface LoadCallback {
+        void onLoaded(@Nullable StoredSession session);
+    }
+
+    /** The persisted state of a session; timestamps use the wall clock, in epoch millis. */
+    static final class StoredSession {
+        private final String id;
+        private final long createdEpochMillis;
+        private final long lastActivityEpochMillis;
+
+        StoredSession(String id, long createdEpochMillis, long lastActivityEpochMillis) {
+            this.id = id;
+            this.createdEpochMillis = createdEpochMillis;
+            this.lastActivityEpochMillis = lastActivityEpochMillis;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        long getCreatedEpochMillis() {
+            return createdEpochMillis;
+        }
+
+        long getLastActivityEpochMillis() {
+            return lastActivityEpochMillis;
+        }
+    }
+}
@@ -5,12 +5,13 @@
 
 package io.opentelemetry.android.config;
 
-import io.opentelemetry.android.ScreenAttributesSpanProcessor;
+import io.opentelemetry.android.export.OtlpExportConfiguration;
 import io.opentelemetry.android.features.diskbuffering.DiskBufferingConfiguration;
 import io.opentelemetry.android.instrumentation.network.CurrentNetworkProvider;
 import io.opentelemetry.api.common.Attributes;
 import java.time.Duration;
 import java.util.function.Supplier;
+import javax.annotation.Nullable;
 
 /**
  * Configuration object for OpenTelemetry Android. The configuration items in this class will be
@@ -22,6 +23,8 @@ public class OtelRumConfig {
 
     private static final Duration DEFAULT_SLOW_RENDERING_DETECTION_POLL_INTERVAL =
             Duration.ofSeconds(1);
+    private static final Duration DEFAULT_NETWORK_CHANGE_DETECTION_DEBOUNCE_WINDOW =
+            Duration.ofMillis(500);
 
     private Supplier<Attributes> globalAttributesSupplier = Attributes::empty;
     private boolean includeNetworkAttributes = true;
@@ -29,7 +32,10 @@ public class OtelRumConfig {
     private boolean includeScreenAttributes = true;
     private DiskBufferingConfiguration diskBufferingConfiguration =
             DiskBufferingConfiguration.builder().build();
+    @Nullable private OtlpExportConfiguration otlpExportConfiguration;
     private boolean networkChangeMonitoringEnabled = true;
+    private Duration networkChangeDetectionDebounceWindow =
+            DEFAULT_NETWORK_CHANGE_DETECTION_DEBOUNCE_WINDOW;
     private boolean anrDetectionEnabled = true;
     private boolean slowRenderingDetectionEnabled = true;
     private Duration slowRenderingDetectionPollInterval =
@@ -91,8 +97,8 @@ public class OtelRumConfig {
     }
 
     /**
-     * Call this to disable the collection of screen attributes. See {@link
-     * ScreenAttributesSpanProcessor} for more information. Default = true.
+     * Call this to disable the collection of screen attributes, i.e. the name of the visible screen
+     * appended to every span. Default = true.
      *
      * @return this
      */
@@ -121,6 +127,24 @@ public class OtelRumConfig {
         return this;
     }
 
+    /** Returns the OTLP export configuration, or null when the signals are only logged. */
+    @Nullable
+    public OtlpExportConfiguration getOtlpExportConfiguration() {
+        return otlpExportConfiguration;
+    }
+
+    /**
+     * Exports the spans, logs and metrics with the built-in OTLP/HTTP exporters, instead of logging
+     * them. The exporter customizers of the OpenTelemetryRumBuilder still apply on top of them.
+     *
+     * @return this
+     */
+    public OtelRumConfig setOtlpExportConfiguration(
+            OtlpExportConfiguration otlpExportConfiguration) {
+        this.otlpExportConfiguration = otlpExportConfiguration;
+        return this;
+    }
+
     /**
      * Sets the configuration so that network change monitoring, which is enabled by default, will
      * not be started.
@@ -135,6 +159,26 @@ public class OtelRumConfig {
         return networkChangeMonitoringEnabled;
     }
 
+    /**
+     * Returns the Duration for which network callbacks are coalesced before the current network is
+     * detected again. Default = 500ms.
+     */
+    public Duration getNetworkChangeDetectionDebounceWindow() {
+        return networkChangeDetectionDebounceWindow;
+    }
+
+    /**
+     * Call this to configure how long network callbacks are coalesced before the current network
+     * is detected again. Connectivity changes tend to come in bursts, and each detection queries
+     * several system services.
+     *
+     * @return this
+     */
+    public OtelRumConfig setNetworkChangeDetectionDebounceWindow(Duration duration) {
+        networkChangeDetectionDebounceWindow = duration;
+        return this;
+    }
+
     /** Returns true if ANR (application not responding) detection is enabled (default = true). */
     public boolean isAnrDetectionEnabled() {
         return anrDetectionEnabled;
@@ -8,31 +8,56 @@ package io.opentelemetry.android.export;
 import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
-/** An exporter that will filter (not export) spans that fail a predicate. */
+/**
+ * An exporter that will filter (not export) spans that fail a predicate. When no span of a batch
+ * is rejected, the batch is passed to the delegate as it is.
+ */
 public class FilteringSpanExporter implements SpanExporter {
 
     private final SpanExporter delegate;
 
-    private final Predicate<SpanData> spanRejecter;
+    private final SpanRejectionPlan rejectionPlan;
 
     public static FilteringSpanExporterBuilder builder(SpanExporter delegate) {
         return new FilteringSpanExporterBuilder(delegate);
     }
 
-    FilteringSpanExporter(SpanExporter delegate, Predicate<SpanData> spanRejecter) {
+    FilteringSpanExporter(SpanExporter delegate, SpanRejectionPlan rejectionPlan) {
         this.delegate = delegate;
-        this.spanRejecter = spanRejecter;
+        this.rejectionPlan = rejectionPlan;
     }
 
     @Override
     public CompletableResultCode export(Collection<SpanData> spans) {
-        List<SpanData> toExport =
-                spans.stream().filter(spanRejecter.negate()).collect(Collectors.toList());
+        if (rejectionPlan.isEmpty()) {
+            return delegate.export(spans);
+        }
+        SpanRejectionPlan.Matcher matcher = rejectionPlan.matcher();
+        int firstRejected = -1;
+        int index = 0;
+        for (SpanData span : spans) {
+            if (matcher.rejects(span)) {
+                firstRejected = index;
+                break;
+            }
+            index++;
+        }
+        if (firstRejected < 0) {
+            return delegate.export(spans);
+        }
+        // the spans before the first rejected one are kept without checking them again
+        List<SpanData> toExport = new ArrayList<>(spans.size() - 1);
+        index = 0;
+        for (SpanData span : spans) {
+            if (index < firstRejected || (index > firstRejected && !matcher.rejects(span))) {
+                toExport.add(span);
+            }
+            index++;
+        }
         return delegate.export(toExport);
     }
 
@@ -6,16 +6,25 @@
 package io.opentelemetry.android.export;
 
 import io.opentelemetry.api.common.AttributeKey;
-import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 
 public final class FilteringSpanExporterBuilder {
 
     private final SpanExporter delegate;
-    private Predicate<SpanData> predicate = x -> false;
+    // the rules are kept by kind, and compiled into a SpanRejectionPlan
+    private final Set<String> names = new HashSet<>();
+    private final List<String> nameSubstrings = new ArrayList<>();
+    private final List<Predicate<String>> namePredicates = new ArrayList<>();
+    private final Map<AttributeKey<?>, Predicate<Object>> attributePredicates = new HashMap<>();
+    private final List<Predicate<SpanData>> spanPredicates = new ArrayList<>();
 
     FilteringSpanExporterBuilder(SpanExporter spanExporter) {
         this.delegate = spanExporter;
@@ -29,7 +38,8 @@ public final class FilteringSpanExporterBuilder {
      * @return a SpanExporter
      */
     public FilteringSpanExporterBuilder rejectSpansNamed(String name) {
-        return rejecting(span -> name.equals(span.getName()));
+        names.add(name);
+        return this;
     }
 
     /**
@@ -40,7 +50,8 @@ public final class FilteringSpanExporterBuilder {
      * @return a SpanExporter
      */
     public FilteringSpanExporterBuilder rejectSpansNamed(Predicate<String> spanNamePredicate) {
-        return rejecting(span -> spanNamePredicate.test(span.getName()));
+        namePredicates.add(spanNamePredicate);
+        return this;
     }
 
     /**
@@ -51,7 +62,8 @@ public final class FilteringSpanExporterBuilder {
      * @return a SpanExporter
      */
     public FilteringSpanExporterBuilder rejectSpansWithNameContaining(String substring) {
-        return rejecting(span -> span.getName().contains(substring));
+        nameSubstrings.add(substring);
+        return this;
     }
 
     /**
@@ -62,34 +74,27 @@ public final class FilteringSpanExporterBuilder {
      * @return this
      */
     public FilteringSpanExporterBuilder rejecting(Predicate<SpanData> predicate) {
-        this.predicate = this.predicate.or(predicate);
+        spanPredicates.add(predicate);
         return this;
     }
 
     public FilteringSpanExporterBuilder rejectSpansWithAttributesMatching(
             Map<AttributeKey<?>, Predicate<?>> attrRejection) {
-        if (attrRejection.isEmpty()) {
-            return this;
+        for (Map.Entry<AttributeKey<?>, Predicate<?>> entry : attrRejection.entrySet()) {
+            Predicate<Object> valuePredicate = (Predicate<Object>) entry.getValue();
+            attributePredicates.merge(entry.getKey(), valuePredicate, Predicate::or);
         }
-        Predicate<SpanData> spanRejecter =
-                spanData -> {
-                    Attributes attributes = spanData.getAttributes();
-                    return attrRejection.entrySet().stream()
-                            .anyMatch(
-                                    e -> {
-                                        AttributeKey<?> key = e.getKey();
-                                        Predicate<? super Object> valuePredicate =
-                                                (Predicate<? super Object>) e.getValue();
-                                        Object attributeValue = attributes.get(key);
-                                        return (attributeValue != null
-                                                && valuePredicate.test(attributeValue));
-                                    });
-                };
-        this.predicate = this.predicate.or(spanRejecter);
         return this;
     }
 
     public SpanExporter build() {
-        return new FilteringSpanExporter(delegate, this.predicate);
+        return new FilteringSpanExporter(
+                delegate,
+                new SpanRejectionPlan(
+                        names,
+                        nameSubstrings,
+                        namePredicates,
+                        attributePredicates,
+                        spanPredicates));
     }
 }
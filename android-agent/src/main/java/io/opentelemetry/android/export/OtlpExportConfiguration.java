@@ -0,0 +1,146 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.export;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import okhttp3.OkHttpClient;
+
+/**
+ * Configuration for exporting the spans, logs and metrics with OTLP over HTTP, in binary protobuf
+ * format. Each signal is sent to its own path of the endpoint: {@code /v1/traces}, {@code /v1/logs}
+ * and {@code /v1/metrics}.
+ */
+public final class OtlpExportConfiguration {
+    private final String endpoint;
+    private final Map<String, String> headers;
+    private final Duration timeout;
+    private final boolean compressionEnabled;
+    private final int compressionThreshold;
+    @Nullable private final OkHttpClient okHttpClient;
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    private OtlpExportConfiguration(Builder builder) {
+        this.endpoint = builder.endpoint;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(builder.headers));
+        this.timeout = builder.timeout;
+        this.compressionEnabled = builder.compressionEnabled;
+        this.compressionThreshold = builder.compressionThreshold;
+        this.okHttpClient = builder.okHttpClient;
+    }
+
+    /**
+     * Returns a builder for sending the signals to the given endpoint, such as {@code
+     * https://collector.example.com:4318}.
+     */
+    public static Builder builder(String endpoint) {
+        requireNonNull(endpoint, "endpoint");
+        return new Builder(endpoint.endsWith("/") ? endpoint : endpoint + "/");
+    }
+
+    /** Returns the endpoint, always ending with a slash. */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /** Returns the size from which requests are compressed, in bytes. */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /** Returns the client to send the requests with, or null to use {@code HttpURLConnection}. */
+    @Nullable
+    public OkHttpClient getOkHttpClient() {
+        return okHttpClient;
+    }
+
+    public static final class Builder {
+        private final String endpoint;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private Duration timeout = DEFAULT_TIMEOUT;
+        private boolean compressionEnabled;
+        private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+        @Nullable private OkHttpClient okHttpClient;
+
+        private Builder(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        /** Adds a header to every request, such as the authorization one. */
+        public Builder addHeader(String name, String value) {
+            headers.put(requireNonNull(name, "name"), requireNonNull(value, "value"));
+            return this;
+        }
+
+        /**
+         * Sets how long to wait for the connection, and then for the response, of each request.
+         * When sending with an {@link OkHttpClient}, it bounds the whole call instead. Default =
+         * 10s.
+         */
+        public Builder setTimeout(Duration timeout) {
+            this.timeout = requireNonNull(timeout, "timeout");
+            return this;
+        }
+
+        /**
+         * Compresses the requests with gzip once they reach the compression threshold. On low RAM
+         * devices, which also have the slowest CPUs, the fastest compression level is used. When
+         * disk buffering stores the batches with gzip, they are sent as they were stored. Disabled
+         * by default.
+         */
+        public Builder setCompressionEnabled(boolean compressionEnabled) {
+            this.compressionEnabled = compressionEnabled;
+            return this;
+        }
+
+        /**
+         * Sets the size from which requests are compressed, in bytes. Smaller requests are sent as
+         * they are, as compressing them would save few bytes for the CPU time. Default = 1 KiB.
+         */
+        public Builder setCompressionThreshold(int compressionThreshold) {
+            if (compressionThreshold < 0) {
+                throw new IllegalArgumentException(
+                        "Invalid compression threshold: " + compressionThreshold);
+            }
+            this.compressionThreshold = compressionThreshold;
+            return this;
+        }
+
+        /**
+         * Sends the requests with the given client, usually the app's own one, so that they share
+         * its connection pool and HTTP/2 connections instead of opening sockets and TLS sessions of
+         * their own. The client is used as is: its interceptors, such as authentication ones, apply
+         * to the requests too, while the OkHttp instrumentation leaves them untraced. Requires
+         * OkHttp 3.12 or later. By default, the requests are sent with {@code HttpURLConnection}.
+         */
+        public Builder setOkHttpClient(OkHttpClient okHttpClient) {
+            this.okHttpClient = requireNonNull(okHttpClient, "okHttpClient");
+            return this;
+        }
+
+        public OtlpExportConfiguration build() {
+            return new OtlpExportConfiguration(this);
+        }
+    }
+}
@@ -7,7 +7,9 @@ package io.opentelemetry.android.export;
 
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -21,7 +23,7 @@ import java.util.function.Predicate;
 public final class SpanDataModifier {
 
     private final SpanExporter delegate;
-    private Predicate<String> rejectSpanNamesPredicate = spanName -> false;
+    private final List<Predicate<String>> rejectSpanNamesPredicates = new ArrayList<>();
     private final Map<AttributeKey<?>, Predicate<?>> rejectSpanAttributesPredicates =
             new HashMap<>();
     private final Map<AttributeKey<?>, Function<?, ?>> spanAttributeReplacements = new HashMap<>();
@@ -44,7 +46,7 @@ public final class SpanDataModifier {
      * @return {@code this}.
      */
     public SpanDataModifier rejectSpansByName(Predicate<String> spanNamePredicate) {
-        rejectSpanNamesPredicate = rejectSpanNamesPredicate.or(spanNamePredicate);
+        rejectSpanNamesPredicates.add(spanNamePredicate);
         return this;
     }
 
@@ -134,9 +136,12 @@ public final class SpanDataModifier {
                     new AttributeModifyingSpanExporter(
                             delegate, new HashMap<>(spanAttributeReplacements));
         }
-        return FilteringSpanExporter.builder(modifier)
-                .rejectSpansWithAttributesMatching(new HashMap<>(rejectSpanAttributesPredicates))
-                .rejectSpansNamed(rejectSpanNamesPredicate)
-                .build();
+        FilteringSpanExporterBuilder filter =
+                FilteringSpanExporter.builder(modifier)
+                        .rejectSpansWithAttributesMatching(rejectSpanAttributesPredicates);
+        for (Predicate<String> spanNamePredicate : rejectSpanNamesPredicates) {
+            filter.rejectSpansNamed(spanNamePredicate);
+        }
+        return filter.build();
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.export;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * The rejection rules of a {@link FilteringSpanExporter}, compiled by kind. Exact span names are
+ * looked up in a set, and the attribute rules are looked up by the keys that each span has, so
+ * that checking a span doesn't run every rule against it.
+ */
+final class SpanRejectionPlan {
+
+    private final Set<String> names;
+    private final List<String> nameSubstrings;
+    private final List<Predicate<String>> namePredicates;
+    private final Map<AttributeKey<?>, Predicate<Object>> attributePredicates;
+    private final List<Predicate<SpanData>> spanPredicates;
+
+    SpanRejectionPlan(
+            Collection<String> names,
+            Collection<String> nameSubstrings,
+            Collection<Predicate<String>> namePredicates,
+            Map<AttributeKey<?>, Predicate<Object>> attributePredicates,
+            Collection<Predicate<SpanData>> spanPredicates) {
+        this.names = new HashSet<>(names);
+        this.nameSubstrings = new ArrayList<>(nameSubstrings);
+        this.namePredicates = new ArrayList<>(namePredicates);
+        this.attributePredicates = new HashMap<>(attributePredicates);
+        this.spanPredicates = new ArrayList<>(spanPredicates);
+    }
+
+    boolean isEmpty() {
+        return names.isEmpty()
+                && nameSubstrings.isEmpty()
+                && namePredicates.isEmpty()
+                && attributePredicates.isEmpty()
+                && spanPredicates.isEmpty();
+    }
+
+    /** Returns a matcher for a single batch, as it keeps the state of the span being checked. */
+    Matcher matcher() {
+        return new Matcher();
+    }
+
+    final class Matcher implements BiConsumer<AttributeKey<?>, Object> {
+        private boolean attributeMatched;
+
+        private Matcher() {}
+
+        boolean rejects(SpanData span) {
+            String name = span.getName();
+            if (!names.isEmpty() && names.contains(name)) {
+                return true;
+            }
+            // indexed loops, so that checking a span doesn't allocate iterators
+            for (int i = 0; i < nameSubstrings.size(); i++) {
+                if (name.contains(nameSubstrings.get(i))) {
+                    return true;
+                }
+            }
+            for (int i = 0; i < namePredicates.size(); i++) {
+                if (namePredicates.get(i).test(name)) {
+                    return true;
+                }
+            }
+            if (!attributePredicates.isEmpty()) {
+                Attributes attributes = span.getAttributes();
+                if (!attributes.isEmpty()) {
+                    attributeMatched = false;
+                    attributes.forEach(this);
+                    if (attributeMatched) {
+                        return true;
+                    }
+                }
+            }
+            for (int i = 0; i < spanPredicates.size(); i++) {
+                if (spanPredicates.get(i).test(span)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void accept(AttributeKey<?> key, Object value) {
+            if (attributeMatched) {
+                return;
+            }
+            Predicate<Object> predicate = attributePredicates.get(key);
+            if (predicate != null && predicate.test(value)) {
+                attributeMatched = true;
+            }
+        }
+    }
+}
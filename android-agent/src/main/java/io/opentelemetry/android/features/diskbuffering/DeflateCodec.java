@@ -0,0 +1,91 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.features.diskbuffering;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compresses the stored batches with deflate, in the zlib format.
+ *
+ * <p>Batches that were stored without compression are still read back: they are told apart by the
+ * first byte of the zlib header, which an uncompressed batch never starts with.
+ */
+public final class DeflateCodec implements DiskBufferingCodec {
+
+    // CMF byte of a zlib stream using deflate with a 32K window, the only one Deflater writes
+    private static final int ZLIB_HEADER_FIRST_BYTE = 0x78;
+
+    private final int level;
+
+    /** Creates a codec using the default compression level. */
+    public static DeflateCodec create() {
+        return new DeflateCodec(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a codec using the given compression level, from {@link Deflater#BEST_SPEED} to
+     * {@link Deflater#BEST_COMPRESSION}.
+     */
+    public static DeflateCodec create(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        return new DeflateCodec(level);
+    }
+
+    private DeflateCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public OutputStream encode(OutputStream output) {
+        Deflater deflater = new Deflater(level);
+        return new DeflaterOutputStream(output, deflater) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // the native memory of a deflater passed in isn't released on close
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    @Override
+    public InputStream decode(InputStream input) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(input, 1);
+        int firstByte = pushback.read();
+        if (firstByte == -1) {
+            return pushback;
+        }
+        pushback.unread(firstByte);
+        if (firstByte != ZLIB_HEADER_FIRST_BYTE) {
+            // stored before compression was enabled
+            return pushback;
+        }
+        Inflater inflater = new Inflater();
+        return new InflaterInputStream(pushback, inflater) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.features.diskbuffering;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Encodes the batches of signals before they are written to disk, and decodes them when they are
+ * read back. Since the cache size limits apply to the encoded batches, a compressing codec allows
+ * to keep more signals within the same amount of disk space.
+ *
+ * @see DeflateCodec
+ * @see GzipCodec
+ */
+public interface DiskBufferingCodec {
+
+    /** Stores the batches as they are. */
+    DiskBufferingCodec NONE =
+            new DiskBufferingCodec() {
+                @Override
+                public OutputStream encode(OutputStream output) {
+                    return output;
+                }
+
+                @Override
+                public InputStream decode(InputStream input) {
+                    return input;
+                }
+            };
+
+    /**
+     * Wraps the stream a single batch is written to. The returned stream is closed once the whole
+     * batch has been written.
+     */
+    OutputStream encode(OutputStream output) throws IOException;
+
+    /**
+     * Wraps the stream a single stored batch is read from. The returned stream is closed once the
+     * whole batch has been read.
+     */
+    InputStream decode(InputStream input) throws IOException;
+}
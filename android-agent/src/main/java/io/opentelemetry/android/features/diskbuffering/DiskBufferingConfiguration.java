@@ -14,13 +14,29 @@ public final class DiskBufferingConfiguration {
     private final boolean enabled;
     private final int maxCacheSize;
     private final ExportScheduleHandler exportScheduleHandler;
+    private final DiskBufferingCodec codec;
+    private final boolean memoryMappedStorageEnabled;
+    private final int maxExportBatchSize;
+    private final int maxExportBatchBytes;
+    private final DiskBufferingPriorityRules priorityRules;
+    private final boolean exportBatchIdEnabled;
+    private final boolean writeBehindEnabled;
     private static final int DEFAULT_MAX_CACHE_SIZE = 60 * 1024 * 1024;
+    private static final int DEFAULT_MAX_EXPORT_BATCH_SIZE = 512;
+    private static final int DEFAULT_MAX_EXPORT_BATCH_BYTES = 256 * 1024;
     private static final int MAX_FILE_SIZE = 1024 * 1024;
 
     private DiskBufferingConfiguration(Builder builder) {
         this.enabled = builder.enabled;
         this.maxCacheSize = builder.maxCacheSize;
         this.exportScheduleHandler = builder.exportScheduleHandler;
+        this.codec = builder.codec;
+        this.memoryMappedStorageEnabled = builder.memoryMappedStorageEnabled;
+        this.maxExportBatchSize = builder.maxExportBatchSize;
+        this.maxExportBatchBytes = builder.maxExportBatchBytes;
+        this.priorityRules = builder.priorityRules;
+        this.exportBatchIdEnabled = builder.exportBatchIdEnabled;
+        this.writeBehindEnabled = builder.writeBehindEnabled;
     }
 
     public static Builder builder() {
@@ -43,11 +59,46 @@ public final class DiskBufferingConfiguration {
         return exportScheduleHandler;
     }
 
+    public DiskBufferingCodec getCodec() {
+        return codec;
+    }
+
+    public boolean isMemoryMappedStorageEnabled() {
+        return memoryMappedStorageEnabled;
+    }
+
+    public int getMaxExportBatchSize() {
+        return maxExportBatchSize;
+    }
+
+    public int getMaxExportBatchBytes() {
+        return maxExportBatchBytes;
+    }
+
+    public DiskBufferingPriorityRules getPriorityRules() {
+        return priorityRules;
+    }
+
+    public boolean isExportBatchIdEnabled() {
+        return exportBatchIdEnabled;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
     public static final class Builder {
         private boolean enabled;
         private int maxCacheSize;
         private ExportScheduleHandler exportScheduleHandler =
                 new DefaultExportScheduleHandler(new DefaultExportScheduler());
+        private DiskBufferingCodec codec = GzipCodec.create();
+        private boolean memoryMappedStorageEnabled;
+        private int maxExportBatchSize = DEFAULT_MAX_EXPORT_BATCH_SIZE;
+        private int maxExportBatchBytes = DEFAULT_MAX_EXPORT_BATCH_BYTES;
+        private DiskBufferingPriorityRules priorityRules = DiskBufferingPriorityRules.getDefault();
+        private boolean exportBatchIdEnabled;
+        private boolean writeBehindEnabled;
 
         private Builder(boolean enabled, int maxCacheSize) {
             this.enabled = enabled;
@@ -79,6 +130,89 @@ public final class DiskBufferingConfiguration {
             return this;
         }
 
+        /**
+         * Sets the codec used to encode the batches of signals stored in disk. Batches are
+         * compressed with {@link GzipCodec} by default; use {@link DiskBufferingCodec#NONE} to
+         * store them as they are.
+         */
+        public Builder setCodec(DiskBufferingCodec codec) {
+            this.codec = codec;
+            return this;
+        }
+
+        /**
+         * Stores the signals in append-only, memory-mapped segment files instead of one file per
+         * batch. Segments are written and read in place, without the temp file copy made when
+         * reading a file back, and are recovered after a crash. Disabled by default.
+         *
+         * <p>Only the memory-mapped storage merges stored batches into larger exports, stores the
+         * signals by priority, and checkpoints its exports, so that an export that succeeded right
+         * before the app's process died isn't sent again. With the default storage, each stored
+         * batch is exported on its own and can be sent again in that case.
+         */
+        public Builder setMemoryMappedStorageEnabled(boolean memoryMappedStorageEnabled) {
+            this.memoryMappedStorageEnabled = memoryMappedStorageEnabled;
+            return this;
+        }
+
+        /**
+         * Sets how many signals can be sent in a single export when reading them back from disk.
+         * Stored batches are merged into one export until this amount or {@link
+         * #setMaxExportBatchBytes(int)} is reached, and are only removed from disk once that
+         * export succeeds. Only applies to the memory-mapped storage, see {@link
+         * #setMemoryMappedStorageEnabled(boolean)}, where it defaults to 512.
+         */
+        public Builder setMaxExportBatchSize(int maxExportBatchSize) {
+            this.maxExportBatchSize = maxExportBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets how many stored bytes can be merged into a single export when reading signals back
+         * from disk. The stored size is the encoded one, see {@link #setCodec(DiskBufferingCodec)}.
+         * Only applies to the memory-mapped storage, see {@link
+         * #setMemoryMappedStorageEnabled(boolean)}, where it defaults to 256 KiB.
+         */
+        public Builder setMaxExportBatchBytes(int maxExportBatchBytes) {
+            this.maxExportBatchBytes = maxExportBatchBytes;
+            return this;
+        }
+
+        /**
+         * Sets the rules that assign a priority to the stored signals. When the cache is full,
+         * lower priority signals are dropped first, and higher priority ones are exported first.
+         * Only applies to the memory-mapped storage, where {@link
+         * DiskBufferingPriorityRules#getDefault()} is used by default.
+         */
+        public Builder setPriorityRules(DiskBufferingPriorityRules priorityRules) {
+            this.priorityRules = priorityRules;
+            return this;
+        }
+
+        /**
+         * Adds an {@code export.batch_id} attribute to the spans read back from disk, which is the
+         * same each time a batch is sent again, so that the backend can drop the duplicates of an
+         * export that succeeded right before the app's process died. Only applies to the
+         * memory-mapped storage, see {@link #setMemoryMappedStorageEnabled(boolean)}, as the
+         * default storage doesn't keep track of the exports that were running. Disabled by
+         * default.
+         */
+        public Builder setExportBatchIdEnabled(boolean exportBatchIdEnabled) {
+            this.exportBatchIdEnabled = exportBatchIdEnabled;
+            return this;
+        }
+
+        /**
+         * Exports the signals right away, and only writes them to disk when that export fails or
+         * times out, while offline, or when the app goes to the background or runs low on memory.
+         * This saves the disk writes and the delay of reading the signals back while the network
+         * works. Disabled by default, where every signal is written to disk first.
+         */
+        public Builder setWriteBehindEnabled(boolean writeBehindEnabled) {
+            this.writeBehindEnabled = writeBehindEnabled;
+            return this;
+        }
+
         public DiskBufferingConfiguration build() {
             return new DiskBufferingConfiguration(this);
         }
@@ -0,0 +1,18 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.features.diskbuffering;
+
+/**
+ * The priority tier of the signals stored in disk. When the disk buffer is full, the batches of
+ * the lowest tier are dropped first, and the batches of the highest tier are exported first.
+ *
+ * @see DiskBufferingPriorityRules
+ */
+public enum DiskBufferingPriority {
+    LOW,
+    NORMAL,
+    HIGH
+}
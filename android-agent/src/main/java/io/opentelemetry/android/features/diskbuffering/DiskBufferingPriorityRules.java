@@ -0,0 +1,122 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.features.diskbuffering;
+
+import androidx.annotation.Nullable;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns a {@link DiskBufferingPriority} to the signals stored in disk, based on their
+ * instrumentation scope and, for spans, on their name and status. When several rules match a
+ * signal, the highest priority wins. Signals that match no rule are {@link
+ * DiskBufferingPriority#NORMAL}.
+ */
+public final class DiskBufferingPriorityRules {
+
+    private final Map<String, DiskBufferingPriority> scopePriorities;
+    private final Map<String, DiskBufferingPriority> spanNamePriorities;
+    private final Map<StatusCode, DiskBufferingPriority> spanStatusPriorities;
+
+    private DiskBufferingPriorityRules(Builder builder) {
+        this.scopePriorities = new HashMap<>(builder.scopePriorities);
+        this.spanNamePriorities = new HashMap<>(builder.spanNamePriorities);
+        this.spanStatusPriorities = new EnumMap<>(builder.spanStatusPriorities);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the rules used by default: ANRs, crashes and failed spans are kept over everything
+     * else, and slow rendering data is dropped first.
+     */
+    public static DiskBufferingPriorityRules getDefault() {
+        return builder()
+                .setInstrumentationScopePriority("io.opentelemetry.anr", DiskBufferingPriority.HIGH)
+                .setInstrumentationScopePriority(
+                        "io.opentelemetry.crash", DiskBufferingPriority.HIGH)
+                .setInstrumentationScopePriority(
+                        "io.opentelemetry.slow-rendering", DiskBufferingPriority.LOW)
+                .setSpanStatusPriority(StatusCode.ERROR, DiskBufferingPriority.HIGH)
+                .build();
+    }
+
+    public DiskBufferingPriority getPriority(SpanData span) {
+        DiskBufferingPriority priority = getPriority(span.getInstrumentationScopeInfo());
+        priority = max(priority, spanNamePriorities.get(span.getName()));
+        return orNormal(max(priority, spanStatusPriorities.get(span.getStatus().getStatusCode())));
+    }
+
+    public DiskBufferingPriority getPriority(LogRecordData logRecord) {
+        return orNormal(getPriority(logRecord.getInstrumentationScopeInfo()));
+    }
+
+    public DiskBufferingPriority getPriority(MetricData metric) {
+        return orNormal(getPriority(metric.getInstrumentationScopeInfo()));
+    }
+
+    @Nullable
+    private DiskBufferingPriority getPriority(InstrumentationScopeInfo scope) {
+        return scopePriorities.get(scope.getName());
+    }
+
+    @Nullable
+    private static DiskBufferingPriority max(
+            @Nullable DiskBufferingPriority first, @Nullable DiskBufferingPriority second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return first.compareTo(second) >= 0 ? first : second;
+    }
+
+    private static DiskBufferingPriority orNormal(@Nullable DiskBufferingPriority priority) {
+        return priority == null ? DiskBufferingPriority.NORMAL : priority;
+    }
+
+    public static final class Builder {
+        private final Map<String, DiskBufferingPriority> scopePriorities = new HashMap<>();
+        private final Map<String, DiskBufferingPriority> spanNamePriorities = new HashMap<>();
+        private final Map<StatusCode, DiskBufferingPriority> spanStatusPriorities =
+                new EnumMap<>(StatusCode.class);
+
+        private Builder() {}
+
+        /** Sets the priority of the spans, metrics and logs of an instrumentation scope. */
+        public Builder setInstrumentationScopePriority(
+                String scopeName, DiskBufferingPriority priority) {
+            scopePriorities.put(scopeName, priority);
+            return this;
+        }
+
+        /** Sets the priority of the spans with the given name. */
+        public Builder setSpanNamePriority(String spanName, DiskBufferingPriority priority) {
+            spanNamePriorities.put(spanName, priority);
+            return this;
+        }
+
+        /** Sets the priority of the spans with the given status. */
+        public Builder setSpanStatusPriority(
+                StatusCode statusCode, DiskBufferingPriority priority) {
+            spanStatusPriorities.put(statusCode, priority);
+            return this;
+        }
+
+        public DiskBufferingPriorityRules build() {
+            return new DiskBufferingPriorityRules(this);
+        }
+    }
+}
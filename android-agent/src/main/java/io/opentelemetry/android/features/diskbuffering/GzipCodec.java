@@ -0,0 +1,75 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.features.diskbuffering;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the stored batches with gzip. Each stored batch is then a gzip member holding an OTLP
+ * request, which the built-in OTLP exporter sends as it is, once compression is enabled in its
+ * configuration, instead of decompressing it and compressing it again.
+ *
+ * <p>Batches that were stored uncompressed, or compressed by {@link DeflateCodec}, are still read
+ * back.
+ */
+public final class GzipCodec implements DiskBufferingCodec {
+
+    // first byte of the gzip magic number, which no protobuf message nor zlib stream starts with
+    private static final int GZIP_MAGIC_FIRST_BYTE = 0x1F;
+
+    private final int level;
+
+    /** Creates a codec using the default compression level. */
+    public static GzipCodec create() {
+        return new GzipCodec(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a codec using the given compression level, from {@link Deflater#BEST_SPEED} to
+     * {@link Deflater#BEST_COMPRESSION}.
+     */
+    public static GzipCodec create(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        return new GzipCodec(level);
+    }
+
+    private GzipCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public OutputStream encode(OutputStream output) throws IOException {
+        return new GZIPOutputStream(output) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    @Override
+    public InputStream decode(InputStream input) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(input, 1);
+        int firstByte = pushback.read();
+        if (firstByte == -1) {
+            return pushback;
+        }
+        pushback.unread(firstByte);
+        if (firstByte != GZIP_MAGIC_FIRST_BYTE) {
+            // stored uncompressed, or with deflate
+            return DeflateCodec.create().decode(pushback);
+        }
+        return new GZIPInputStream(pushback);
+    }
+}
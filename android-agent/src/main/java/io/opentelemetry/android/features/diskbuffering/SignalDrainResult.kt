@@ -0,0 +1,25 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.features.diskbuffering
+
+/**
+ * The outcome of draining one kind of signal from disk, see [SignalFromDiskExporter.drain].
+ */
+class SignalDrainResult(
+    val signal: Signal,
+    /** The number of batches that were read from disk and successfully exported. */
+    val exportedBatches: Int,
+    /** The error that stopped the drain, if any. */
+    val error: Exception? = null,
+    /** Whether the drain stopped on a stored batch that was read, but couldn't be exported. */
+    val notExported: Boolean = false,
+) {
+    enum class Signal {
+        SPANS,
+        METRICS,
+        LOGS,
+    }
+}
@@ -6,10 +6,17 @@
 package io.opentelemetry.android.features.diskbuffering
 
 import androidx.annotation.WorkerThread
-import io.opentelemetry.contrib.disk.buffering.LogRecordFromDiskExporter
-import io.opentelemetry.contrib.disk.buffering.MetricFromDiskExporter
-import io.opentelemetry.contrib.disk.buffering.SpanFromDiskExporter
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal
+import io.opentelemetry.android.internal.features.persistence.DiskBufferingMetrics
+import io.opentelemetry.android.internal.features.persistence.DiskBufferingMetrics.ExportResult
+import io.opentelemetry.android.internal.features.persistence.StoredBatchReader
+import io.opentelemetry.android.internal.services.AppWorkerManager
+import io.opentelemetry.contrib.disk.buffering.FromDiskExporter
 import java.io.IOException
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Future
 import java.util.concurrent.TimeUnit
 
 /**
@@ -18,11 +25,18 @@ import java.util.concurrent.TimeUnit
 class SignalFromDiskExporter
     @JvmOverloads
     internal constructor(
-        private val spanFromDiskExporter: SpanFromDiskExporter?,
-        private val metricFromDiskExporter: MetricFromDiskExporter?,
-        private val logRecordFromDiskExporter: LogRecordFromDiskExporter?,
+        private val spanFromDiskExporter: FromDiskExporter?,
+        private val metricFromDiskExporter: FromDiskExporter?,
+        private val logRecordFromDiskExporter: FromDiskExporter?,
         private val exportTimeoutInMillis: Long = TimeUnit.SECONDS.toMillis(5),
+        private val drainExecutor: ExecutorService? = null,
+        private val metrics: DiskBufferingMetrics = DiskBufferingMetrics.get(),
     ) {
+        // exports block on the network, so they run on the scheduler's blocking threads
+        private val backgroundDrains: ExecutorService by lazy {
+            drainExecutor ?: AppWorkerManager.get().scheduler.forBlockingTask(DRAIN_TASK_NAME)
+        }
+
         /**
          * A batch contains all the signals that arrived in one call to [SpanDiskExporter.export]. So if
          * that function is called 5 times, then there will be 5 batches in disk. This function reads
@@ -34,10 +48,7 @@ class SignalFromDiskExporter
         @WorkerThread
         @Throws(IOException::class)
         fun exportBatchOfSpans(): Boolean {
-            return spanFromDiskExporter?.exportStoredBatch(
-                exportTimeoutInMillis,
-                TimeUnit.MILLISECONDS,
-            ) ?: false
+            return exportBatch(Signal.SPANS, spanFromDiskExporter) == ExportResult.EXPORTED
         }
 
         /**
@@ -51,10 +62,7 @@ class SignalFromDiskExporter
         @WorkerThread
         @Throws(IOException::class)
         fun exportBatchOfMetrics(): Boolean {
-            return metricFromDiskExporter?.exportStoredBatch(
-                exportTimeoutInMillis,
-                TimeUnit.MILLISECONDS,
-            ) ?: false
+            return exportBatch(Signal.METRICS, metricFromDiskExporter) == ExportResult.EXPORTED
         }
 
         /**
@@ -68,10 +76,37 @@ class SignalFromDiskExporter
         @WorkerThread
         @Throws(IOException::class)
         fun exportBatchOfLogs(): Boolean {
-            return logRecordFromDiskExporter?.exportStoredBatch(
-                exportTimeoutInMillis,
-                TimeUnit.MILLISECONDS,
-            ) ?: false
+            return exportBatch(Signal.LOGS, logRecordFromDiskExporter) == ExportResult.EXPORTED
+        }
+
+        /**
+         * Readers that can't tell an empty disk from a failed export are assumed to have failed,
+         * see [StoredBatchReader].
+         */
+        @Throws(IOException::class)
+        private fun exportBatch(
+            signal: Signal,
+            exporter: FromDiskExporter?,
+        ): ExportResult {
+            if (exporter == null) {
+                return ExportResult.EMPTY
+            }
+            val start = System.nanoTime()
+            var result = ExportResult.ERROR
+            try {
+                val exported =
+                    exporter.exportStoredBatch(exportTimeoutInMillis, TimeUnit.MILLISECONDS)
+                result =
+                    when {
+                        exported -> ExportResult.EXPORTED
+                        exporter is StoredBatchReader && !exporter.lastBatchNotExported() ->
+                            ExportResult.EMPTY
+                        else -> ExportResult.NOT_EXPORTED
+                    }
+                return result
+            } finally {
+                metrics.recordExport(signal, result, System.nanoTime() - start)
+            }
         }
 
         /**
@@ -93,7 +128,78 @@ class SignalFromDiskExporter
             return atLeastOneWorked
         }
 
+        /**
+         * Exports up to [maxBatchesPerSignal] batches of each kind of signal. Each kind of signal
+         * is drained in parallel with the others, one batch at a time, so a slow or failing
+         * exporter doesn't hold up the rest: the spans are exported on the calling thread, and the
+         * metrics and logs on the shared scheduler's blocking threads.
+         *
+         * @return The outcome for each kind of signal that has an exporter.
+         */
+        @WorkerThread
+        fun drain(maxBatchesPerSignal: Int): List<SignalDrainResult> {
+            val drains = mutableListOf<Pair<Signal, FromDiskExporter>>()
+            spanFromDiskExporter?.let { drains.add(Signal.SPANS to it) }
+            metricFromDiskExporter?.let { drains.add(Signal.METRICS to it) }
+            logRecordFromDiskExporter?.let { drains.add(Signal.LOGS to it) }
+            if (drains.isEmpty()) {
+                return emptyList()
+            }
+            val pending: List<Pair<Signal, Future<SignalDrainResult>>> =
+                drains.drop(1).map { (signal, exporter) ->
+                    signal to
+                        backgroundDrains.submit(
+                            Callable { drain(signal, exporter, maxBatchesPerSignal) },
+                        )
+                }
+            val (firstSignal, firstExporter) = drains[0]
+            val results = mutableListOf(drain(firstSignal, firstExporter, maxBatchesPerSignal))
+            for ((signal, future) in pending) {
+                results.add(await(signal, future))
+            }
+            return results
+        }
+
+        private fun drain(
+            signal: Signal,
+            exporter: FromDiskExporter,
+            maxBatches: Int,
+        ): SignalDrainResult {
+            var exportedBatches = 0
+            try {
+                while (exportedBatches < maxBatches) {
+                    when (exportBatch(signal, exporter)) {
+                        ExportResult.EXPORTED -> exportedBatches++
+                        ExportResult.NOT_EXPORTED ->
+                            return SignalDrainResult(signal, exportedBatches, notExported = true)
+                        else -> break
+                    }
+                }
+            } catch (e: IOException) {
+                return SignalDrainResult(signal, exportedBatches, e)
+            }
+            return SignalDrainResult(signal, exportedBatches)
+        }
+
+        private fun await(
+            signal: Signal,
+            future: Future<SignalDrainResult>,
+        ): SignalDrainResult {
+            return try {
+                future.get()
+            } catch (e: ExecutionException) {
+                SignalDrainResult(signal, 0, e.cause as? Exception ?: e)
+            } catch (e: InterruptedException) {
+                future.cancel(true)
+                Thread.currentThread().interrupt()
+                SignalDrainResult(signal, 0, e)
+            }
+        }
+
         companion object {
+            private const val DRAIN_TASK_NAME = "disk-drain"
+
+            @Volatile
             private var instance: SignalFromDiskExporter? = null
 
             @JvmStatic
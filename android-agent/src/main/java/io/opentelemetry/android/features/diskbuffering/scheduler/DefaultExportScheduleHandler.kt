@@ -19,4 +19,11 @@ class DefaultExportScheduleHandler(private val exportScheduler: DefaultExportSch
                 .enqueue(exportScheduler)
         }
     }
+
+    override fun disable() {
+        if (enabled.getAndSet(false)) {
+            AppWorkerManager.get().getService(PeriodicWorkAppWorker::class.java)
+                .cancel(exportScheduler)
+        }
+    }
 }
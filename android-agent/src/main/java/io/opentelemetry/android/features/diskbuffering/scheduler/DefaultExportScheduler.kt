@@ -8,32 +8,90 @@ package io.opentelemetry.android.features.diskbuffering.scheduler
 import android.util.Log
 import io.opentelemetry.android.common.RumConstants.OTEL_RUM_LOG_TAG
 import io.opentelemetry.android.features.diskbuffering.SignalFromDiskExporter
+import io.opentelemetry.android.internal.features.persistence.DiskBufferingMetrics
+import io.opentelemetry.android.internal.features.persistence.DiskBufferingMetrics.RunResult
 import io.opentelemetry.android.internal.services.periodicwork.PeriodicRunnable
-import java.io.IOException
 import java.util.concurrent.TimeUnit
 
-class DefaultExportScheduler : PeriodicRunnable() {
-    companion object {
-        private val DELAY_BEFORE_NEXT_EXPORT_IN_MILLIS = TimeUnit.SECONDS.toMillis(10)
-    }
+/**
+ * Exports the signals stored in disk a few batches of each kind at a time, adapting the pace to
+ * the [ExportConditions]: nothing is read while offline, a large backlog on an unmetered network
+ * is drained faster, and metered networks get fewer batches less often. Failed exports back off
+ * exponentially.
+ */
+class DefaultExportScheduler
+    @JvmOverloads
+    constructor(
+        private val metrics: DiskBufferingMetrics = DiskBufferingMetrics.get(),
+    ) : PeriodicRunnable() {
+        companion object {
+            private val DELAY_BEFORE_NEXT_EXPORT_IN_MILLIS = TimeUnit.SECONDS.toMillis(10)
+            private val DELAY_WHILE_DRAINING_IN_MILLIS = TimeUnit.SECONDS.toMillis(2)
+            private val DELAY_WHEN_METERED_IN_MILLIS = TimeUnit.SECONDS.toMillis(60)
+            private const val MAX_BATCHES_PER_RUN = 10
+            private const val MAX_BATCHES_PER_RUN_WHILE_DRAINING = 20
+            private const val MAX_BATCHES_PER_RUN_WHEN_METERED = 2
+
+            // above this size, the backlog is drained in short, frequent runs
+            private const val LARGE_BACKLOG_IN_BYTES = 1024L * 1024L
+        }
+
+        private var delayBeforeNextExportInMillis = DELAY_BEFORE_NEXT_EXPORT_IN_MILLIS
 
-    override fun onRun() {
-        val exporter = SignalFromDiskExporter.get() ?: return
+        override fun onRun() {
+            val exporter = SignalFromDiskExporter.get() ?: return
+            val conditions = ExportConditions.get()
 
-        try {
-            do {
-                val didExport = exporter.exportBatchOfEach()
-            } while (didExport)
-        } catch (e: IOException) {
-            Log.e(OTEL_RUM_LOG_TAG, "Error while exporting signals from disk.", e)
+            if (!conditions.isOnline()) {
+                // nothing to do until the network is back, which is checked on the next run
+                delayBeforeNextExportInMillis = DELAY_BEFORE_NEXT_EXPORT_IN_MILLIS
+                metrics.recordSchedulerRun(RunResult.OFFLINE)
+                return
+            }
+            val backlogSize = conditions.getBacklogSizeInBytes()
+            val maxBatches: Int
+            if (conditions.isMetered()) {
+                maxBatches = MAX_BATCHES_PER_RUN_WHEN_METERED
+                delayBeforeNextExportInMillis = DELAY_WHEN_METERED_IN_MILLIS
+            } else if (backlogSize > LARGE_BACKLOG_IN_BYTES) {
+                maxBatches = MAX_BATCHES_PER_RUN_WHILE_DRAINING
+                delayBeforeNextExportInMillis = DELAY_WHILE_DRAINING_IN_MILLIS
+            } else {
+                maxBatches = MAX_BATCHES_PER_RUN
+                delayBeforeNextExportInMillis = DELAY_BEFORE_NEXT_EXPORT_IN_MILLIS
+            }
+
+            var exportedBatches = 0
+            var failed = false
+            for (result in exporter.drain(maxBatches)) {
+                exportedBatches += result.exportedBatches
+                if (result.error != null) {
+                    Log.e(
+                        OTEL_RUM_LOG_TAG,
+                        "Error while exporting ${result.signal} from disk.",
+                        result.error,
+                    )
+                    failed = true
+                } else if (result.notExported) {
+                    failed = true
+                }
+            }
+            if (failed) {
+                // a stored batch was read, but the exporters didn't succeed
+                metrics.recordSchedulerRun(RunResult.FAILED)
+                backOff()
+            } else if (exportedBatches > 0) {
+                metrics.recordSchedulerRun(RunResult.EXPORTED)
+            } else {
+                metrics.recordSchedulerRun(RunResult.IDLE)
+            }
         }
-    }
 
-    override fun shouldStopRunning(): Boolean {
-        return SignalFromDiskExporter.get() == null
-    }
+        override fun shouldStopRunning(): Boolean {
+            return SignalFromDiskExporter.get() == null
+        }
 
-    override fun minimumDelayUntilNextRunInMillis(): Long {
-        return DELAY_BEFORE_NEXT_EXPORT_IN_MILLIS
+        override fun minimumDelayUntilNextRunInMillis(): Long {
+            return delayBeforeNextExportInMillis
+        }
     }
-}
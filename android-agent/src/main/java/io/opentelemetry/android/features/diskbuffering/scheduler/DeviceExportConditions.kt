@@ -0,0 +1,33 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.features.diskbuffering.scheduler
+
+import io.opentelemetry.android.instrumentation.network.CurrentNetworkProvider
+
+/**
+ * Reads the export conditions from the last known network, and the backlog size from the disk
+ * buffer. When no [CurrentNetworkProvider] is available the device is assumed to be online and
+ * unmetered.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+class DeviceExportConditions(
+    private val currentNetworkProvider: CurrentNetworkProvider?,
+    private val backlogSize: () -> Long,
+) : ExportConditions {
+    override fun isOnline(): Boolean {
+        return currentNetworkProvider?.currentNetwork?.isOnline ?: true
+    }
+
+    override fun isMetered(): Boolean {
+        return currentNetworkProvider?.currentNetwork?.isCellular ?: false
+    }
+
+    override fun getBacklogSizeInBytes(): Long {
+        return backlogSize()
+    }
+}
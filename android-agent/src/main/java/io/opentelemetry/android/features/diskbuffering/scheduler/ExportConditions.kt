@@ -0,0 +1,56 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.features.diskbuffering.scheduler
+
+/**
+ * The state of the device that [DefaultExportScheduler] adapts its export pace to.
+ */
+interface ExportConditions {
+    /**
+     * Returns FALSE when there's no network available to export to.
+     */
+    fun isOnline(): Boolean
+
+    /**
+     * Returns TRUE when the data sent is likely to be billed by the byte, such as on cellular
+     * networks.
+     */
+    fun isMetered(): Boolean
+
+    /**
+     * Returns the amount of bytes stored in disk waiting to be exported, or 0 if unknown.
+     */
+    fun getBacklogSizeInBytes(): Long
+
+    companion object {
+        private val DEFAULT =
+            object : ExportConditions {
+                override fun isOnline(): Boolean = true
+
+                override fun isMetered(): Boolean = false
+
+                override fun getBacklogSizeInBytes(): Long = 0
+            }
+
+        @Volatile
+        private var instance: ExportConditions = DEFAULT
+
+        @JvmStatic
+        fun get(): ExportConditions {
+            return instance
+        }
+
+        @JvmStatic
+        fun set(exportConditions: ExportConditions) {
+            instance = exportConditions
+        }
+
+        @JvmStatic
+        fun resetForTesting() {
+            instance = DEFAULT
+        }
+    }
+}
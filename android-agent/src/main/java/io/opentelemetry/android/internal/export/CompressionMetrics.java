@@ -0,0 +1,170 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts what the compression of the OTLP requests costs and saves: the requests compressed, sent
+ * uncompressed for being under the threshold, or sent as they were stored, the bytes before and
+ * after compression, and the CPU time spent compressing. As with {@link
+ * io.opentelemetry.android.internal.features.persistence.DiskBufferingMetrics}, recording only
+ * increments counters, which are read when the metrics are collected.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+public final class CompressionMetrics {
+
+    /** The instrumentation scope of the compression metrics. */
+    public static final String INSTRUMENTATION_SCOPE = "io.opentelemetry.android.export";
+
+    static final AttributeKey<String> SIGNAL_KEY = stringKey("signal");
+    static final AttributeKey<String> RESULT_KEY = stringKey("result");
+
+    /** How a request was sent. */
+    public enum RequestResult {
+        COMPRESSED,
+        UNCOMPRESSED,
+        PRECOMPRESSED
+    }
+
+    private static volatile CompressionMetrics instance = new CompressionMetrics();
+
+    public static CompressionMetrics get() {
+        return instance;
+    }
+
+    // visible for tests
+    public static void resetForTesting() {
+        instance = new CompressionMetrics();
+    }
+
+    private final Map<Signal, SignalCounters> signals = new EnumMap<>(Signal.class);
+
+    // visible for tests
+    CompressionMetrics() {
+        for (Signal signal : Signal.values()) {
+            signals.put(signal, new SignalCounters(signal));
+        }
+    }
+
+    /** Records a request sent with compression enabled. */
+    public void recordRequest(Signal signal, RequestResult result) {
+        signals.get(signal).requests.get(result).incrementAndGet();
+    }
+
+    /**
+     * Records a payload compressed before being sent, with its sizes and the CPU time spent by the
+     * compressing thread.
+     */
+    public void recordCompression(
+            Signal signal, long uncompressedBytes, long compressedBytes, long cpuNanos) {
+        SignalCounters counters = signals.get(signal);
+        counters.uncompressedBytes.addAndGet(uncompressedBytes);
+        counters.compressedBytes.addAndGet(compressedBytes);
+        counters.cpuNanos.addAndGet(cpuNanos);
+    }
+
+    public void registerMetrics(Meter meter) {
+        meter.counterBuilder("otel.android.export.compression.requests")
+                .setDescription(
+                        "Number of requests sent with compression enabled, either compressed,"
+                                + " uncompressed for being under the threshold, or precompressed"
+                                + " when sent as they were stored on disk")
+                .setUnit("{request}")
+                .buildWithCallback(
+                        measurement -> {
+                            for (SignalCounters counters : signals.values()) {
+                                for (RequestResult result : RequestResult.values()) {
+                                    measurement.record(
+                                            counters.requests.get(result).get(),
+                                            counters.requestAttributes.get(result));
+                                }
+                            }
+                        });
+        meter.counterBuilder("otel.android.export.compression.uncompressed.size")
+                .setDescription("Bytes of the payloads compressed, before compression")
+                .setUnit("By")
+                .buildWithCallback(
+                        measurement -> {
+                            for (SignalCounters counters : signals.values()) {
+                                measurement.record(
+                                        counters.uncompressedBytes.get(), counters.attributes);
+                            }
+                        });
+        meter.counterBuilder("otel.android.export.compression.compressed.size")
+                .setDescription("Bytes of the payloads compressed, after compression")
+                .setUnit("By")
+                .buildWithCallback(
+                        measurement -> {
+                            for (SignalCounters counters : signals.values()) {
+                                measurement.record(
+                                        counters.compressedBytes.get(), counters.attributes);
+                            }
+                        });
+        meter.gaugeBuilder("otel.android.export.compression.ratio")
+                .setDescription(
+                        "Bytes of the payloads compressed so far, before compression, per byte"
+                                + " after compression")
+                .setUnit("1")
+                .buildWithCallback(
+                        measurement -> {
+                            for (SignalCounters counters : signals.values()) {
+                                long compressed = counters.compressedBytes.get();
+                                if (compressed > 0) {
+                                    measurement.record(
+                                            counters.uncompressedBytes.get() / (double) compressed,
+                                            counters.attributes);
+                                }
+                            }
+                        });
+        meter.counterBuilder("otel.android.export.compression.cpu_time")
+                .ofDoubles()
+                .setDescription("CPU time spent compressing the payloads")
+                .setUnit("ms")
+                .buildWithCallback(
+                        measurement -> {
+                            for (SignalCounters counters : signals.values()) {
+                                measurement.record(
+                                        counters.cpuNanos.get() / 1_000_000.0,
+                                        counters.attributes);
+                            }
+                        });
+    }
+
+    private static String name(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class SignalCounters {
+        private final Attributes attributes;
+        private final AtomicLong uncompressedBytes = new AtomicLong();
+        private final AtomicLong compressedBytes = new AtomicLong();
+        private final AtomicLong cpuNanos = new AtomicLong();
+        private final Map<RequestResult, AtomicLong> requests = new EnumMap<>(RequestResult.class);
+        private final Map<RequestResult, Attributes> requestAttributes =
+                new EnumMap<>(RequestResult.class);
+
+        private SignalCounters(Signal signal) {
+            this.attributes = Attributes.of(SIGNAL_KEY, name(signal));
+            for (RequestResult result : RequestResult.values()) {
+                requests.put(result, new AtomicLong());
+                requestAttributes.put(
+                        result, Attributes.of(SIGNAL_KEY, name(signal), RESULT_KEY, name(result)));
+            }
+        }
+    }
+}
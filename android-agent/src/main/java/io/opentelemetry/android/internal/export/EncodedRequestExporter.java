@@ -0,0 +1,29 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import java.util.Collection;
+
+/**
+ * An exporter that can also send OTLP requests which were encoded beforehand, such as the batches
+ * stored by the disk buffer, without reading the signals out of them first.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+public interface EncodedRequestExporter {
+
+    /** Returns whether the requests passed to {@link #exportEncoded(Collection)} can be gzipped. */
+    boolean acceptsGzip();
+
+    /**
+     * Exports the requests, which all hold signals of the exporter's kind, merged into a single
+     * one. Each of them is either the protobuf encoded request, or, when {@link #acceptsGzip()},
+     * that request compressed as a single gzip member.
+     */
+    CompletableResultCode exportEncoded(Collection<byte[]> requests);
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import android.os.Debug;
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal;
+import io.opentelemetry.android.internal.export.CompressionMetrics.RequestResult;
+import java.util.Collection;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import javax.annotation.Nullable;
+
+/**
+ * Compresses the requests with gzip once they reach a size threshold. Under it, the bytes saved
+ * aren't worth the CPU time, nor the 18 bytes of the gzip header and trailer. The deflater and the
+ * output buffer are reused across requests, so that compressing doesn't allocate.
+ *
+ * <p>Gzip members can be concatenated into a single stream, which lets requests that were
+ * compressed beforehand, such as the batches stored on disk, be merged into one without
+ * decompressing them.
+ *
+ * <p>Not thread safe, each export has its own.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+final class GzipCompressor {
+
+    private static final byte[] HEADER = {0x1F, (byte) 0x8B, 8, 0, 0, 0, 0, 0, 0, 0};
+
+    private final Signal signal;
+    private final int threshold;
+    private final CompressionMetrics metrics;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] chunk = new byte[8 * 1024];
+    private final ProtoWriter output;
+
+    GzipCompressor(
+            Signal signal,
+            int threshold,
+            int level,
+            CompressionMetrics metrics,
+            int initialCapacity,
+            int maxRetainedCapacity) {
+        this.signal = signal;
+        this.threshold = threshold;
+        this.metrics = metrics;
+        // raw deflate, the gzip header and trailer are written around it
+        this.deflater = new Deflater(level, true);
+        this.output = new ProtoWriter(initialCapacity, maxRetainedCapacity);
+    }
+
+    static boolean isGzip(byte[] bytes) {
+        return bytes.length > 1 && bytes[0] == HEADER[0] && bytes[1] == HEADER[1];
+    }
+
+    /**
+     * Compresses the request if it reaches the threshold.
+     *
+     * @return the compressed request, valid until {@link #reset()}, or null when it's too small.
+     */
+    @Nullable
+    ProtoWriter compressIfLarge(ProtoWriter request) {
+        if (request.size() < threshold) {
+            metrics.recordRequest(signal, RequestResult.UNCOMPRESSED);
+            return null;
+        }
+        compress(request.buffer(), 0, request.size());
+        metrics.recordRequest(signal, RequestResult.COMPRESSED);
+        return output;
+    }
+
+    /**
+     * Merges requests, some of them already gzipped, into a single gzip stream. The gzipped ones
+     * are copied as they are, and the others are compressed into members of their own, whatever
+     * their size.
+     *
+     * @return the merged requests, valid until {@link #reset()}.
+     */
+    ProtoWriter merge(Collection<byte[]> requests) {
+        for (byte[] request : requests) {
+            if (isGzip(request)) {
+                output.writeRaw(request, 0, request.length);
+            } else {
+                compress(request, 0, request.length);
+            }
+        }
+        metrics.recordRequest(signal, RequestResult.PRECOMPRESSED);
+        return output;
+    }
+
+    void reset() {
+        output.reset();
+    }
+
+    private void compress(byte[] bytes, int offset, int length) {
+        long cpuStart = Debug.threadCpuTimeNanos();
+        int start = output.size();
+        deflater.reset();
+        crc.reset();
+        output.writeRaw(HEADER, 0, HEADER.length);
+        deflater.setInput(bytes, offset, length);
+        deflater.finish();
+        while (!deflater.finished()) {
+            int deflated = deflater.deflate(chunk);
+            output.writeRaw(chunk, 0, deflated);
+        }
+        crc.update(bytes, offset, length);
+        writeIntLittleEndian((int) crc.getValue());
+        writeIntLittleEndian(length);
+        long cpuEnd = Debug.threadCpuTimeNanos();
+        // -1 where the thread CPU time isn't supported
+        long cpuNanos = cpuStart >= 0 && cpuEnd >= cpuStart ? cpuEnd - cpuStart : 0;
+        metrics.recordCompression(signal, length, output.size() - start, cpuNanos);
+    }
+
+    private void writeIntLittleEndian(int value) {
+        chunk[0] = (byte) value;
+        chunk[1] = (byte) (value >> 8);
+        chunk[2] = (byte) (value >> 16);
+        chunk[3] = (byte) (value >> 24);
+        output.writeRaw(chunk, 0, 4);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.logs.data.Body;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.resources.Resource;
+
+/**
+ * Writes ExportLogsServiceRequest messages.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+final class LogRecordEncoder extends OtlpRequestEncoder<LogRecordData> {
+
+    private static final int LOG_TIME_UNIX_NANO = 1;
+    private static final int LOG_SEVERITY_NUMBER = 2;
+    private static final int LOG_SEVERITY_TEXT = 3;
+    private static final int LOG_BODY = 5;
+    private static final int LOG_ATTRIBUTES = 6;
+    private static final int LOG_DROPPED_ATTRIBUTES_COUNT = 7;
+    private static final int LOG_FLAGS = 8;
+    private static final int LOG_TRACE_ID = 9;
+    private static final int LOG_SPAN_ID = 10;
+    private static final int LOG_OBSERVED_TIME_UNIX_NANO = 11;
+
+    private static final int ANY_VALUE_STRING = 1;
+
+    @Override
+    Resource getResource(LogRecordData logRecord) {
+        return logRecord.getResource();
+    }
+
+    @Override
+    InstrumentationScopeInfo getInstrumentationScopeInfo(LogRecordData logRecord) {
+        return logRecord.getInstrumentationScopeInfo();
+    }
+
+    @Override
+    void writeItem(LogRecordData logRecord, ProtoWriter output) {
+        output.writeFixed64(LOG_TIME_UNIX_NANO, logRecord.getTimestampEpochNanos());
+        output.writeInt32(LOG_SEVERITY_NUMBER, logRecord.getSeverity().getSeverityNumber());
+        String severityText = logRecord.getSeverityText();
+        if (severityText != null) {
+            output.writeString(LOG_SEVERITY_TEXT, severityText);
+        }
+        Body body = logRecord.getBody();
+        if (body.getType() == Body.Type.STRING) {
+            int message = output.startMessage(LOG_BODY);
+            output.writeStringValue(ANY_VALUE_STRING, body.asString());
+            output.endMessage(message);
+        }
+        writeAttributes(LOG_ATTRIBUTES, logRecord.getAttributes(), output);
+        output.writeInt32(
+                LOG_DROPPED_ATTRIBUTES_COUNT,
+                logRecord.getTotalAttributeCount() - logRecord.getAttributes().size());
+        SpanContext spanContext = logRecord.getSpanContext();
+        if (spanContext.isValid()) {
+            output.writeFixed32(LOG_FLAGS, spanContext.getTraceFlags().asByte() & 0xFF);
+            output.writeHexBytes(LOG_TRACE_ID, spanContext.getTraceId());
+            output.writeHexBytes(LOG_SPAN_ID, spanContext.getSpanId());
+        }
+        output.writeFixed64(
+                LOG_OBSERVED_TIME_UNIX_NANO, logRecord.getObservedTimestampEpochNanos());
+    }
+}
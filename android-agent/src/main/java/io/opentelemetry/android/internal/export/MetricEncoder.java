@@ -0,0 +1,311 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.DoubleExemplarData;
+import io.opentelemetry.sdk.metrics.data.DoublePointData;
+import io.opentelemetry.sdk.metrics.data.ExemplarData;
+import io.opentelemetry.sdk.metrics.data.ExponentialHistogramBuckets;
+import io.opentelemetry.sdk.metrics.data.ExponentialHistogramPointData;
+import io.opentelemetry.sdk.metrics.data.HistogramPointData;
+import io.opentelemetry.sdk.metrics.data.LongExemplarData;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.data.PointData;
+import io.opentelemetry.sdk.metrics.data.SumData;
+import io.opentelemetry.sdk.metrics.data.SummaryPointData;
+import io.opentelemetry.sdk.metrics.data.ValueAtQuantile;
+import io.opentelemetry.sdk.resources.Resource;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes ExportMetricsServiceRequest messages.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+final class MetricEncoder extends OtlpRequestEncoder<MetricData> {
+
+    private static final int METRIC_NAME = 1;
+    private static final int METRIC_DESCRIPTION = 2;
+    private static final int METRIC_UNIT = 3;
+    private static final int METRIC_GAUGE = 5;
+    private static final int METRIC_SUM = 7;
+    private static final int METRIC_HISTOGRAM = 9;
+    private static final int METRIC_EXPONENTIAL_HISTOGRAM = 10;
+    private static final int METRIC_SUMMARY = 11;
+
+    // Same field numbers for Gauge, Sum, Histogram, ExponentialHistogram and Summary.
+    private static final int DATA_DATA_POINTS = 1;
+    private static final int DATA_AGGREGATION_TEMPORALITY = 2;
+    private static final int SUM_IS_MONOTONIC = 3;
+
+    private static final int NUMBER_START_TIME_UNIX_NANO = 2;
+    private static final int NUMBER_TIME_UNIX_NANO = 3;
+    private static final int NUMBER_AS_DOUBLE = 4;
+    private static final int NUMBER_EXEMPLARS = 5;
+    private static final int NUMBER_AS_INT = 6;
+    private static final int NUMBER_ATTRIBUTES = 7;
+
+    private static final int HISTOGRAM_START_TIME_UNIX_NANO = 2;
+    private static final int HISTOGRAM_TIME_UNIX_NANO = 3;
+    private static final int HISTOGRAM_COUNT = 4;
+    private static final int HISTOGRAM_SUM = 5;
+    private static final int HISTOGRAM_BUCKET_COUNTS = 6;
+    private static final int HISTOGRAM_EXPLICIT_BOUNDS = 7;
+    private static final int HISTOGRAM_EXEMPLARS = 8;
+    private static final int HISTOGRAM_ATTRIBUTES = 9;
+    private static final int HISTOGRAM_MIN = 11;
+    private static final int HISTOGRAM_MAX = 12;
+
+    private static final int EXPONENTIAL_ATTRIBUTES = 1;
+    private static final int EXPONENTIAL_START_TIME_UNIX_NANO = 2;
+    private static final int EXPONENTIAL_TIME_UNIX_NANO = 3;
+    private static final int EXPONENTIAL_COUNT = 4;
+    private static final int EXPONENTIAL_SUM = 5;
+    private static final int EXPONENTIAL_SCALE = 6;
+    private static final int EXPONENTIAL_ZERO_COUNT = 7;
+    private static final int EXPONENTIAL_POSITIVE = 8;
+    private static final int EXPONENTIAL_NEGATIVE = 9;
+    private static final int EXPONENTIAL_EXEMPLARS = 11;
+    private static final int EXPONENTIAL_MIN = 12;
+    private static final int EXPONENTIAL_MAX = 13;
+    private static final int BUCKETS_OFFSET = 1;
+    private static final int BUCKETS_BUCKET_COUNTS = 2;
+
+    private static final int SUMMARY_START_TIME_UNIX_NANO = 2;
+    private static final int SUMMARY_TIME_UNIX_NANO = 3;
+    private static final int SUMMARY_COUNT = 4;
+    private static final int SUMMARY_SUM = 5;
+    private static final int SUMMARY_QUANTILE_VALUES = 6;
+    private static final int SUMMARY_ATTRIBUTES = 7;
+    private static final int QUANTILE_QUANTILE = 1;
+    private static final int QUANTILE_VALUE = 2;
+
+    private static final int EXEMPLAR_TIME_UNIX_NANO = 2;
+    private static final int EXEMPLAR_AS_DOUBLE = 3;
+    private static final int EXEMPLAR_SPAN_ID = 4;
+    private static final int EXEMPLAR_TRACE_ID = 5;
+    private static final int EXEMPLAR_AS_INT = 6;
+    private static final int EXEMPLAR_FILTERED_ATTRIBUTES = 7;
+
+    @Override
+    Resource getResource(MetricData metric) {
+        return metric.getResource();
+    }
+
+    @Override
+    InstrumentationScopeInfo getInstrumentationScopeInfo(MetricData metric) {
+        return metric.getInstrumentationScopeInfo();
+    }
+
+    @Override
+    void writeItem(MetricData metric, ProtoWriter output) {
+        output.writeString(METRIC_NAME, metric.getName());
+        output.writeString(METRIC_DESCRIPTION, metric.getDescription());
+        output.writeString(METRIC_UNIT, metric.getUnit());
+        int data;
+        switch (metric.getType()) {
+            case LONG_GAUGE:
+                data = output.startMessage(METRIC_GAUGE);
+                writeLongPoints(metric.getLongGaugeData().getPoints(), output);
+                break;
+            case DOUBLE_GAUGE:
+                data = output.startMessage(METRIC_GAUGE);
+                writeDoublePoints(metric.getDoubleGaugeData().getPoints(), output);
+                break;
+            case LONG_SUM:
+                data = output.startMessage(METRIC_SUM);
+                writeLongPoints(metric.getLongSumData().getPoints(), output);
+                writeSumFields(metric.getLongSumData(), output);
+                break;
+            case DOUBLE_SUM:
+                data = output.startMessage(METRIC_SUM);
+                writeDoublePoints(metric.getDoubleSumData().getPoints(), output);
+                writeSumFields(metric.getDoubleSumData(), output);
+                break;
+            case HISTOGRAM:
+                data = output.startMessage(METRIC_HISTOGRAM);
+                for (HistogramPointData point : metric.getHistogramData().getPoints()) {
+                    writeHistogramPoint(point, output);
+                }
+                output.writeInt32(
+                        DATA_AGGREGATION_TEMPORALITY,
+                        temporality(metric.getHistogramData().getAggregationTemporality()));
+                break;
+            case EXPONENTIAL_HISTOGRAM:
+                data = output.startMessage(METRIC_EXPONENTIAL_HISTOGRAM);
+                for (ExponentialHistogramPointData point :
+                        metric.getExponentialHistogramData().getPoints()) {
+                    writeExponentialHistogramPoint(point, output);
+                }
+                output.writeInt32(
+                        DATA_AGGREGATION_TEMPORALITY,
+                        temporality(
+                                metric.getExponentialHistogramData().getAggregationTemporality()));
+                break;
+            case SUMMARY:
+                data = output.startMessage(METRIC_SUMMARY);
+                for (SummaryPointData point : metric.getSummaryData().getPoints()) {
+                    writeSummaryPoint(point, output);
+                }
+                break;
+            default:
+                return;
+        }
+        output.endMessage(data);
+    }
+
+    private void writeLongPoints(Collection<LongPointData> points, ProtoWriter output) {
+        for (LongPointData point : points) {
+            int message = writeNumberPointStart(point, output);
+            output.writeFixed64Value(NUMBER_AS_INT, point.getValue());
+            writeExemplars(NUMBER_EXEMPLARS, point.getExemplars(), output);
+            writeAttributes(NUMBER_ATTRIBUTES, point.getAttributes(), output);
+            output.endMessage(message);
+        }
+    }
+
+    private void writeDoublePoints(Collection<DoublePointData> points, ProtoWriter output) {
+        for (DoublePointData point : points) {
+            int message = writeNumberPointStart(point, output);
+            output.writeDouble(NUMBER_AS_DOUBLE, point.getValue());
+            writeExemplars(NUMBER_EXEMPLARS, point.getExemplars(), output);
+            writeAttributes(NUMBER_ATTRIBUTES, point.getAttributes(), output);
+            output.endMessage(message);
+        }
+    }
+
+    private static int writeNumberPointStart(PointData point, ProtoWriter output) {
+        int message = output.startMessage(DATA_DATA_POINTS);
+        output.writeFixed64(NUMBER_START_TIME_UNIX_NANO, point.getStartEpochNanos());
+        output.writeFixed64(NUMBER_TIME_UNIX_NANO, point.getEpochNanos());
+        return message;
+    }
+
+    private static void writeSumFields(SumData<?> sum, ProtoWriter output) {
+        output.writeInt32(
+                DATA_AGGREGATION_TEMPORALITY, temporality(sum.getAggregationTemporality()));
+        output.writeBool(SUM_IS_MONOTONIC, sum.isMonotonic());
+    }
+
+    private void writeHistogramPoint(HistogramPointData point, ProtoWriter output) {
+        int message = output.startMessage(DATA_DATA_POINTS);
+        output.writeFixed64(HISTOGRAM_START_TIME_UNIX_NANO, point.getStartEpochNanos());
+        output.writeFixed64(HISTOGRAM_TIME_UNIX_NANO, point.getEpochNanos());
+        output.writeFixed64(HISTOGRAM_COUNT, point.getCount());
+        output.writeDouble(HISTOGRAM_SUM, point.getSum());
+        List<Long> counts = point.getCounts();
+        if (!counts.isEmpty()) {
+            output.startPackedFixed64(HISTOGRAM_BUCKET_COUNTS, counts.size());
+            for (int i = 0; i < counts.size(); i++) {
+                output.writeRawFixed64(counts.get(i));
+            }
+        }
+        List<Double> boundaries = point.getBoundaries();
+        if (!boundaries.isEmpty()) {
+            output.startPackedFixed64(HISTOGRAM_EXPLICIT_BOUNDS, boundaries.size());
+            for (int i = 0; i < boundaries.size(); i++) {
+                output.writeRawFixed64(Double.doubleToRawLongBits(boundaries.get(i)));
+            }
+        }
+        writeExemplars(HISTOGRAM_EXEMPLARS, point.getExemplars(), output);
+        writeAttributes(HISTOGRAM_ATTRIBUTES, point.getAttributes(), output);
+        if (point.hasMin()) {
+            output.writeDouble(HISTOGRAM_MIN, point.getMin());
+        }
+        if (point.hasMax()) {
+            output.writeDouble(HISTOGRAM_MAX, point.getMax());
+        }
+        output.endMessage(message);
+    }
+
+    private void writeExponentialHistogramPoint(
+            ExponentialHistogramPointData point, ProtoWriter output) {
+        int message = output.startMessage(DATA_DATA_POINTS);
+        writeAttributes(EXPONENTIAL_ATTRIBUTES, point.getAttributes(), output);
+        output.writeFixed64(EXPONENTIAL_START_TIME_UNIX_NANO, point.getStartEpochNanos());
+        output.writeFixed64(EXPONENTIAL_TIME_UNIX_NANO, point.getEpochNanos());
+        output.writeFixed64(EXPONENTIAL_COUNT, point.getCount());
+        output.writeDouble(EXPONENTIAL_SUM, point.getSum());
+        output.writeSInt32(EXPONENTIAL_SCALE, point.getScale());
+        output.writeFixed64(EXPONENTIAL_ZERO_COUNT, point.getZeroCount());
+        writeBuckets(EXPONENTIAL_POSITIVE, point.getPositiveBuckets(), output);
+        writeBuckets(EXPONENTIAL_NEGATIVE, point.getNegativeBuckets(), output);
+        writeExemplars(EXPONENTIAL_EXEMPLARS, point.getExemplars(), output);
+        if (point.hasMin()) {
+            output.writeDouble(EXPONENTIAL_MIN, point.getMin());
+        }
+        if (point.hasMax()) {
+            output.writeDouble(EXPONENTIAL_MAX, point.getMax());
+        }
+        output.endMessage(message);
+    }
+
+    private static void writeBuckets(
+            int field, ExponentialHistogramBuckets buckets, ProtoWriter output) {
+        int message = output.startMessage(field);
+        output.writeSInt32(BUCKETS_OFFSET, buckets.getOffset());
+        List<Long> counts = buckets.getBucketCounts();
+        if (!counts.isEmpty()) {
+            // packed varints, whose size is only known once written
+            int packed = output.startMessage(BUCKETS_BUCKET_COUNTS);
+            for (int i = 0; i < counts.size(); i++) {
+                output.writeRawVarint64(counts.get(i));
+            }
+            output.endMessage(packed);
+        }
+        output.endMessage(message);
+    }
+
+    private void writeSummaryPoint(SummaryPointData point, ProtoWriter output) {
+        int message = output.startMessage(DATA_DATA_POINTS);
+        output.writeFixed64(SUMMARY_START_TIME_UNIX_NANO, point.getStartEpochNanos());
+        output.writeFixed64(SUMMARY_TIME_UNIX_NANO, point.getEpochNanos());
+        output.writeFixed64(SUMMARY_COUNT, point.getCount());
+        output.writeDouble(SUMMARY_SUM, point.getSum());
+        List<ValueAtQuantile> values = point.getValues();
+        for (int i = 0; i < values.size(); i++) {
+            ValueAtQuantile value = values.get(i);
+            int quantile = output.startMessage(SUMMARY_QUANTILE_VALUES);
+            output.writeDouble(QUANTILE_QUANTILE, value.getQuantile());
+            output.writeDouble(QUANTILE_VALUE, value.getValue());
+            output.endMessage(quantile);
+        }
+        writeAttributes(SUMMARY_ATTRIBUTES, point.getAttributes(), output);
+        output.endMessage(message);
+    }
+
+    private void writeExemplars(
+            int field, List<? extends ExemplarData> exemplars, ProtoWriter output) {
+        for (int i = 0; i < exemplars.size(); i++) {
+            ExemplarData exemplar = exemplars.get(i);
+            int message = output.startMessage(field);
+            output.writeFixed64(EXEMPLAR_TIME_UNIX_NANO, exemplar.getEpochNanos());
+            if (exemplar instanceof DoubleExemplarData) {
+                output.writeDouble(EXEMPLAR_AS_DOUBLE, ((DoubleExemplarData) exemplar).getValue());
+            }
+            SpanContext spanContext = exemplar.getSpanContext();
+            if (spanContext.isValid()) {
+                output.writeHexBytes(EXEMPLAR_SPAN_ID, spanContext.getSpanId());
+                output.writeHexBytes(EXEMPLAR_TRACE_ID, spanContext.getTraceId());
+            }
+            if (exemplar instanceof LongExemplarData) {
+                output.writeFixed64Value(EXEMPLAR_AS_INT, ((LongExemplarData) exemplar).getValue());
+            }
+            writeAttributes(EXEMPLAR_FILTERED_ATTRIBUTES, exemplar.getFilteredAttributes(), output);
+            output.endMessage(message);
+        }
+    }
+
+    private static int temporality(AggregationTemporality temporality) {
+        return temporality == AggregationTemporality.DELTA ? 1 : 2;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import io.opentelemetry.android.common.TelemetryExportTag;
+import io.opentelemetry.android.export.OtlpExportConfiguration;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import okhttp3.Call;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+
+/**
+ * Posts the requests with an {@link OkHttpClient} of the app, as is, so that they share its
+ * connection pool and HTTP/2 connections with the app's own traffic instead of opening sockets and
+ * TLS sessions of their own. Calls are executed on the exporter's thread, so they don't take any of
+ * the dispatcher's slots for the app's asynchronous calls. The requests are tagged with {@link
+ * TelemetryExportTag}, for the OkHttp instrumentation not to trace them.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+final class OkHttpSender implements OtlpHttpSender {
+
+    private static final MediaType PROTOBUF = MediaType.get("application/x-protobuf");
+
+    private final OkHttpClient client;
+    private final URL url;
+    private final Headers headers;
+    private final long timeoutMillis;
+
+    OkHttpSender(OkHttpClient client, URL url, OtlpExportConfiguration configuration) {
+        this.client = client;
+        this.url = url;
+        this.headers = Headers.of(configuration.getHeaders());
+        this.timeoutMillis = configuration.getTimeout().toMillis();
+    }
+
+    @Override
+    public int send(ProtoWriter body, @Nullable String contentEncoding) throws IOException {
+        Request.Builder request =
+                new Request.Builder()
+                        .url(url)
+                        .headers(headers)
+                        .tag(TelemetryExportTag.class, TelemetryExportTag.INSTANCE)
+                        .post(new ProtoRequestBody(body));
+        if (contentEncoding != null) {
+            request.header("Content-Encoding", contentEncoding);
+        }
+        Call call = client.newCall(request.build());
+        // bounds the whole call, the client's own timeouts are left to the app's traffic
+        call.timeout().timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        // closing the response gives the connection back to the client's pool
+        try (Response response = call.execute()) {
+            return response.code();
+        }
+    }
+
+    /**
+     * Writes the body from the writer's buffer, as many times as OkHttp needs to, such as when it
+     * retries on another connection after a pooled one turned out to be stale.
+     */
+    private static final class ProtoRequestBody extends RequestBody {
+        private final ProtoWriter body;
+
+        ProtoRequestBody(ProtoWriter body) {
+            this.body = body;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return PROTOBUF;
+        }
+
+        @Override
+        public long contentLength() {
+            return body.size();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            body.writeTo(sink.outputStream());
+        }
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import android.util.Log;
+import io.opentelemetry.android.common.RumConstants;
+import io.opentelemetry.android.export.OtlpExportConfiguration;
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import javax.annotation.Nullable;
+import okhttp3.OkHttpClient;
+
+/**
+ * Exporters that send the signals with OTLP over HTTP, in binary protobuf format. Each request is
+ * written straight from the signals' data into a buffer that is reused across exports, without
+ * building an intermediate message object per span, attribute or data point.
+ *
+ * <p>Requests are sent synchronously, one at a time per signal, on the thread calling {@code
+ * export}, which is the worker thread of the SDK's processors and metric reader. Failed requests
+ * are not retried, that is left to disk buffering when it's enabled.
+ *
+ * <p>The exporters are also {@link EncodedRequestExporter}s, so that the batches stored by the disk
+ * buffer can be sent without reading the signals out of them.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+public final class OtlpHttpExporters {
+
+    private static final int INITIAL_BUFFER_SIZE = 32 * 1024;
+    // a bigger buffer, grown for an unusually large batch, is not kept around
+    private static final int MAX_RETAINED_BUFFER_SIZE = 512 * 1024;
+    // requests shrink about 5 times once compressed
+    private static final int INITIAL_COMPRESSED_BUFFER_SIZE = 8 * 1024;
+
+    private OtlpHttpExporters() {}
+
+    public static SpanExporter spans(OtlpExportConfiguration configuration) {
+        return spans(configuration, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /** Returns a span exporter compressing its requests with the given deflate level. */
+    public static SpanExporter spans(OtlpExportConfiguration configuration, int compressionLevel) {
+        return new OtlpHttpSpanExporter(
+                export(
+                        Signal.SPANS,
+                        new SpanEncoder(),
+                        configuration,
+                        "v1/traces",
+                        compressionLevel));
+    }
+
+    public static MetricExporter metrics(OtlpExportConfiguration configuration) {
+        return metrics(configuration, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /** Returns a metric exporter compressing its requests with the given deflate level. */
+    public static MetricExporter metrics(
+            OtlpExportConfiguration configuration, int compressionLevel) {
+        return new OtlpHttpMetricExporter(
+                export(
+                        Signal.METRICS,
+                        new MetricEncoder(),
+                        configuration,
+                        "v1/metrics",
+                        compressionLevel));
+    }
+
+    public static LogRecordExporter logRecords(OtlpExportConfiguration configuration) {
+        return logRecords(configuration, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /** Returns a log record exporter compressing its requests with the given deflate level. */
+    public static LogRecordExporter logRecords(
+            OtlpExportConfiguration configuration, int compressionLevel) {
+        return new OtlpHttpLogRecordExporter(
+                export(
+                        Signal.LOGS,
+                        new LogRecordEncoder(),
+                        configuration,
+                        "v1/logs",
+                        compressionLevel));
+    }
+
+    private static <T> OtlpHttpExport<T> export(
+            Signal signal,
+            OtlpRequestEncoder<T> encoder,
+            OtlpExportConfiguration configuration,
+            String path,
+            int compressionLevel) {
+        GzipCompressor compressor =
+                configuration.isCompressionEnabled()
+                        ? new GzipCompressor(
+                                signal,
+                                configuration.getCompressionThreshold(),
+                                compressionLevel,
+                                CompressionMetrics.get(),
+                                INITIAL_COMPRESSED_BUFFER_SIZE,
+                                MAX_RETAINED_BUFFER_SIZE)
+                        : null;
+        return new OtlpHttpExport<>(signal, encoder, sender(configuration, path), compressor);
+    }
+
+    private static OtlpHttpSender sender(OtlpExportConfiguration configuration, String path) {
+        URL url;
+        try {
+            url = new URL(configuration.getEndpoint() + path);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(
+                    "Invalid OTLP endpoint: " + configuration.getEndpoint(), e);
+        }
+        OkHttpClient okHttpClient = configuration.getOkHttpClient();
+        if (okHttpClient != null) {
+            return new OkHttpSender(okHttpClient, url, configuration);
+        }
+        return new UrlConnectionSender(url, configuration);
+    }
+
+    static final class OtlpHttpExport<T> {
+        private final Signal signal;
+        private final OtlpRequestEncoder<T> encoder;
+        private final OtlpHttpSender sender;
+        @Nullable private final GzipCompressor compressor;
+        private final ProtoWriter writer =
+                new ProtoWriter(INITIAL_BUFFER_SIZE, MAX_RETAINED_BUFFER_SIZE);
+        private volatile boolean isShutdown;
+
+        OtlpHttpExport(
+                Signal signal,
+                OtlpRequestEncoder<T> encoder,
+                OtlpHttpSender sender,
+                @Nullable GzipCompressor compressor) {
+            this.signal = signal;
+            this.encoder = encoder;
+            this.sender = sender;
+            this.compressor = compressor;
+        }
+
+        synchronized CompletableResultCode export(Collection<T> items) {
+            if (isShutdown) {
+                return CompletableResultCode.ofFailure();
+            }
+            try {
+                encoder.encode(items, writer);
+                return send(writer);
+            } finally {
+                reset();
+            }
+        }
+
+        boolean acceptsGzip() {
+            return compressor != null;
+        }
+
+        synchronized CompletableResultCode exportEncoded(Collection<byte[]> requests) {
+            if (isShutdown) {
+                return CompletableResultCode.ofFailure();
+            }
+            try {
+                if (compressor != null && containsGzip(requests)) {
+                    return send(compressor.merge(requests), "gzip");
+                }
+                // encoded requests are merged by concatenating them, as their only field is a
+                // repeated one
+                for (byte[] request : requests) {
+                    writer.writeRaw(request, 0, request.length);
+                }
+                return send(writer);
+            } finally {
+                reset();
+            }
+        }
+
+        CompletableResultCode shutdown() {
+            isShutdown = true;
+            return CompletableResultCode.ofSuccess();
+        }
+
+        private CompletableResultCode send(ProtoWriter request) {
+            ProtoWriter compressed =
+                    compressor != null ? compressor.compressIfLarge(request) : null;
+            if (compressed != null) {
+                return send(compressed, "gzip");
+            }
+            return send(request, null);
+        }
+
+        private CompletableResultCode send(ProtoWriter body, @Nullable String contentEncoding) {
+            try {
+                int code = sender.send(body, contentEncoding);
+                if (code >= 200 && code < 300) {
+                    return CompletableResultCode.ofSuccess();
+                }
+                Log.w(
+                        RumConstants.OTEL_RUM_LOG_TAG,
+                        String.format(
+                                "Failed to export %s, the server responded %s.",
+                                signalName(), code));
+            } catch (IOException e) {
+                Log.w(RumConstants.OTEL_RUM_LOG_TAG, "Failed to export " + signalName() + ".", e);
+            }
+            return CompletableResultCode.ofFailure();
+        }
+
+        private void reset() {
+            writer.reset();
+            if (compressor != null) {
+                compressor.reset();
+            }
+        }
+
+        private String signalName() {
+            return signal.name().toLowerCase(Locale.ROOT);
+        }
+
+        private static boolean containsGzip(Collection<byte[]> requests) {
+            for (byte[] request : requests) {
+                if (GzipCompressor.isGzip(request)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class OtlpHttpSpanExporter
+            implements SpanExporter, EncodedRequestExporter {
+        private final OtlpHttpExport<SpanData> export;
+
+        private OtlpHttpSpanExporter(OtlpHttpExport<SpanData> export) {
+            this.export = export;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return export.export(spans);
+        }
+
+        @Override
+        public boolean acceptsGzip() {
+            return export.acceptsGzip();
+        }
+
+        @Override
+        public CompletableResultCode exportEncoded(Collection<byte[]> requests) {
+            return export.exportEncoded(requests);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return export.shutdown();
+        }
+    }
+
+    private static final class OtlpHttpMetricExporter
+            implements MetricExporter, EncodedRequestExporter {
+        private final OtlpHttpExport<MetricData> export;
+
+        private OtlpHttpMetricExporter(OtlpHttpExport<MetricData> export) {
+            this.export = export;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<MetricData> metrics) {
+            return export.export(metrics);
+        }
+
+        @Override
+        public boolean acceptsGzip() {
+            return export.acceptsGzip();
+        }
+
+        @Override
+        public CompletableResultCode exportEncoded(Collection<byte[]> requests) {
+            return export.exportEncoded(requests);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return export.shutdown();
+        }
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+            return AggregationTemporality.CUMULATIVE;
+        }
+    }
+
+    private static final class OtlpHttpLogRecordExporter
+            implements LogRecordExporter, EncodedRequestExporter {
+        private final OtlpHttpExport<LogRecordData> export;
+
+        private OtlpHttpLogRecordExporter(OtlpHttpExport<LogRecordData> export) {
+            this.export = export;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<LogRecordData> logs) {
+            return export.export(logs);
+        }
+
+        @Override
+        public boolean acceptsGzip() {
+            return export.acceptsGzip();
+        }
+
+        @Override
+        public CompletableResultCode exportEncoded(Collection<byte[]> requests) {
+            return export.exportEncoded(requests);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return export.shutdown();
+        }
+    }
+}
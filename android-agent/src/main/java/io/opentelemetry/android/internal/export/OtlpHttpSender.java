@@ -0,0 +1,26 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import java.io.IOException;
+import javax.annotation.Nullable;
+
+/**
+ * Posts the requests written by a {@link ProtoWriter} to one OTLP/HTTP endpoint.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+interface OtlpHttpSender {
+
+    /**
+     * Sends the written request, which is already encoded with the given content encoding, if any.
+     * Not thread safe, as the exporters send one request at a time.
+     *
+     * @return the HTTP status code of the response.
+     */
+    int send(ProtoWriter body, @Nullable String contentEncoding) throws IOException;
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
+
+/**
+ * Writes the OTLP export request of a batch of signals. The traces, logs and metrics requests
+ * share the same layout: the items are grouped by resource, then by instrumentation scope, and only
+ * the items themselves are written by each signal's subclass.
+ *
+ * <p>Items are grouped by scanning the batch once per group instead of building a map of them,
+ * since batches seldom have more than one resource and a handful of scopes.
+ *
+ * <p>Instances are not thread safe, they are meant to be used by one exporter at a time.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+abstract class OtlpRequestEncoder<T> {
+
+    // Same field numbers for ExportTraceServiceRequest, ResourceSpans, ScopeSpans and their logs
+    // and metrics counterparts.
+    private static final int REQUEST_RESOURCE_ITEMS = 1;
+    private static final int RESOURCE_ITEMS_RESOURCE = 1;
+    private static final int RESOURCE_ITEMS_SCOPE_ITEMS = 2;
+    private static final int RESOURCE_ITEMS_SCHEMA_URL = 3;
+    private static final int SCOPE_ITEMS_SCOPE = 1;
+    private static final int SCOPE_ITEMS_ITEMS = 2;
+    private static final int SCOPE_ITEMS_SCHEMA_URL = 3;
+
+    private static final int RESOURCE_ATTRIBUTES = 1;
+    private static final int SCOPE_NAME = 1;
+    private static final int SCOPE_VERSION = 2;
+    private static final int SCOPE_ATTRIBUTES = 3;
+
+    private static final int KEY_VALUE_KEY = 1;
+    private static final int KEY_VALUE_VALUE = 2;
+    private static final int ANY_VALUE_STRING = 1;
+    private static final int ANY_VALUE_BOOL = 2;
+    private static final int ANY_VALUE_INT = 3;
+    private static final int ANY_VALUE_DOUBLE = 4;
+    private static final int ANY_VALUE_ARRAY = 5;
+    private static final int ARRAY_VALUE_VALUES = 1;
+
+    private final AttributeWriter attributeWriter = new AttributeWriter();
+    private final List<T> copy = new ArrayList<>();
+    private boolean[] written = new boolean[0];
+
+    /** Writes the export request of the given items. */
+    final void encode(Collection<T> items, ProtoWriter output) {
+        List<T> list = asList(items);
+        int size = list.size();
+        if (written.length < size) {
+            written = new boolean[size];
+        } else {
+            Arrays.fill(written, 0, size, false);
+        }
+        for (int i = 0; i < size; i++) {
+            if (!written[i]) {
+                writeResourceItems(list, i, output);
+            }
+        }
+        copy.clear();
+    }
+
+    abstract Resource getResource(T item);
+
+    abstract InstrumentationScopeInfo getInstrumentationScopeInfo(T item);
+
+    /** Writes the content of the item's message. */
+    abstract void writeItem(T item, ProtoWriter output);
+
+    /** Writes each attribute as a repeated KeyValue field. */
+    final void writeAttributes(int field, Attributes attributes, ProtoWriter output) {
+        if (attributes.isEmpty()) {
+            return;
+        }
+        attributeWriter.field = field;
+        attributeWriter.output = output;
+        attributes.forEach(attributeWriter);
+        attributeWriter.output = null;
+    }
+
+    private void writeResourceItems(List<T> items, int first, ProtoWriter output) {
+        Resource resource = getResource(items.get(first));
+        int resourceItems = output.startMessage(REQUEST_RESOURCE_ITEMS);
+        int resourceMessage = output.startMessage(RESOURCE_ITEMS_RESOURCE);
+        writeAttributes(RESOURCE_ATTRIBUTES, resource.getAttributes(), output);
+        output.endMessage(resourceMessage);
+        for (int i = first; i < items.size(); i++) {
+            if (!written[i] && resource.equals(getResource(items.get(i)))) {
+                writeScopeItems(items, i, resource, output);
+            }
+        }
+        writeSchemaUrl(RESOURCE_ITEMS_SCHEMA_URL, resource.getSchemaUrl(), output);
+        output.endMessage(resourceItems);
+    }
+
+    private void writeScopeItems(List<T> items, int first, Resource resource, ProtoWriter output) {
+        InstrumentationScopeInfo scope = getInstrumentationScopeInfo(items.get(first));
+        int scopeItems = output.startMessage(RESOURCE_ITEMS_SCOPE_ITEMS);
+        int scopeMessage = output.startMessage(SCOPE_ITEMS_SCOPE);
+        output.writeString(SCOPE_NAME, scope.getName());
+        String version = scope.getVersion();
+        if (version != null) {
+            output.writeString(SCOPE_VERSION, version);
+        }
+        writeAttributes(SCOPE_ATTRIBUTES, scope.getAttributes(), output);
+        output.endMessage(scopeMessage);
+        for (int i = first; i < items.size(); i++) {
+            T item = items.get(i);
+            if (!written[i]
+                    && scope.equals(getInstrumentationScopeInfo(item))
+                    && resource.equals(getResource(item))) {
+                int itemMessage = output.startMessage(SCOPE_ITEMS_ITEMS);
+                writeItem(item, output);
+                output.endMessage(itemMessage);
+                written[i] = true;
+            }
+        }
+        writeSchemaUrl(SCOPE_ITEMS_SCHEMA_URL, scope.getSchemaUrl(), output);
+        output.endMessage(scopeItems);
+    }
+
+    private List<T> asList(Collection<T> items) {
+        if (items instanceof List) {
+            return (List<T>) items;
+        }
+        copy.addAll(items);
+        return copy;
+    }
+
+    private static void writeSchemaUrl(int field, @Nullable String schemaUrl, ProtoWriter output) {
+        if (schemaUrl != null) {
+            output.writeString(field, schemaUrl);
+        }
+    }
+
+    // Reused so that iterating the attributes doesn't allocate a capturing lambda each time.
+    private static final class AttributeWriter implements BiConsumer<AttributeKey<?>, Object> {
+        private int field;
+        @Nullable private ProtoWriter output;
+
+        @Override
+        public void accept(AttributeKey<?> key, Object value) {
+            ProtoWriter output = this.output;
+            if (output == null) {
+                return;
+            }
+            int keyValue = output.startMessage(field);
+            output.writeString(KEY_VALUE_KEY, key.getKey());
+            int anyValue = output.startMessage(KEY_VALUE_VALUE);
+            switch (key.getType()) {
+                case STRING:
+                    output.writeStringValue(ANY_VALUE_STRING, (String) value);
+                    break;
+                case BOOLEAN:
+                    output.writeBoolValue(ANY_VALUE_BOOL, (Boolean) value);
+                    break;
+                case LONG:
+                    output.writeInt64Value(ANY_VALUE_INT, (Long) value);
+                    break;
+                case DOUBLE:
+                    output.writeDouble(ANY_VALUE_DOUBLE, (Double) value);
+                    break;
+                case STRING_ARRAY:
+                case BOOLEAN_ARRAY:
+                case LONG_ARRAY:
+                case DOUBLE_ARRAY:
+                    writeArray(key, (List<?>) value, output);
+                    break;
+            }
+            output.endMessage(anyValue);
+            output.endMessage(keyValue);
+        }
+
+        private static void writeArray(AttributeKey<?> key, List<?> values, ProtoWriter output) {
+            int arrayValue = output.startMessage(ANY_VALUE_ARRAY);
+            for (int i = 0; i < values.size(); i++) {
+                Object value = values.get(i);
+                int element = output.startMessage(ARRAY_VALUE_VALUES);
+                switch (key.getType()) {
+                    case STRING_ARRAY:
+                        output.writeStringValue(ANY_VALUE_STRING, (String) value);
+                        break;
+                    case BOOLEAN_ARRAY:
+                        output.writeBoolValue(ANY_VALUE_BOOL, (Boolean) value);
+                        break;
+                    case LONG_ARRAY:
+                        output.writeInt64Value(ANY_VALUE_INT, (Long) value);
+                        break;
+                    default:
+                        output.writeDouble(ANY_VALUE_DOUBLE, (Double) value);
+                        break;
+                }
+                output.endMessage(element);
+            }
+            output.endMessage(arrayValue);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes protobuf fields straight into a growable byte buffer that is reused across messages.
+ *
+ * <p>The length of a nested message is only known once it has been written, so one byte is
+ * reserved for it up front, which is enough for messages of up to 127 bytes. Longer messages are
+ * moved forward in place to make room for their length once they are complete. Fields holding the
+ * default value of their type are skipped, as in proto3, except where noted.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+final class ProtoWriter {
+
+    private static final int WIRE_TYPE_VARINT = 0;
+    private static final int WIRE_TYPE_FIXED64 = 1;
+    private static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_TYPE_FIXED32 = 5;
+
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+    private byte[] buffer;
+    private int position;
+
+    ProtoWriter(int initialCapacity, int maxRetainedCapacity) {
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+        this.buffer = new byte[initialCapacity];
+    }
+
+    /**
+     * Discards the written bytes. The buffer is kept for the next message, unless it grew past the
+     * maximum retained capacity for an unusually large one.
+     */
+    void reset() {
+        position = 0;
+        if (buffer.length > maxRetainedCapacity) {
+            buffer = new byte[initialCapacity];
+        }
+    }
+
+    int size() {
+        return position;
+    }
+
+    void writeTo(OutputStream output) throws IOException {
+        output.write(buffer, 0, position);
+    }
+
+    /** Returns the buffer, whose first {@link #size()} bytes are the ones written. */
+    byte[] buffer() {
+        return buffer;
+    }
+
+    /** Appends the bytes as they are, such as a request that was encoded earlier. */
+    void writeRaw(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    // visible for tests
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Starts a nested message, which is closed with {@link #endMessage(int)}.
+     *
+     * @return the position of the message's content.
+     */
+    int startMessage(int field) {
+        writeTag(field, WIRE_TYPE_LENGTH_DELIMITED);
+        ensureCapacity(1);
+        position++;
+        return position;
+    }
+
+    void endMessage(int start) {
+        int length = position - start;
+        int lengthSize = varintSize(length);
+        if (lengthSize > 1) {
+            ensureCapacity(lengthSize - 1);
+            System.arraycopy(buffer, start, buffer, start + lengthSize - 1, length);
+            position += lengthSize - 1;
+        }
+        int end = position;
+        position = start - 1;
+        writeVarint(length);
+        position = end;
+    }
+
+    void writeString(int field, String value) {
+        if (!value.isEmpty()) {
+            writeStringValue(field, value);
+        }
+    }
+
+    /** Writes the string even when it's empty, for fields that are part of a oneof. */
+    void writeStringValue(int field, String value) {
+        int start = startMessage(field);
+        writeUtf8(value);
+        endMessage(start);
+    }
+
+    /** Writes the bytes encoded as lowercase hex in the given string, such as trace ids. */
+    void writeHexBytes(int field, String hex) {
+        int length = hex.length() / 2;
+        writeTag(field, WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarint(length);
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] =
+                    (byte) ((hexValue(hex.charAt(2 * i)) << 4) | hexValue(hex.charAt(2 * i + 1)));
+        }
+    }
+
+    void writeBool(int field, boolean value) {
+        if (value) {
+            writeBoolValue(field, true);
+        }
+    }
+
+    /** Writes the value even when it's false, for fields that are part of a oneof. */
+    void writeBoolValue(int field, boolean value) {
+        writeTag(field, WIRE_TYPE_VARINT);
+        ensureCapacity(1);
+        buffer[position++] = (byte) (value ? 1 : 0);
+    }
+
+    /** Writes an int32, uint32 or enum field. */
+    void writeInt32(int field, int value) {
+        if (value != 0) {
+            writeTag(field, WIRE_TYPE_VARINT);
+            if (value < 0) {
+                // negative numbers are sign extended to 64 bits
+                writeVarint64(value);
+            } else {
+                writeVarint(value);
+            }
+        }
+    }
+
+    void writeSInt32(int field, int value) {
+        if (value != 0) {
+            writeTag(field, WIRE_TYPE_VARINT);
+            writeVarint((value << 1) ^ (value >> 31));
+        }
+    }
+
+    /** Writes an int64 or uint64 field. */
+    void writeInt64(int field, long value) {
+        if (value != 0) {
+            writeInt64Value(field, value);
+        }
+    }
+
+    /** Writes the value even when it's zero, for fields that are part of a oneof. */
+    void writeInt64Value(int field, long value) {
+        writeTag(field, WIRE_TYPE_VARINT);
+        writeVarint64(value);
+    }
+
+    void writeFixed32(int field, int value) {
+        if (value != 0) {
+            writeTag(field, WIRE_TYPE_FIXED32);
+            ensureCapacity(4);
+            for (int i = 0; i < 4; i++) {
+                buffer[position++] = (byte) (value >>> (8 * i));
+            }
+        }
+    }
+
+    /** Writes a fixed64 or sfixed64 field. */
+    void writeFixed64(int field, long value) {
+        if (value != 0) {
+            writeFixed64Value(field, value);
+        }
+    }
+
+    /** Writes the value even when it's zero, for fields that are part of a oneof. */
+    void writeFixed64Value(int field, long value) {
+        writeTag(field, WIRE_TYPE_FIXED64);
+        writeRawFixed64(value);
+    }
+
+    /**
+     * Writes the value even when it's zero, as double fields are either part of a oneof or
+     * optional.
+     */
+    void writeDouble(int field, double value) {
+        writeFixed64Value(field, Double.doubleToRawLongBits(value));
+    }
+
+    /** Starts a packed repeated fixed64 or double field with the given number of elements. */
+    void startPackedFixed64(int field, int count) {
+        writeTag(field, WIRE_TYPE_LENGTH_DELIMITED);
+        writeVarint(8 * count);
+    }
+
+    void writeRawFixed64(long value) {
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            buffer[position++] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    void writeRawVarint64(long value) {
+        writeVarint64(value);
+    }
+
+    private void writeTag(int field, int wireType) {
+        writeVarint((field << 3) | wireType);
+    }
+
+    private void writeVarint(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeVarint64(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    // Same as String.getBytes(UTF_8), including replacing unpaired surrogates with '?', without
+    // the intermediate array.
+    private void writeUtf8(String value) {
+        int length = value.length();
+        ensureCapacity(3 * length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)
+                    && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                // 4 bytes for the 2 chars, within the capacity ensured above
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                buffer[position++] = '?';
+            }
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (position + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(2 * buffer.length, position + bytes));
+        }
+    }
+
+    private static int hexValue(char c) {
+        return c <= '9' ? c - '0' : c - 'a' + 10;
+    }
+
+    // visible for tests
+    static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import java.util.List;
+
+/**
+ * Writes ExportTraceServiceRequest messages.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+final class SpanEncoder extends OtlpRequestEncoder<SpanData> {
+
+    private static final int SPAN_TRACE_ID = 1;
+    private static final int SPAN_SPAN_ID = 2;
+    private static final int SPAN_TRACE_STATE = 3;
+    private static final int SPAN_PARENT_SPAN_ID = 4;
+    private static final int SPAN_NAME = 5;
+    private static final int SPAN_KIND = 6;
+    private static final int SPAN_START_TIME_UNIX_NANO = 7;
+    private static final int SPAN_END_TIME_UNIX_NANO = 8;
+    private static final int SPAN_ATTRIBUTES = 9;
+    private static final int SPAN_DROPPED_ATTRIBUTES_COUNT = 10;
+    private static final int SPAN_EVENTS = 11;
+    private static final int SPAN_DROPPED_EVENTS_COUNT = 12;
+    private static final int SPAN_LINKS = 13;
+    private static final int SPAN_DROPPED_LINKS_COUNT = 14;
+    private static final int SPAN_STATUS = 15;
+    private static final int SPAN_FLAGS = 16;
+
+    private static final int EVENT_TIME_UNIX_NANO = 1;
+    private static final int EVENT_NAME = 2;
+    private static final int EVENT_ATTRIBUTES = 3;
+    private static final int EVENT_DROPPED_ATTRIBUTES_COUNT = 4;
+
+    private static final int LINK_TRACE_ID = 1;
+    private static final int LINK_SPAN_ID = 2;
+    private static final int LINK_TRACE_STATE = 3;
+    private static final int LINK_ATTRIBUTES = 4;
+    private static final int LINK_DROPPED_ATTRIBUTES_COUNT = 5;
+    private static final int LINK_FLAGS = 6;
+
+    private static final int STATUS_MESSAGE = 2;
+    private static final int STATUS_CODE = 3;
+
+    @Override
+    Resource getResource(SpanData span) {
+        return span.getResource();
+    }
+
+    @Override
+    InstrumentationScopeInfo getInstrumentationScopeInfo(SpanData span) {
+        return span.getInstrumentationScopeInfo();
+    }
+
+    @Override
+    void writeItem(SpanData span, ProtoWriter output) {
+        SpanContext spanContext = span.getSpanContext();
+        output.writeHexBytes(SPAN_TRACE_ID, spanContext.getTraceId());
+        output.writeHexBytes(SPAN_SPAN_ID, spanContext.getSpanId());
+        writeTraceState(SPAN_TRACE_STATE, spanContext.getTraceState(), output);
+        SpanContext parentSpanContext = span.getParentSpanContext();
+        if (parentSpanContext.isValid()) {
+            output.writeHexBytes(SPAN_PARENT_SPAN_ID, parentSpanContext.getSpanId());
+        }
+        output.writeString(SPAN_NAME, span.getName());
+        output.writeInt32(SPAN_KIND, spanKind(span));
+        output.writeFixed64(SPAN_START_TIME_UNIX_NANO, span.getStartEpochNanos());
+        output.writeFixed64(SPAN_END_TIME_UNIX_NANO, span.getEndEpochNanos());
+        writeAttributes(SPAN_ATTRIBUTES, span.getAttributes(), output);
+        output.writeInt32(
+                SPAN_DROPPED_ATTRIBUTES_COUNT,
+                span.getTotalAttributeCount() - span.getAttributes().size());
+        List<EventData> events = span.getEvents();
+        for (int i = 0; i < events.size(); i++) {
+            writeEvent(events.get(i), output);
+        }
+        output.writeInt32(SPAN_DROPPED_EVENTS_COUNT, span.getTotalRecordedEvents() - events.size());
+        List<LinkData> links = span.getLinks();
+        for (int i = 0; i < links.size(); i++) {
+            writeLink(links.get(i), output);
+        }
+        output.writeInt32(SPAN_DROPPED_LINKS_COUNT, span.getTotalRecordedLinks() - links.size());
+        writeStatus(span.getStatus(), output);
+        output.writeFixed32(SPAN_FLAGS, spanContext.getTraceFlags().asByte() & 0xFF);
+    }
+
+    private void writeEvent(EventData event, ProtoWriter output) {
+        int message = output.startMessage(SPAN_EVENTS);
+        output.writeFixed64(EVENT_TIME_UNIX_NANO, event.getEpochNanos());
+        output.writeString(EVENT_NAME, event.getName());
+        writeAttributes(EVENT_ATTRIBUTES, event.getAttributes(), output);
+        output.writeInt32(
+                EVENT_DROPPED_ATTRIBUTES_COUNT,
+                event.getTotalAttributeCount() - event.getAttributes().size());
+        output.endMessage(message);
+    }
+
+    private void writeLink(LinkData link, ProtoWriter output) {
+        SpanContext spanContext = link.getSpanContext();
+        int message = output.startMessage(SPAN_LINKS);
+        output.writeHexBytes(LINK_TRACE_ID, spanContext.getTraceId());
+        output.writeHexBytes(LINK_SPAN_ID, spanContext.getSpanId());
+        writeTraceState(LINK_TRACE_STATE, spanContext.getTraceState(), output);
+        writeAttributes(LINK_ATTRIBUTES, link.getAttributes(), output);
+        output.writeInt32(
+                LINK_DROPPED_ATTRIBUTES_COUNT,
+                link.getTotalAttributeCount() - link.getAttributes().size());
+        output.writeFixed32(LINK_FLAGS, spanContext.getTraceFlags().asByte() & 0xFF);
+        output.endMessage(message);
+    }
+
+    private static void writeStatus(StatusData status, ProtoWriter output) {
+        int message = output.startMessage(SPAN_STATUS);
+        output.writeString(STATUS_MESSAGE, status.getDescription());
+        output.writeInt32(STATUS_CODE, statusCode(status.getStatusCode()));
+        output.endMessage(message);
+    }
+
+    private static void writeTraceState(int field, TraceState traceState, ProtoWriter output) {
+        if (traceState.isEmpty()) {
+            return;
+        }
+        // W3C tracestate header format, seldom used by apps
+        StringBuilder builder = new StringBuilder();
+        traceState.forEach(
+                (key, value) -> {
+                    if (builder.length() > 0) {
+                        builder.append(',');
+                    }
+                    builder.append(key).append('=').append(value);
+                });
+        output.writeString(field, builder.toString());
+    }
+
+    private static int spanKind(SpanData span) {
+        switch (span.getKind()) {
+            case INTERNAL:
+                return 1;
+            case SERVER:
+                return 2;
+            case CLIENT:
+                return 3;
+            case PRODUCER:
+                return 4;
+            case CONSUMER:
+                return 5;
+        }
+        return 0;
+    }
+
+    private static int statusCode(StatusCode statusCode) {
+        switch (statusCode) {
+            case OK:
+                return 1;
+            case ERROR:
+                return 2;
+            case UNSET:
+                return 0;
+        }
+        return 0;
+    }
+}
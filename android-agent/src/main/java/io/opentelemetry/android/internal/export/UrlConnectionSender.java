@@ -0,0 +1,77 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import io.opentelemetry.android.export.OtlpExportConfiguration;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Posts the requests with {@link HttpURLConnection}, so that no HTTP client library is needed. The
+ * body is written from the writer's buffer straight into the connection.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+final class UrlConnectionSender implements OtlpHttpSender {
+
+    private final URL url;
+    private final Map<String, String> headers;
+    private final int timeoutMillis;
+    private final byte[] drainBuffer = new byte[1024];
+
+    UrlConnectionSender(URL url, OtlpExportConfiguration configuration) {
+        this.url = url;
+        this.headers = configuration.getHeaders();
+        this.timeoutMillis = (int) configuration.getTimeout().toMillis();
+    }
+
+    @Override
+    public int send(ProtoWriter body, @Nullable String contentEncoding) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            connection.setRequestProperty("Content-Type", "application/x-protobuf");
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+            if (contentEncoding != null) {
+                connection.setRequestProperty("Content-Encoding", contentEncoding);
+            }
+            connection.setFixedLengthStreamingMode(body.size());
+            try (OutputStream output = connection.getOutputStream()) {
+                body.writeTo(output);
+            }
+            int code = connection.getResponseCode();
+            // reading the response to its end, without disconnecting, lets the connection be
+            // reused for the next request
+            drain(code < 400 ? connection.getInputStream() : connection.getErrorStream());
+            return code;
+        } catch (IOException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    private void drain(@Nullable InputStream input) throws IOException {
+        if (input == null) {
+            return;
+        }
+        try (InputStream stream = input) {
+            while (stream.read(drainBuffer) != -1) {
+                // discarded, OTLP responses only report partial successes
+            }
+        }
+    }
+}
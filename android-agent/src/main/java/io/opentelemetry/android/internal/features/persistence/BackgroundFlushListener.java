@@ -0,0 +1,119 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import android.util.Log;
+import androidx.annotation.Nullable;
+import io.opentelemetry.android.common.RumConstants;
+import io.opentelemetry.android.instrumentation.common.ApplicationStateListener;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands the signals that the SDK's processors keep in memory to their exporters as soon as the app
+ * goes to the background, as the app's process can be killed at any time from then on.
+ *
+ * <p>It is meant to be used with disk buffering, where the exporters of the processors write to
+ * disk, so that the flush doesn't wait on the network. With write-behind, the batches that the
+ * flush hands to the network are spilled to disk once it's done. The flush isn't waited on: a
+ * warning is logged when it isn't done within the given time budget, and what isn't written is
+ * left to the processors' own schedule.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+public final class BackgroundFlushListener implements ApplicationStateListener {
+
+    static final long DEFAULT_TIME_BUDGET_MILLIS = 1000;
+
+    private final OpenTelemetrySdk sdk;
+    private final ScheduledExecutorService scheduler;
+    @Nullable private final WriteBehindExporters writeBehindExporters;
+    private final long timeBudgetMillis;
+
+    public BackgroundFlushListener(
+            OpenTelemetrySdk sdk,
+            ScheduledExecutorService scheduler,
+            @Nullable WriteBehindExporters writeBehindExporters) {
+        this(sdk, scheduler, writeBehindExporters, DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    // visible for tests
+    BackgroundFlushListener(
+            OpenTelemetrySdk sdk,
+            ScheduledExecutorService scheduler,
+            @Nullable WriteBehindExporters writeBehindExporters,
+            long timeBudgetMillis) {
+        this.sdk = sdk;
+        this.scheduler = scheduler;
+        this.writeBehindExporters = writeBehindExporters;
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    @Override
+    public void onApplicationForegrounded() {}
+
+    @Override
+    public void onApplicationBackgrounded() {
+        // the metric readers export on the calling thread when flushed
+        scheduler.execute(this::flush);
+    }
+
+    /**
+     * Flushes the processors of all the signals, without waiting for them.
+     *
+     * @return The result of the flush, which completes once the signals are written.
+     */
+    CompletableResultCode flush() {
+        long start = System.nanoTime();
+        CompletableResultCode result =
+                CompletableResultCode.ofAll(
+                        Arrays.asList(
+                                sdk.getSdkTracerProvider().forceFlush(),
+                                sdk.getSdkLoggerProvider().forceFlush(),
+                                sdk.getSdkMeterProvider().forceFlush()));
+        CompletableResultCode flushed = new CompletableResultCode();
+        result.whenComplete(
+                () -> {
+                    WriteBehindExporters writeBehind = writeBehindExporters;
+                    if (writeBehind != null) {
+                        // the processors' batches may have been handed to the network
+                        writeBehind.spillAll();
+                    }
+                    long elapsedMillis =
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    if (result.isSuccess()) {
+                        Log.d(
+                                RumConstants.OTEL_RUM_LOG_TAG,
+                                String.format("Flushed the signals in %s ms.", elapsedMillis));
+                        flushed.succeed();
+                    } else {
+                        Log.w(
+                                RumConstants.OTEL_RUM_LOG_TAG,
+                                String.format(
+                                        "Could not flush the signals, took %s ms.",
+                                        elapsedMillis));
+                        flushed.fail();
+                    }
+                });
+        scheduler.schedule(
+                () -> {
+                    if (!flushed.isDone()) {
+                        Log.w(
+                                RumConstants.OTEL_RUM_LOG_TAG,
+                                String.format(
+                                        "Could not flush the signals within %s ms.",
+                                        timeBudgetMillis));
+                    }
+                },
+                timeBudgetMillis,
+                TimeUnit.MILLISECONDS);
+        return flushed;
+    }
+}
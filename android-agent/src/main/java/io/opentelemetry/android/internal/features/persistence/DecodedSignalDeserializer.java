@@ -0,0 +1,57 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import io.opentelemetry.android.features.diskbuffering.DiskBufferingCodec;
+import io.opentelemetry.contrib.disk.buffering.internal.serialization.deserializers.DeserializationException;
+import io.opentelemetry.contrib.disk.buffering.internal.serialization.deserializers.SignalDeserializer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Decodes the batches written by {@link EncodedSignalSerializer} before handing them to another
+ * {@link SignalDeserializer}. That one only takes a whole message, so each batch is decoded into
+ * memory in full before it is parsed.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+final class DecodedSignalDeserializer<T> implements SignalDeserializer<T> {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final SignalDeserializer<T> delegate;
+    private final DiskBufferingCodec codec;
+
+    DecodedSignalDeserializer(SignalDeserializer<T> delegate, DiskBufferingCodec codec) {
+        this.delegate = delegate;
+        this.codec = codec;
+    }
+
+    @Override
+    public List<T> deserialize(byte[] source) throws DeserializationException {
+        return delegate.deserialize(decode(codec, source));
+    }
+
+    /** Returns the protobuf message of a stored batch. */
+    static byte[] decode(DiskBufferingCodec codec, byte[] source) throws DeserializationException {
+        // a decoded batch is rarely smaller than the encoded one, and can't be sized any closer
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(source.length);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream input = codec.decode(new ByteArrayInputStream(source))) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                decoded.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new DeserializationException(e);
+        }
+        return decoded.toByteArray();
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import android.util.Log;
+import androidx.annotation.Nullable;
+import io.opentelemetry.android.common.RumConstants;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Exporters that stand in for the to-disk exporters while the disk buffer is being set up in the
+ * background. Until the exporter they hand the signals to is set, the exported batches are kept in
+ * a bounded in-memory queue, dropping the oldest batches when it is full. The queued batches are
+ * handed over as soon as the exporter is set, before any batch exported after them. Shutting down
+ * before then drops the queued batches.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+public final class DeferredDiskExporters {
+
+    // per signal, about 4 batches of the default batch span processor
+    static final int MAX_QUEUED_ITEMS = 2048;
+
+    private DeferredDiskExporters() {}
+
+    static final class DeferredExport<T> {
+        private final int maxQueuedItems;
+        private final ArrayDeque<Collection<T>> queue = new ArrayDeque<>();
+        private int queuedItems;
+        @Nullable private volatile Function<Collection<T>, CompletableResultCode> exportFunction;
+        @Nullable private volatile Supplier<CompletableResultCode> shutdownFunction;
+
+        DeferredExport(int maxQueuedItems) {
+            this.maxQueuedItems = maxQueuedItems;
+        }
+
+        CompletableResultCode export(Collection<T> items) {
+            Function<Collection<T>, CompletableResultCode> function = exportFunction;
+            if (function == null) {
+                synchronized (this) {
+                    function = exportFunction;
+                    if (function == null) {
+                        enqueue(items);
+                        return CompletableResultCode.ofSuccess();
+                    }
+                }
+            }
+            return function.apply(items);
+        }
+
+        private void enqueue(Collection<T> items) {
+            while (!queue.isEmpty() && queuedItems + items.size() > maxQueuedItems) {
+                queuedItems -= queue.removeFirst().size();
+                Log.w(
+                        RumConstants.OTEL_RUM_LOG_TAG,
+                        "Disk buffer not ready yet, dropping the oldest queued signals.");
+            }
+            queue.addLast(new ArrayList<>(items));
+            queuedItems += items.size();
+        }
+
+        void setDelegate(
+                Function<Collection<T>, CompletableResultCode> exportFunction,
+                Supplier<CompletableResultCode> shutdownFunction) {
+            synchronized (this) {
+                // the exports that come in meanwhile wait for the lock, so they can't overtake
+                // the queued batches
+                while (!queue.isEmpty()) {
+                    exportFunction.apply(queue.removeFirst());
+                }
+                queuedItems = 0;
+                this.shutdownFunction = shutdownFunction;
+                this.exportFunction = exportFunction;
+            }
+        }
+
+        synchronized int getQueuedItems() {
+            return queuedItems;
+        }
+
+        CompletableResultCode shutdown() {
+            Supplier<CompletableResultCode> function = shutdownFunction;
+            if (function != null) {
+                return function.get();
+            }
+            synchronized (this) {
+                if (queuedItems == 0) {
+                    return CompletableResultCode.ofSuccess();
+                }
+                Log.w(
+                        RumConstants.OTEL_RUM_LOG_TAG,
+                        "Disk buffer not ready at shutdown, dropping "
+                                + queuedItems
+                                + " queued signals.");
+                queue.clear();
+                queuedItems = 0;
+                return CompletableResultCode.ofFailure();
+            }
+        }
+    }
+
+    public static final class DeferredSpanExporter implements SpanExporter {
+        private final DeferredExport<SpanData> deferred = new DeferredExport<>(MAX_QUEUED_ITEMS);
+        @Nullable private volatile SpanExporter delegate;
+
+        /** Hands the queued and the upcoming spans to the given exporter. */
+        public void setDelegate(SpanExporter delegate) {
+            this.delegate = delegate;
+            deferred.setDelegate(delegate::export, delegate::shutdown);
+        }
+
+        // visible for tests
+        @Nullable
+        public SpanExporter getDelegate() {
+            return delegate;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return deferred.export(spans);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return deferred.shutdown();
+        }
+    }
+
+    public static final class DeferredMetricExporter implements MetricExporter {
+        private final DeferredExport<MetricData> deferred = new DeferredExport<>(MAX_QUEUED_ITEMS);
+        private final MetricExporter temporalitySource;
+
+        /**
+         * @param temporalitySource The exporter that the metrics are eventually sent to, which
+         *     picks their aggregation temporality.
+         */
+        public DeferredMetricExporter(MetricExporter temporalitySource) {
+            this.temporalitySource = temporalitySource;
+        }
+
+        /** Hands the queued and the upcoming metrics to the given exporter. */
+        public void setDelegate(MetricExporter delegate) {
+            deferred.setDelegate(delegate::export, delegate::shutdown);
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<MetricData> metrics) {
+            return deferred.export(metrics);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return deferred.shutdown();
+        }
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+            return temporalitySource.getAggregationTemporality(instrumentType);
+        }
+    }
+
+    public static final class DeferredLogRecordExporter implements LogRecordExporter {
+        private final DeferredExport<LogRecordData> deferred =
+                new DeferredExport<>(MAX_QUEUED_ITEMS);
+
+        /** Hands the queued and the upcoming log records to the given exporter. */
+        public void setDelegate(LogRecordExporter delegate) {
+            deferred.setDelegate(delegate::export, delegate::shutdown);
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<LogRecordData> logs) {
+            return deferred.export(logs);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return deferred.shutdown();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts what the disk buffer does: the batches stored and not stored, the batches exported
+ * without going through the disk, the exports of stored batches and the runs of the export
+ * scheduler. Recording only increments counters, which are read
+ * when the metrics are collected, so it can be left on in production.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+public final class DiskBufferingMetrics {
+
+    /** The instrumentation scope of the disk buffering metrics. */
+    public static final String INSTRUMENTATION_SCOPE = "io.opentelemetry.android.disk-buffering";
+
+    static final AttributeKey<String> SIGNAL_KEY = stringKey("signal");
+    static final AttributeKey<String> RESULT_KEY = stringKey("result");
+
+    /** The outcome of reading a stored batch and exporting it. */
+    public enum ExportResult {
+        EXPORTED,
+        // a stored batch was read, but the exporter didn't succeed
+        NOT_EXPORTED,
+        // there was no stored batch to read
+        EMPTY,
+        ERROR
+    }
+
+    /** The outcome of a run of the export scheduler. */
+    public enum RunResult {
+        EXPORTED,
+        IDLE,
+        OFFLINE,
+        FAILED
+    }
+
+    private static volatile DiskBufferingMetrics instance = new DiskBufferingMetrics();
+
+    public static DiskBufferingMetrics get() {
+        return instance;
+    }
+
+    // visible for tests
+    public static void resetForTesting() {
+        instance = new DiskBufferingMetrics();
+    }
+
+    private final Map<Signal, SignalCounters> signals = new EnumMap<>(Signal.class);
+    private final Map<RunResult, AtomicLong> runs = new EnumMap<>(RunResult.class);
+    private final Map<RunResult, Attributes> runAttributes = new EnumMap<>(RunResult.class);
+
+    // visible for tests
+    DiskBufferingMetrics() {
+        for (Signal signal : Signal.values()) {
+            signals.put(signal, new SignalCounters(signal));
+        }
+        for (RunResult result : RunResult.values()) {
+            runs.put(result, new AtomicLong());
+            runAttributes.put(result, Attributes.of(RESULT_KEY, name(result)));
+        }
+    }
+
+    /** Records a batch written to disk, with its size once encoded. */
+    public void recordStored(Signal signal, long bytes) {
+        SignalCounters counters = signals.get(signal);
+        counters.storedBatches.incrementAndGet();
+        counters.storedBytes.addAndGet(bytes);
+    }
+
+    /** Records a batch that couldn't be written to disk, and so was exported right away. */
+    public void recordNotStored(Signal signal) {
+        signals.get(signal).notStoredBatches.incrementAndGet();
+    }
+
+    /**
+     * Records a batch handled in write-behind mode, which was either exported right away or spilled
+     * to disk.
+     */
+    public void recordWriteBehind(Signal signal, boolean spilled) {
+        SignalCounters counters = signals.get(signal);
+        (spilled ? counters.spilledBatches : counters.directBatches).incrementAndGet();
+    }
+
+    /** Records an attempt at reading a stored batch and exporting it. */
+    public void recordExport(Signal signal, ExportResult result, long durationNanos) {
+        SignalCounters counters = signals.get(signal);
+        counters.exports.get(result).incrementAndGet();
+        counters.exportNanos.addAndGet(durationNanos);
+    }
+
+    public void recordSchedulerRun(RunResult result) {
+        runs.get(result).incrementAndGet();
+    }
+
+    public void registerMetrics(Meter meter) {
+        meter.counterBuilder("otel.android.disk_buffering.stored.batches")
+                .setDescription("Number of batches written to disk")
+                .setUnit("{batch}")
+                .buildWithCallback(
+                        measurement -> {
+                            for (SignalCounters counters : signals.values()) {
+                                measurement.record(
+                                        counters.storedBatches.get(), counters.attributes);
+                            }
+                        });
+        meter.counterBuilder("otel.android.disk_buffering.stored.size")
+                .setDescription("Bytes written to disk, once encoded")
+                .setUnit("By")
+                .buildWithCallback(
+                        measurement -> {
+                            for (SignalCounters counters : signals.values()) {
+                                measurement.record(counters.storedBytes.get(), counters.attributes);
+                            }
+                        });
+        meter.counterBuilder("otel.android.disk_buffering.not_stored.batches")
+                .setDescription(
+                        "Number of batches that couldn't be written to disk, such as when the"
+                                + " cache has no space left")
+                .setUnit("{batch}")
+                .buildWithCallback(
+                        measurement -> {
+                            for (SignalCounters counters : signals.values()) {
+                                measurement.record(
+                                        counters.notStoredBatches.get(), counters.attributes);
+                            }
+                        });
+        meter.counterBuilder("otel.android.disk_buffering.write_behind.batches")
+                .setDescription(
+                        "Number of batches handled in write-behind mode, either exported right"
+                                + " away (direct) or spilled to disk (spilled)")
+                .setUnit("{batch}")
+                .buildWithCallback(
+                        measurement -> {
+                            for (SignalCounters counters : signals.values()) {
+                                measurement.record(
+                                        counters.directBatches.get(), counters.directAttributes);
+                                measurement.record(
+                                        counters.spilledBatches.get(), counters.spilledAttributes);
+                            }
+                        });
+        meter.counterBuilder("otel.android.disk_buffering.exports")
+                .setDescription("Number of attempts at reading a stored batch and exporting it")
+                .setUnit("{export}")
+                .buildWithCallback(
+                        measurement -> {
+                            for (SignalCounters counters : signals.values()) {
+                                for (ExportResult result : ExportResult.values()) {
+                                    measurement.record(
+                                            counters.exports.get(result).get(),
+                                            counters.exportAttributes.get(result));
+                                }
+                            }
+                        });
+        meter.counterBuilder("otel.android.disk_buffering.exports.duration")
+                .ofDoubles()
+                .setDescription("Time spent reading stored batches and exporting them")
+                .setUnit("ms")
+                .buildWithCallback(
+                        measurement -> {
+                            for (SignalCounters counters : signals.values()) {
+                                measurement.record(
+                                        counters.exportNanos.get() / 1_000_000.0,
+                                        counters.attributes);
+                            }
+                        });
+        meter.counterBuilder("otel.android.disk_buffering.scheduler.runs")
+                .setDescription("Number of runs of the export scheduler")
+                .setUnit("{run}")
+                .buildWithCallback(
+                        measurement -> {
+                            for (RunResult result : RunResult.values()) {
+                                measurement.record(
+                                        runs.get(result).get(), runAttributes.get(result));
+                            }
+                        });
+    }
+
+    private static String name(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class SignalCounters {
+        private final Attributes attributes;
+        private final AtomicLong storedBatches = new AtomicLong();
+        private final AtomicLong storedBytes = new AtomicLong();
+        private final AtomicLong notStoredBatches = new AtomicLong();
+        private final AtomicLong exportNanos = new AtomicLong();
+        private final AtomicLong directBatches = new AtomicLong();
+        private final AtomicLong spilledBatches = new AtomicLong();
+        private final Attributes directAttributes;
+        private final Attributes spilledAttributes;
+        private final Map<ExportResult, AtomicLong> exports = new EnumMap<>(ExportResult.class);
+        private final Map<ExportResult, Attributes> exportAttributes =
+                new EnumMap<>(ExportResult.class);
+
+        private SignalCounters(Signal signal) {
+            this.attributes = Attributes.of(SIGNAL_KEY, name(signal));
+            this.directAttributes = Attributes.of(SIGNAL_KEY, name(signal), RESULT_KEY, "direct");
+            this.spilledAttributes =
+                    Attributes.of(SIGNAL_KEY, name(signal), RESULT_KEY, "spilled");
+            for (ExportResult result : ExportResult.values()) {
+                exports.put(result, new AtomicLong());
+                exportAttributes.put(
+                        result, Attributes.of(SIGNAL_KEY, name(signal), RESULT_KEY, name(result)));
+            }
+        }
+    }
+}
@@ -11,6 +11,7 @@ import io.opentelemetry.android.features.diskbuffering.DiskBufferingConfiguratio
 import io.opentelemetry.android.internal.services.CacheStorageAppWorker;
 import io.opentelemetry.android.internal.services.PreferencesAppWorker;
 import io.opentelemetry.android.internal.services.AppWorkerManager;
+import io.opentelemetry.api.metrics.Meter;
 import java.io.File;
 import java.io.IOException;
 
@@ -50,6 +51,16 @@ public final class DiskManager {
         return dir;
     }
 
+    public File getSegmentsDir() throws IOException {
+        File dir = new File(cacheStorageService.getCacheDir(), "opentelemetry/segments");
+        if (!dir.exists()) {
+            if (!dir.mkdirs()) {
+                throw new IOException("Could not create dir " + dir);
+            }
+        }
+        return dir;
+    }
+
     public File getTemporaryDir() throws IOException {
         File dir = new File(cacheStorageService.getCacheDir(), "opentelemetry/temp");
         if (!dir.exists()) {
@@ -104,10 +115,70 @@ public final class DiskManager {
         return calculatedSize;
     }
 
+    /**
+     * Returns each signal's max size when stored in memory-mapped segments. Segments are read in
+     * place, so the space that {@link #getMaxFolderSize()} keeps for a temp file is available too.
+     *
+     * @return 0 if there's not enough cache space for the signals.
+     */
+    public long getMaxSegmentsSize() {
+        int maxFolderSize = getMaxFolderSize();
+        if (maxFolderSize == 0) {
+            return 0;
+        }
+        return (long) maxFolderSize + getMaxCacheFileSize();
+    }
+
     public int getMaxCacheFileSize() {
         return diskBufferingConfiguration.getMaxCacheFileSize();
     }
 
+    /**
+     * Reports the size and the amount of the files that hold the stored signals, either files or
+     * segments. The folders are only listed when the metrics are collected.
+     */
+    public void registerMetrics(Meter meter) {
+        File signalsDir = new File(cacheStorageService.getCacheDir(), "opentelemetry/signals");
+        File segmentsDir = new File(cacheStorageService.getCacheDir(), "opentelemetry/segments");
+        meter.upDownCounterBuilder("otel.android.disk_buffering.usage")
+                .setDescription("Bytes used by the signals stored in disk")
+                .setUnit("By")
+                .buildWithCallback(
+                        measurement ->
+                                measurement.record(sizeOf(signalsDir) + sizeOf(segmentsDir)));
+        meter.upDownCounterBuilder("otel.android.disk_buffering.files")
+                .setDescription("Number of files holding the signals stored in disk")
+                .setUnit("{file}")
+                .buildWithCallback(
+                        measurement ->
+                                measurement.record(
+                                        countFiles(signalsDir) + countFiles(segmentsDir)));
+    }
+
+    private static long sizeOf(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        long size = 0;
+        for (File file : files) {
+            size += file.isDirectory() ? sizeOf(file) : file.length();
+        }
+        return size;
+    }
+
+    private static long countFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        long count = 0;
+        for (File file : files) {
+            count += file.isDirectory() ? countFiles(file) : 1;
+        }
+        return count;
+    }
+
     private static void deleteFiles(File dir) {
         File[] files = dir.listFiles();
         if (files != null) {
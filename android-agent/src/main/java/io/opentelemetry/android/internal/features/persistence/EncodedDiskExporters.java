@@ -0,0 +1,742 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import android.util.Log;
+import androidx.annotation.Nullable;
+import io.opentelemetry.android.common.RumConstants;
+import io.opentelemetry.android.features.diskbuffering.DiskBufferingCodec;
+import io.opentelemetry.android.features.diskbuffering.DiskBufferingPriority;
+import io.opentelemetry.android.features.diskbuffering.DiskBufferingPriorityRules;
+import io.opentelemetry.android.features.diskbuffering.GzipCodec;
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal;
+import io.opentelemetry.android.internal.export.EncodedRequestExporter;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.contrib.disk.buffering.FromDiskExporter;
+import io.opentelemetry.contrib.disk.buffering.FromDiskExporterImpl;
+import io.opentelemetry.contrib.disk.buffering.StorageConfiguration;
+import io.opentelemetry.contrib.disk.buffering.ToDiskExporter;
+import io.opentelemetry.contrib.disk.buffering.internal.serialization.deserializers.DeserializationException;
+import io.opentelemetry.contrib.disk.buffering.internal.serialization.deserializers.SignalDeserializer;
+import io.opentelemetry.contrib.disk.buffering.internal.serialization.serializers.SignalSerializer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Creates the exporters that write signals to disk and read them back, encoding the stored batches
+ * with a {@link DiskBufferingCodec}.
+ *
+ * <p>The batches are either stored in the files of the disk buffering library, in the same folder
+ * as with its plain exporters, or in a {@link PrioritizedSegmentStore} per signal.
+ *
+ * <p>Each stored batch holds an OTLP request. When reading them back for an {@link
+ * EncodedRequestExporter}, the stored requests are exported as they are, without reading the
+ * signals out of them, and those stored by the {@link GzipCodec} aren't even decompressed.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+public final class EncodedDiskExporters {
+
+    private final Backend backend;
+    private final DiskBufferingPriorityRules priorityRules;
+    private final DiskBufferingCodec codec;
+    private final boolean exportBatchIdEnabled;
+
+    /**
+     * Stores the batches in the files of the disk buffering library.
+     *
+     * <p>Each stored batch is exported on its own, and its file is deleted by the library right
+     * after the export returns, so the batches aren't merged nor checkpointed: a batch can be sent
+     * again if the process dies in between.
+     */
+    public static EncodedDiskExporters withFiles(
+            StorageConfiguration storageConfiguration, DiskBufferingCodec codec) {
+        // the files are evicted by the disk buffering library, oldest first
+        return new EncodedDiskExporters(
+                new FileBackend(storageConfiguration),
+                DiskBufferingPriorityRules.builder().build(),
+                codec,
+                false);
+    }
+
+    /**
+     * Stores the batches in memory-mapped segments, within a folder per signal in the given
+     * directory. Each signal can use up to the given max folder size. The signals of each batch
+     * are split by priority, and stored in the segments of their tier.
+     *
+     * <p>When reading them back, consecutive stored batches are merged into a single export of up
+     * to the given amount of signals or stored bytes. The limits are checked after each batch, so
+     * an export can go over them by one batch.
+     *
+     * <p>Each export is checkpointed, so that it isn't sent again if the process dies once it
+     * succeeded but before the stored batches were removed. An export that was still running is
+     * sent again with the same records, which, when the export batch id is enabled, carry the same
+     * {@link RumConstants#EXPORT_BATCH_ID_KEY} so that the backend can drop the duplicates.
+     */
+    public static EncodedDiskExporters withMappedSegments(
+            File dir,
+            int segmentSize,
+            long maxFolderSize,
+            int maxExportBatchSize,
+            int maxExportBatchBytes,
+            DiskBufferingPriorityRules priorityRules,
+            DiskBufferingCodec codec,
+            boolean exportBatchIdEnabled) {
+        return new EncodedDiskExporters(
+                new SegmentBackend(
+                        dir, segmentSize, maxFolderSize, maxExportBatchSize, maxExportBatchBytes),
+                priorityRules,
+                codec,
+                exportBatchIdEnabled);
+    }
+
+    private EncodedDiskExporters(
+            Backend backend,
+            DiskBufferingPriorityRules priorityRules,
+            DiskBufferingCodec codec,
+            boolean exportBatchIdEnabled) {
+        this.backend = backend;
+        this.priorityRules = priorityRules;
+        this.codec = codec;
+        this.exportBatchIdEnabled = exportBatchIdEnabled;
+    }
+
+    public SpanExporter spanToDisk(SpanExporter delegate) throws IOException {
+        return new SpanToDiskExporter(
+                backend.writer(
+                        Signal.SPANS,
+                        new EncodedSignalSerializer<>(SignalSerializer.ofSpans(), codec),
+                        priorityRules::getPriority,
+                        delegate::export));
+    }
+
+    public MetricExporter metricToDisk(MetricExporter delegate) throws IOException {
+        return new MetricToDiskExporter(
+                backend.writer(
+                        Signal.METRICS,
+                        new EncodedSignalSerializer<>(SignalSerializer.ofMetrics(), codec),
+                        priorityRules::getPriority,
+                        delegate::export),
+                delegate);
+    }
+
+    public LogRecordExporter logRecordToDisk(LogRecordExporter delegate) throws IOException {
+        return new LogRecordToDiskExporter(
+                backend.writer(
+                        Signal.LOGS,
+                        new EncodedSignalSerializer<>(SignalSerializer.ofLogs(), codec),
+                        priorityRules::getPriority,
+                        delegate::export));
+    }
+
+    public StoredBatchReader spanFromDisk(SpanExporter exporter) throws IOException {
+        if (exporter instanceof EncodedRequestExporter && !exportBatchIdEnabled) {
+            return encodedReader(Signal.SPANS, (EncodedRequestExporter) exporter);
+        }
+        return reader(
+                Signal.SPANS,
+                new DecodedSignalDeserializer<>(SignalDeserializer.ofSpans(), codec),
+                exportBatchIdEnabled ? BatchIdSpanData::new : null,
+                exporter::export);
+    }
+
+    public StoredBatchReader metricFromDisk(MetricExporter exporter) throws IOException {
+        if (exporter instanceof EncodedRequestExporter) {
+            return encodedReader(Signal.METRICS, (EncodedRequestExporter) exporter);
+        }
+        return reader(
+                Signal.METRICS,
+                new DecodedSignalDeserializer<>(SignalDeserializer.ofMetrics(), codec),
+                null,
+                exporter::export);
+    }
+
+    public StoredBatchReader logRecordFromDisk(LogRecordExporter exporter) throws IOException {
+        if (exporter instanceof EncodedRequestExporter) {
+            return encodedReader(Signal.LOGS, (EncodedRequestExporter) exporter);
+        }
+        return reader(
+                Signal.LOGS,
+                new DecodedSignalDeserializer<>(SignalDeserializer.ofLogs(), codec),
+                null,
+                exporter::export);
+    }
+
+    /**
+     * Reads each stored batch as the request it holds, which is then exported as is. Merged
+     * exports of segments count the stored batches rather than the signals against the max export
+     * batch size.
+     */
+    private StoredBatchReader encodedReader(Signal signal, EncodedRequestExporter exporter)
+            throws IOException {
+        // gzip members are merged by concatenating them, so the stored ones are sent as they are
+        boolean keepGzip = codec instanceof GzipCodec && exporter.acceptsGzip();
+        return reader(
+                signal,
+                stored ->
+                        Collections.singletonList(
+                                keepGzip && isGzip(stored)
+                                        ? stored
+                                        : DecodedSignalDeserializer.decode(codec, stored)),
+                null,
+                exporter::exportEncoded);
+    }
+
+    /**
+     * Creates a reader of the backend that keeps track of the outcome of its exports, so that a
+     * batch that couldn't be exported can be told apart from having no batch to read.
+     */
+    private <T> StoredBatchReader reader(
+            Signal signal,
+            SignalDeserializer<T> deserializer,
+            @Nullable BiFunction<T, String, T> batchIdFunction,
+            Function<Collection<T>, CompletableResultCode> exportFunction)
+            throws IOException {
+        TrackedExportFunction<T> tracked = new TrackedExportFunction<>(exportFunction);
+        return new TrackedReader(
+                backend.reader(signal, deserializer, batchIdFunction, tracked), tracked);
+    }
+
+    private static boolean isGzip(byte[] stored) {
+        return stored.length > 1 && (stored[0] & 0xFF) == 0x1F && (stored[1] & 0xFF) == 0x8B;
+    }
+
+    /**
+     * Returns the amount of bytes waiting to be exported. The segment stores keep count of them.
+     * The files are listed at most once a minute, only counting those that can be read already,
+     * and the last count is returned in between.
+     */
+    public long getPendingBytes() {
+        return backend.getPendingBytes();
+    }
+
+    private interface Backend {
+        <T> DiskWriter<T> writer(
+                Signal signal,
+                EncodedSignalSerializer<T> serializer,
+                Function<T, DiskBufferingPriority> priorityFunction,
+                Function<Collection<T>, CompletableResultCode> exportFunction)
+                throws IOException;
+
+        <T> FromDiskExporter reader(
+                Signal signal,
+                SignalDeserializer<T> deserializer,
+                @Nullable BiFunction<T, String, T> batchIdFunction,
+                Function<Collection<T>, CompletableResultCode> exportFunction)
+                throws IOException;
+
+        long getPendingBytes();
+    }
+
+    private interface DiskWriter<T> {
+        CompletableResultCode write(Collection<T> items);
+
+        void close() throws IOException;
+    }
+
+    private static final class FileBackend implements Backend {
+        private static final long PENDING_BYTES_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+        private final StorageConfiguration storageConfiguration;
+        private long pendingBytes;
+        private long pendingBytesCountedAtMillis;
+
+        private FileBackend(StorageConfiguration storageConfiguration) {
+            this.storageConfiguration = storageConfiguration;
+        }
+
+        @Override
+        public <T> DiskWriter<T> writer(
+                Signal signal,
+                EncodedSignalSerializer<T> serializer,
+                Function<T, DiskBufferingPriority> priorityFunction,
+                Function<Collection<T>, CompletableResultCode> exportFunction)
+                throws IOException {
+            DiskBufferingMetrics metrics = DiskBufferingMetrics.get();
+            // the library doesn't tell whether a batch was stored, only that it was either stored
+            // or handed to the export function
+            long[] serializedBytes = new long[1];
+            boolean[] stored = new boolean[1];
+            ToDiskExporter<T> toDisk =
+                    ToDiskExporter.<T>builder()
+                            .setFolderName(folderName(signal))
+                            .setStorageConfiguration(storageConfiguration)
+                            .setSerializer(
+                                    items -> {
+                                        byte[] bytes = serializer.serialize(items);
+                                        serializedBytes[0] = bytes.length;
+                                        return bytes;
+                                    })
+                            .setExportFunction(
+                                    items -> {
+                                        stored[0] = false;
+                                        return exportFunction.apply(items);
+                                    })
+                            .build();
+            return new DiskWriter<T>() {
+                @Override
+                public synchronized CompletableResultCode write(Collection<T> items) {
+                    stored[0] = true;
+                    CompletableResultCode result = toDisk.export(items);
+                    if (stored[0]) {
+                        metrics.recordStored(signal, serializedBytes[0]);
+                    } else {
+                        metrics.recordNotStored(signal);
+                    }
+                    return result;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    toDisk.shutdown();
+                }
+            };
+        }
+
+        @Override
+        public <T> FromDiskExporter reader(
+                Signal signal,
+                SignalDeserializer<T> deserializer,
+                @Nullable BiFunction<T, String, T> batchIdFunction,
+                Function<Collection<T>, CompletableResultCode> exportFunction)
+                throws IOException {
+            return FromDiskExporterImpl.<T>builder()
+                    .setFolderName(folderName(signal))
+                    .setStorageConfiguration(storageConfiguration)
+                    .setDeserializer(deserializer)
+                    .setExportFunction(exportFunction)
+                    .build();
+        }
+
+        @Override
+        public synchronized long getPendingBytes() {
+            long now = System.currentTimeMillis();
+            if (now - pendingBytesCountedAtMillis < PENDING_BYTES_MAX_AGE_MILLIS) {
+                return pendingBytes;
+            }
+            long readableBytes = 0;
+            for (Signal signal : Signal.values()) {
+                File folder = new File(storageConfiguration.getRootDir(), folderName(signal));
+                readableBytes += readableBytes(folder, now);
+            }
+            pendingBytes = readableBytes;
+            pendingBytesCountedAtMillis = now;
+            return pendingBytes;
+        }
+
+        // the files are named after the time they were created at, and can't be read while they
+        // may still be written to, nor once they are too old
+        private long readableBytes(File folder, long now) {
+            File[] files = folder.listFiles();
+            if (files == null) {
+                return 0;
+            }
+            long readableBytes = 0;
+            for (File file : files) {
+                long createdAtMillis;
+                try {
+                    createdAtMillis = Long.parseLong(file.getName());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                long age = now - createdAtMillis;
+                if (age >= storageConfiguration.getMinFileAgeForReadMillis()
+                        && age < storageConfiguration.getMaxFileAgeForReadMillis()) {
+                    readableBytes += file.length();
+                }
+            }
+            return readableBytes;
+        }
+    }
+
+    private static final class SegmentBackend implements Backend {
+        private final File dir;
+        private final int segmentSize;
+        private final long maxFolderSize;
+        private final int maxExportBatchSize;
+        private final int maxExportBatchBytes;
+        private final List<PrioritizedSegmentStore> stores = new ArrayList<>();
+
+        private SegmentBackend(
+                File dir,
+                int segmentSize,
+                long maxFolderSize,
+                int maxExportBatchSize,
+                int maxExportBatchBytes) {
+            this.dir = dir;
+            this.segmentSize = segmentSize;
+            this.maxFolderSize = maxFolderSize;
+            this.maxExportBatchSize = maxExportBatchSize;
+            this.maxExportBatchBytes = maxExportBatchBytes;
+        }
+
+        private synchronized PrioritizedSegmentStore store(Signal signal) throws IOException {
+            // the writer and the reader of a signal share its store
+            File folder = new File(dir, folderName(signal));
+            for (PrioritizedSegmentStore store : stores) {
+                if (store.getDir().equals(folder)) {
+                    return store;
+                }
+            }
+            PrioritizedSegmentStore store =
+                    PrioritizedSegmentStore.open(folder, segmentSize, maxFolderSize);
+            stores.add(store);
+            return store;
+        }
+
+        @Override
+        public <T> DiskWriter<T> writer(
+                Signal signal,
+                EncodedSignalSerializer<T> serializer,
+                Function<T, DiskBufferingPriority> priorityFunction,
+                Function<Collection<T>, CompletableResultCode> exportFunction)
+                throws IOException {
+            PrioritizedSegmentStore store = store(signal);
+            DiskBufferingMetrics metrics = DiskBufferingMetrics.get();
+            return new DiskWriter<T>() {
+                @Override
+                public CompletableResultCode write(Collection<T> items) {
+                    Map<DiskBufferingPriority, List<T>> tiers =
+                            new EnumMap<>(DiskBufferingPriority.class);
+                    for (T item : items) {
+                        DiskBufferingPriority priority = priorityFunction.apply(item);
+                        List<T> tier = tiers.get(priority);
+                        if (tier == null) {
+                            tier = new ArrayList<>();
+                            tiers.put(priority, tier);
+                        }
+                        tier.add(item);
+                    }
+                    List<CompletableResultCode> results = new ArrayList<>();
+                    for (Map.Entry<DiskBufferingPriority, List<T>> tier : tiers.entrySet()) {
+                        results.add(write(tier.getKey(), tier.getValue()));
+                    }
+                    return CompletableResultCode.ofAll(results);
+                }
+
+                private CompletableResultCode write(
+                        DiskBufferingPriority priority, List<T> items) {
+                    try {
+                        byte[] record = serializer.encode(items);
+                        if (store.append(priority, record)) {
+                            metrics.recordStored(signal, record.length);
+                            return CompletableResultCode.ofSuccess();
+                        }
+                    } catch (IOException e) {
+                        Log.e(RumConstants.OTEL_RUM_LOG_TAG, "Could not store a batch.", e);
+                    }
+                    metrics.recordNotStored(signal);
+                    // same as with the files: what can't be stored is exported right away
+                    return exportFunction.apply(items);
+                }
+
+                @Override
+                public void close() {
+                    store.close();
+                }
+            };
+        }
+
+        @Override
+        public <T> FromDiskExporter reader(
+                Signal signal,
+                SignalDeserializer<T> deserializer,
+                @Nullable BiFunction<T, String, T> batchIdFunction,
+                Function<Collection<T>, CompletableResultCode> exportFunction)
+                throws IOException {
+            return new SegmentReader<>(
+                    store(signal).getStoresByPriority(),
+                    deserializer,
+                    batchIdFunction,
+                    exportFunction,
+                    maxExportBatchSize,
+                    maxExportBatchBytes);
+        }
+
+        @Override
+        public synchronized long getPendingBytes() {
+            long pendingBytes = 0;
+            for (PrioritizedSegmentStore store : stores) {
+                pendingBytes += store.getPendingBytes();
+            }
+            return pendingBytes;
+        }
+    }
+
+    /**
+     * Merges consecutive batches of a segment store into a single export, and commits them all once
+     * that export succeeds. The stores are read in order, so that a store is only read once the
+     * ones before it are empty.
+     *
+     * <p>The checkpoints left by a previous process are recovered on the first export, which runs
+     * in the background.
+     */
+    private static final class SegmentReader<T> implements FromDiskExporter {
+        private final List<MappedSegmentStore> stores;
+        private final SignalDeserializer<T> deserializer;
+        @Nullable private final BiFunction<T, String, T> batchIdFunction;
+        private final Function<Collection<T>, CompletableResultCode> exportFunction;
+        private final int maxExportBatchSize;
+        private final int maxExportBatchBytes;
+        private boolean recovered;
+
+        private SegmentReader(
+                List<MappedSegmentStore> stores,
+                SignalDeserializer<T> deserializer,
+                @Nullable BiFunction<T, String, T> batchIdFunction,
+                Function<Collection<T>, CompletableResultCode> exportFunction,
+                int maxExportBatchSize,
+                int maxExportBatchBytes) {
+            this.stores = stores;
+            this.deserializer = deserializer;
+            this.batchIdFunction = batchIdFunction;
+            this.exportFunction = exportFunction;
+            this.maxExportBatchSize = maxExportBatchSize;
+            this.maxExportBatchBytes = maxExportBatchBytes;
+        }
+
+        @Override
+        public synchronized boolean exportStoredBatch(long timeout, TimeUnit unit)
+                throws IOException {
+            if (!recovered) {
+                for (MappedSegmentStore store : stores) {
+                    store.recover();
+                }
+                recovered = true;
+            }
+            for (MappedSegmentStore store : stores) {
+                byte[] batch = store.peek();
+                if (batch != null) {
+                    return export(store, batch, timeout, unit);
+                }
+            }
+            return false;
+        }
+
+        private boolean export(MappedSegmentStore store, byte[] batch, long timeout, TimeUnit unit)
+                throws IOException {
+            List<T> items = new ArrayList<>();
+            long bytes = 0;
+            while (batch != null) {
+                try {
+                    items.addAll(deserializer.deserialize(batch));
+                } catch (DeserializationException e) {
+                    // committed along with the others, so that it isn't read again
+                    Log.e(RumConstants.OTEL_RUM_LOG_TAG, "Dropping an unreadable batch.", e);
+                }
+                bytes += batch.length;
+                if (items.size() >= maxExportBatchSize || bytes >= maxExportBatchBytes) {
+                    break;
+                }
+                batch = store.peekNext();
+            }
+            if (items.isEmpty()) {
+                store.commit();
+                // keep going with the next batches
+                return true;
+            }
+            long batchId = store.checkpoint();
+            if (batchIdFunction != null) {
+                String id = String.format(Locale.ROOT, "%016x", batchId);
+                for (int i = 0; i < items.size(); i++) {
+                    items.set(i, batchIdFunction.apply(items.get(i), id));
+                }
+            }
+            CompletableResultCode result = exportFunction.apply(items).join(timeout, unit);
+            if (result.isSuccess()) {
+                store.markExported();
+                store.commit();
+                return true;
+            }
+            // the merged batches are read again on the next export
+            return false;
+        }
+
+        @Override
+        public void shutdown() {
+            for (MappedSegmentStore store : stores) {
+                store.close();
+            }
+        }
+    }
+
+    private static final class TrackedExportFunction<T>
+            implements Function<Collection<T>, CompletableResultCode> {
+        private final Function<Collection<T>, CompletableResultCode> delegate;
+        @Nullable private volatile CompletableResultCode lastExport;
+
+        private TrackedExportFunction(Function<Collection<T>, CompletableResultCode> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableResultCode apply(Collection<T> items) {
+            CompletableResultCode result = delegate.apply(items);
+            lastExport = result;
+            return result;
+        }
+    }
+
+    private static final class TrackedReader implements StoredBatchReader {
+        private final FromDiskExporter delegate;
+        private final TrackedExportFunction<?> exportFunction;
+
+        private TrackedReader(FromDiskExporter delegate, TrackedExportFunction<?> exportFunction) {
+            this.delegate = delegate;
+            this.exportFunction = exportFunction;
+        }
+
+        @Override
+        public boolean exportStoredBatch(long timeout, TimeUnit unit) throws IOException {
+            exportFunction.lastExport = null;
+            return delegate.exportStoredBatch(timeout, unit);
+        }
+
+        @Override
+        public boolean lastBatchNotExported() {
+            CompletableResultCode lastExport = exportFunction.lastExport;
+            // an export still running once the reader gave up on it didn't succeed either
+            return lastExport != null && !lastExport.isSuccess();
+        }
+
+        @Override
+        public void shutdown() throws IOException {
+            delegate.shutdown();
+        }
+    }
+
+    private static final class BatchIdSpanData extends DelegatingSpanData {
+        private final Attributes attributes;
+
+        private BatchIdSpanData(SpanData delegate, String batchId) {
+            super(delegate);
+            this.attributes =
+                    delegate.getAttributes().toBuilder()
+                            .put(RumConstants.EXPORT_BATCH_ID_KEY, batchId)
+                            .build();
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public int getTotalAttributeCount() {
+            return super.getTotalAttributeCount() + 1;
+        }
+    }
+
+    private static String folderName(Signal signal) {
+        return signal.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static CompletableResultCode close(DiskWriter<?> writer) {
+        try {
+            writer.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    public static final class SpanToDiskExporter implements SpanExporter {
+        private final DiskWriter<SpanData> writer;
+
+        private SpanToDiskExporter(DiskWriter<SpanData> writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return writer.write(spans);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return close(writer);
+        }
+    }
+
+    public static final class MetricToDiskExporter implements MetricExporter {
+        private final DiskWriter<MetricData> writer;
+        private final MetricExporter delegate;
+
+        private MetricToDiskExporter(DiskWriter<MetricData> writer, MetricExporter delegate) {
+            this.writer = writer;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<MetricData> metrics) {
+            return writer.write(metrics);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return close(writer);
+        }
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+            return delegate.getAggregationTemporality(instrumentType);
+        }
+    }
+
+    public static final class LogRecordToDiskExporter implements LogRecordExporter {
+        private final DiskWriter<LogRecordData> writer;
+
+        private LogRecordToDiskExporter(DiskWriter<LogRecordData> writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<LogRecordData> logs) {
+            return writer.write(logs);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return close(writer);
+        }
+    }
+}
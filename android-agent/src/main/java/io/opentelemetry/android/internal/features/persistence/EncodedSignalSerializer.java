@@ -0,0 +1,76 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import io.opentelemetry.android.features.diskbuffering.DiskBufferingCodec;
+import io.opentelemetry.contrib.disk.buffering.internal.serialization.serializers.SignalSerializer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+/**
+ * Encodes the batches serialized by another {@link SignalSerializer} with a {@link
+ * DiskBufferingCodec}.
+ *
+ * <p>Batches are stored as length-delimited protobuf messages, which are read back one message at a
+ * time. The encoded batch is stored in place of the message, keeping the length prefix in front of
+ * it so that the stored files can still be read message by message.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+final class EncodedSignalSerializer<T> implements SignalSerializer<T> {
+
+    private final SignalSerializer<T> delegate;
+    private final DiskBufferingCodec codec;
+
+    EncodedSignalSerializer(SignalSerializer<T> delegate, DiskBufferingCodec codec) {
+        this.delegate = delegate;
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(Collection<T> items) {
+        byte[] encoded = encode(items);
+        ByteArrayOutputStream result = new ByteArrayOutputStream(encoded.length + 5);
+        writeVarint(result, encoded.length);
+        result.write(encoded, 0, encoded.length);
+        return result.toByteArray();
+    }
+
+    /** Returns the encoded batch, without the length prefix. */
+    byte[] encode(Collection<T> items) {
+        byte[] delimited = delegate.serialize(items);
+        int messageOffset = varintSize(delimited);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(delimited.length);
+        try (OutputStream output = codec.encode(encoded)) {
+            output.write(delimited, messageOffset, delimited.length - messageOffset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return encoded.toByteArray();
+    }
+
+    // visible for tests
+    static int varintSize(byte[] bytes) {
+        int size = 0;
+        while (size < bytes.length && (bytes[size] & 0x80) != 0) {
+            size++;
+        }
+        return Math.min(size + 1, bytes.length);
+    }
+
+    // visible for tests
+    static void writeVarint(ByteArrayOutputStream output, int value) {
+        while ((value & ~0x7F) != 0) {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write(value);
+    }
+}
@@ -0,0 +1,580 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import android.util.Log;
+import androidx.annotation.Nullable;
+import io.opentelemetry.android.common.RumConstants;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only store of records, kept in fixed-size, memory-mapped segment files.
+ *
+ * <p>Records are appended at the end of the newest segment, and read back in order from a read
+ * cursor that is persisted in its own mapped file. Neither writing nor reading needs a copy of the
+ * segment files: a record is read straight from the mapped segment, and dropping the records read
+ * only moves the cursor. Segments are deleted once fully read, and the oldest segment is dropped
+ * when the store would use more than its maximum size.
+ *
+ * <p>Each record is stored as its length, the CRC32 of its content, and its content. The length is
+ * written last, so a record that was being written when the process died reads as the end of the
+ * segment. When the store is opened, the newest segment is scanned up to the first record that
+ * isn't valid, and the rest of the segment is cleared so that new records can't be confused with
+ * torn ones. Records that fail their checksum while reading skip the rest of their segment.
+ *
+ * <p>The mapped pages are written to disk by the OS, so records survive the process being killed
+ * as soon as {@link #append(byte[])} returns. They aren't forced to the storage device, so a power
+ * loss can lose the latest records, which the checksums detect.
+ *
+ * <p>Records that are exported somewhere else can be checkpointed: before the export, {@link
+ * #checkpoint()} writes the range of the peeked records to a marker file, along with an id for
+ * them, and {@link #markExported()} records the export's success before the cursor moves. If the
+ * process dies in between, {@link #recover()} either moves the cursor past records that were
+ * exported, or has the next peek return the same records, to be sent again with the same id.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+public final class MappedSegmentStore implements Closeable {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CURSOR_FILE_NAME = "cursor";
+    private static final int RECORD_HEADER_SIZE = 8;
+    // segment index (long), offset (int), crc of both (int)
+    private static final int CURSOR_SIZE = 16;
+    private static final String CHECKPOINT_FILE_NAME = "checkpoint";
+    // start segment (long), start offset (int), end segment (long), end offset (int), id (long),
+    // state (int), crc of the rest (int)
+    private static final int CHECKPOINT_SIZE = 40;
+    private static final int CHECKPOINT_NONE = 0;
+    private static final int CHECKPOINT_IN_FLIGHT = 1;
+    private static final int CHECKPOINT_EXPORTED = 2;
+    // the files kept along with the segments
+    static final int METADATA_SIZE = CURSOR_SIZE + CHECKPOINT_SIZE;
+
+    private final File dir;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final MappedByteBuffer cursorBuffer;
+    private final MappedByteBuffer checkpointBuffer;
+    private final List<Long> segments = new ArrayList<>();
+
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private int writeOffset;
+
+    private long readSegment;
+    private int readOffset;
+    @Nullable private MappedByteBuffer readBuffer;
+    private long readBufferSegment = -1;
+
+    // position right after the records peeked since the last commit
+    private long peekSegment;
+    private int peekOffset;
+    private int peekedRecords;
+
+    // the range of records of an export that didn't finish in a previous process
+    private long retryStartSegment = -1;
+    private int retryStartOffset;
+    private long retryEndSegment;
+    private int retryEndOffset;
+    private boolean closed;
+
+    /**
+     * Opens the store kept in the given directory, recovering the records and the read cursor of a
+     * previous process.
+     *
+     * @param segmentSize The size of each segment file, which is also the maximum record size.
+     * @param maxSize The maximum amount of bytes that the segment files can use, at least 2
+     *     segments are always kept.
+     */
+    public static MappedSegmentStore open(File dir, int segmentSize, long maxSize)
+            throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Could not create dir " + dir);
+        }
+        int maxSegments = (int) Math.max(2, maxSize / segmentSize);
+        return new MappedSegmentStore(dir, segmentSize, maxSegments);
+    }
+
+    private MappedSegmentStore(File dir, int segmentSize, int maxSegments) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.cursorBuffer = map(new File(dir, CURSOR_FILE_NAME), CURSOR_SIZE);
+        this.checkpointBuffer = map(new File(dir, CHECKPOINT_FILE_NAME), CHECKPOINT_SIZE);
+
+        findSegments();
+        if (segments.isEmpty()) {
+            segments.add(0L);
+        }
+        writeSegment = segments.get(segments.size() - 1);
+        writeBuffer = mapSegment(writeSegment);
+        writeOffset = recoverWriteOffset(writeBuffer);
+
+        readCursor();
+        while (segments.size() > maxSegments) {
+            dropOldestSegment();
+        }
+    }
+
+    /**
+     * Appends a record at the end of the store.
+     *
+     * @return FALSE if the record is larger than a segment, and so can't be stored.
+     */
+    public synchronized boolean append(byte[] record) throws IOException {
+        checkOpen();
+        int recordSize = RECORD_HEADER_SIZE + record.length;
+        if (record.length == 0 || recordSize > segmentSize) {
+            return false;
+        }
+        if (writeOffset + recordSize > segmentSize) {
+            startNewSegment();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        writeBuffer.position(writeOffset + RECORD_HEADER_SIZE);
+        writeBuffer.put(record);
+        writeBuffer.putInt(writeOffset + 4, (int) crc.getValue());
+        // the length marks the record as complete, so it goes last
+        writeBuffer.putInt(writeOffset, record.length);
+        writeOffset += recordSize;
+        return true;
+    }
+
+    /**
+     * Returns the record at the read cursor without moving the cursor, or null if all records have
+     * been read. Call {@link #commit()} once the record has been handled. Records peeked and not
+     * committed are read again from here.
+     */
+    @Nullable
+    public synchronized byte[] peek() throws IOException {
+        checkOpen();
+        peekSegment = readSegment;
+        peekOffset = readOffset;
+        peekedRecords = 0;
+        return peekNext();
+    }
+
+    /**
+     * Returns the record that follows the last one returned by {@link #peek()} or by this method,
+     * or null if there are no more records. The read cursor doesn't move, so that several records
+     * can be handled together and then committed at once.
+     */
+    @Nullable
+    public synchronized byte[] peekNext() throws IOException {
+        checkOpen();
+        while (true) {
+            if (peekSegment == writeSegment && peekOffset >= writeOffset) {
+                return null;
+            }
+            if (isRetry() && peekSegment == retryEndSegment && peekOffset >= retryEndOffset) {
+                // the same records as the unfinished export, so that they keep their id
+                return null;
+            }
+            byte[] record = readRecord(getBuffer(peekSegment), peekOffset);
+            if (record != null) {
+                peekOffset += RECORD_HEADER_SIZE + record.length;
+                peekedRecords++;
+                return record;
+            }
+            if (peekSegment == writeSegment) {
+                // can't happen for records written by this store, don't read past them
+                Log.w(RumConstants.OTEL_RUM_LOG_TAG, "Invalid record in the current segment.");
+                return null;
+            }
+            // end of segment, or a corrupted record: the rest of the segment is skipped
+            if (peekedRecords == 0) {
+                moveCursorToNextSegment();
+                peekSegment = readSegment;
+            } else {
+                peekSegment = nextSegment(peekSegment);
+            }
+            peekOffset = 0;
+        }
+    }
+
+    /**
+     * Moves the read cursor past the records returned by {@link #peek()} and {@link #peekNext()},
+     * deleting the segments that have been fully read.
+     */
+    public synchronized void commit() {
+        if (closed || peekedRecords == 0) {
+            return;
+        }
+        readSegment = peekSegment;
+        readOffset = peekOffset;
+        peekedRecords = 0;
+        writeCursor();
+        clearCheckpoint();
+        // deleted once the cursor has moved past them
+        while (!segments.isEmpty() && segments.get(0) < readSegment) {
+            deleteSegment(segments.remove(0));
+        }
+        if (readBufferSegment < readSegment) {
+            readBuffer = null;
+        }
+    }
+
+    /**
+     * Writes a marker of the records peeked since the last commit, before they are exported.
+     *
+     * @return The id of the peeked records, which stays the same when the same records are exported
+     *     again, including by another process after {@link #recover()}.
+     */
+    synchronized long checkpoint() {
+        long id;
+        if (isCheckpointValid()
+                && checkpointBuffer.getInt(32) == CHECKPOINT_IN_FLIGHT
+                && checkpointBuffer.getLong(0) == readSegment
+                && checkpointBuffer.getInt(8) == readOffset
+                && checkpointBuffer.getLong(12) == peekSegment
+                && checkpointBuffer.getInt(20) == peekOffset) {
+            id = checkpointBuffer.getLong(24);
+        } else {
+            id = ThreadLocalRandom.current().nextLong();
+        }
+        writeCheckpoint(readSegment, readOffset, peekSegment, peekOffset, id, CHECKPOINT_IN_FLIGHT);
+        return id;
+    }
+
+    /**
+     * Records that the checkpointed records were exported, so that they aren't sent again if the
+     * process dies before {@link #commit()}.
+     */
+    synchronized void markExported() {
+        if (checkpointBuffer.getInt(32) == CHECKPOINT_IN_FLIGHT && isCheckpointValid()) {
+            checkpointBuffer.putInt(36, 0);
+            checkpointBuffer.putInt(32, CHECKPOINT_EXPORTED);
+            checkpointBuffer.putInt(36, checkpointCrc());
+        }
+    }
+
+    /**
+     * Picks up the checkpoint left by a previous process. Records that were exported are
+     * committed, and records that were being exported are returned again by the next peek, up to
+     * where the export ended.
+     */
+    synchronized void recover() {
+        if (closed || !isCheckpointValid()) {
+            return;
+        }
+        long startSegment = checkpointBuffer.getLong(0);
+        int startOffset = checkpointBuffer.getInt(8);
+        long endSegment = checkpointBuffer.getLong(12);
+        int endOffset = checkpointBuffer.getInt(20);
+        int state = checkpointBuffer.getInt(32);
+        if (startSegment != readSegment
+                || startOffset != readOffset
+                || endSegment > writeSegment
+                || (endSegment == writeSegment && endOffset > writeOffset)) {
+            // the cursor moved on, or the records are gone
+            clearCheckpoint();
+            return;
+        }
+        if (state == CHECKPOINT_EXPORTED) {
+            Log.d(RumConstants.OTEL_RUM_LOG_TAG, "Skipping records that were already exported.");
+            peekSegment = endSegment;
+            peekOffset = endOffset;
+            peekedRecords = 1;
+            commit();
+        } else if (state == CHECKPOINT_IN_FLIGHT) {
+            retryStartSegment = startSegment;
+            retryStartOffset = startOffset;
+            retryEndSegment = endSegment;
+            retryEndOffset = endOffset;
+        }
+    }
+
+    /** Returns TRUE if appending a record of the given size would start a new segment. */
+    synchronized boolean needsNewSegment(int recordLength) {
+        return writeOffset + RECORD_HEADER_SIZE + recordLength > segmentSize;
+    }
+
+    synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Drops the oldest segment, along with its records, to make room for other data.
+     *
+     * @return FALSE if there's only the segment being written, which can't be dropped.
+     */
+    synchronized boolean evictOldestSegment() {
+        if (closed || segments.size() < 2) {
+            return false;
+        }
+        dropOldestSegment();
+        return true;
+    }
+
+    /** Returns the approximate amount of bytes that haven't been read yet. */
+    public synchronized long getPendingBytes() {
+        return (writeSegment - readSegment) * segmentSize + writeOffset - readOffset;
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        cursorBuffer.force();
+        checkpointBuffer.force();
+        writeBuffer.force();
+        readBuffer = null;
+        readBufferSegment = -1;
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The store is closed.");
+        }
+    }
+
+    private void findSegments() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        segments.add(
+                                Long.parseLong(
+                                        name.substring(
+                                                0, name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // not one of ours
+                    }
+                }
+            }
+        }
+        Collections.sort(segments);
+    }
+
+    private int recoverWriteOffset(MappedByteBuffer buffer) {
+        int offset = 0;
+        while (offset + RECORD_HEADER_SIZE <= segmentSize) {
+            byte[] record = readRecord(buffer, offset);
+            if (record == null) {
+                break;
+            }
+            offset += RECORD_HEADER_SIZE + record.length;
+        }
+        // clears what a torn write may have left, so it can't pass for a record later on
+        for (int i = offset; i < segmentSize; i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        return offset;
+    }
+
+    @Nullable
+    private byte[] readRecord(MappedByteBuffer buffer, int offset) {
+        if (offset + RECORD_HEADER_SIZE > segmentSize) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > segmentSize - offset - RECORD_HEADER_SIZE) {
+            return null;
+        }
+        int expectedCrc = buffer.getInt(offset + 4);
+        byte[] record = new byte[length];
+        buffer.position(offset + RECORD_HEADER_SIZE);
+        buffer.get(record);
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, length);
+        if ((int) crc.getValue() != expectedCrc) {
+            Log.w(RumConstants.OTEL_RUM_LOG_TAG, "Skipping a corrupted record.");
+            return null;
+        }
+        return record;
+    }
+
+    private void readCursor() {
+        long segment = cursorBuffer.getLong(0);
+        int offset = cursorBuffer.getInt(8);
+        int crc = cursorBuffer.getInt(12);
+        long oldestSegment = segments.get(0);
+        if (crc != cursorCrc(segment, offset) || segment < oldestSegment) {
+            // no cursor yet, or its segment is gone: start from the oldest record
+            segment = oldestSegment;
+            offset = 0;
+        } else if (segment > writeSegment || (segment == writeSegment && offset > writeOffset)) {
+            // the records the cursor points past were lost
+            segment = writeSegment;
+            offset = writeOffset;
+        }
+        readSegment = segment;
+        readOffset = offset;
+        peekSegment = segment;
+        peekOffset = offset;
+        writeCursor();
+    }
+
+    private void writeCursor() {
+        // the crc is written last, a torn cursor reverts to the oldest record
+        cursorBuffer.putInt(12, 0);
+        cursorBuffer.putLong(0, readSegment);
+        cursorBuffer.putInt(8, readOffset);
+        cursorBuffer.putInt(12, cursorCrc(readSegment, readOffset));
+    }
+
+    private boolean isRetry() {
+        return retryStartSegment == readSegment && retryStartOffset == readOffset;
+    }
+
+    private void writeCheckpoint(
+            long startSegment,
+            int startOffset,
+            long endSegment,
+            int endOffset,
+            long id,
+            int state) {
+        // the crc is written last, a torn checkpoint is ignored
+        checkpointBuffer.putInt(36, 0);
+        checkpointBuffer.putLong(0, startSegment);
+        checkpointBuffer.putInt(8, startOffset);
+        checkpointBuffer.putLong(12, endSegment);
+        checkpointBuffer.putInt(20, endOffset);
+        checkpointBuffer.putLong(24, id);
+        checkpointBuffer.putInt(32, state);
+        checkpointBuffer.putInt(36, checkpointCrc());
+    }
+
+    private void clearCheckpoint() {
+        retryStartSegment = -1;
+        if (checkpointBuffer.getInt(32) != CHECKPOINT_NONE) {
+            checkpointBuffer.putInt(36, 0);
+            checkpointBuffer.putInt(32, CHECKPOINT_NONE);
+        }
+    }
+
+    private boolean isCheckpointValid() {
+        return checkpointBuffer.getInt(32) != CHECKPOINT_NONE
+                && checkpointBuffer.getInt(36) == checkpointCrc();
+    }
+
+    private int checkpointCrc() {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < 36; i++) {
+            crc.update(checkpointBuffer.get(i));
+        }
+        return (int) crc.getValue();
+    }
+
+    private static int cursorCrc(long segment, int offset) {
+        CRC32 crc = new CRC32();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (segment >>> shift));
+        }
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            crc.update(offset >>> shift);
+        }
+        return (int) crc.getValue();
+    }
+
+    private MappedByteBuffer getBuffer(long segment) throws IOException {
+        if (segment == writeSegment) {
+            return writeBuffer;
+        }
+        if (readBuffer == null || readBufferSegment != segment) {
+            readBuffer = mapSegment(segment);
+            readBufferSegment = segment;
+        }
+        return readBuffer;
+    }
+
+    private void startNewSegment() throws IOException {
+        writeSegment++;
+        writeBuffer = mapSegment(writeSegment);
+        writeOffset = 0;
+        segments.add(writeSegment);
+        while (segments.size() > maxSegments) {
+            Log.w(RumConstants.OTEL_RUM_LOG_TAG, "Disk buffer full, dropping the oldest records.");
+            dropOldestSegment();
+        }
+    }
+
+    private void dropOldestSegment() {
+        long oldest = segments.remove(0);
+        if (readSegment <= oldest) {
+            readSegment = segments.get(0);
+            readOffset = 0;
+            writeCursor();
+        }
+        if (peekSegment <= oldest) {
+            // the peeked records are gone, they can't be committed anymore
+            peekSegment = readSegment;
+            peekOffset = readOffset;
+            peekedRecords = 0;
+        }
+        if (readBufferSegment == oldest) {
+            readBuffer = null;
+        }
+        deleteSegment(oldest);
+    }
+
+    private void moveCursorToNextSegment() {
+        long finished = readSegment;
+        readSegment = nextSegment(finished);
+        readOffset = 0;
+        writeCursor();
+        segments.remove(Long.valueOf(finished));
+        if (readBufferSegment == finished) {
+            readBuffer = null;
+        }
+        deleteSegment(finished);
+    }
+
+    private long nextSegment(long segment) {
+        for (long next : segments) {
+            if (next > segment) {
+                return next;
+            }
+        }
+        return writeSegment;
+    }
+
+    private void deleteSegment(long segment) {
+        File file = segmentFile(segment);
+        if (!file.delete()) {
+            Log.w(RumConstants.OTEL_RUM_LOG_TAG, "Could not delete " + file);
+        }
+    }
+
+    private File segmentFile(long segment) {
+        return new File(dir, String.format(Locale.ROOT, "%016d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private MappedByteBuffer mapSegment(long segment) throws IOException {
+        return map(segmentFile(segment), segmentSize);
+    }
+
+    private static MappedByteBuffer map(File file, int size) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            if (randomAccessFile.length() != size) {
+                randomAccessFile.setLength(size);
+            }
+            // the mapping stays valid once the file is closed
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
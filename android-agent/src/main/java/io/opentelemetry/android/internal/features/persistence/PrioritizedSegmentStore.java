@@ -0,0 +1,167 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import android.util.Log;
+import io.opentelemetry.android.common.RumConstants;
+import io.opentelemetry.android.features.diskbuffering.DiskBufferingPriority;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps a {@link MappedSegmentStore} per {@link DiskBufferingPriority}, all of them sharing the
+ * same maximum size.
+ *
+ * <p>The tiers share a single budget of segments, which counts the segment being written in each
+ * tier, along with the cursor and checkpoint files, so that all the files stay within the maximum
+ * size. When a new segment is needed and the budget is used, the oldest segment of the lowest tier
+ * that isn't above the priority of the record being appended is dropped. The segments of each tier
+ * are known from their folder, so picking one doesn't read any stored data. When all the segments
+ * belong to higher tiers, the record isn't stored.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+public final class PrioritizedSegmentStore implements Closeable {
+
+    private static final int TIERS = DiskBufferingPriority.values().length;
+
+    private final Map<DiskBufferingPriority, MappedSegmentStore> stores;
+    private final int maxSegments;
+
+    /**
+     * Opens the stores kept in the given directory, within a folder per priority.
+     *
+     * @param segmentSize The size of each segment file, which is made smaller when the maximum size
+     *     can't fit a segment per tier plus one.
+     * @param maxSize The maximum amount of bytes that the files of all the tiers can use.
+     */
+    public static PrioritizedSegmentStore open(File dir, int segmentSize, long maxSize)
+            throws IOException {
+        long segmentsSize = Math.max(0, maxSize - (long) TIERS * MappedSegmentStore.METADATA_SIZE);
+        // each tier keeps the segment being written, and one more is needed to move records along
+        int tierSegmentSize = segmentSize;
+        if (segmentsSize / segmentSize < TIERS + 1) {
+            tierSegmentSize = (int) (segmentsSize / (TIERS + 1));
+            Log.w(
+                    RumConstants.OTEL_RUM_LOG_TAG,
+                    "Disk buffer too small for segments of "
+                            + segmentSize
+                            + " bytes, using "
+                            + tierSegmentSize
+                            + " bytes.");
+        }
+        if (tierSegmentSize <= 0) {
+            throw new IOException("Disk buffer too small: " + maxSize + " bytes.");
+        }
+        int maxSegments = (int) Math.min(Integer.MAX_VALUE, segmentsSize / tierSegmentSize);
+        // a tier can't have the segments that the other tiers are writing
+        long tierMaxSize = (long) (maxSegments - TIERS + 1) * tierSegmentSize;
+        Map<DiskBufferingPriority, MappedSegmentStore> stores =
+                new EnumMap<>(DiskBufferingPriority.class);
+        for (DiskBufferingPriority priority : DiskBufferingPriority.values()) {
+            File tierDir = new File(dir, priority.name().toLowerCase(Locale.ROOT));
+            stores.put(priority, MappedSegmentStore.open(tierDir, tierSegmentSize, tierMaxSize));
+        }
+        PrioritizedSegmentStore store = new PrioritizedSegmentStore(stores, maxSegments);
+        store.trimToMaxSegments();
+        return store;
+    }
+
+    private PrioritizedSegmentStore(
+            Map<DiskBufferingPriority, MappedSegmentStore> stores, int maxSegments) {
+        this.stores = stores;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Appends a record to the store of the given priority, dropping lower priority records if
+     * needed.
+     *
+     * @return FALSE if the record can't be stored.
+     */
+    public synchronized boolean append(DiskBufferingPriority priority, byte[] record)
+            throws IOException {
+        MappedSegmentStore store = stores.get(priority);
+        if (store.needsNewSegment(record.length)
+                && getSegmentCount() >= maxSegments
+                && !evictUpTo(priority)) {
+            Log.w(
+                    RumConstants.OTEL_RUM_LOG_TAG,
+                    "Disk buffer full of higher priority records, not storing a "
+                            + priority
+                            + " priority batch.");
+            return false;
+        }
+        return store.append(record);
+    }
+
+    /** Returns the stores in the order they should be read, the highest priority first. */
+    public List<MappedSegmentStore> getStoresByPriority() {
+        List<MappedSegmentStore> byPriority = new ArrayList<>(stores.values());
+        Collections.reverse(byPriority);
+        return byPriority;
+    }
+
+    public long getPendingBytes() {
+        long pendingBytes = 0;
+        for (MappedSegmentStore store : stores.values()) {
+            pendingBytes += store.getPendingBytes();
+        }
+        return pendingBytes;
+    }
+
+    public File getDir() {
+        return stores.get(DiskBufferingPriority.NORMAL).getDir().getParentFile();
+    }
+
+    @Override
+    public void close() {
+        for (MappedSegmentStore store : stores.values()) {
+            store.close();
+        }
+    }
+
+    // the segments left by a previous process can be over a smaller budget
+    private synchronized void trimToMaxSegments() {
+        while (getSegmentCount() > maxSegments) {
+            if (!evictUpTo(DiskBufferingPriority.HIGH)) {
+                return;
+            }
+        }
+    }
+
+    private int getSegmentCount() {
+        int count = 0;
+        for (MappedSegmentStore store : stores.values()) {
+            count += store.getSegmentCount();
+        }
+        return count;
+    }
+
+    private boolean evictUpTo(DiskBufferingPriority priority) {
+        // values() goes from the lowest priority up
+        for (DiskBufferingPriority tier : DiskBufferingPriority.values()) {
+            if (tier.compareTo(priority) > 0) {
+                break;
+            }
+            if (stores.get(tier).evictOldestSegment()) {
+                Log.w(
+                        RumConstants.OTEL_RUM_LOG_TAG,
+                        "Disk buffer full, dropping the oldest " + tier + " priority records.");
+                return true;
+            }
+        }
+        return false;
+    }
+}
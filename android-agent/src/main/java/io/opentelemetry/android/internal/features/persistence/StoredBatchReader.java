@@ -0,0 +1,24 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import io.opentelemetry.contrib.disk.buffering.FromDiskExporter;
+
+/**
+ * A {@link FromDiskExporter} that tells apart the two reasons for {@link #exportStoredBatch}
+ * returning false: either there was no batch to read, or the batch read couldn't be exported.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+public interface StoredBatchReader extends FromDiskExporter {
+
+    /**
+     * Returns true when the last call to {@link #exportStoredBatch} read a stored batch, but its
+     * export didn't succeed within the timeout.
+     */
+    boolean lastBatchNotExported();
+}
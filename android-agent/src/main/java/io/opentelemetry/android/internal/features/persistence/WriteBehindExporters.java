@@ -0,0 +1,333 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.util.Log;
+import io.opentelemetry.android.common.RumConstants;
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal;
+import io.opentelemetry.android.features.diskbuffering.scheduler.ExportConditions;
+import io.opentelemetry.android.instrumentation.common.ApplicationStateListener;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Exporters that send the signals over the network right away, and only write them to disk when
+ * that doesn't work out. The batches being exported are kept in a bounded in-memory ring, and are
+ * spilled to disk when their export fails or times out, when the system runs low on memory, and by
+ * {@link BackgroundFlushListener} when the app goes to the background. Batches go straight to disk
+ * while offline, while the app is in the background, and when the ring is full.
+ *
+ * <p>A batch spilled while its export is still running is sent again from disk, even if that
+ * export ends up succeeding.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+public final class WriteBehindExporters implements ApplicationStateListener, ComponentCallbacks2 {
+
+    // per signal, about 4 batches of the default batch span processor
+    static final int MAX_IN_FLIGHT_ITEMS = 2048;
+    // same as the default timeout of the OTLP exporters
+    static final long EXPORT_TIMEOUT_MILLIS = 10_000;
+
+    private final ScheduledExecutorService scheduler;
+    private final DiskBufferingMetrics metrics;
+    private final List<WriteBehindExport<?>> exports = new ArrayList<>();
+    private volatile boolean backgrounded;
+
+    public WriteBehindExporters(ScheduledExecutorService scheduler) {
+        this(scheduler, DiskBufferingMetrics.get());
+    }
+
+    // visible for tests
+    WriteBehindExporters(ScheduledExecutorService scheduler, DiskBufferingMetrics metrics) {
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+    }
+
+    public SpanExporter spans(SpanExporter exporter, SpanExporter toDiskExporter) {
+        WriteBehindExport<SpanData> export =
+                add(Signal.SPANS, exporter::export, toDiskExporter::export);
+        return new SpanExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                return export.export(spans);
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                export.spillAll();
+                return shutdownBoth(exporter.shutdown(), toDiskExporter.shutdown());
+            }
+        };
+    }
+
+    public MetricExporter metrics(MetricExporter exporter, MetricExporter toDiskExporter) {
+        WriteBehindExport<MetricData> export =
+                add(Signal.METRICS, exporter::export, toDiskExporter::export);
+        return new MetricExporter() {
+            @Override
+            public CompletableResultCode export(Collection<MetricData> metrics) {
+                return export.export(metrics);
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                export.spillAll();
+                return shutdownBoth(exporter.shutdown(), toDiskExporter.shutdown());
+            }
+
+            @Override
+            public AggregationTemporality getAggregationTemporality(
+                    InstrumentType instrumentType) {
+                return exporter.getAggregationTemporality(instrumentType);
+            }
+        };
+    }
+
+    public LogRecordExporter logRecords(
+            LogRecordExporter exporter, LogRecordExporter toDiskExporter) {
+        WriteBehindExport<LogRecordData> export =
+                add(Signal.LOGS, exporter::export, toDiskExporter::export);
+        return new LogRecordExporter() {
+            @Override
+            public CompletableResultCode export(Collection<LogRecordData> logs) {
+                return export.export(logs);
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                export.spillAll();
+                return shutdownBoth(exporter.shutdown(), toDiskExporter.shutdown());
+            }
+        };
+    }
+
+    /** Writes the batches being exported to disk. */
+    public void spillAll() {
+        List<WriteBehindExport<?>> current;
+        synchronized (exports) {
+            current = new ArrayList<>(exports);
+        }
+        for (WriteBehindExport<?> export : current) {
+            export.spillAll();
+        }
+    }
+
+    @Override
+    public void onApplicationForegrounded() {
+        backgrounded = false;
+    }
+
+    @Override
+    public void onApplicationBackgrounded() {
+        // the process can be killed from now on, the batches being exported are spilled once
+        // the background flush is done
+        backgrounded = true;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            // called on the main thread
+            scheduler.execute(this::spillAll);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        scheduler.execute(this::spillAll);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {}
+
+    private <T> WriteBehindExport<T> add(
+            Signal signal,
+            Function<Collection<T>, CompletableResultCode> exportFunction,
+            Function<Collection<T>, CompletableResultCode> toDiskFunction) {
+        WriteBehindExport<T> export =
+                new WriteBehindExport<>(
+                        signal,
+                        exportFunction,
+                        toDiskFunction,
+                        () -> backgrounded || !ExportConditions.get().isOnline(),
+                        scheduler,
+                        metrics,
+                        MAX_IN_FLIGHT_ITEMS,
+                        EXPORT_TIMEOUT_MILLIS);
+        synchronized (exports) {
+            exports.add(export);
+        }
+        return export;
+    }
+
+    private static CompletableResultCode shutdownBoth(
+            CompletableResultCode first, CompletableResultCode second) {
+        return CompletableResultCode.ofAll(Arrays.asList(first, second));
+    }
+
+    /** Decides whether batches should skip the network export. */
+    interface DiskOnlyCondition {
+        boolean isDiskOnly();
+    }
+
+    static final class WriteBehindExport<T> {
+        private final Signal signal;
+        private final Function<Collection<T>, CompletableResultCode> exportFunction;
+        private final Function<Collection<T>, CompletableResultCode> toDiskFunction;
+        private final DiskOnlyCondition diskOnlyCondition;
+        private final ScheduledExecutorService scheduler;
+        private final DiskBufferingMetrics metrics;
+        private final int maxInFlightItems;
+        private final long timeoutMillis;
+        // oldest first
+        private final Set<Batch<T>> inFlight = new LinkedHashSet<>();
+        private int inFlightItems;
+
+        WriteBehindExport(
+                Signal signal,
+                Function<Collection<T>, CompletableResultCode> exportFunction,
+                Function<Collection<T>, CompletableResultCode> toDiskFunction,
+                DiskOnlyCondition diskOnlyCondition,
+                ScheduledExecutorService scheduler,
+                DiskBufferingMetrics metrics,
+                int maxInFlightItems,
+                long timeoutMillis) {
+            this.signal = signal;
+            this.exportFunction = exportFunction;
+            this.toDiskFunction = toDiskFunction;
+            this.diskOnlyCondition = diskOnlyCondition;
+            this.scheduler = scheduler;
+            this.metrics = metrics;
+            this.maxInFlightItems = maxInFlightItems;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        CompletableResultCode export(Collection<T> items) {
+            Batch<T> batch = new Batch<>(new ArrayList<>(items));
+            if (diskOnlyCondition.isDiskOnly() || !add(batch)) {
+                return spill(batch);
+            }
+            CompletableResultCode result;
+            try {
+                result = exportFunction.apply(batch.items);
+            } catch (RuntimeException e) {
+                Log.w(RumConstants.OTEL_RUM_LOG_TAG, "Export failed, writing it to disk.", e);
+                result = CompletableResultCode.ofFailure();
+            }
+            ScheduledFuture<?> timeout =
+                    scheduler.schedule(
+                            () -> {
+                                if (remove(batch)) {
+                                    Log.w(
+                                            RumConstants.OTEL_RUM_LOG_TAG,
+                                            "Export timed out, writing it to disk.");
+                                    spill(batch);
+                                }
+                            },
+                            timeoutMillis,
+                            TimeUnit.MILLISECONDS);
+            CompletableResultCode exportResult = result;
+            exportResult.whenComplete(
+                    () -> {
+                        timeout.cancel(false);
+                        if (!remove(batch)) {
+                            // already spilled
+                            return;
+                        }
+                        if (exportResult.isSuccess()) {
+                            metrics.recordWriteBehind(signal, false);
+                        } else {
+                            spill(batch);
+                        }
+                    });
+            // from now on, the batch is either delivered or stored
+            return CompletableResultCode.ofSuccess();
+        }
+
+        void spillAll() {
+            List<Batch<T>> batches;
+            synchronized (this) {
+                batches = new ArrayList<>(inFlight);
+                inFlight.clear();
+                inFlightItems = 0;
+            }
+            for (Batch<T> batch : batches) {
+                spill(batch);
+            }
+        }
+
+        synchronized int getInFlightItems() {
+            return inFlightItems;
+        }
+
+        private synchronized boolean add(Batch<T> batch) {
+            if (inFlightItems + batch.items.size() > maxInFlightItems) {
+                return false;
+            }
+            inFlight.add(batch);
+            inFlightItems += batch.items.size();
+            return true;
+        }
+
+        private synchronized boolean remove(Batch<T> batch) {
+            if (!inFlight.remove(batch)) {
+                return false;
+            }
+            inFlightItems -= batch.items.size();
+            return true;
+        }
+
+        private CompletableResultCode spill(Batch<T> batch) {
+            metrics.recordWriteBehind(signal, true);
+            return toDiskFunction.apply(batch.items);
+        }
+    }
+
+    // compared by identity, the same items can be exported twice
+    private static final class Batch<T> {
+        private final List<T> items;
+
+        private Batch(List<T> items) {
+            this.items = items;
+        }
+    }
+}
@@ -9,16 +9,21 @@ import android.content.Context;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
+import io.opentelemetry.android.common.TelemetryScheduler;
 import io.opentelemetry.android.internal.services.periodicwork.PeriodicWorkAppWorker;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Manging the app worker with singleton pattern.
+ *
+ * <p>Also owns the {@link TelemetryScheduler} that all the background work of the SDK and its
+ * instrumentations runs on.
  */
 public final class AppWorkerManager implements AppWorking {
 
     private final Map<Class<? extends AppWorker>, AppWorker> services = new HashMap<>();
+    private final TelemetryScheduler scheduler = TelemetryScheduler.create();
     @Nullable private static AppWorkerManager instance;
 
     @VisibleForTesting
@@ -33,7 +38,9 @@ public final class AppWorkerManager implements AppWorking {
         instance = new AppWorkerManager();
         instance.addService(PreferencesAppWorker.create(appContext));
         instance.addService(new CacheStorageAppWorker(appContext));
-        instance.addService(new PeriodicWorkAppWorker());
+        // the periodic work includes the exports of the signals stored in disk
+        instance.addService(
+                new PeriodicWorkAppWorker(instance.scheduler.forBlockingTask("periodic-work")));
     }
 
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
@@ -62,6 +69,13 @@ public final class AppWorkerManager implements AppWorking {
         for (AppWorker appWorker : services.values()) {
             appWorker.stop();
         }
+        scheduler.shutdown();
+    }
+
+    /** Returns the scheduler shared by all the background work. */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public TelemetryScheduler getScheduler() {
+        return scheduler;
     }
 
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
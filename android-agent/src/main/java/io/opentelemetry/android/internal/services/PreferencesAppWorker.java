@@ -7,7 +7,9 @@ package io.opentelemetry.android.internal.services;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import androidx.annotation.Nullable;
 import io.opentelemetry.android.BuildConfig;
+import java.util.Map;
 
 /**
  * Utility to store and retrieve apps' preferences.
@@ -32,7 +34,46 @@ public class PreferencesAppWorker implements AppWorker {
         preferences.edit().putInt(key, value).apply();
     }
 
+    public void store(String key, long value) {
+        preferences.edit().putLong(key, value).apply();
+    }
+
+    public void store(String key, String value) {
+        preferences.edit().putString(key, value).apply();
+    }
+
+    /**
+     * Stores all the given values in a single edit, so that they are either all written or none of
+     * them. The values are either {@link Integer}, {@link Long} or {@link String}.
+     */
+    public void storeAll(Map<String, ?> values) {
+        SharedPreferences.Editor editor = preferences.edit();
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Integer) {
+                editor.putInt(entry.getKey(), (Integer) value);
+            } else if (value instanceof Long) {
+                editor.putLong(entry.getKey(), (Long) value);
+            } else if (value instanceof String) {
+                editor.putString(entry.getKey(), (String) value);
+            } else {
+                throw new IllegalArgumentException(
+                        "Unsupported preference value for " + entry.getKey() + ": " + value);
+            }
+        }
+        editor.apply();
+    }
+
     public int retrieveInt(String key, int defaultValue) {
         return preferences.getInt(key, defaultValue);
     }
+
+    public long retrieveLong(String key, long defaultValue) {
+        return preferences.getLong(key, defaultValue);
+    }
+
+    @Nullable
+    public String retrieveString(String key, @Nullable String defaultValue) {
+        return preferences.getString(key, defaultValue);
+    }
 }
@@ -5,36 +5,82 @@
 
 package io.opentelemetry.android.internal.services.periodicwork
 
+import android.util.Log
+import io.opentelemetry.android.common.RumConstants.OTEL_RUM_LOG_TAG
 import io.opentelemetry.android.internal.services.AppWorkerManager
 import io.opentelemetry.android.internal.tools.time.SystemTime
+import java.util.concurrent.TimeUnit
 
 /**
  * Utility for creating a Runnable that needs to run multiple times.
  *
+ * <p>After each run, the runnable schedules itself to run again once its minimum delay has passed.
+ * When a run fails, either by throwing or by calling [backOff], that delay is doubled for each
+ * consecutive failure, up to 30 minutes.
+ *
  * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
  * time.
  */
 abstract class PeriodicRunnable : Runnable {
+    companion object {
+        private val MIN_BACKOFF_DELAY_IN_MILLIS = TimeUnit.SECONDS.toMillis(1)
+        private val MAX_BACKOFF_DELAY_IN_MILLIS = TimeUnit.MINUTES.toMillis(30)
+    }
+
     private var lastTimeItRan: Long? = null
+    private var consecutiveFailures = 0
+    private var currentRunFailed = false
 
     final override fun run() {
         if (isReadyToRun()) {
-            onRun()
+            currentRunFailed = false
+            try {
+                onRun()
+            } catch (e: RuntimeException) {
+                Log.e(OTEL_RUM_LOG_TAG, "Periodic work failed, backing off.", e)
+                backOff()
+            }
+            consecutiveFailures = if (currentRunFailed) consecutiveFailures + 1 else 0
             lastTimeItRan = getCurrentTimeMillis()
         }
         if (!shouldStopRunning()) {
-            enqueueForNextLoop()
+            scheduleNextRun()
         }
     }
 
+    /**
+     * Marks the current run as failed: the next run will be delayed by an exponential backoff
+     * rather than by [minimumDelayUntilNextRunInMillis].
+     */
+    protected fun backOff() {
+        currentRunFailed = true
+    }
+
     private fun isReadyToRun(): Boolean {
+        return millisUntilNextRun() <= 0
+    }
+
+    private fun millisUntilNextRun(): Long {
         return lastTimeItRan?.let {
-            getCurrentTimeMillis() >= (it + minimumDelayUntilNextRunInMillis())
-        } ?: true
+            it + delayAfterLastRunInMillis() - getCurrentTimeMillis()
+        } ?: 0
+    }
+
+    private fun delayAfterLastRunInMillis(): Long {
+        val minimumDelay = minimumDelayUntilNextRunInMillis()
+        if (consecutiveFailures == 0) {
+            return minimumDelay
+        }
+        var delay = maxOf(minimumDelay, MIN_BACKOFF_DELAY_IN_MILLIS)
+        repeat(consecutiveFailures) {
+            delay = minOf(delay * 2, MAX_BACKOFF_DELAY_IN_MILLIS)
+        }
+        return maxOf(delay, minimumDelay)
     }
 
-    private fun enqueueForNextLoop() {
-        AppWorkerManager.get().getService(PeriodicWorkAppWorker::class.java).enqueue(this)
+    private fun scheduleNextRun() {
+        AppWorkerManager.get().getService(PeriodicWorkAppWorker::class.java)
+            .schedule(this, maxOf(0L, millisUntilNextRun()))
     }
 
     private fun getCurrentTimeMillis() = SystemTime.get().getCurrentTimeMillis()
@@ -50,8 +96,8 @@ abstract class PeriodicRunnable : Runnable {
     abstract fun shouldStopRunning(): Boolean
 
     /**
-     * The minimum amount of time to wait between runs, it might take longer than what's defined here
-     * to run this task again depending on when the next batch of background work will get submitted.
+     * The minimum amount of time to wait between runs. Consecutive failed runs wait longer, see
+     * [backOff].
      */
     abstract fun minimumDelayUntilNextRunInMillis(): Long
 }
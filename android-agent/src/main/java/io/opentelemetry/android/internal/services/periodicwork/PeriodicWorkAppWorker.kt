@@ -5,71 +5,194 @@
 
 package io.opentelemetry.android.internal.services.periodicwork
 
-import android.os.Handler
-import android.os.Looper
+import android.util.Log
+import io.opentelemetry.android.common.RumConstants.OTEL_RUM_LOG_TAG
+import io.opentelemetry.android.instrumentation.common.ApplicationStateListener
 import io.opentelemetry.android.internal.services.AppWorker
-import java.util.concurrent.ConcurrentLinkedQueue
-import java.util.concurrent.LinkedBlockingQueue
-import java.util.concurrent.ThreadPoolExecutor
+import io.opentelemetry.android.internal.tools.time.SystemTime
+import java.util.Collections
+import java.util.IdentityHashMap
+import java.util.PriorityQueue
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
 import java.util.concurrent.TimeUnit
-import java.util.concurrent.atomic.AtomicBoolean
 
 /**
  * Utility to run periodic background work.
  *
+ * <p>Work is kept ordered by the time it is due, and runs on the given scheduler, which sleeps until
+ * the earliest piece of work is due: nothing wakes up while there's no work to run. No work runs
+ * before [start], nor while the app is in the background; work that became due meanwhile runs as
+ * soon as the app comes back to the foreground.
+ *
+ * <p>Cancelling work also covers the runs that are already underway: work that is running, or
+ * about to run, when it is cancelled doesn't run again, even if it schedules itself again.
+ *
  * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
  * time.
  */
-class PeriodicWorkAppWorker : AppWorker {
-    private val delegator = WorkerDelegator()
-    private val started = AtomicBoolean(false)
+class PeriodicWorkAppWorker(private val scheduler: ScheduledExecutorService) :
+    AppWorker,
+    ApplicationStateListener {
+    private val lock = Any()
+    private val queue = PriorityQueue<ScheduledWork>()
+
+    // the work taken out of the queue to run, and the part of it cancelled since
+    private val runningWork = Collections.newSetFromMap(IdentityHashMap<Runnable, Boolean>())
+    private val cancelledWork = Collections.newSetFromMap(IdentityHashMap<Runnable, Boolean>())
+    private val wakeUp = Runnable { runDueWork() }
+    private var started = false
+    private var paused = false
+    private var nextWakeUp: ScheduledFuture<*>? = null
+    private var nextWakeUpAtMillis = Long.MAX_VALUE
+    private var sequence = 0L
 
     override fun start() {
-        if (!started.getAndSet(true)) {
-            delegator.run()
+        synchronized(lock) {
+            if (started) {
+                return
+            }
+            started = true
+            scheduleWakeUp()
         }
     }
 
+    override fun stop() {
+        synchronized(lock) {
+            started = false
+            cancelWakeUp()
+        }
+    }
+
+    /** Runs the given work as soon as possible. */
     fun enqueue(runnable: Runnable) {
-        delegator.enqueue(runnable)
+        schedule(runnable, 0)
     }
 
-    private class WorkerDelegator : Runnable {
-        companion object {
-            private const val SECONDS_TO_KILL_IDLE_THREADS = 30L
-            private const val SECONDS_FOR_NEXT_LOOP = 10L
-            private const val MAX_AMOUNT_OF_WORKER_THREADS = 1
-            private const val NUMBER_OF_PERMANENT_WORKER_THREADS = 0
+    /** Runs the given work once the given delay has passed. */
+    fun schedule(
+        runnable: Runnable,
+        delayMillis: Long,
+    ) {
+        synchronized(lock) {
+            if (cancelledWork.contains(runnable)) {
+                // cancelled while running, it must not be put back in the queue
+                return
+            }
+            queue.add(ScheduledWork(runnable, now() + delayMillis, sequence++))
+            scheduleWakeUp()
         }
+    }
 
-        private val queue = ConcurrentLinkedQueue<Runnable>()
-        private val handler = Handler(Looper.getMainLooper())
-        private val executor =
-            ThreadPoolExecutor(
-                NUMBER_OF_PERMANENT_WORKER_THREADS,
-                MAX_AMOUNT_OF_WORKER_THREADS,
-                SECONDS_TO_KILL_IDLE_THREADS,
-                TimeUnit.SECONDS,
-                LinkedBlockingQueue(),
-            )
+    /** Removes all the pending runs of the given work, including one that is running now. */
+    fun cancel(runnable: Runnable) {
+        synchronized(lock) {
+            queue.removeAll { it.runnable === runnable }
+            if (runningWork.contains(runnable)) {
+                cancelledWork.add(runnable)
+            }
+            scheduleWakeUp()
+        }
+    }
 
-        fun enqueue(runnable: Runnable) {
-            queue.add(runnable)
+    /** Stops running work until [resume] is called. */
+    fun pause() {
+        synchronized(lock) {
+            paused = true
+            cancelWakeUp()
         }
+    }
 
-        override fun run() {
-            delegateToWorkerThread()
-            scheduleNextLookUp()
+    fun resume() {
+        synchronized(lock) {
+            paused = false
+            scheduleWakeUp()
         }
+    }
+
+    override fun onApplicationForegrounded() {
+        resume()
+    }
 
-        private fun delegateToWorkerThread() {
-            while (queue.isNotEmpty()) {
-                executor.execute(queue.poll())
+    override fun onApplicationBackgrounded() {
+        pause()
+    }
+
+    private fun scheduleWakeUp() {
+        if (!started || paused) {
+            return
+        }
+        val dueAtMillis = queue.peek()?.dueAtMillis
+        if (dueAtMillis == null) {
+            cancelWakeUp()
+            return
+        }
+        if (nextWakeUp != null && nextWakeUpAtMillis <= dueAtMillis) {
+            // already going to wake up in time
+            return
+        }
+        cancelWakeUp()
+        nextWakeUpAtMillis = dueAtMillis
+        nextWakeUp =
+            scheduler.schedule(
+                wakeUp,
+                maxOf(0L, dueAtMillis - now()),
+                TimeUnit.MILLISECONDS,
+            )
+    }
+
+    private fun cancelWakeUp() {
+        nextWakeUp?.cancel(false)
+        nextWakeUp = null
+        nextWakeUpAtMillis = Long.MAX_VALUE
+    }
+
+    private fun runDueWork() {
+        val dueWork = mutableListOf<Runnable>()
+        synchronized(lock) {
+            nextWakeUp = null
+            nextWakeUpAtMillis = Long.MAX_VALUE
+            if (!started || paused) {
+                return
+            }
+            val now = now()
+            while (queue.peek()?.let { it.dueAtMillis <= now } == true) {
+                dueWork.add(queue.poll()!!.runnable)
+            }
+            runningWork.addAll(dueWork)
+        }
+        // work can schedule more work, so it must run outside of the lock
+        for (work in dueWork) {
+            try {
+                if (synchronized(lock) { !cancelledWork.contains(work) }) {
+                    work.run()
+                }
+            } catch (e: RuntimeException) {
+                // one failing piece of work must not prevent the rest from running
+                Log.e(OTEL_RUM_LOG_TAG, "Periodic work failed.", e)
+            } finally {
+                synchronized(lock) {
+                    runningWork.remove(work)
+                    cancelledWork.remove(work)
+                }
             }
         }
+        synchronized(lock) {
+            scheduleWakeUp()
+        }
+    }
+
+    private fun now() = SystemTime.get().getCurrentTimeMillis()
 
-        private fun scheduleNextLookUp() {
-            handler.postDelayed(this, TimeUnit.SECONDS.toMillis(SECONDS_FOR_NEXT_LOOP))
+    private class ScheduledWork(
+        val runnable: Runnable,
+        val dueAtMillis: Long,
+        // keeps work due at the same time in the order it was scheduled
+        private val sequence: Long,
+    ) : Comparable<ScheduledWork> {
+        override fun compareTo(other: ScheduledWork): Int {
+            val byDueTime = dueAtMillis.compareTo(other.dueAtMillis)
+            return if (byDueTime != 0) byDueTime else sequence.compareTo(other.sequence)
         }
     }
 }
@@ -17,6 +17,7 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -24,16 +25,20 @@ import android.app.Activity;
 import android.app.Application;
 import android.os.Looper;
 import androidx.annotation.NonNull;
+import io.opentelemetry.android.common.TelemetryScheduler;
 import io.opentelemetry.android.config.OtelRumConfig;
 import io.opentelemetry.android.features.diskbuffering.DiskBufferingConfiguration;
 import io.opentelemetry.android.features.diskbuffering.SignalFromDiskExporter;
 import io.opentelemetry.android.features.diskbuffering.scheduler.ExportScheduleHandler;
 import io.opentelemetry.android.instrumentation.common.ApplicationStateListener;
 import io.opentelemetry.android.instrumentation.startup.InitializationEvents;
+import io.opentelemetry.android.internal.features.persistence.DeferredDiskExporters.DeferredSpanExporter;
+import io.opentelemetry.android.internal.features.persistence.EncodedDiskExporters.SpanToDiskExporter;
 import io.opentelemetry.android.internal.services.CacheStorageAppWorker;
 import io.opentelemetry.android.internal.services.PreferencesAppWorker;
 import io.opentelemetry.android.internal.services.AppWorker;
 import io.opentelemetry.android.internal.services.AppWorkerManager;
+import io.opentelemetry.android.internal.services.periodicwork.PeriodicWorkAppWorker;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.logs.Logger;
@@ -42,8 +47,8 @@ import io.opentelemetry.context.Context;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.context.propagation.TextMapGetter;
 import io.opentelemetry.context.propagation.TextMapPropagator;
-import io.opentelemetry.contrib.disk.buffering.SpanToDiskExporter;
 import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
 import io.opentelemetry.sdk.logs.export.SimpleLogRecordProcessor;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions;
@@ -198,6 +203,17 @@ class OpenTelemetryRumBuilderTest {
                 .untilAsserted(() -> verify(exporter).export(anyCollection()));
     }
 
+    @Test
+    void setLogRecordExporterCustomizer() {
+        LogRecordExporter exporter = mock(LogRecordExporter.class);
+        OpenTelemetryRum rum = makeBuilder().addLogRecordExporterCustomizer(x -> exporter).build();
+
+        rum.getOpenTelemetry().getLogsBridge().get("test").logRecordBuilder().emit();
+
+        await().atMost(Duration.ofSeconds(30))
+                .untilAsserted(() -> verify(exporter).export(anyCollection()));
+    }
+
     @Test
     void diskBufferingEnabled() {
         PreferencesAppWorker preferences = mock();
@@ -217,11 +233,14 @@ class OpenTelemetryRumBuilderTest {
                 .setInitializationEvents(initializationEvents)
                 .build();
 
-        assertThat(SignalFromDiskExporter.get()).isNotNull();
-        verify(scheduleHandler).enable();
+        // the disk buffer is set up in the background
+        verify(scheduleHandler, timeout(5000)).enable();
         verify(scheduleHandler, never()).disable();
+        assertThat(SignalFromDiskExporter.get()).isNotNull();
         verify(initializationEvents).spanExporterInitialized(exporterCaptor.capture());
-        assertThat(exporterCaptor.getValue()).isInstanceOf(SpanToDiskExporter.class);
+        assertThat(exporterCaptor.getValue()).isInstanceOf(DeferredSpanExporter.class);
+        assertThat(((DeferredSpanExporter) exporterCaptor.getValue()).getDelegate())
+                .isInstanceOf(SpanToDiskExporter.class);
     }
 
     @Test
@@ -249,10 +268,12 @@ class OpenTelemetryRumBuilderTest {
                 .setInitializationEvents(initializationEvents)
                 .build();
 
-        verify(initializationEvents).spanExporterInitialized(exporterCaptor.capture());
+        verify(scheduleHandler, timeout(5000)).disable();
         verify(scheduleHandler, never()).enable();
-        verify(scheduleHandler).disable();
-        assertThat(exporterCaptor.getValue()).isNotInstanceOf(SpanToDiskExporter.class);
+        verify(initializationEvents).spanExporterInitialized(exporterCaptor.capture());
+        assertThat(((DeferredSpanExporter) exporterCaptor.getValue()).getDelegate())
+                .isNotNull()
+                .isNotInstanceOf(SpanToDiskExporter.class);
         assertThat(SignalFromDiskExporter.get()).isNull();
     }
 
@@ -318,15 +339,21 @@ class OpenTelemetryRumBuilderTest {
 
     @Test
     void verifyServicesAreStarted() {
-        setUpServiceManager();
+        setUpServiceManager(mock(PreferencesAppWorker.class));
 
         makeBuilder().build();
 
         verify(AppWorkerManager.get()).start();
+        verify(AppWorkerManager.get().getService(PeriodicWorkAppWorker.class))
+                .enqueue(isA(SessionIdRotationScheduler.class));
     }
 
     private static void setUpServiceManager(AppWorker... appWorkers) {
         AppWorkerManager appWorkerManager = mock();
+        doReturn(TelemetryScheduler.create()).when(appWorkerManager).getScheduler();
+        doReturn(mock(PeriodicWorkAppWorker.class))
+                .when(appWorkerManager)
+                .getService(PeriodicWorkAppWorker.class);
         for (AppWorker appWorker : appWorkers) {
             doReturn(appWorker).when(appWorkerManager).getService(appWorker.getClass());
         }
@@ -0,0 +1,144 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.app.Activity;
+import android.app.Application;
+import io.opentelemetry.android.common.RumConstants;
+import io.opentelemetry.android.instrumentation.activity.VisibleScreenTracker;
+import io.opentelemetry.android.instrumentation.network.CurrentNetworkProvider;
+import io.opentelemetry.android.instrumentation.network.NetworkAttributesSpanAppender;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of starting (and ending) a span with the RUM attributes appended by one {@link
+ * RumAttributesSpanAppender}, compared to the previous setup of one span processor per attribute
+ * source. Run with {@code ./gradlew :android-agent:jmh -Pjmh.args=RumAttributesSpanAppender}.
+ */
+// the previous processors are deprecated, and kept as the baseline
+@SuppressWarnings("deprecation")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RumAttributesSpanAppenderBenchmark {
+
+    private SdkTracerProvider separateProcessorsProvider;
+    private SdkTracerProvider fusedProcessorProvider;
+    private Tracer separateProcessorsTracer;
+    private Tracer fusedProcessorTracer;
+
+    @Setup
+    public void setUp() {
+        SessionId sessionId = new SessionId(new SessionIdTimeoutHandler());
+        Attributes globalAttributes =
+                Attributes.of(
+                        AttributeKey.stringKey("app.flavor"), "benchmark",
+                        AttributeKey.stringKey("app.user"), "someone");
+        Supplier<Attributes> globalAttributesSupplier = () -> globalAttributes;
+        CurrentNetworkProvider currentNetworkProvider = createCurrentNetworkProvider();
+        VisibleScreenTracker visibleScreenTracker = new VisibleScreenTracker();
+        visibleScreenTracker.activityResumed(mock(Activity.class));
+
+        separateProcessorsProvider =
+                SdkTracerProvider.builder()
+                        .addSpanProcessor(new SessionIdProcessor(sessionId))
+                        .addSpanProcessor(
+                                GlobalAttributesSpanAppender.create(globalAttributesSupplier))
+                        .addSpanProcessor(
+                                NetworkAttributesSpanAppender.create(currentNetworkProvider))
+                        .addSpanProcessor(new ScreenAttributesSpanProcessor(visibleScreenTracker))
+                        .build();
+        separateProcessorsTracer = separateProcessorsProvider.get("benchmark");
+
+        fusedProcessorProvider =
+                SdkTracerProvider.builder()
+                        .addSpanProcessor(
+                                new RumAttributesSpanAppender(
+                                        sessionId,
+                                        globalAttributesSupplier,
+                                        currentNetworkProvider,
+                                        visibleScreenTracker))
+                        .build();
+        fusedProcessorTracer = fusedProcessorProvider.get("benchmark");
+    }
+
+    private static CurrentNetworkProvider createCurrentNetworkProvider() {
+        // without the Android runtime, this falls back to the "unknown" network
+        Application application = mock(Application.class);
+        when(application.getApplicationContext())
+                .thenReturn(mock(android.content.Context.class));
+        return CurrentNetworkProvider.createAndStart(application);
+    }
+
+    @TearDown
+    public void tearDown() {
+        separateProcessorsProvider.close();
+        fusedProcessorProvider.close();
+    }
+
+    @Benchmark
+    public void separateProcessors() {
+        separateProcessorsTracer.spanBuilder("span").startSpan().end();
+    }
+
+    @Benchmark
+    public void fusedProcessor() {
+        fusedProcessorTracer.spanBuilder("span").startSpan().end();
+    }
+
+    // the removed processor that appended the session id on its own
+    private static final class SessionIdProcessor implements SpanProcessor {
+        private final SessionId sessionId;
+
+        private SessionIdProcessor(SessionId sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+            span.setAttribute(RumConstants.SESSION_ID_KEY, sessionId.getSessionId());
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return true;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {}
+
+        @Override
+        public boolean isEndRequired() {
+            return false;
+        }
+    }
+}
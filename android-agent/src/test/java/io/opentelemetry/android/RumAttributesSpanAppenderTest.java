@@ -0,0 +1,152 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android;
+
+import static io.opentelemetry.android.common.RumConstants.SCREEN_NAME_KEY;
+import static io.opentelemetry.android.common.RumConstants.SESSION_ID_KEY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.opentelemetry.android.instrumentation.activity.VisibleScreenTracker;
+import io.opentelemetry.android.instrumentation.network.CurrentNetworkProvider;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.semconv.SemanticAttributes;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RumAttributesSpanAppenderTest {
+
+    private static final AttributeKey<String> GLOBAL_KEY = AttributeKey.stringKey("global");
+
+    @Mock SessionId sessionId;
+    @Mock CurrentNetworkProvider currentNetworkProvider;
+    @Mock VisibleScreenTracker visibleScreenTracker;
+    @Mock ReadWriteSpan span;
+    @Captor ArgumentCaptor<Attributes> attributesCaptor;
+
+    @Test
+    void shouldAppendAllAttributesAtOnce() {
+        when(sessionId.getSessionId()).thenReturn("42");
+        when(currentNetworkProvider.getCurrentNetworkAttributes())
+                .thenReturn(
+                        Attributes.of(
+                                SemanticAttributes.NETWORK_CONNECTION_TYPE, "cell",
+                                SemanticAttributes.NETWORK_CONNECTION_SUBTYPE, "LTE"));
+        when(visibleScreenTracker.getCurrentlyVisibleScreen()).thenReturn("MainActivity");
+
+        RumAttributesSpanAppender underTest =
+                new RumAttributesSpanAppender(
+                        sessionId,
+                        () -> Attributes.of(GLOBAL_KEY, "value"),
+                        currentNetworkProvider,
+                        visibleScreenTracker);
+
+        assertTrue(underTest.isStartRequired());
+        underTest.onStart(Context.root(), span);
+
+        verify(span)
+                .setAllAttributes(
+                        Attributes.builder()
+                                .put(SESSION_ID_KEY, "42")
+                                .put(GLOBAL_KEY, "value")
+                                .put(SemanticAttributes.NETWORK_CONNECTION_TYPE, "cell")
+                                .put(SemanticAttributes.NETWORK_CONNECTION_SUBTYPE, "LTE")
+                                .put(SCREEN_NAME_KEY, "MainActivity")
+                                .build());
+        assertFalse(underTest.isEndRequired());
+    }
+
+    @Test
+    void shouldOnlyAppendSessionIdWithoutOtherSources() {
+        when(sessionId.getSessionId()).thenReturn("42");
+
+        RumAttributesSpanAppender underTest =
+                new RumAttributesSpanAppender(sessionId, null, null, null);
+        underTest.onStart(Context.root(), span);
+
+        verify(span).setAllAttributes(Attributes.of(SESSION_ID_KEY, "42"));
+    }
+
+    @Test
+    void shouldReuseSnapshotUntilASourceChanges() {
+        Attributes globalAttributes = Attributes.of(GLOBAL_KEY, "value");
+        when(sessionId.getSessionId()).thenReturn("42");
+        when(visibleScreenTracker.getCurrentlyVisibleScreen())
+                .thenReturn("MainActivity", "MainActivity", "SettingsActivity");
+
+        RumAttributesSpanAppender underTest =
+                new RumAttributesSpanAppender(
+                        sessionId, () -> globalAttributes, null, visibleScreenTracker);
+        underTest.onStart(Context.root(), span);
+        underTest.onStart(Context.root(), span);
+        underTest.onStart(Context.root(), span);
+
+        verify(span, times(3)).setAllAttributes(attributesCaptor.capture());
+        List<Attributes> applied = attributesCaptor.getAllValues();
+        assertThat(applied.get(1)).isSameAs(applied.get(0));
+        assertThat(applied.get(2)).isNotSameAs(applied.get(1));
+        assertThat(applied.get(2).get(SCREEN_NAME_KEY)).isEqualTo("SettingsActivity");
+    }
+
+    @Test
+    void shouldReuseSnapshotWhenGlobalAttributesAreBuiltOnEachCall() {
+        when(sessionId.getSessionId()).thenReturn("42");
+
+        RumAttributesSpanAppender underTest =
+                new RumAttributesSpanAppender(
+                        sessionId, () -> Attributes.of(GLOBAL_KEY, "value"), null, null);
+        underTest.onStart(Context.root(), span);
+        underTest.onStart(Context.root(), span);
+
+        verify(span, times(2)).setAllAttributes(attributesCaptor.capture());
+        List<Attributes> applied = attributesCaptor.getAllValues();
+        assertThat(applied.get(1)).isSameAs(applied.get(0));
+    }
+
+    @Test
+    void shouldRebuildSnapshotWhenSessionChanges() {
+        when(sessionId.getSessionId()).thenReturn("42", "43");
+
+        RumAttributesSpanAppender underTest =
+                new RumAttributesSpanAppender(sessionId, null, null, null);
+        underTest.onStart(Context.root(), span);
+        underTest.onStart(Context.root(), span);
+
+        verify(span, times(2)).setAllAttributes(attributesCaptor.capture());
+        assertThat(attributesCaptor.getAllValues().get(1).get(SESSION_ID_KEY)).isEqualTo("43");
+    }
+
+    @Test
+    void laterSourcesOverrideEarlierOnes() {
+        when(sessionId.getSessionId()).thenReturn("42");
+        when(visibleScreenTracker.getCurrentlyVisibleScreen()).thenReturn("MainActivity");
+
+        RumAttributesSpanAppender underTest =
+                new RumAttributesSpanAppender(
+                        sessionId,
+                        () -> Attributes.of(SESSION_ID_KEY, "global", SCREEN_NAME_KEY, "global"),
+                        null,
+                        visibleScreenTracker);
+        underTest.onStart(Context.root(), span);
+
+        verify(span)
+                .setAllAttributes(
+                        Attributes.of(SESSION_ID_KEY, "global", SCREEN_NAME_KEY, "MainActivity"));
+    }
+}
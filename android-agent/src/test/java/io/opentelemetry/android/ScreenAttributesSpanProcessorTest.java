@@ -18,6 +18,7 @@ import io.opentelemetry.sdk.trace.ReadWriteSpan;
 import io.opentelemetry.sdk.trace.ReadableSpan;
 import org.junit.jupiter.api.Test;
 
+@SuppressWarnings("deprecation")
 class ScreenAttributesSpanProcessorTest {
 
     @Test
@@ -0,0 +1,136 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android;
+
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.sdk.common.Clock;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the span path cost of {@link SessionId#getSessionId()} with the previous
+ * compare-and-set based implementation, under 1 to 8 threads starting spans concurrently. Run with
+ * {@code ./gradlew :android-agent:jmh -Pjmh.args=SessionIdBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionIdBenchmark {
+
+    private SessionId sessionId;
+    private LegacySessionId legacySessionId;
+
+    @Setup
+    public void setUp() {
+        sessionId = new SessionId(new SessionIdTimeoutHandler());
+        legacySessionId = new LegacySessionId(new SessionIdTimeoutHandler());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String snapshot_1thread() {
+        return sessionId.getSessionId();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public String snapshot_2threads() {
+        return sessionId.getSessionId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String snapshot_4threads() {
+        return sessionId.getSessionId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String snapshot_8threads() {
+        return sessionId.getSessionId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String legacy_1thread() {
+        return legacySessionId.getSessionId();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public String legacy_2threads() {
+        return legacySessionId.getSessionId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String legacy_4threads() {
+        return legacySessionId.getSessionId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String legacy_8threads() {
+        return legacySessionId.getSessionId();
+    }
+
+    /** The previous implementation, kept here as the baseline. */
+    private static final class LegacySessionId {
+
+        private static final long SESSION_LIFETIME_NANOS = TimeUnit.HOURS.toNanos(4);
+
+        private final Clock clock = Clock.getDefault();
+        private final AtomicReference<String> value = new AtomicReference<>();
+        private final SessionIdTimeoutHandler timeoutHandler;
+        private volatile long createTimeNanos;
+
+        private LegacySessionId(SessionIdTimeoutHandler timeoutHandler) {
+            this.timeoutHandler = timeoutHandler;
+            value.set(createNewId());
+            createTimeNanos = clock.nanoTime();
+        }
+
+        private static String createNewId() {
+            Random random = new Random();
+            return TraceId.fromLongs(random.nextLong(), random.nextLong());
+        }
+
+        private String getSessionId() {
+            String oldValue = value.get();
+            String currentValue = oldValue;
+
+            if (sessionExpired() || timeoutHandler.hasTimedOut()) {
+                String newId = createNewId();
+                if (value.compareAndSet(oldValue, newId)) {
+                    createTimeNanos = clock.nanoTime();
+                }
+                currentValue = value.get();
+            }
+
+            timeoutHandler.bump();
+            return currentValue;
+        }
+
+        private boolean sessionExpired() {
+            return clock.nanoTime() - createTimeNanos >= SESSION_LIFETIME_NANOS;
+        }
+    }
+}
@@ -9,12 +9,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import io.opentelemetry.sdk.testing.time.TestClock;
@@ -22,6 +25,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -95,4 +99,190 @@ class SessionIdTest {
         assertNotEquals(value, sessionId.getSessionId());
         verify(timeoutHandler, times(3)).bump();
     }
+
+    @Test
+    void rotateIfExpired_keepsSessionBeforeExpiry() {
+        TestClock clock = TestClock.create();
+        SessionId sessionId = new SessionId(clock, timeoutHandler);
+        String value = sessionId.getSessionId();
+
+        clock.advance(3, TimeUnit.HOURS);
+        sessionId.rotateIfExpired();
+
+        assertEquals(value, sessionId.toString());
+        assertEquals(TimeUnit.HOURS.toMillis(1), sessionId.getMillisUntilExpiry());
+    }
+
+    @Test
+    void rotateIfExpired_replacesExpiredSession() {
+        TestClock clock = TestClock.create();
+        SessionIdChangeListener listener = mock(SessionIdChangeListener.class);
+        SessionId sessionId = new SessionId(clock, timeoutHandler);
+        sessionId.setSessionIdChangeListener(listener);
+        String value = sessionId.toString();
+
+        clock.advance(4, TimeUnit.HOURS);
+        sessionId.rotateIfExpired();
+
+        String newValue = sessionId.toString();
+        assertNotEquals(value, newValue);
+        assertEquals(TimeUnit.HOURS.toMillis(4), sessionId.getMillisUntilExpiry());
+        verify(listener).onChange(value, newValue);
+        // the span path doesn't need to rotate the session anymore
+        assertEquals(newValue, sessionId.getSessionId());
+        verify(listener).onChange(anyString(), anyString());
+    }
+
+    @Test
+    void shouldRotateTimedOutSessionWhenForegrounded() {
+        SessionId sessionId = new SessionId(TestClock.create(), timeoutHandler);
+        String value = sessionId.toString();
+
+        when(timeoutHandler.hasTimedOut()).thenReturn(true);
+        sessionId.onApplicationForegrounded();
+
+        assertNotEquals(value, sessionId.toString());
+    }
+
+    @Test
+    void restoresStoredSession() {
+        TestClock clock = TestClock.create();
+        SessionIdChangeListener listener = mock(SessionIdChangeListener.class);
+        SessionId sessionId = new SessionId(clock, timeoutHandler);
+        sessionId.setSessionIdChangeListener(listener);
+        String initialValue = sessionId.toString();
+        long nowMillis = TimeUnit.NANOSECONDS.toMillis(clock.now());
+        SessionStore.StoredSession stored =
+                new SessionStore.StoredSession(
+                        "0123456789abcdef0123456789abcdef",
+                        nowMillis - TimeUnit.HOURS.toMillis(1),
+                        nowMillis - TimeUnit.MINUTES.toMillis(5));
+
+        sessionId.setSessionStore(storeLoading(stored));
+
+        assertEquals("0123456789abcdef0123456789abcdef", sessionId.getSessionId());
+        assertEquals(TimeUnit.HOURS.toMillis(3), sessionId.getMillisUntilExpiry());
+        verify(listener).onChange(initialValue, "0123456789abcdef0123456789abcdef");
+
+        // the restored session keeps its original expiry
+        clock.advance(3, TimeUnit.HOURS);
+        assertNotEquals("0123456789abcdef0123456789abcdef", sessionId.getSessionId());
+    }
+
+    @Test
+    void doesNotRestoreExpiredSession() {
+        TestClock clock = TestClock.create();
+        SessionId sessionId = new SessionId(clock, timeoutHandler);
+        String initialValue = sessionId.toString();
+        long nowMillis = TimeUnit.NANOSECONDS.toMillis(clock.now());
+        SessionStore store =
+                storeLoading(
+                        new SessionStore.StoredSession(
+                                "0123456789abcdef0123456789abcdef",
+                                nowMillis - TimeUnit.HOURS.toMillis(4),
+                                nowMillis - TimeUnit.MINUTES.toMillis(5)));
+
+        sessionId.setSessionStore(store);
+
+        assertEquals(initialValue, sessionId.getSessionId());
+        ArgumentCaptor<SessionStore.StoredSession> saved =
+                ArgumentCaptor.forClass(SessionStore.StoredSession.class);
+        verify(store).save(saved.capture());
+        assertEquals(initialValue, saved.getValue().getId());
+    }
+
+    @Test
+    void doesNotRestoreTimedOutSession() {
+        TestClock clock = TestClock.create();
+        SessionId sessionId = new SessionId(clock, timeoutHandler);
+        String initialValue = sessionId.toString();
+        long nowMillis = TimeUnit.NANOSECONDS.toMillis(clock.now());
+
+        sessionId.setSessionStore(
+                storeLoading(
+                        new SessionStore.StoredSession(
+                                "0123456789abcdef0123456789abcdef",
+                                nowMillis - TimeUnit.HOURS.toMillis(1),
+                                nowMillis - TimeUnit.MINUTES.toMillis(15))));
+
+        assertEquals(initialValue, sessionId.getSessionId());
+    }
+
+    @Test
+    void noStoreInteractionOnSpanPath() {
+        TestClock clock = TestClock.create();
+        SessionStore store = mock(SessionStore.class);
+        SessionId sessionId = new SessionId(clock, timeoutHandler);
+        sessionId.setSessionStore(store);
+        verify(store).load(any());
+
+        for (int i = 0; i < 100; i++) {
+            sessionId.getSessionId();
+            clock.advance(1, TimeUnit.MINUTES);
+        }
+
+        verifyNoMoreInteractions(store);
+    }
+
+    @Test
+    void persistsActivityInTheBackground() {
+        TestClock clock = TestClock.create();
+        SessionStore store = mock(SessionStore.class);
+        SessionId sessionId = new SessionId(clock, timeoutHandler);
+        sessionId.setSessionStore(store);
+        when(timeoutHandler.bump()).thenReturn(true);
+        ArgumentCaptor<SessionStore.StoredSession> saved =
+                ArgumentCaptor.forClass(SessionStore.StoredSession.class);
+
+        clock.advance(20, TimeUnit.MINUTES);
+        String id = sessionId.getSessionId();
+
+        verify(store).save(saved.capture());
+        assertEquals(id, saved.getValue().getId());
+        assertEquals(
+                TimeUnit.NANOSECONDS.toMillis(clock.now()),
+                saved.getValue().getLastActivityEpochMillis());
+    }
+
+    @Test
+    void persistsSessionWhenBackgroundedAndRotated() {
+        TestClock clock = TestClock.create();
+        SessionStore store = mock(SessionStore.class);
+        SessionId sessionId = new SessionId(clock, timeoutHandler);
+        sessionId.setSessionStore(store);
+        ArgumentCaptor<SessionStore.StoredSession> saved =
+                ArgumentCaptor.forClass(SessionStore.StoredSession.class);
+
+        clock.advance(10, TimeUnit.MINUTES);
+        sessionId.onApplicationBackgrounded();
+        verify(store).save(saved.capture());
+        assertEquals(sessionId.toString(), saved.getValue().getId());
+        assertEquals(
+                TimeUnit.NANOSECONDS.toMillis(clock.now()),
+                saved.getValue().getLastActivityEpochMillis());
+        assertEquals(
+                TimeUnit.NANOSECONDS.toMillis(clock.now()) - TimeUnit.MINUTES.toMillis(10),
+                saved.getValue().getCreatedEpochMillis());
+
+        clock.advance(4, TimeUnit.HOURS);
+        sessionId.rotateIfExpired();
+        verify(store, times(2)).save(saved.capture());
+        assertEquals(sessionId.toString(), saved.getValue().getId());
+        assertEquals(
+                TimeUnit.NANOSECONDS.toMillis(clock.now()),
+                saved.getValue().getCreatedEpochMillis());
+    }
+
+    private static SessionStore storeLoading(SessionStore.StoredSession stored) {
+        SessionStore store = mock(SessionStore.class);
+        doAnswer(
+                        invocation -> {
+                            SessionStore.LoadCallback callback = invocation.getArgument(0);
+                            callback.onLoaded(stored);
+                            return null;
+                        })
+                .when(store)
+                .load(any());
+        return store;
+    }
 }
@@ -21,7 +21,8 @@ class SessionIdTimeoutHandlerTest {
         SessionIdTimeoutHandler timeoutHandler = new SessionIdTimeoutHandler(clock);
 
         assertFalse(timeoutHandler.hasTimedOut());
-        timeoutHandler.bump();
+        // activity in the foreground isn't recorded
+        assertFalse(timeoutHandler.bump());
 
         // never time out in foreground
         clock.advance(Duration.ofHours(4));
@@ -34,7 +35,7 @@ class SessionIdTimeoutHandlerTest {
         SessionIdTimeoutHandler timeoutHandler = new SessionIdTimeoutHandler(clock);
 
         timeoutHandler.onApplicationBackgrounded();
-        timeoutHandler.bump();
+        assertTrue(timeoutHandler.bump());
 
         assertFalse(timeoutHandler.hasTimedOut());
         timeoutHandler.bump();
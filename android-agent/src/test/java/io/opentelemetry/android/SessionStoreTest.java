@@ -0,0 +1,117 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android;
+
+import static io.opentelemetry.android.SessionStore.CREATED_EPOCH_MILLIS_KEY;
+import static io.opentelemetry.android.SessionStore.LAST_ACTIVITY_EPOCH_MILLIS_KEY;
+import static io.opentelemetry.android.SessionStore.SESSION_ID_KEY;
+import static io.opentelemetry.android.SessionStore.WRITE_DEBOUNCE_MILLIS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import io.opentelemetry.android.internal.services.PreferencesAppWorker;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SessionStoreTest {
+
+    @Mock PreferencesAppWorker preferences;
+    @Mock ScheduledExecutorService executor;
+    @Captor ArgumentCaptor<Runnable> taskCaptor;
+
+    private SessionStore sessionStore;
+
+    @BeforeEach
+    void setUp() {
+        sessionStore = new SessionStore(preferences, executor);
+    }
+
+    @Test
+    void load_readsOnBackgroundThread() {
+        when(preferences.retrieveString(SESSION_ID_KEY, null)).thenReturn("abc");
+        when(preferences.retrieveLong(CREATED_EPOCH_MILLIS_KEY, -1)).thenReturn(1000L);
+        when(preferences.retrieveLong(LAST_ACTIVITY_EPOCH_MILLIS_KEY, -1)).thenReturn(2000L);
+        AtomicReference<SessionStore.StoredSession> loaded = new AtomicReference<>();
+
+        sessionStore.load(loaded::set);
+
+        verifyNoInteractions(preferences);
+        verify(executor).execute(taskCaptor.capture());
+        taskCaptor.getValue().run();
+        assertThat(loaded.get().getId()).isEqualTo("abc");
+        assertThat(loaded.get().getCreatedEpochMillis()).isEqualTo(1000L);
+        assertThat(loaded.get().getLastActivityEpochMillis()).isEqualTo(2000L);
+    }
+
+    @Test
+    void load_nothingStored() {
+        when(preferences.retrieveString(SESSION_ID_KEY, null)).thenReturn(null);
+        AtomicReference<SessionStore.StoredSession> loaded =
+                new AtomicReference<>(new SessionStore.StoredSession("abc", 0, 0));
+
+        sessionStore.load(loaded::set);
+
+        verify(executor).execute(taskCaptor.capture());
+        taskCaptor.getValue().run();
+        assertThat(loaded.get()).isNull();
+    }
+
+    @Test
+    void save_debouncesWrites() {
+        sessionStore.save(new SessionStore.StoredSession("first", 1000L, 1000L));
+        sessionStore.save(new SessionStore.StoredSession("second", 2000L, 2000L));
+        sessionStore.save(new SessionStore.StoredSession("second", 2000L, 3000L));
+
+        verifyNoInteractions(preferences);
+        verify(executor)
+                .schedule(
+                        taskCaptor.capture(), eq(WRITE_DEBOUNCE_MILLIS), eq(TimeUnit.MILLISECONDS));
+        taskCaptor.getValue().run();
+        verify(preferences).storeAll(stored("second", 2000L, 3000L));
+        verifyNoMoreInteractions(preferences);
+    }
+
+    @Test
+    void save_afterFlushSchedulesAnotherWrite() {
+        sessionStore.save(new SessionStore.StoredSession("first", 1000L, 1000L));
+        verify(executor).schedule(taskCaptor.capture(), anyLong(), any());
+        taskCaptor.getValue().run();
+
+        sessionStore.save(new SessionStore.StoredSession("second", 2000L, 2000L));
+
+        verify(executor, times(2)).schedule(taskCaptor.capture(), anyLong(), any());
+        taskCaptor.getValue().run();
+        verify(preferences).storeAll(stored("first", 1000L, 1000L));
+        verify(preferences).storeAll(stored("second", 2000L, 2000L));
+    }
+
+    private static Map<String, Object> stored(
+            String id, long createdEpochMillis, long lastActivityEpochMillis) {
+        Map<String, Object> values = new HashMap<>();
+        values.put(SESSION_ID_KEY, id);
+        values.put(CREATED_EPOCH_MILLIS_KEY, createdEpochMillis);
+        values.put(LAST_ACTIVITY_EPOCH_MILLIS_KEY, lastActivityEpochMillis);
+        return values;
+    }
+}
@@ -70,4 +70,47 @@ class FilteringSpanExporterTest {
                 .satisfiesExactly(
                         s -> assertThat(s).isSameAs(span1), s -> assertThat(s).isSameAs(span8));
     }
+
+    @Test
+    void passTheBatchThroughWhenNoSpanIsRejected() {
+        Attributes attributes = Attributes.of(stringKey("herp"), "flerp");
+        Collection<SpanData> spans =
+                Arrays.asList(TestSpanHelper.span("one", attributes), TestSpanHelper.span("two"));
+        Map<AttributeKey<?>, Predicate<?>> attrRejects = new HashMap<>();
+        attrRejects.put(stringKey("herp"), "derp"::equals);
+        SpanExporter exporter = mock(SpanExporter.class);
+        when(exporter.export(spansCaptor.capture())).thenReturn(CompletableResultCode.ofSuccess());
+
+        SpanExporter underTest =
+                FilteringSpanExporter.builder(exporter)
+                        .rejectSpansNamed("three")
+                        .rejectSpansWithNameContaining("hree")
+                        .rejectSpansWithAttributesMatching(attrRejects)
+                        .build();
+
+        underTest.export(spans);
+        assertThat(spansCaptor.getValue()).isSameAs(spans);
+    }
+
+    @Test
+    void combineAttributeRulesOfTheSameKey() {
+        SpanData span1 = TestSpanHelper.span("one", Attributes.of(stringKey("herp"), "derp"));
+        SpanData span2 = TestSpanHelper.span("two", Attributes.of(stringKey("herp"), "flerp"));
+        SpanData span3 = TestSpanHelper.span("three", Attributes.of(stringKey("herp"), "zerp"));
+        Map<AttributeKey<?>, Predicate<?>> derpRejects = new HashMap<>();
+        derpRejects.put(stringKey("herp"), "derp"::equals);
+        Map<AttributeKey<?>, Predicate<?>> zerpRejects = new HashMap<>();
+        zerpRejects.put(stringKey("herp"), "zerp"::equals);
+        SpanExporter exporter = mock(SpanExporter.class);
+        when(exporter.export(spansCaptor.capture())).thenReturn(CompletableResultCode.ofSuccess());
+
+        SpanExporter underTest =
+                FilteringSpanExporter.builder(exporter)
+                        .rejectSpansWithAttributesMatching(derpRejects)
+                        .rejectSpansWithAttributesMatching(zerpRejects)
+                        .build();
+
+        underTest.export(Arrays.asList(span1, span2, span3));
+        assertThat(spansCaptor.getValue()).containsExactly(span2);
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.features.diskbuffering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import org.junit.jupiter.api.Test;
+
+class DiskBufferingPriorityRulesTest {
+
+    @Test
+    void normalWhenNoRuleMatches() {
+        DiskBufferingPriorityRules rules = DiskBufferingPriorityRules.getDefault();
+
+        assertThat(rules.getPriority(span("Resumed", "io.opentelemetry.lifecycle", StatusCode.OK)))
+                .isEqualTo(DiskBufferingPriority.NORMAL);
+        assertThat(rules.getPriority(logRecord("io.opentelemetry.network")))
+                .isEqualTo(DiskBufferingPriority.NORMAL);
+    }
+
+    @Test
+    void defaultRules() {
+        DiskBufferingPriorityRules rules = DiskBufferingPriorityRules.getDefault();
+
+        assertThat(rules.getPriority(span("ANR", "io.opentelemetry.anr", StatusCode.UNSET)))
+                .isEqualTo(DiskBufferingPriority.HIGH);
+        assertThat(rules.getPriority(logRecord("io.opentelemetry.crash")))
+                .isEqualTo(DiskBufferingPriority.HIGH);
+        assertThat(rules.getPriority(span("GET", "io.opentelemetry.okhttp", StatusCode.ERROR)))
+                .isEqualTo(DiskBufferingPriority.HIGH);
+        assertThat(rules.getPriority(logRecord("io.opentelemetry.slow-rendering")))
+                .isEqualTo(DiskBufferingPriority.LOW);
+    }
+
+    @Test
+    void highestMatchingPriorityWins() {
+        DiskBufferingPriorityRules rules =
+                DiskBufferingPriorityRules.builder()
+                        .setSpanNamePriority("slowRenders", DiskBufferingPriority.LOW)
+                        .setSpanStatusPriority(StatusCode.ERROR, DiskBufferingPriority.HIGH)
+                        .setInstrumentationScopePriority("checkout", DiskBufferingPriority.NORMAL)
+                        .build();
+
+        assertThat(rules.getPriority(span("slowRenders", "ui", StatusCode.UNSET)))
+                .isEqualTo(DiskBufferingPriority.LOW);
+        assertThat(rules.getPriority(span("slowRenders", "checkout", StatusCode.UNSET)))
+                .isEqualTo(DiskBufferingPriority.NORMAL);
+        assertThat(rules.getPriority(span("slowRenders", "ui", StatusCode.ERROR)))
+                .isEqualTo(DiskBufferingPriority.HIGH);
+    }
+
+    private static SpanData span(String name, String scopeName, StatusCode statusCode) {
+        SpanData span = mock();
+        when(span.getName()).thenReturn(name);
+        when(span.getInstrumentationScopeInfo())
+                .thenReturn(InstrumentationScopeInfo.create(scopeName));
+        when(span.getStatus()).thenReturn(StatusData.create(statusCode, null));
+        return span;
+    }
+
+    private static LogRecordData logRecord(String scopeName) {
+        LogRecordData logRecord = mock();
+        when(logRecord.getInstrumentationScopeInfo())
+                .thenReturn(InstrumentationScopeInfo.create(scopeName));
+        return logRecord;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.features.diskbuffering;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+class GzipCodecTest {
+
+    @Test
+    void compressesAndDecompresses() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.append("service.name=app;screen.name=MainActivity;span=click ").append(i);
+        }
+        byte[] data = builder.toString().getBytes(UTF_8);
+        GzipCodec codec = GzipCodec.create();
+
+        byte[] encoded = encode(codec, data);
+
+        assertThat(encoded.length).isLessThan(data.length / 4);
+        assertThat(decode(codec, encoded)).isEqualTo(data);
+        // a plain gzip stream, as sent in requests
+        assertThat(readAll(new GZIPInputStream(new ByteArrayInputStream(encoded))))
+                .isEqualTo(data);
+    }
+
+    @Test
+    void readsBatchesStoredWithOtherCodecs() throws IOException {
+        byte[] data = {0x0A, 0x02, 0x01, 0x02};
+
+        assertThat(decode(GzipCodec.create(), data)).isEqualTo(data);
+        assertThat(decode(GzipCodec.create(), encode(DeflateCodec.create(), data))).isEqualTo(data);
+        assertThat(decode(GzipCodec.create(), new byte[0])).isEmpty();
+    }
+
+    @Test
+    void validatesCompressionLevel() {
+        assertThatThrownBy(() -> GzipCodec.create(10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] encode(DiskBufferingCodec codec, byte[] data) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (OutputStream output = codec.encode(encoded)) {
+            output.write(data);
+        }
+        return encoded.toByteArray();
+    }
+
+    private static byte[] decode(DiskBufferingCodec codec, byte[] data) throws IOException {
+        return readAll(codec.decode(new ByteArrayInputStream(data)));
+    }
+
+    private static byte[] readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        try (InputStream input = stream) {
+            byte[] buffer = new byte[256];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                decoded.write(buffer, 0, read);
+            }
+        }
+        return decoded.toByteArray();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.features.diskbuffering
+
+import io.mockk.every
+import io.mockk.mockk
+import io.opentelemetry.android.common.TelemetryScheduler
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal
+import io.opentelemetry.android.internal.features.persistence.StoredBatchReader
+import io.opentelemetry.contrib.disk.buffering.FromDiskExporter
+import io.opentelemetry.contrib.disk.buffering.LogRecordFromDiskExporter
+import io.opentelemetry.contrib.disk.buffering.MetricFromDiskExporter
+import io.opentelemetry.contrib.disk.buffering.SpanFromDiskExporter
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Test
+import java.io.IOException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class SignalFromDiskExporterTest {
+    private val scheduler = TelemetryScheduler.create()
+
+    @AfterEach
+    fun tearDown() {
+        scheduler.shutdown()
+    }
+
+    @Test
+    fun `Drain each signal up to the max amount of batches`() {
+        val spanExporter = mockk<SpanFromDiskExporter>()
+        every { spanExporter.exportStoredBatch(any(), any()) }.returns(true)
+        val metricExporter = mockk<MetricFromDiskExporter>()
+        every { metricExporter.exportStoredBatch(any(), any()) }
+            .returns(true)
+            .andThen(false)
+        val logExporter = mockk<LogRecordFromDiskExporter>()
+        every { logExporter.exportStoredBatch(any(), any()) }.throws(IOException())
+        val exporter = createExporter(spanExporter, metricExporter, logExporter)
+
+        val results = exporter.drain(3).associateBy { it.signal }
+
+        assertThat(results.getValue(Signal.SPANS).exportedBatches).isEqualTo(3)
+        assertThat(results.getValue(Signal.SPANS).error).isNull()
+        assertThat(results.getValue(Signal.METRICS).exportedBatches).isEqualTo(1)
+        assertThat(results.getValue(Signal.METRICS).error).isNull()
+        assertThat(results.getValue(Signal.LOGS).exportedBatches).isEqualTo(0)
+        assertThat(results.getValue(Signal.LOGS).error).isInstanceOf(IOException::class.java)
+    }
+
+    @Test
+    fun `Drain signals in parallel`() {
+        val metricsStarted = CountDownLatch(1)
+        val spanExporter = mockk<SpanFromDiskExporter>()
+        // only succeeds if the metrics export runs while the spans one is in flight
+        every { spanExporter.exportStoredBatch(any(), any()) } answers {
+            metricsStarted.await(5, TimeUnit.SECONDS)
+        } andThen false
+        val metricExporter = mockk<MetricFromDiskExporter>()
+        every { metricExporter.exportStoredBatch(any(), any()) } answers {
+            metricsStarted.countDown()
+            false
+        }
+        val exporter = createExporter(spanExporter, metricExporter, null)
+
+        val results = exporter.drain(10).associateBy { it.signal }
+
+        assertThat(results.keys).containsExactly(Signal.SPANS, Signal.METRICS)
+        assertThat(results.getValue(Signal.SPANS).exportedBatches).isEqualTo(1)
+    }
+
+    @Test
+    fun `Tell a failed export apart from an empty disk`() {
+        val spanExporter = mockk<StoredBatchReader>()
+        every { spanExporter.exportStoredBatch(any(), any()) }.returns(true).andThen(false)
+        every { spanExporter.lastBatchNotExported() }.returns(false)
+        val logExporter = mockk<StoredBatchReader>()
+        every { logExporter.exportStoredBatch(any(), any()) }.returns(false)
+        every { logExporter.lastBatchNotExported() }.returns(true)
+        val exporter = createExporter(spanExporter, null, logExporter)
+
+        val results = exporter.drain(3).associateBy { it.signal }
+
+        assertThat(results.getValue(Signal.SPANS).exportedBatches).isEqualTo(1)
+        assertThat(results.getValue(Signal.SPANS).notExported).isFalse()
+        assertThat(results.getValue(Signal.LOGS).exportedBatches).isEqualTo(0)
+        assertThat(results.getValue(Signal.LOGS).notExported).isTrue()
+    }
+
+    @Test
+    fun `Nothing to drain without exporters`() {
+        val exporter = createExporter(null, null, null)
+
+        assertThat(exporter.drain(10)).isEmpty()
+    }
+
+    private fun createExporter(
+        spanExporter: FromDiskExporter?,
+        metricExporter: FromDiskExporter?,
+        logExporter: FromDiskExporter?,
+    ) = SignalFromDiskExporter(
+        spanExporter,
+        metricExporter,
+        logExporter,
+        drainExecutor = scheduler.forBlockingTask("disk-drain"),
+    )
+}
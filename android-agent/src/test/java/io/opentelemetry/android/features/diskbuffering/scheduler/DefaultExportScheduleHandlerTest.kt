@@ -46,6 +46,18 @@ class DefaultExportScheduleHandlerTest {
         }
     }
 
+    @Test
+    fun `Stop scheduler when disabled`() {
+        val periodicWorkService = createMock()
+        handler.enable()
+        val captor = slot<Runnable>()
+        verify { periodicWorkService.enqueue(capture(captor)) }
+
+        handler.disable()
+
+        verify { periodicWorkService.cancel(captor.captured) }
+    }
+
     private fun createMock(): PeriodicWorkAppWorker {
         val periodicWorkService = mockk<PeriodicWorkAppWorker>()
         val manager = mockk<AppWorkerManager>()
@@ -53,6 +65,7 @@ class DefaultExportScheduleHandlerTest {
             manager.getService(PeriodicWorkAppWorker::class.java)
         }.returns(periodicWorkService)
         every { periodicWorkService.enqueue(any()) } just Runs
+        every { periodicWorkService.cancel(any()) } just Runs
         AppWorkerManager.setForTest(manager)
 
         return periodicWorkService
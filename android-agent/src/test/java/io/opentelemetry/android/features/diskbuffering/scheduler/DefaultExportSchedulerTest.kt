@@ -8,12 +8,16 @@ package io.opentelemetry.android.features.diskbuffering.scheduler
 import io.mockk.every
 import io.mockk.mockk
 import io.mockk.verify
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal.LOGS
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal.SPANS
 import io.opentelemetry.android.features.diskbuffering.SignalFromDiskExporter
+import io.opentelemetry.android.internal.features.persistence.DiskBufferingMetrics
+import io.opentelemetry.android.internal.features.persistence.DiskBufferingMetrics.RunResult
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.AfterEach
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
-import org.junit.jupiter.api.fail
 import java.io.IOException
 import java.util.concurrent.TimeUnit
 
@@ -28,34 +32,72 @@ class DefaultExportSchedulerTest {
     @AfterEach
     fun tearDown() {
         SignalFromDiskExporter.resetForTesting()
+        ExportConditions.resetForTesting()
     }
 
     @Test
-    fun `Try to export all available signals when running`() {
+    fun `Drain up to 10 batches of each signal when running`() {
         val signalFromDiskExporter = mockk<SignalFromDiskExporter>()
-        every { signalFromDiskExporter.exportBatchOfEach() }.returns(true).andThen(true).andThen(false)
+        every { signalFromDiskExporter.drain(any()) }.returns(listOf(SignalDrainResult(SPANS, 3)))
         SignalFromDiskExporter.set(signalFromDiskExporter)
 
         scheduler.onRun()
 
-        verify(exactly = 3) {
-            signalFromDiskExporter.exportBatchOfEach()
-        }
+        verify { signalFromDiskExporter.drain(10) }
     }
 
     @Test
-    fun `Avoid crashing when an exception happens during execution`() {
+    fun `Do not export while offline`() {
         val signalFromDiskExporter = mockk<SignalFromDiskExporter>()
-        every { signalFromDiskExporter.exportBatchOfEach() }.throws(IOException())
         SignalFromDiskExporter.set(signalFromDiskExporter)
+        ExportConditions.set(TestExportConditions(online = false))
+
+        scheduler.onRun()
 
-        try {
-            scheduler.onRun()
-        } catch (e: IOException) {
-            fail(e)
+        verify(exactly = 0) {
+            signalFromDiskExporter.drain(any())
         }
     }
 
+    @Test
+    fun `Export few batches less often on metered networks`() {
+        val signalFromDiskExporter = mockk<SignalFromDiskExporter>()
+        every { signalFromDiskExporter.drain(any()) }.returns(listOf(SignalDrainResult(SPANS, 2)))
+        SignalFromDiskExporter.set(signalFromDiskExporter)
+        ExportConditions.set(TestExportConditions(metered = true, backlogSize = 10_000_000))
+
+        scheduler.onRun()
+
+        verify { signalFromDiskExporter.drain(2) }
+        assertThat(scheduler.minimumDelayUntilNextRunInMillis())
+            .isEqualTo(TimeUnit.SECONDS.toMillis(60))
+    }
+
+    @Test
+    fun `Drain a large backlog in short frequent runs`() {
+        val signalFromDiskExporter = mockk<SignalFromDiskExporter>()
+        every { signalFromDiskExporter.drain(any()) }.returns(listOf(SignalDrainResult(SPANS, 20)))
+        SignalFromDiskExporter.set(signalFromDiskExporter)
+        ExportConditions.set(TestExportConditions(backlogSize = 10_000_000))
+
+        scheduler.onRun()
+
+        verify { signalFromDiskExporter.drain(20) }
+        assertThat(scheduler.minimumDelayUntilNextRunInMillis())
+            .isEqualTo(TimeUnit.SECONDS.toMillis(2))
+    }
+
+    @Test
+    fun `Avoid crashing when a signal fails to export`() {
+        val signalFromDiskExporter = mockk<SignalFromDiskExporter>()
+        every { signalFromDiskExporter.drain(any()) }.returns(
+            listOf(SignalDrainResult(SPANS, 1), SignalDrainResult(LOGS, 0, IOException())),
+        )
+        SignalFromDiskExporter.set(signalFromDiskExporter)
+
+        scheduler.onRun()
+    }
+
     @Test
     fun `Stop running if it can't export from disk`() {
         assertThat(scheduler.shouldStopRunning()).isTrue()
@@ -75,4 +117,53 @@ class DefaultExportSchedulerTest {
             ),
         )
     }
+
+    @Test
+    fun `Record the outcome of each run`() {
+        val metrics = mockk<DiskBufferingMetrics>(relaxed = true)
+        val scheduler = DefaultExportScheduler(metrics)
+        val signalFromDiskExporter = mockk<SignalFromDiskExporter>()
+        every { signalFromDiskExporter.drain(any()) }.returns(listOf(SignalDrainResult(SPANS, 0)))
+        SignalFromDiskExporter.set(signalFromDiskExporter)
+        ExportConditions.set(TestExportConditions())
+
+        scheduler.onRun()
+        ExportConditions.set(TestExportConditions(online = false))
+        scheduler.onRun()
+
+        verify {
+            metrics.recordSchedulerRun(RunResult.IDLE)
+            metrics.recordSchedulerRun(RunResult.OFFLINE)
+        }
+    }
+
+    @Test
+    fun `Back off only when a stored batch was not exported`() {
+        val metrics = mockk<DiskBufferingMetrics>(relaxed = true)
+        val scheduler = DefaultExportScheduler(metrics)
+        val signalFromDiskExporter = mockk<SignalFromDiskExporter>()
+        every { signalFromDiskExporter.drain(any()) }
+            .returns(listOf(SignalDrainResult(SPANS, 0)))
+            .andThen(listOf(SignalDrainResult(SPANS, 0, notExported = true)))
+        SignalFromDiskExporter.set(signalFromDiskExporter)
+        // a backlog with nothing to read yet, such as batches still being written, is no failure
+        ExportConditions.set(TestExportConditions(backlogSize = 1000))
+
+        scheduler.onRun()
+        verify(exactly = 1) { metrics.recordSchedulerRun(RunResult.IDLE) }
+        scheduler.onRun()
+        verify(exactly = 1) { metrics.recordSchedulerRun(RunResult.FAILED) }
+    }
+
+    private class TestExportConditions(
+        private val online: Boolean = true,
+        private val metered: Boolean = false,
+        private val backlogSize: Long = 0,
+    ) : ExportConditions {
+        override fun isOnline(): Boolean = online
+
+        override fun isMetered(): Boolean = metered
+
+        override fun getBacklogSizeInBytes(): Long = backlogSize
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import static io.opentelemetry.android.internal.export.CompressionMetrics.RESULT_KEY;
+import static io.opentelemetry.android.internal.export.CompressionMetrics.SIGNAL_KEY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal;
+import io.opentelemetry.android.internal.export.CompressionMetrics.RequestResult;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.DoublePointData;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CompressionMetricsTest {
+
+    private static final Attributes SPANS = Attributes.of(SIGNAL_KEY, "spans");
+    private static final Attributes LOGS = Attributes.of(SIGNAL_KEY, "logs");
+
+    private final InMemoryMetricReader reader = InMemoryMetricReader.create();
+    private final CompressionMetrics metrics = new CompressionMetrics();
+
+    @BeforeEach
+    void setUp() {
+        SdkMeterProvider meterProvider =
+                SdkMeterProvider.builder().registerMetricReader(reader).build();
+        metrics.registerMetrics(meterProvider.get(CompressionMetrics.INSTRUMENTATION_SCOPE));
+    }
+
+    @Test
+    void requests() {
+        metrics.recordRequest(Signal.SPANS, RequestResult.COMPRESSED);
+        metrics.recordRequest(Signal.SPANS, RequestResult.COMPRESSED);
+        metrics.recordRequest(Signal.SPANS, RequestResult.UNCOMPRESSED);
+
+        Collection<MetricData> collected = reader.collectAllMetrics();
+
+        assertThat(
+                        longSum(
+                                collected,
+                                "otel.android.export.compression.requests",
+                                SPANS.toBuilder().put(RESULT_KEY, "compressed").build()))
+                .isEqualTo(2);
+        assertThat(
+                        longSum(
+                                collected,
+                                "otel.android.export.compression.requests",
+                                SPANS.toBuilder().put(RESULT_KEY, "uncompressed").build()))
+                .isEqualTo(1);
+        assertThat(
+                        longSum(
+                                collected,
+                                "otel.android.export.compression.requests",
+                                SPANS.toBuilder().put(RESULT_KEY, "precompressed").build()))
+                .isZero();
+    }
+
+    @Test
+    void compression() {
+        long millis = TimeUnit.MILLISECONDS.toNanos(1);
+        metrics.recordCompression(Signal.LOGS, 4000, 800, 2 * millis);
+        metrics.recordCompression(Signal.LOGS, 1000, 200, millis);
+
+        Collection<MetricData> collected = reader.collectAllMetrics();
+
+        assertThat(longSum(collected, "otel.android.export.compression.uncompressed.size", LOGS))
+                .isEqualTo(5000);
+        assertThat(longSum(collected, "otel.android.export.compression.compressed.size", LOGS))
+                .isEqualTo(1000);
+        assertThat(gauge(collected, "otel.android.export.compression.ratio", LOGS))
+                .isEqualTo(5.0);
+        assertThat(doubleSum(collected, "otel.android.export.compression.cpu_time", LOGS))
+                .isEqualTo(3.0);
+        // no ratio for the signals that weren't compressed
+        assertThat(
+                        find(collected, "otel.android.export.compression.ratio")
+                                .getDoubleGaugeData()
+                                .getPoints())
+                .hasSize(1);
+    }
+
+    private static long longSum(
+            Collection<MetricData> collected, String name, Attributes attributes) {
+        for (LongPointData point : find(collected, name).getLongSumData().getPoints()) {
+            if (point.getAttributes().equals(attributes)) {
+                return point.getValue();
+            }
+        }
+        throw new AssertionError("No " + name + " point with " + attributes);
+    }
+
+    private static double doubleSum(
+            Collection<MetricData> collected, String name, Attributes attributes) {
+        for (DoublePointData point : find(collected, name).getDoubleSumData().getPoints()) {
+            if (point.getAttributes().equals(attributes)) {
+                return point.getValue();
+            }
+        }
+        throw new AssertionError("No " + name + " point with " + attributes);
+    }
+
+    private static double gauge(
+            Collection<MetricData> collected, String name, Attributes attributes) {
+        for (DoublePointData point : find(collected, name).getDoubleGaugeData().getPoints()) {
+            if (point.getAttributes().equals(attributes)) {
+                return point.getValue();
+            }
+        }
+        throw new AssertionError("No " + name + " point with " + attributes);
+    }
+
+    private static MetricData find(Collection<MetricData> collected, String name) {
+        return collected.stream().filter(it -> it.getName().equals(name)).findFirst().get();
+    }
+}
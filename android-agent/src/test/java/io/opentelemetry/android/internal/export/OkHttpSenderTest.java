@@ -0,0 +1,164 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.android.common.TelemetryExportTag;
+import io.opentelemetry.android.export.OtlpExportConfiguration;
+import io.opentelemetry.contrib.disk.buffering.internal.serialization.deserializers.SignalDeserializer;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.GzipSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OkHttpSenderTest {
+
+    private final MockWebServer server = new MockWebServer();
+    private final List<Object> tags = new CopyOnWriteArrayList<>();
+    private List<SpanData> spans;
+
+    @BeforeEach
+    void setUp() {
+        InMemorySpanExporter inMemory = InMemorySpanExporter.create();
+        try (SdkTracerProvider tracerProvider =
+                SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(inMemory))
+                        .build()) {
+            tracerProvider.get("test").spanBuilder("span").startSpan().end();
+        }
+        spans = inMemory.getFinishedSpanItems();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    void reuseTheConnectionsOfTheApp() throws Exception {
+        server.start();
+        server.enqueue(new MockResponse().setBody("products"));
+        server.enqueue(new MockResponse());
+        OkHttpClient client = appClient(new OkHttpClient.Builder());
+        callTheApi(client);
+        SpanExporter exporter =
+                OtlpHttpExporters.spans(
+                        OtlpExportConfiguration.builder(server.url("/").toString())
+                                .addHeader("Authorization", "Bearer token")
+                                .setOkHttpClient(client)
+                                .build());
+
+        assertThat(exporter.export(spans).isSuccess()).isTrue();
+
+        server.takeRequest(1, TimeUnit.SECONDS);
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getPath()).isEqualTo("/v1/traces");
+        assertThat(request.getHeader("Content-Type")).isEqualTo("application/x-protobuf");
+        assertThat(request.getHeader("Authorization")).isEqualTo("Bearer token");
+        assertThat(SignalDeserializer.ofSpans().deserialize(request.getBody().readByteArray()))
+                .hasSize(1);
+        // the second request sent on the app's connection
+        assertThat(request.getSequenceNumber()).isEqualTo(1);
+        assertThat(client.connectionPool().connectionCount()).isEqualTo(1);
+        // only the export is tagged
+        assertThat(tags).containsExactly("untagged", TelemetryExportTag.INSTANCE);
+    }
+
+    @Test
+    void shareHttp2Connections() throws Exception {
+        List<Protocol> http2 = Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE);
+        server.setProtocols(http2);
+        server.start();
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse());
+        }
+        OkHttpClient client = appClient(new OkHttpClient.Builder().protocols(http2));
+        callTheApi(client);
+        SpanExporter exporter =
+                OtlpHttpExporters.spans(
+                        OtlpExportConfiguration.builder(server.url("/").toString())
+                                .setOkHttpClient(client)
+                                .build());
+
+        assertThat(exporter.export(spans).isSuccess()).isTrue();
+        assertThat(exporter.export(spans).isSuccess()).isTrue();
+
+        for (int i = 0; i < 3; i++) {
+            // the streams of a single connection
+            assertThat(server.takeRequest(1, TimeUnit.SECONDS).getSequenceNumber()).isEqualTo(i);
+        }
+        assertThat(client.connectionPool().connectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void compressRequests() throws Exception {
+        server.start();
+        server.enqueue(new MockResponse());
+        SpanExporter exporter =
+                OtlpHttpExporters.spans(
+                        OtlpExportConfiguration.builder(server.url("/").toString())
+                                .setCompressionEnabled(true)
+                                .setCompressionThreshold(0)
+                                .setOkHttpClient(appClient(new OkHttpClient.Builder()))
+                                .build());
+
+        assertThat(exporter.export(spans).isSuccess()).isTrue();
+
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getHeader("Content-Encoding")).isEqualTo("gzip");
+        Buffer body = new Buffer();
+        body.writeAll(new GzipSource(request.getBody()));
+        assertThat(SignalDeserializer.ofSpans().deserialize(body.readByteArray())).hasSize(1);
+    }
+
+    @Test
+    void failWhenTheServerRejectsTheRequest() throws Exception {
+        server.start();
+        server.enqueue(new MockResponse().setResponseCode(503).setBody("unavailable"));
+        SpanExporter exporter =
+                OtlpHttpExporters.spans(
+                        OtlpExportConfiguration.builder(server.url("/").toString())
+                                .setOkHttpClient(appClient(new OkHttpClient.Builder()))
+                                .build());
+
+        assertThat(exporter.export(spans).isSuccess()).isFalse();
+    }
+
+    private OkHttpClient appClient(OkHttpClient.Builder builder) {
+        return builder.addInterceptor(
+                        chain -> {
+                            Object tag = chain.request().tag(TelemetryExportTag.class);
+                            tags.add(tag == null ? "untagged" : tag);
+                            return chain.proceed(chain.request());
+                        })
+                .build();
+    }
+
+    private void callTheApi(OkHttpClient client) throws Exception {
+        Request request = new Request.Builder().url(server.url("/products")).build();
+        try (Response response = client.newCall(request).execute()) {
+            assertThat(response.code()).isEqualTo(200);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.logs.Logger;
+import io.opentelemetry.api.logs.Severity;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.exporter.internal.otlp.logs.LogsRequestMarshaler;
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.logs.SdkLoggerProvider;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.SimpleLogRecordProcessor;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.testing.exporter.InMemoryLogRecordExporter;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares writing the OTLP request of a batch of 512 RUM spans, and of 512 logs, with the built-in
+ * exporters' encoders and with the marshalers of the upstream OTLP exporters. Both write into an
+ * output buffer that is reused across operations, so what's measured is the serialization itself.
+ * The request sizes are printed once, and should match. Run with {@code ./gradlew
+ * :android-agent:jmh -Pjmh.args="OtlpEncodingBenchmark -prof gc"} to get the bytes allocated per
+ * operation, reported as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OtlpEncodingBenchmark {
+
+    private static final int BATCH_SIZE = 512;
+
+    private final SpanEncoder spanEncoder = new SpanEncoder();
+    private final LogRecordEncoder logRecordEncoder = new LogRecordEncoder();
+    private final ProtoWriter writer = new ProtoWriter(32 * 1024, 1024 * 1024);
+    private final ByteArrayOutputStream upstreamOutput = new ByteArrayOutputStream(32 * 1024);
+    private List<SpanData> spans;
+    private List<LogRecordData> logRecords;
+
+    @Setup
+    public void setUp() throws IOException {
+        Resource resource = createResource();
+        spans = createSpans(resource);
+        logRecords = createLogRecords(resource);
+        System.out.printf(
+                Locale.ROOT,
+                "%nspans: %d bytes, %d bytes upstream%nlogs: %d bytes, %d bytes upstream%n",
+                encodeSpans(),
+                upstreamSpans(),
+                encodeLogs(),
+                upstreamLogs());
+    }
+
+    @Benchmark
+    public int encodeSpans() {
+        writer.reset();
+        spanEncoder.encode(spans, writer);
+        return writer.size();
+    }
+
+    @Benchmark
+    public int upstreamSpans() throws IOException {
+        upstreamOutput.reset();
+        TraceRequestMarshaler.create(spans).writeBinaryTo(upstreamOutput);
+        return upstreamOutput.size();
+    }
+
+    @Benchmark
+    public int encodeLogs() {
+        writer.reset();
+        logRecordEncoder.encode(logRecords, writer);
+        return writer.size();
+    }
+
+    @Benchmark
+    public int upstreamLogs() throws IOException {
+        upstreamOutput.reset();
+        LogsRequestMarshaler.create(logRecords).writeBinaryTo(upstreamOutput);
+        return upstreamOutput.size();
+    }
+
+    private static Resource createResource() {
+        return Resource.create(
+                Attributes.builder()
+                        .put("service.name", "com.example.shop")
+                        .put("service.version", "4.12.0")
+                        .put("os.name", "Android")
+                        .put("os.version", "14")
+                        .put("device.model.identifier", "Pixel 8")
+                        .put("telemetry.sdk.language", "java")
+                        .build());
+    }
+
+    private static List<SpanData> createSpans(Resource resource) {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        try (SdkTracerProvider tracerProvider =
+                SdkTracerProvider.builder()
+                        .setResource(resource)
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build()) {
+            Tracer tracer = tracerProvider.get("io.opentelemetry.android");
+            String sessionId = UUID.randomUUID().toString().replace("-", "");
+            String[] screens = {"HomeActivity", "ProductListFragment", "CartActivity"};
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Span span =
+                        tracer.spanBuilder(i % 4 == 0 ? "GET" : "Resumed")
+                                .setSpanKind(i % 4 == 0 ? SpanKind.CLIENT : SpanKind.INTERNAL)
+                                .setAttribute("session.id", sessionId)
+                                .setAttribute("screen.name", screens[i % screens.length])
+                                .setAttribute("network.connection.type", "wifi")
+                                .setAttribute("activity.name", screens[i % screens.length])
+                                .startSpan();
+                if (i % 4 == 0) {
+                    span.setAttribute(
+                            AttributeKey.stringKey("url.full"),
+                            "https://api.example.com/products/" + i + "?page=" + (i % 7));
+                    span.setAttribute(AttributeKey.longKey("http.response.status_code"), 200L);
+                } else {
+                    span.addEvent("activityResumed");
+                }
+                span.end();
+            }
+        }
+        return exporter.getFinishedSpanItems();
+    }
+
+    private static List<LogRecordData> createLogRecords(Resource resource) {
+        InMemoryLogRecordExporter exporter = InMemoryLogRecordExporter.create();
+        try (SdkLoggerProvider loggerProvider =
+                SdkLoggerProvider.builder()
+                        .setResource(resource)
+                        .addLogRecordProcessor(SimpleLogRecordProcessor.create(exporter))
+                        .build()) {
+            Logger logger = loggerProvider.get("io.opentelemetry.android");
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                logger.logRecordBuilder()
+                        .setSeverity(i % 8 == 0 ? Severity.ERROR : Severity.INFO)
+                        .setBody("Loaded page " + i + " of the product list")
+                        .setAttribute(AttributeKey.stringKey("event.name"), "page.loaded")
+                        .setAttribute(AttributeKey.longKey("page.index"), (long) i)
+                        .emit();
+            }
+        }
+        return exporter.getFinishedLogRecordItems();
+    }
+}
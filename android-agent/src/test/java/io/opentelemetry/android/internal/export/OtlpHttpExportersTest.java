@@ -0,0 +1,218 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.android.export.OtlpExportConfiguration;
+import io.opentelemetry.contrib.disk.buffering.internal.serialization.deserializers.SignalDeserializer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.testing.logs.TestLogRecordData;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OtlpHttpExportersTest {
+
+    private final MockWebServer server = new MockWebServer();
+    private List<SpanData> spans;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server.start();
+        InMemorySpanExporter inMemory = InMemorySpanExporter.create();
+        try (SdkTracerProvider tracerProvider =
+                SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(inMemory))
+                        .build()) {
+            tracerProvider.get("test").spanBuilder("span").startSpan().end();
+        }
+        spans = inMemory.getFinishedSpanItems();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    void postSpans() throws Exception {
+        server.enqueue(new MockResponse());
+        SpanExporter exporter =
+                OtlpHttpExporters.spans(
+                        OtlpExportConfiguration.builder(server.url("/otlp").toString())
+                                .addHeader("Authorization", "Bearer token")
+                                .build());
+
+        CompletableResultCode result = exporter.export(spans);
+
+        assertThat(result.isSuccess()).isTrue();
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getMethod()).isEqualTo("POST");
+        assertThat(request.getPath()).isEqualTo("/otlp/v1/traces");
+        assertThat(request.getHeader("Content-Type")).isEqualTo("application/x-protobuf");
+        assertThat(request.getHeader("Authorization")).isEqualTo("Bearer token");
+        List<SpanData> received =
+                SignalDeserializer.ofSpans().deserialize(request.getBody().readByteArray());
+        assertThat(received).hasSize(1);
+        assertThat(received.get(0).getName()).isEqualTo("span");
+    }
+
+    @Test
+    void compressRequests() throws Exception {
+        server.enqueue(new MockResponse());
+        SpanExporter exporter =
+                OtlpHttpExporters.spans(
+                        OtlpExportConfiguration.builder(server.url("/").toString())
+                                .setCompressionEnabled(true)
+                                .setCompressionThreshold(0)
+                                .build());
+
+        assertThat(exporter.export(spans).isSuccess()).isTrue();
+
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getHeader("Content-Encoding")).isEqualTo("gzip");
+        byte[] body = gunzip(request.getBody().readByteArray());
+        assertThat(SignalDeserializer.ofSpans().deserialize(body)).hasSize(1);
+    }
+
+    @Test
+    void sendSmallRequestsUncompressed() throws Exception {
+        server.enqueue(new MockResponse());
+        SpanExporter exporter =
+                OtlpHttpExporters.spans(
+                        OtlpExportConfiguration.builder(server.url("/").toString())
+                                .setCompressionEnabled(true)
+                                .build());
+
+        assertThat(exporter.export(spans).isSuccess()).isTrue();
+
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getHeader("Content-Encoding")).isNull();
+        byte[] body = request.getBody().readByteArray();
+        assertThat(SignalDeserializer.ofSpans().deserialize(body)).hasSize(1);
+    }
+
+    @Test
+    void mergeEncodedRequests() throws Exception {
+        server.enqueue(new MockResponse());
+        SpanExporter exporter =
+                OtlpHttpExporters.spans(
+                        OtlpExportConfiguration.builder(server.url("/").toString()).build());
+        byte[] encoded = encode(spans);
+
+        CompletableResultCode result =
+                ((EncodedRequestExporter) exporter).exportEncoded(Arrays.asList(encoded, encoded));
+
+        assertThat(result.isSuccess()).isTrue();
+        byte[] body = server.takeRequest(1, TimeUnit.SECONDS).getBody().readByteArray();
+        assertThat(SignalDeserializer.ofSpans().deserialize(body)).hasSize(2);
+    }
+
+    @Test
+    void sendGzippedRequestsWithoutDecompressingThem() throws Exception {
+        server.enqueue(new MockResponse());
+        SpanExporter exporter =
+                OtlpHttpExporters.spans(
+                        OtlpExportConfiguration.builder(server.url("/").toString())
+                                .setCompressionEnabled(true)
+                                .build());
+        byte[] encoded = encode(spans);
+
+        CompletableResultCode result =
+                ((EncodedRequestExporter) exporter)
+                        .exportEncoded(Arrays.asList(gzip(encoded), encoded));
+
+        assertThat(result.isSuccess()).isTrue();
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getHeader("Content-Encoding")).isEqualTo("gzip");
+        byte[] body = gunzip(request.getBody().readByteArray());
+        assertThat(SignalDeserializer.ofSpans().deserialize(body)).hasSize(2);
+    }
+
+    @Test
+    void failWhenTheServerRejectsTheRequest() {
+        server.enqueue(new MockResponse().setResponseCode(503).setBody("unavailable"));
+        server.enqueue(new MockResponse());
+        SpanExporter exporter =
+                OtlpHttpExporters.spans(
+                        OtlpExportConfiguration.builder(server.url("/").toString()).build());
+
+        assertThat(exporter.export(spans).isSuccess()).isFalse();
+        // the next batch is sent as usual
+        assertThat(exporter.export(spans).isSuccess()).isTrue();
+    }
+
+    @Test
+    void sendEachSignalToItsOwnPath() throws Exception {
+        server.enqueue(new MockResponse());
+        LogRecordExporter exporter =
+                OtlpHttpExporters.logRecords(
+                        OtlpExportConfiguration.builder(server.url("/").toString()).build());
+
+        exporter.export(
+                Collections.singletonList(TestLogRecordData.builder().setBody("log").build()));
+
+        assertThat(server.takeRequest(1, TimeUnit.SECONDS).getPath()).isEqualTo("/v1/logs");
+    }
+
+    @Test
+    void failOnceShutdown() {
+        SpanExporter exporter =
+                OtlpHttpExporters.spans(
+                        OtlpExportConfiguration.builder(server.url("/").toString()).build());
+
+        exporter.shutdown();
+
+        assertThat(exporter.export(spans).isSuccess()).isFalse();
+        assertThat(server.getRequestCount()).isZero();
+    }
+
+    private static byte[] encode(List<SpanData> spans) {
+        ProtoWriter writer = new ProtoWriter(1024, 1024);
+        new SpanEncoder().encode(spans, writer);
+        return writer.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(bytes);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+        return output.toByteArray();
+    }
+}
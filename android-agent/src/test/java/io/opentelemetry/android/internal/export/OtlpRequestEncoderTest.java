@@ -0,0 +1,230 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.logs.Severity;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.contrib.disk.buffering.internal.serialization.deserializers.SignalDeserializer;
+import io.opentelemetry.sdk.logs.SdkLoggerProvider;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.SimpleLogRecordProcessor;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.HistogramPointData;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.testing.exporter.InMemoryLogRecordExporter;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class OtlpRequestEncoderTest {
+
+    private static final Resource RESOURCE =
+            Resource.create(Attributes.of(stringKey("service.name"), "test-app"));
+
+    private final ProtoWriter output = new ProtoWriter(256, 1024 * 1024);
+    private final InMemorySpanExporter spanExporter = InMemorySpanExporter.create();
+    private final SdkTracerProvider tracerProvider =
+            SdkTracerProvider.builder()
+                    .setResource(RESOURCE)
+                    .addSpanProcessor(SimpleSpanProcessor.create(spanExporter))
+                    .build();
+
+    @Test
+    void spans() throws Exception {
+        Tracer tracer = tracerProvider.get("test-scope", "1.0");
+        Span parent = tracer.spanBuilder("parent").setSpanKind(SpanKind.SERVER).startSpan();
+        Span child =
+                tracer.spanBuilder("child")
+                        .setParent(Context.root().with(parent))
+                        .setSpanKind(SpanKind.CLIENT)
+                        .setAttribute("string", "value")
+                        .setAttribute("long", -1L)
+                        .setAttribute("double", 0.5)
+                        .setAttribute("boolean", true)
+                        .setAttribute(
+                                AttributeKey.stringArrayKey("array"), Arrays.asList("a", "b"))
+                        .startSpan();
+        child.addEvent("event", Attributes.of(stringKey("key"), "value"));
+        child.setStatus(StatusCode.ERROR, "failed");
+        child.end();
+        parent.end();
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+
+        new SpanEncoder().encode(spans, output);
+        List<SpanData> decoded = SignalDeserializer.ofSpans().deserialize(output.toByteArray());
+
+        assertThat(decoded).hasSize(2);
+        for (int i = 0; i < spans.size(); i++) {
+            SpanData span = spans.get(i);
+            SpanData decodedSpan = decoded.get(i);
+            assertThat(decodedSpan.getTraceId()).isEqualTo(span.getTraceId());
+            assertThat(decodedSpan.getSpanId()).isEqualTo(span.getSpanId());
+            assertThat(decodedSpan.getParentSpanId()).isEqualTo(span.getParentSpanId());
+            assertThat(decodedSpan.getName()).isEqualTo(span.getName());
+            assertThat(decodedSpan.getKind()).isEqualTo(span.getKind());
+            assertThat(decodedSpan.getStartEpochNanos()).isEqualTo(span.getStartEpochNanos());
+            assertThat(decodedSpan.getEndEpochNanos()).isEqualTo(span.getEndEpochNanos());
+            assertThat(decodedSpan.getAttributes()).isEqualTo(span.getAttributes());
+            assertThat(decodedSpan.getStatus()).isEqualTo(span.getStatus());
+            assertThat(decodedSpan.getEvents()).hasSameSizeAs(span.getEvents());
+            assertThat(decodedSpan.getResource()).isEqualTo(RESOURCE);
+            assertThat(decodedSpan.getInstrumentationScopeInfo())
+                    .isEqualTo(span.getInstrumentationScopeInfo());
+        }
+        SpanData decodedChild = decoded.get(0);
+        assertThat(decodedChild.getEvents().get(0).getName()).isEqualTo("event");
+        assertThat(decodedChild.getEvents().get(0).getAttributes())
+                .isEqualTo(Attributes.of(stringKey("key"), "value"));
+    }
+
+    @Test
+    void groupSpansByScope() throws Exception {
+        tracerProvider.get("first").spanBuilder("first-1").startSpan().end();
+        tracerProvider.get("second").spanBuilder("second-1").startSpan().end();
+        tracerProvider.get("first").spanBuilder("first-2").startSpan().end();
+
+        new SpanEncoder().encode(spanExporter.getFinishedSpanItems(), output);
+        List<SpanData> decoded = SignalDeserializer.ofSpans().deserialize(output.toByteArray());
+
+        assertThat(decoded)
+                .extracting(SpanData::getName)
+                .containsExactly("first-1", "first-2", "second-1");
+        assertThat(decoded)
+                .extracting(span -> span.getInstrumentationScopeInfo().getName())
+                .containsExactly("first", "first", "second");
+    }
+
+    @Test
+    void reuseTheEncoderAcrossBatches() throws Exception {
+        SpanEncoder encoder = new SpanEncoder();
+        for (int i = 0; i < 3; i++) {
+            tracerProvider.get("test").spanBuilder("span-" + i).startSpan().end();
+        }
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+        encoder.encode(spans, output);
+        output.reset();
+
+        // a smaller batch, passed as a collection which isn't a list
+        Collection<SpanData> batch = new ArrayDeque<>(spans.subList(0, 2));
+        encoder.encode(batch, output);
+        List<SpanData> decoded = SignalDeserializer.ofSpans().deserialize(output.toByteArray());
+
+        assertThat(decoded).extracting(SpanData::getName).containsExactly("span-0", "span-1");
+    }
+
+    @Test
+    void logRecords() throws Exception {
+        InMemoryLogRecordExporter exporter = InMemoryLogRecordExporter.create();
+        SdkLoggerProvider loggerProvider =
+                SdkLoggerProvider.builder()
+                        .setResource(RESOURCE)
+                        .addLogRecordProcessor(SimpleLogRecordProcessor.create(exporter))
+                        .build();
+        Span span = tracerProvider.get("test").spanBuilder("span").startSpan();
+        loggerProvider
+                .get("test-scope")
+                .logRecordBuilder()
+                .setContext(Context.root().with(span))
+                .setTimestamp(1_000_000L, TimeUnit.NANOSECONDS)
+                .setSeverity(Severity.WARN)
+                .setSeverityText("WARN")
+                .setBody("hello")
+                .setAttribute(stringKey("key"), "value")
+                .emit();
+        span.end();
+        LogRecordData logRecord = exporter.getFinishedLogRecordItems().get(0);
+
+        new LogRecordEncoder().encode(Arrays.asList(logRecord), output);
+        List<LogRecordData> decoded =
+                SignalDeserializer.ofLogs().deserialize(output.toByteArray());
+
+        assertThat(decoded).hasSize(1);
+        LogRecordData decodedLogRecord = decoded.get(0);
+        assertThat(decodedLogRecord.getBody().asString()).isEqualTo("hello");
+        assertThat(decodedLogRecord.getSeverity()).isEqualTo(Severity.WARN);
+        assertThat(decodedLogRecord.getSeverityText()).isEqualTo("WARN");
+        assertThat(decodedLogRecord.getTimestampEpochNanos()).isEqualTo(1_000_000L);
+        assertThat(decodedLogRecord.getObservedTimestampEpochNanos())
+                .isEqualTo(logRecord.getObservedTimestampEpochNanos());
+        assertThat(decodedLogRecord.getAttributes()).isEqualTo(logRecord.getAttributes());
+        assertThat(decodedLogRecord.getSpanContext().getTraceId())
+                .isEqualTo(span.getSpanContext().getTraceId());
+        assertThat(decodedLogRecord.getSpanContext().getSpanId())
+                .isEqualTo(span.getSpanContext().getSpanId());
+        assertThat(decodedLogRecord.getResource()).isEqualTo(RESOURCE);
+    }
+
+    @Test
+    void metrics() throws Exception {
+        InMemoryMetricReader reader = InMemoryMetricReader.create();
+        SdkMeterProvider meterProvider =
+                SdkMeterProvider.builder()
+                        .setResource(RESOURCE)
+                        .registerMetricReader(reader)
+                        .build();
+        Meter meter = meterProvider.get("test-scope");
+        meter.counterBuilder("counter").build().add(5, Attributes.of(stringKey("key"), "value"));
+        meter.histogramBuilder("histogram").setUnit("ms").build().record(3.0);
+        meter.histogramBuilder("histogram").setUnit("ms").build().record(70.0);
+        List<MetricData> metrics = new ArrayList<>(reader.collectAllMetrics());
+
+        new MetricEncoder().encode(metrics, output);
+        List<MetricData> decoded = SignalDeserializer.ofMetrics().deserialize(output.toByteArray());
+
+        assertThat(decoded).hasSize(2);
+        MetricData counter = find(decoded, "counter");
+        assertThat(counter.getResource()).isEqualTo(RESOURCE);
+        assertThat(counter.getLongSumData().isMonotonic()).isTrue();
+        assertThat(counter.getLongSumData().getAggregationTemporality())
+                .isEqualTo(find(metrics, "counter").getLongSumData().getAggregationTemporality());
+        LongPointData point = counter.getLongSumData().getPoints().iterator().next();
+        assertThat(point.getValue()).isEqualTo(5);
+        assertThat(point.getAttributes()).isEqualTo(Attributes.of(stringKey("key"), "value"));
+
+        MetricData histogram = find(decoded, "histogram");
+        assertThat(histogram.getUnit()).isEqualTo("ms");
+        HistogramPointData expected =
+                find(metrics, "histogram").getHistogramData().getPoints().iterator().next();
+        HistogramPointData histogramPoint =
+                histogram.getHistogramData().getPoints().iterator().next();
+        assertThat(histogramPoint.getCount()).isEqualTo(2);
+        assertThat(histogramPoint.getSum()).isEqualTo(73.0);
+        assertThat(histogramPoint.getMin()).isEqualTo(3.0);
+        assertThat(histogramPoint.getMax()).isEqualTo(70.0);
+        assertThat(histogramPoint.getBoundaries()).isEqualTo(expected.getBoundaries());
+        assertThat(histogramPoint.getCounts()).isEqualTo(expected.getCounts());
+    }
+
+    private static MetricData find(List<MetricData> metrics, String name) {
+        for (MetricData metric : metrics) {
+            if (metric.getName().equals(name)) {
+                return metric;
+            }
+        }
+        throw new AssertionError("No metric named " + name);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.export;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class ProtoWriterTest {
+
+    private final ProtoWriter writer = new ProtoWriter(16, 1024);
+
+    @Test
+    void varints() {
+        writer.writeInt32(1, 300);
+        writer.writeInt64(2, -1);
+        writer.writeSInt32(3, -2);
+
+        assertThat(writer.toByteArray())
+                .containsExactly(
+                        // field 1: 300
+                        0x08, 0xAC, 0x02,
+                        // field 2: -1, sign extended to 10 bytes
+                        0x10, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x01,
+                        // field 3: zigzag encoded -2
+                        0x18, 0x03);
+    }
+
+    @Test
+    void skipDefaultValues() {
+        writer.writeString(1, "");
+        writer.writeInt32(2, 0);
+        writer.writeInt64(3, 0);
+        writer.writeFixed64(4, 0);
+        writer.writeBool(5, false);
+
+        assertThat(writer.size()).isZero();
+    }
+
+    @Test
+    void writeOneofValuesEvenWhenDefault() {
+        writer.writeStringValue(1, "");
+        writer.writeBoolValue(2, false);
+        writer.writeInt64Value(3, 0);
+
+        assertThat(writer.toByteArray()).containsExactly(0x0A, 0x00, 0x10, 0x00, 0x18, 0x00);
+    }
+
+    @Test
+    void moveLongMessagesToMakeRoomForTheirLength() {
+        char[] chars = new char[300];
+        Arrays.fill(chars, 'a');
+        String value = new String(chars);
+
+        int outer = writer.startMessage(1);
+        int inner = writer.startMessage(2);
+        writer.writeString(3, value);
+        writer.endMessage(inner);
+        writer.writeInt32(4, 1);
+        writer.endMessage(outer);
+
+        byte[] bytes = writer.toByteArray();
+        // tag, 2 bytes length of 308, tag, 2 bytes length of 303, tag, 2 bytes length of 300
+        assertThat(Arrays.copyOfRange(bytes, 0, 9))
+                .containsExactly(0x0A, 0xB4, 0x02, 0x12, 0xAF, 0x02, 0x1A, 0xAC, 0x02);
+        assertThat(new String(bytes, 9, 300, UTF_8)).isEqualTo(value);
+        assertThat(Arrays.copyOfRange(bytes, 309, bytes.length)).containsExactly(0x20, 0x01);
+    }
+
+    @Test
+    void writeStringsAsUtf8() {
+        String value = "aé€😀\uD800b";
+
+        writer.writeString(1, value);
+
+        byte[] bytes = writer.toByteArray();
+        byte[] expected = value.getBytes(UTF_8);
+        assertThat(bytes[1]).isEqualTo((byte) expected.length);
+        assertThat(Arrays.copyOfRange(bytes, 2, bytes.length)).isEqualTo(expected);
+    }
+
+    @Test
+    void writeHexAsBytes() {
+        writer.writeHexBytes(1, "00ff7a");
+
+        assertThat(writer.toByteArray()).containsExactly(0x0A, 0x03, 0x00, 0xFF, 0x7A);
+    }
+
+    @Test
+    void startOverAfterReset() {
+        for (int i = 0; i < 200; i++) {
+            writer.writeFixed64(1, i + 1);
+        }
+        assertThat(writer.size()).isEqualTo(1800);
+
+        writer.reset();
+        writer.writeInt32(1, 1);
+
+        assertThat(writer.toByteArray()).containsExactly(0x08, 0x01);
+    }
+
+    @Test
+    void lengthSizes() {
+        assertThat(ProtoWriter.varintSize(0)).isEqualTo(1);
+        assertThat(ProtoWriter.varintSize(127)).isEqualTo(1);
+        assertThat(ProtoWriter.varintSize(128)).isEqualTo(2);
+        assertThat(ProtoWriter.varintSize(16_384)).isEqualTo(3);
+        assertThat(ProtoWriter.varintSize(Integer.MAX_VALUE)).isEqualTo(5);
+    }
+}
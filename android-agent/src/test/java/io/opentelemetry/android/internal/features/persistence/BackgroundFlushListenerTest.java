@@ -0,0 +1,162 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.annotation.Nullable;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BackgroundFlushListenerTest {
+
+    private static final long TIME_BUDGET_MILLIS = 500;
+
+    private final AtomicInteger writtenSpans = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private OpenTelemetrySdk sdk;
+
+    @AfterEach
+    void tearDown() {
+        sdk.shutdown().join(1, TimeUnit.SECONDS);
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void flushSpansWithinTimeBudget() {
+        // the disk writes are fast
+        sdk = createSdk(spans -> CompletableResultCode.ofSuccess());
+        startSpans(100);
+        assertThat(writtenSpans.get()).isZero();
+
+        CompletableResultCode result = listener(null).flush();
+
+        assertThat(result.join(TIME_BUDGET_MILLIS, TimeUnit.MILLISECONDS).isSuccess()).isTrue();
+        assertThat(writtenSpans.get()).isEqualTo(100);
+    }
+
+    @Test
+    void dontWaitForTheFlush() {
+        // the write never completes
+        sdk = createSdk(spans -> new CompletableResultCode());
+        startSpans(10);
+
+        long start = System.nanoTime();
+        CompletableResultCode result = listener(null).flush();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMillis).isLessThan(TIME_BUDGET_MILLIS);
+        assertThat(result.join(TIME_BUDGET_MILLIS, TimeUnit.MILLISECONDS).isDone()).isFalse();
+    }
+
+    @Test
+    void flushWhenBackgrounded() throws InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        sdk =
+                createSdk(
+                        spans -> {
+                            written.countDown();
+                            return CompletableResultCode.ofSuccess();
+                        });
+        startSpans(5);
+        BackgroundFlushListener listener = listener(null);
+
+        listener.onApplicationForegrounded();
+        assertThat(written.await(100, TimeUnit.MILLISECONDS)).isFalse();
+
+        listener.onApplicationBackgrounded();
+        assertThat(written.await(TIME_BUDGET_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(writtenSpans.get()).isEqualTo(5);
+    }
+
+    @Test
+    void spillWriteBehindBatchesToDisk() {
+        WriteBehindExporters writeBehindExporters = new WriteBehindExporters(scheduler);
+        SpanExporter toNetwork = mock(SpanExporter.class);
+        // the network export never completes
+        when(toNetwork.export(anyCollection())).thenReturn(new CompletableResultCode());
+        sdk =
+                createSdk(
+                        toDisk -> writeBehindExporters.spans(toNetwork, toDisk),
+                        spans -> CompletableResultCode.ofSuccess());
+        startSpans(10);
+
+        CompletableResultCode result = listener(writeBehindExporters).flush();
+
+        assertThat(result.join(TIME_BUDGET_MILLIS, TimeUnit.MILLISECONDS).isSuccess()).isTrue();
+        verify(toNetwork).export(anyCollection());
+        assertThat(writtenSpans.get()).isEqualTo(10);
+    }
+
+    private BackgroundFlushListener listener(@Nullable WriteBehindExporters writeBehindExporters) {
+        return new BackgroundFlushListener(
+                sdk, scheduler, writeBehindExporters, TIME_BUDGET_MILLIS);
+    }
+
+    private OpenTelemetrySdk createSdk(
+            Function<Collection<SpanData>, CompletableResultCode> writeFunction) {
+        return createSdk(Function.identity(), writeFunction);
+    }
+
+    private OpenTelemetrySdk createSdk(
+            Function<SpanExporter, SpanExporter> exporterFunction,
+            Function<Collection<SpanData>, CompletableResultCode> writeFunction) {
+        SpanExporter toDisk =
+                new SpanExporter() {
+                    @Override
+                    public CompletableResultCode export(Collection<SpanData> spans) {
+                        writtenSpans.addAndGet(spans.size());
+                        return writeFunction.apply(spans);
+                    }
+
+                    @Override
+                    public CompletableResultCode flush() {
+                        return CompletableResultCode.ofSuccess();
+                    }
+
+                    @Override
+                    public CompletableResultCode shutdown() {
+                        return CompletableResultCode.ofSuccess();
+                    }
+                };
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(
+                        SdkTracerProvider.builder()
+                                .addSpanProcessor(
+                                        // nothing is exported on its own during the test
+                                        BatchSpanProcessor.builder(
+                                                        exporterFunction.apply(toDisk))
+                                                .setScheduleDelay(1, TimeUnit.HOURS)
+                                                .build())
+                                .build())
+                .build();
+    }
+
+    private void startSpans(int count) {
+        Tracer tracer = sdk.getTracer("test");
+        for (int i = 0; i < count; i++) {
+            tracer.spanBuilder("span " + i).startSpan().end();
+        }
+    }
+}
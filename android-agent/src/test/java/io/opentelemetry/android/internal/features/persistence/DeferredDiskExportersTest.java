@@ -0,0 +1,121 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.android.internal.features.persistence.DeferredDiskExporters.DeferredExport;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DeferredDiskExportersTest {
+
+    private final List<Collection<String>> exported = new ArrayList<>();
+    private boolean shutdown;
+
+    @Test
+    void queueUntilDelegateIsSet() {
+        DeferredExport<String> deferred = new DeferredExport<>(10);
+
+        assertThat(deferred.export(Arrays.asList("a", "b")).isSuccess()).isTrue();
+        assertThat(deferred.export(Arrays.asList("c")).isSuccess()).isTrue();
+        assertThat(exported).isEmpty();
+        assertThat(deferred.getQueuedItems()).isEqualTo(3);
+
+        setDelegate(deferred);
+
+        assertThat(exported).containsExactly(Arrays.asList("a", "b"), Arrays.asList("c"));
+        assertThat(deferred.getQueuedItems()).isZero();
+    }
+
+    @Test
+    void exportToDelegateOnceSet() {
+        DeferredExport<String> deferred = new DeferredExport<>(10);
+        setDelegate(deferred);
+
+        deferred.export(Arrays.asList("a"));
+
+        assertThat(exported).containsExactly(Arrays.asList("a"));
+        assertThat(deferred.getQueuedItems()).isZero();
+    }
+
+    @Test
+    void dropOldestBatchesWhenQueueIsFull() {
+        DeferredExport<String> deferred = new DeferredExport<>(4);
+
+        deferred.export(Arrays.asList("a", "b"));
+        deferred.export(Arrays.asList("c", "d"));
+        deferred.export(Arrays.asList("e"));
+        setDelegate(deferred);
+
+        assertThat(exported).containsExactly(Arrays.asList("c", "d"), Arrays.asList("e"));
+    }
+
+    @Test
+    void exportQueuedBatchesBeforeConcurrentOnes() throws InterruptedException {
+        DeferredExport<String> deferred = new DeferredExport<>(10);
+        deferred.export(Arrays.asList("a"));
+        deferred.export(Arrays.asList("b"));
+        Thread concurrentExport = new Thread(() -> deferred.export(Arrays.asList("c")));
+
+        deferred.setDelegate(
+                items -> {
+                    if (items.contains("a")) {
+                        concurrentExport.start();
+                        try {
+                            // gives the concurrent export the time to overtake the queued ones
+                            concurrentExport.join(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    exported.add(items);
+                    return CompletableResultCode.ofSuccess();
+                },
+                CompletableResultCode::ofSuccess);
+        concurrentExport.join();
+
+        assertThat(exported)
+                .containsExactly(Arrays.asList("a"), Arrays.asList("b"), Arrays.asList("c"));
+    }
+
+    @Test
+    void failShutdownThatDropsQueuedBatches() {
+        DeferredExport<String> deferred = new DeferredExport<>(10);
+        deferred.export(Arrays.asList("a", "b"));
+
+        assertThat(deferred.shutdown().isSuccess()).isFalse();
+        assertThat(deferred.getQueuedItems()).isZero();
+    }
+
+    @Test
+    void shutdownDelegate() {
+        DeferredExport<String> deferred = new DeferredExport<>(10);
+        assertThat(deferred.shutdown().isSuccess()).isTrue();
+        assertThat(shutdown).isFalse();
+
+        setDelegate(deferred);
+        deferred.shutdown();
+
+        assertThat(shutdown).isTrue();
+    }
+
+    private void setDelegate(DeferredExport<String> deferred) {
+        deferred.setDelegate(
+                items -> {
+                    exported.add(items);
+                    return CompletableResultCode.ofSuccess();
+                },
+                () -> {
+                    shutdown = true;
+                    return CompletableResultCode.ofSuccess();
+                });
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import io.opentelemetry.android.features.diskbuffering.DeflateCodec;
+import io.opentelemetry.android.features.diskbuffering.DiskBufferingCodec;
+import io.opentelemetry.android.features.diskbuffering.GzipCodec;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.contrib.disk.buffering.internal.serialization.deserializers.SignalDeserializer;
+import io.opentelemetry.contrib.disk.buffering.internal.serialization.serializers.SignalSerializer;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of writing and reading back a batch of 512 RUM spans (session, screen, network
+ * and http attributes) with each {@link DiskBufferingCodec}. The size of the stored batch, and so
+ * the compression ratio, is printed once per codec. Run with {@code ./gradlew :android-agent:jmh
+ * -Pjmh.args=DiskBufferingCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiskBufferingCodecBenchmark {
+
+    private static final int BATCH_SIZE = 512;
+
+    @Param({"none", "deflate-fast", "deflate", "gzip-fast", "gzip"})
+    public String codecName;
+
+    private EncodedSignalSerializer<SpanData> serializer;
+    private DecodedSignalDeserializer<SpanData> deserializer;
+    private List<SpanData> batch;
+    private byte[] stored;
+
+    @Setup
+    public void setUp() throws Exception {
+        DiskBufferingCodec codec = createCodec(codecName);
+        serializer = new EncodedSignalSerializer<>(SignalSerializer.ofSpans(), codec);
+        deserializer = new DecodedSignalDeserializer<>(SignalDeserializer.ofSpans(), codec);
+        batch = createBatch();
+
+        byte[] written = serializer.serialize(batch);
+        int prefixSize = EncodedSignalSerializer.varintSize(written);
+        stored = Arrays.copyOfRange(written, prefixSize, written.length);
+        int plainSize = SignalSerializer.ofSpans().serialize(batch).length;
+        System.out.printf(
+                Locale.ROOT,
+                "%n%s: %d bytes stored for %d bytes of spans, ratio %.2f%n",
+                codecName,
+                written.length,
+                plainSize,
+                plainSize / (double) written.length);
+    }
+
+    private static DiskBufferingCodec createCodec(String name) {
+        switch (name) {
+            case "deflate-fast":
+                return DeflateCodec.create(Deflater.BEST_SPEED);
+            case "deflate":
+                return DeflateCodec.create();
+            case "gzip-fast":
+                return GzipCodec.create(Deflater.BEST_SPEED);
+            case "gzip":
+                return GzipCodec.create();
+            default:
+                return DiskBufferingCodec.NONE;
+        }
+    }
+
+    private static List<SpanData> createBatch() {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        Resource resource =
+                Resource.create(
+                        Attributes.builder()
+                                .put("service.name", "com.example.shop")
+                                .put("service.version", "4.12.0")
+                                .put("os.name", "Android")
+                                .put("os.version", "14")
+                                .put("device.model.identifier", "Pixel 8")
+                                .put("telemetry.sdk.language", "java")
+                                .build());
+        try (SdkTracerProvider tracerProvider =
+                SdkTracerProvider.builder()
+                        .setResource(resource)
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build()) {
+            Tracer tracer = tracerProvider.get("io.opentelemetry.android");
+            String sessionId = UUID.randomUUID().toString().replace("-", "");
+            String[] screens = {"HomeActivity", "ProductListFragment", "CartActivity"};
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Span span =
+                        tracer.spanBuilder(i % 4 == 0 ? "GET" : "Resumed")
+                                .setSpanKind(i % 4 == 0 ? SpanKind.CLIENT : SpanKind.INTERNAL)
+                                .setAttribute("session.id", sessionId)
+                                .setAttribute("screen.name", screens[i % screens.length])
+                                .setAttribute("network.connection.type", "wifi")
+                                .setAttribute("activity.name", screens[i % screens.length])
+                                .startSpan();
+                if (i % 4 == 0) {
+                    span.setAttribute(
+                            AttributeKey.stringKey("url.full"),
+                            "https://api.example.com/products/" + i + "?page=" + (i % 7));
+                    span.setAttribute(AttributeKey.longKey("http.response.status_code"), 200L);
+                }
+                span.end();
+            }
+        }
+        return exporter.getFinishedSpanItems();
+    }
+
+    @Benchmark
+    public byte[] write() {
+        return serializer.serialize(batch);
+    }
+
+    @Benchmark
+    public List<SpanData> read() throws Exception {
+        return deserializer.deserialize(stored);
+    }
+}
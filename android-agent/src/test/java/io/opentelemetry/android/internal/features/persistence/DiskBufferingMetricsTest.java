@@ -0,0 +1,137 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import static io.opentelemetry.android.internal.features.persistence.DiskBufferingMetrics.RESULT_KEY;
+import static io.opentelemetry.android.internal.features.persistence.DiskBufferingMetrics.SIGNAL_KEY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal;
+import io.opentelemetry.android.internal.features.persistence.DiskBufferingMetrics.ExportResult;
+import io.opentelemetry.android.internal.features.persistence.DiskBufferingMetrics.RunResult;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.DoublePointData;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DiskBufferingMetricsTest {
+
+    private static final Attributes SPANS = Attributes.of(SIGNAL_KEY, "spans");
+    private static final Attributes METRICS = Attributes.of(SIGNAL_KEY, "metrics");
+    private static final Attributes LOGS = Attributes.of(SIGNAL_KEY, "logs");
+
+    private final InMemoryMetricReader reader = InMemoryMetricReader.create();
+    private final DiskBufferingMetrics metrics = new DiskBufferingMetrics();
+
+    @BeforeEach
+    void setUp() {
+        SdkMeterProvider meterProvider =
+                SdkMeterProvider.builder().registerMetricReader(reader).build();
+        metrics.registerMetrics(meterProvider.get(DiskBufferingMetrics.INSTRUMENTATION_SCOPE));
+    }
+
+    @Test
+    void storedBatches() {
+        metrics.recordStored(Signal.SPANS, 100);
+        metrics.recordStored(Signal.SPANS, 50);
+        metrics.recordNotStored(Signal.LOGS);
+
+        Collection<MetricData> collected = reader.collectAllMetrics();
+
+        assertThat(longValue(collected, "otel.android.disk_buffering.stored.batches", SPANS))
+                .isEqualTo(2);
+        assertThat(longValue(collected, "otel.android.disk_buffering.stored.size", SPANS))
+                .isEqualTo(150);
+        assertThat(longValue(collected, "otel.android.disk_buffering.stored.size", LOGS))
+                .isZero();
+        assertThat(longValue(collected, "otel.android.disk_buffering.not_stored.batches", LOGS))
+                .isEqualTo(1);
+        assertThat(longValue(collected, "otel.android.disk_buffering.not_stored.batches", SPANS))
+                .isZero();
+    }
+
+    @Test
+    void exports() {
+        long millis = TimeUnit.MILLISECONDS.toNanos(1);
+        metrics.recordExport(Signal.METRICS, ExportResult.EXPORTED, 3 * millis);
+        metrics.recordExport(Signal.METRICS, ExportResult.ERROR, 2 * millis);
+
+        Collection<MetricData> collected = reader.collectAllMetrics();
+
+        assertThat(
+                        longValue(
+                                collected,
+                                "otel.android.disk_buffering.exports",
+                                METRICS.toBuilder().put(RESULT_KEY, "exported").build()))
+                .isEqualTo(1);
+        assertThat(
+                        longValue(
+                                collected,
+                                "otel.android.disk_buffering.exports",
+                                METRICS.toBuilder().put(RESULT_KEY, "error").build()))
+                .isEqualTo(1);
+        assertThat(
+                        longValue(
+                                collected,
+                                "otel.android.disk_buffering.exports",
+                                METRICS.toBuilder().put(RESULT_KEY, "not_exported").build()))
+                .isZero();
+        assertThat(doubleValue(collected, "otel.android.disk_buffering.exports.duration", METRICS))
+                .isEqualTo(5.0);
+    }
+
+    @Test
+    void schedulerRuns() {
+        metrics.recordSchedulerRun(RunResult.OFFLINE);
+        metrics.recordSchedulerRun(RunResult.OFFLINE);
+        metrics.recordSchedulerRun(RunResult.EXPORTED);
+
+        Collection<MetricData> collected = reader.collectAllMetrics();
+
+        assertThat(
+                        longValue(
+                                collected,
+                                "otel.android.disk_buffering.scheduler.runs",
+                                Attributes.of(RESULT_KEY, "offline")))
+                .isEqualTo(2);
+        assertThat(
+                        longValue(
+                                collected,
+                                "otel.android.disk_buffering.scheduler.runs",
+                                Attributes.of(RESULT_KEY, "exported")))
+                .isEqualTo(1);
+    }
+
+    private static long longValue(
+            Collection<MetricData> collected, String name, Attributes attributes) {
+        for (LongPointData point : find(collected, name).getLongSumData().getPoints()) {
+            if (point.getAttributes().equals(attributes)) {
+                return point.getValue();
+            }
+        }
+        throw new AssertionError("No " + name + " point with " + attributes);
+    }
+
+    private static double doubleValue(
+            Collection<MetricData> collected, String name, Attributes attributes) {
+        for (DoublePointData point : find(collected, name).getDoubleSumData().getPoints()) {
+            if (point.getAttributes().equals(attributes)) {
+                return point.getValue();
+            }
+        }
+        throw new AssertionError("No " + name + " point with " + attributes);
+    }
+
+    private static MetricData find(Collection<MetricData> collected, String name) {
+        return collected.stream().filter(it -> it.getName().equals(name)).findFirst().get();
+    }
+}
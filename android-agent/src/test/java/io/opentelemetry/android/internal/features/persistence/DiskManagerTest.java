@@ -59,6 +59,15 @@ class DiskManagerTest {
         assertTrue(expected.exists());
     }
 
+    @Test
+    void provideSegmentsDir() throws IOException {
+        doReturn(cacheDir).when(cacheStorageService).getCacheDir();
+        File expected = new File(cacheDir, "opentelemetry/segments");
+
+        assertEquals(expected, diskManager.getSegmentsDir());
+        assertTrue(expected.exists());
+    }
+
     @Test
     void provideTemporaryDir() throws IOException {
         doReturn(cacheDir).when(cacheStorageService).getCacheDir();
@@ -132,4 +141,26 @@ class DiskManagerTest {
         assertEquals(expected, diskManager.getMaxFolderSize());
         verify(preferencesService, never()).store(MAX_FOLDER_SIZE_KEY, expected);
     }
+
+    @Test
+    void getMaxSegmentsSize() {
+        int maxCacheFileSize = 1024 * 1024; // 1 MB
+        doReturn(maxCacheFileSize).when(diskBufferingConfiguration).getMaxCacheFileSize();
+        doReturn(2_446_677).when(preferencesService).retrieveInt(MAX_FOLDER_SIZE_KEY, -1);
+
+        // Segments don't need the space kept for the temp file.
+        assertEquals(2_446_677 + maxCacheFileSize, diskManager.getMaxSegmentsSize());
+    }
+
+    @Test
+    void getMaxSegmentsSize_whenCalculatedSizeIsNotValid() {
+        long maxCacheSize = 1024 * 1024; // 1 MB
+        int maxCacheFileSize = 1024 * 1024; // 1 MB
+        doReturn((int) maxCacheSize).when(diskBufferingConfiguration).getMaxCacheSize();
+        doReturn(maxCacheFileSize).when(diskBufferingConfiguration).getMaxCacheFileSize();
+        doReturn(maxCacheSize).when(cacheStorageService).ensureCacheSpaceAvailable(maxCacheSize);
+        doReturn(-1).when(preferencesService).retrieveInt(MAX_FOLDER_SIZE_KEY, -1);
+
+        assertEquals(0, diskManager.getMaxSegmentsSize());
+    }
 }
@@ -0,0 +1,277 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import io.opentelemetry.android.common.RumConstants;
+import io.opentelemetry.android.features.diskbuffering.DiskBufferingCodec;
+import io.opentelemetry.android.features.diskbuffering.DiskBufferingPriority;
+import io.opentelemetry.android.features.diskbuffering.DiskBufferingPriorityRules;
+import io.opentelemetry.android.features.diskbuffering.GzipCodec;
+import io.opentelemetry.android.internal.export.EncodedRequestExporter;
+import io.opentelemetry.contrib.disk.buffering.FromDiskExporter;
+import io.opentelemetry.contrib.disk.buffering.internal.serialization.deserializers.SignalDeserializer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EncodedDiskExportersTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+    private static final long MAX_FOLDER_SIZE = 1024 * 1024;
+
+    @TempDir File dir;
+    private SpanExporter fallbackExporter;
+    private List<List<String>> exports;
+
+    @BeforeEach
+    void setUp() {
+        fallbackExporter = mock();
+        exports = new ArrayList<>();
+    }
+
+    @Test
+    void mergeStoredBatchesIntoOneExport() throws IOException {
+        EncodedDiskExporters diskExporters = withMappedSegments(512);
+        SpanExporter toDisk = diskExporters.spanToDisk(fallbackExporter);
+        toDisk.export(spans("a", "b"));
+        toDisk.export(spans("c", "d"));
+        toDisk.export(spans("e"));
+
+        FromDiskExporter fromDisk = diskExporters.spanFromDisk(recordingExporter(true));
+
+        assertThat(fromDisk.exportStoredBatch(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(fromDisk.exportStoredBatch(1, TimeUnit.SECONDS)).isFalse();
+        assertThat(exports).containsExactly(Arrays.asList("a", "b", "c", "d", "e"));
+        assertThat(diskExporters.getPendingBytes()).isZero();
+        verifyNoInteractions(fallbackExporter);
+    }
+
+    @Test
+    void stopMergingOnceMaxBatchSizeIsReached() throws IOException {
+        EncodedDiskExporters diskExporters = withMappedSegments(3);
+        SpanExporter toDisk = diskExporters.spanToDisk(fallbackExporter);
+        toDisk.export(spans("a", "b"));
+        toDisk.export(spans("c", "d"));
+        toDisk.export(spans("e"));
+
+        FromDiskExporter fromDisk = diskExporters.spanFromDisk(recordingExporter(true));
+
+        assertThat(fromDisk.exportStoredBatch(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(fromDisk.exportStoredBatch(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(fromDisk.exportStoredBatch(1, TimeUnit.SECONDS)).isFalse();
+        assertThat(exports).containsExactly(Arrays.asList("a", "b", "c", "d"), Arrays.asList("e"));
+    }
+
+    @Test
+    void keepMergedBatchesWhenExportFails() throws IOException {
+        EncodedDiskExporters diskExporters = withMappedSegments(512);
+        SpanExporter toDisk = diskExporters.spanToDisk(fallbackExporter);
+        toDisk.export(spans("a"));
+        toDisk.export(spans("b"));
+
+        StoredBatchReader failing = diskExporters.spanFromDisk(recordingExporter(false));
+        assertThat(failing.exportStoredBatch(1, TimeUnit.SECONDS)).isFalse();
+        assertThat(failing.lastBatchNotExported()).isTrue();
+        StoredBatchReader fromDisk = diskExporters.spanFromDisk(recordingExporter(true));
+        assertThat(fromDisk.exportStoredBatch(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(fromDisk.exportStoredBatch(1, TimeUnit.SECONDS)).isFalse();
+        // nothing left to read, which isn't a failed export
+        assertThat(fromDisk.lastBatchNotExported()).isFalse();
+
+        assertThat(exports).containsExactly(Arrays.asList("a", "b"), Arrays.asList("a", "b"));
+    }
+
+    @Test
+    void exportHigherPrioritySignalsFirst() throws IOException {
+        EncodedDiskExporters diskExporters = withMappedSegments(512);
+        SpanExporter toDisk = diskExporters.spanToDisk(fallbackExporter);
+        toDisk.export(spans("a", "b"));
+        toDisk.export(spans("c", "anr"));
+
+        FromDiskExporter fromDisk = diskExporters.spanFromDisk(recordingExporter(true));
+
+        assertThat(fromDisk.exportStoredBatch(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(fromDisk.exportStoredBatch(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(exports).containsExactly(Arrays.asList("anr"), Arrays.asList("a", "b", "c"));
+    }
+
+    @Test
+    void exportRightAwayWhenBatchCantBeStored() throws IOException {
+        EncodedDiskExporters diskExporters =
+                EncodedDiskExporters.withMappedSegments(
+                        dir,
+                        16,
+                        MAX_FOLDER_SIZE,
+                        512,
+                        1024,
+                        DiskBufferingPriorityRules.getDefault(),
+                        DiskBufferingCodec.NONE,
+                        false);
+        when(fallbackExporter.export(any())).thenReturn(CompletableResultCode.ofSuccess());
+
+        diskExporters.spanToDisk(fallbackExporter).export(spans("a"));
+
+        verify(fallbackExporter, times(1)).export(any());
+    }
+
+    @Test
+    void sendTheSameBatchIdWhenExportedAgain() throws IOException {
+        EncodedDiskExporters diskExporters = withMappedSegments(512, true);
+        diskExporters.spanToDisk(fallbackExporter).export(spans("a", "b"));
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        SpanExporter failingExporter = mock();
+        when(failingExporter.export(any()))
+                .thenAnswer(
+                        invocation -> {
+                            exporter.export(invocation.getArgument(0));
+                            return CompletableResultCode.ofFailure();
+                        });
+
+        FromDiskExporter fromDisk = diskExporters.spanFromDisk(failingExporter);
+
+        assertThat(fromDisk.exportStoredBatch(1, TimeUnit.SECONDS)).isFalse();
+        assertThat(fromDisk.exportStoredBatch(1, TimeUnit.SECONDS)).isFalse();
+
+        List<String> batchIds =
+                exporter.getFinishedSpanItems().stream()
+                        .map(span -> span.getAttributes().get(RumConstants.EXPORT_BATCH_ID_KEY))
+                        .collect(Collectors.toList());
+        assertThat(batchIds).hasSize(4).doesNotContainNull();
+        assertThat(new HashSet<>(batchIds)).hasSize(1);
+    }
+
+    @Test
+    void exportStoredRequestsWithoutDecompressingThem() throws Exception {
+        EncodedDiskExporters diskExporters = withMappedSegments(512, false, GzipCodec.create());
+        SpanExporter toDisk = diskExporters.spanToDisk(fallbackExporter);
+        toDisk.export(spans("a", "b"));
+        toDisk.export(spans("c"));
+        SpanExporter exporter =
+                mock(
+                        SpanExporter.class,
+                        withSettings().extraInterfaces(EncodedRequestExporter.class));
+        EncodedRequestExporter encodedExporter = (EncodedRequestExporter) exporter;
+        List<byte[]> requests = new ArrayList<>();
+        when(encodedExporter.acceptsGzip()).thenReturn(true);
+        when(encodedExporter.exportEncoded(any()))
+                .thenAnswer(
+                        invocation -> {
+                            requests.addAll(invocation.getArgument(0));
+                            return CompletableResultCode.ofSuccess();
+                        });
+
+        FromDiskExporter fromDisk = diskExporters.spanFromDisk(exporter);
+
+        assertThat(fromDisk.exportStoredBatch(1, TimeUnit.SECONDS)).isTrue();
+        verify(exporter, never()).export(any());
+        assertThat(requests).hasSize(2);
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+        for (byte[] request : requests) {
+            assertThat(request[0]).isEqualTo((byte) 0x1F);
+            merged.write(request);
+        }
+        // gzip members are concatenated into a single request
+        List<SpanData> received =
+                SignalDeserializer.ofSpans().deserialize(gunzip(merged.toByteArray()));
+        assertThat(received).extracting(SpanData::getName).containsExactly("a", "b", "c");
+    }
+
+    private EncodedDiskExporters withMappedSegments(int maxExportBatchSize) {
+        return withMappedSegments(maxExportBatchSize, false);
+    }
+
+    private EncodedDiskExporters withMappedSegments(
+            int maxExportBatchSize, boolean exportBatchIdEnabled) {
+        return withMappedSegments(
+                maxExportBatchSize, exportBatchIdEnabled, DiskBufferingCodec.NONE);
+    }
+
+    private EncodedDiskExporters withMappedSegments(
+            int maxExportBatchSize, boolean exportBatchIdEnabled, DiskBufferingCodec codec) {
+        return EncodedDiskExporters.withMappedSegments(
+                dir,
+                SEGMENT_SIZE,
+                MAX_FOLDER_SIZE,
+                maxExportBatchSize,
+                SEGMENT_SIZE,
+                DiskBufferingPriorityRules.builder()
+                        .setSpanNamePriority("anr", DiskBufferingPriority.HIGH)
+                        .build(),
+                codec,
+                exportBatchIdEnabled);
+    }
+
+    private SpanExporter recordingExporter(boolean success) {
+        SpanExporter exporter = mock();
+        when(exporter.export(any()))
+                .thenAnswer(
+                        invocation -> {
+                            Collection<SpanData> spans = invocation.getArgument(0);
+                            exports.add(
+                                    spans.stream()
+                                            .map(SpanData::getName)
+                                            .collect(Collectors.toList()));
+                            return success
+                                    ? CompletableResultCode.ofSuccess()
+                                    : CompletableResultCode.ofFailure();
+                        });
+        return exporter;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+        return output.toByteArray();
+    }
+
+    private static List<SpanData> spans(String... names) {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        try (SdkTracerProvider tracerProvider =
+                SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build()) {
+            for (String name : names) {
+                tracerProvider.get("test").spanBuilder(name).startSpan().end();
+            }
+        }
+        return exporter.getFinishedSpanItems();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.android.features.diskbuffering.DeflateCodec;
+import io.opentelemetry.android.features.diskbuffering.DiskBufferingCodec;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class EncodedSignalSerializerTest {
+
+    @Test
+    void varints() {
+        for (int value : new int[] {0, 1, 127, 128, 300, 16_384, Integer.MAX_VALUE}) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            EncodedSignalSerializer.writeVarint(output, value);
+            output.write(42);
+            byte[] bytes = output.toByteArray();
+
+            assertThat(EncodedSignalSerializer.varintSize(bytes)).isEqualTo(bytes.length - 1);
+        }
+    }
+
+    @Test
+    void roundTrip() throws Exception {
+        roundTrip(DeflateCodec.create());
+        roundTrip(DiskBufferingCodec.NONE);
+    }
+
+    private static void roundTrip(DiskBufferingCodec codec) throws Exception {
+        EncodedSignalSerializer<String> serializer =
+                new EncodedSignalSerializer<>(EncodedSignalSerializerTest::delimited, codec);
+        DecodedSignalDeserializer<String> deserializer =
+                new DecodedSignalDeserializer<>(
+                        source -> Collections.singletonList(new String(source, UTF_8)), codec);
+
+        byte[] stored = serializer.serialize(Arrays.asList("span-1", "span-2"));
+
+        // the stored batch is read back without its length prefix
+        int prefixSize = EncodedSignalSerializer.varintSize(stored);
+        byte[] content = Arrays.copyOfRange(stored, prefixSize, stored.length);
+        List<String> items = deserializer.deserialize(content);
+
+        assertThat(items).containsExactly("span-1,span-2");
+    }
+
+    private static byte[] delimited(Collection<String> items) {
+        byte[] message = String.join(",", items).getBytes(UTF_8);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        EncodedSignalSerializer.writeVarint(output, message.length);
+        output.write(message, 0, message.length);
+        return output.toByteArray();
+    }
+}
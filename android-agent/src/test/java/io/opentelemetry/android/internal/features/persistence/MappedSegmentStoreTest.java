@@ -0,0 +1,331 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedSegmentStoreTest {
+
+    // fits 2 records of 20 bytes, with their 8 bytes header
+    private static final int SEGMENT_SIZE = 64;
+    private static final long MAX_SIZE = 1024;
+
+    @TempDir File dir;
+
+    @Test
+    void readRecordsInOrder() throws IOException {
+        MappedSegmentStore store = open();
+        assertThat(store.append(record(1))).isTrue();
+        assertThat(store.append(record(2))).isTrue();
+        assertThat(store.append(record(3))).isTrue();
+
+        assertThat(store.peek()).isEqualTo(record(1));
+        // peeking doesn't move the cursor
+        assertThat(store.peek()).isEqualTo(record(1));
+        store.commit();
+        assertThat(store.peek()).isEqualTo(record(2));
+        store.commit();
+        assertThat(store.peek()).isEqualTo(record(3));
+        store.commit();
+        assertThat(store.peek()).isNull();
+        assertThat(store.getPendingBytes()).isZero();
+    }
+
+    @Test
+    void commitSeveralRecordsAtOnce() throws IOException {
+        MappedSegmentStore store = open();
+        store.append(record(1));
+        store.append(record(2));
+        store.append(record(3));
+        store.append(record(4));
+
+        assertThat(store.peek()).isEqualTo(record(1));
+        assertThat(store.peekNext()).isEqualTo(record(2));
+        // across segments
+        assertThat(store.peekNext()).isEqualTo(record(3));
+        store.commit();
+
+        assertThat(segmentFile(0)).doesNotExist();
+        assertThat(store.peek()).isEqualTo(record(4));
+        assertThat(store.peekNext()).isNull();
+    }
+
+    @Test
+    void readPeekedRecordsAgainWhenNotCommitted() throws IOException {
+        MappedSegmentStore store = open();
+        store.append(record(1));
+        store.append(record(2));
+        store.append(record(3));
+
+        store.peek();
+        store.peekNext();
+        store.peekNext();
+
+        assertThat(store.peek()).isEqualTo(record(1));
+        assertThat(segmentFile(0)).exists();
+        assertThat(open().peek()).isEqualTo(record(1));
+    }
+
+    @Test
+    void recoverRecordsAndCursorWhenReopened() throws IOException {
+        MappedSegmentStore store = open();
+        store.append(record(1));
+        store.append(record(2));
+        store.append(record(3));
+        store.peek();
+        store.commit();
+
+        // not closed, as if the process had been killed
+        MappedSegmentStore reopened = open();
+
+        assertThat(reopened.peek()).isEqualTo(record(2));
+        reopened.commit();
+        assertThat(reopened.peek()).isEqualTo(record(3));
+        reopened.commit();
+        assertThat(reopened.peek()).isNull();
+    }
+
+    @Test
+    void appendAfterTheRecoveredRecords() throws IOException {
+        open().append(record(1));
+
+        MappedSegmentStore reopened = open();
+        reopened.append(record(2));
+
+        assertThat(reopened.peek()).isEqualTo(record(1));
+        reopened.commit();
+        assertThat(reopened.peek()).isEqualTo(record(2));
+    }
+
+    @Test
+    void ignoreRecordWithoutLength() throws IOException {
+        open().append(record(1));
+        // the process died before writing the length of the second record
+        writeInt(segmentFile(0), 32, 1234);
+        write(segmentFile(0), 36, record(2));
+
+        MappedSegmentStore reopened = open();
+
+        assertThat(reopened.peek()).isEqualTo(record(1));
+        reopened.commit();
+        assertThat(reopened.peek()).isNull();
+        // the torn record is cleared, so it can't be read along with the next records
+        assertThat(read(segmentFile(0), 28, SEGMENT_SIZE - 28)).containsOnly(0);
+        reopened.append(record(3, 10));
+        assertThat(reopened.peek()).isEqualTo(record(3, 10));
+    }
+
+    @Test
+    void ignoreRecordWithPartialContent() throws IOException {
+        MappedSegmentStore store = open();
+        store.append(record(1));
+        store.append(record(2));
+        // the content of the second record didn't make it to disk
+        write(segmentFile(0), 40, new byte[16]);
+
+        MappedSegmentStore reopened = open();
+
+        assertThat(reopened.peek()).isEqualTo(record(1));
+        reopened.commit();
+        assertThat(reopened.peek()).isNull();
+        reopened.append(record(3));
+        assertThat(reopened.peek()).isEqualTo(record(3));
+    }
+
+    @Test
+    void skipTheRestOfSegmentWithCorruptedRecord() throws IOException {
+        MappedSegmentStore store = open();
+        store.append(record(1));
+        store.append(record(2));
+        store.append(record(3));
+        write(segmentFile(0), 10, new byte[] {-1});
+
+        MappedSegmentStore reopened = open();
+
+        assertThat(reopened.peek()).isEqualTo(record(3));
+        assertThat(segmentFile(0)).doesNotExist();
+    }
+
+    @Test
+    void readFromOldestRecordWhenCursorIsCorrupted() throws IOException {
+        MappedSegmentStore store = open();
+        store.append(record(1));
+        store.append(record(2));
+        store.peek();
+        store.commit();
+        write(new File(dir, "cursor"), 8, new byte[] {-1});
+
+        MappedSegmentStore reopened = open();
+
+        // records are sent again rather than lost
+        assertThat(reopened.peek()).isEqualTo(record(1));
+    }
+
+    @Test
+    void dropOldestSegmentWhenFull() throws IOException {
+        MappedSegmentStore store = MappedSegmentStore.open(dir, SEGMENT_SIZE, 2 * SEGMENT_SIZE);
+        for (int i = 1; i <= 5; i++) {
+            assertThat(store.append(record(i))).isTrue();
+        }
+
+        assertThat(segmentFile(0)).doesNotExist();
+        assertThat(dir.listFiles((file, name) -> name.endsWith(".seg"))).hasSize(2);
+        assertThat(store.peek()).isEqualTo(record(3));
+    }
+
+    @Test
+    void rejectRecordsThatDontFitInSegment() throws IOException {
+        MappedSegmentStore store = open();
+
+        assertThat(store.append(new byte[0])).isFalse();
+        assertThat(store.append(record(1, SEGMENT_SIZE - 7))).isFalse();
+        assertThat(store.append(record(1, SEGMENT_SIZE - 8))).isTrue();
+        assertThat(store.peek()).isEqualTo(record(1, SEGMENT_SIZE - 8));
+    }
+
+    @Test
+    void deleteSegmentsOnceRead() throws IOException {
+        MappedSegmentStore store = open();
+        store.append(record(1));
+        store.append(record(2));
+        store.append(record(3));
+        assertThat(store.getPendingBytes()).isEqualTo(SEGMENT_SIZE + 28);
+
+        for (int i = 0; i < 2; i++) {
+            store.peek();
+            store.commit();
+        }
+
+        assertThat(store.peek()).isEqualTo(record(3));
+        assertThat(segmentFile(0)).doesNotExist();
+        assertThat(store.getPendingBytes()).isEqualTo(28);
+    }
+
+    @Test
+    void skipExportedRecordsWhenTheCursorWasNotMoved() throws IOException {
+        MappedSegmentStore store = open();
+        store.append(record(1));
+        store.append(record(2));
+        store.append(record(3));
+        store.peek();
+        store.peekNext();
+        store.checkpoint();
+        store.markExported();
+        // the process dies before the commit
+
+        MappedSegmentStore reopened = open();
+        reopened.recover();
+
+        assertThat(reopened.peek()).isEqualTo(record(3));
+        assertThat(segmentFile(0)).doesNotExist();
+    }
+
+    @Test
+    void readUnfinishedExportAgainWithTheSameId() throws IOException {
+        MappedSegmentStore store = open();
+        store.append(record(1));
+        store.append(record(2));
+        store.peek();
+        store.peekNext();
+        long id = store.checkpoint();
+        // the process dies during the export
+
+        MappedSegmentStore reopened = open();
+        reopened.append(record(3));
+        reopened.recover();
+
+        assertThat(reopened.peek()).isEqualTo(record(1));
+        assertThat(reopened.peekNext()).isEqualTo(record(2));
+        // the records appended since then are left for the next export
+        assertThat(reopened.peekNext()).isNull();
+        assertThat(reopened.checkpoint()).isEqualTo(id);
+        reopened.markExported();
+        reopened.commit();
+
+        assertThat(reopened.peek()).isEqualTo(record(3));
+        assertThat(reopened.checkpoint()).isNotEqualTo(id);
+    }
+
+    @Test
+    void ignoreCheckpointOnceCommitted() throws IOException {
+        MappedSegmentStore store = open();
+        store.append(record(1));
+        store.append(record(2));
+        store.peek();
+        store.checkpoint();
+        store.markExported();
+        store.commit();
+
+        MappedSegmentStore reopened = open();
+        reopened.recover();
+
+        assertThat(reopened.peek()).isEqualTo(record(2));
+    }
+
+    @Test
+    void ignoreCorruptedCheckpoint() throws IOException {
+        MappedSegmentStore store = open();
+        store.append(record(1));
+        store.append(record(2));
+        store.peek();
+        store.checkpoint();
+        store.markExported();
+        writeInt(new File(dir, "checkpoint"), 0, 42);
+
+        MappedSegmentStore reopened = open();
+        reopened.recover();
+
+        assertThat(reopened.peek()).isEqualTo(record(1));
+    }
+
+    private MappedSegmentStore open() throws IOException {
+        return MappedSegmentStore.open(dir, SEGMENT_SIZE, MAX_SIZE);
+    }
+
+    private File segmentFile(long segment) {
+        return new File(dir, String.format("%016d.seg", segment));
+    }
+
+    private static byte[] record(int value) {
+        return record(value, 20);
+    }
+
+    private static byte[] record(int value, int size) {
+        byte[] record = new byte[size];
+        Arrays.fill(record, (byte) value);
+        return record;
+    }
+
+    private static void write(File file, int offset, byte[] bytes) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.seek(offset);
+            randomAccessFile.write(bytes);
+        }
+    }
+
+    private static void writeInt(File file, int offset, int value) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.seek(offset);
+            randomAccessFile.writeInt(value);
+        }
+    }
+
+    private static byte[] read(File file, int offset, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            randomAccessFile.seek(offset);
+            randomAccessFile.readFully(bytes);
+        }
+        return bytes;
+    }
+}
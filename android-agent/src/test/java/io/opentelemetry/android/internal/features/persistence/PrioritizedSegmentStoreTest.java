@@ -0,0 +1,152 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.android.features.diskbuffering.DiskBufferingPriority;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PrioritizedSegmentStoreTest {
+
+    // fits 2 records of 20 bytes, with their 8 bytes header
+    private static final int SEGMENT_SIZE = 64;
+    // the 3 segments being written plus 3 more, and the cursor and checkpoint of each tier
+    private static final long MAX_SIZE = 6 * SEGMENT_SIZE + 3 * MappedSegmentStore.METADATA_SIZE;
+
+    @TempDir File dir;
+
+    @Test
+    void readHighestPriorityFirst() throws IOException {
+        PrioritizedSegmentStore store = open();
+        store.append(DiskBufferingPriority.LOW, record(1));
+        store.append(DiskBufferingPriority.HIGH, record(2));
+        store.append(DiskBufferingPriority.NORMAL, record(3));
+
+        assertThat(readAll(store)).containsExactly(2, 3, 1);
+    }
+
+    @Test
+    void evictLowPriorityFirst() throws IOException {
+        PrioritizedSegmentStore store = open();
+        // 2 segments of low priority records
+        for (int i = 1; i <= 4; i++) {
+            store.append(DiskBufferingPriority.LOW, record(i));
+        }
+        // fills the rest of the space
+        for (int i = 11; i <= 16; i++) {
+            assertThat(store.append(DiskBufferingPriority.HIGH, record(i))).isTrue();
+        }
+
+        assertThat(store.append(DiskBufferingPriority.HIGH, record(17))).isTrue();
+        assertThat(readAll(store)).containsExactly(11, 12, 13, 14, 15, 16, 17, 3, 4);
+    }
+
+    @Test
+    void dontEvictHigherPriorities() throws IOException {
+        PrioritizedSegmentStore store = open();
+        for (int i = 1; i <= 8; i++) {
+            assertThat(store.append(DiskBufferingPriority.HIGH, record(i))).isTrue();
+        }
+        assertThat(store.append(DiskBufferingPriority.LOW, record(20))).isTrue();
+        assertThat(store.append(DiskBufferingPriority.LOW, record(21))).isTrue();
+
+        // the low priority segment is full, and there's only high priority data to drop
+        assertThat(store.append(DiskBufferingPriority.LOW, record(22))).isFalse();
+        assertThat(readAll(store)).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 20, 21);
+    }
+
+    @Test
+    void evictOldestRecordsOfTheSamePriority() throws IOException {
+        PrioritizedSegmentStore store = open();
+        for (int i = 1; i <= 10; i++) {
+            assertThat(store.append(DiskBufferingPriority.NORMAL, record(i))).isTrue();
+        }
+
+        assertThat(readAll(store)).containsExactly(3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    void recoverEachTierWhenReopened() throws IOException {
+        PrioritizedSegmentStore store = open();
+        store.append(DiskBufferingPriority.LOW, record(1));
+        store.append(DiskBufferingPriority.HIGH, record(2));
+
+        PrioritizedSegmentStore reopened = open();
+
+        assertThat(readAll(reopened)).containsExactly(2, 1);
+        assertThat(reopened.getPendingBytes()).isZero();
+    }
+
+    @Test
+    void stayWithinMaxSize() throws IOException {
+        PrioritizedSegmentStore store = open();
+        DiskBufferingPriority[] priorities = DiskBufferingPriority.values();
+        for (int i = 0; i < 60; i++) {
+            store.append(priorities[i % priorities.length], record(i));
+            assertThat(sizeOf(dir)).isLessThanOrEqualTo(MAX_SIZE);
+        }
+        store.close();
+
+        // the segments left over a smaller budget are dropped when reopened
+        long smallerMaxSize = 4 * SEGMENT_SIZE + 3 * MappedSegmentStore.METADATA_SIZE;
+        PrioritizedSegmentStore.open(dir, SEGMENT_SIZE, smallerMaxSize);
+
+        assertThat(sizeOf(dir)).isLessThanOrEqualTo(smallerMaxSize);
+    }
+
+    @Test
+    void useSmallerSegmentsWhenTheyDontFit() throws IOException {
+        long maxSize = 2 * SEGMENT_SIZE + 3 * MappedSegmentStore.METADATA_SIZE;
+        PrioritizedSegmentStore store = PrioritizedSegmentStore.open(dir, SEGMENT_SIZE, maxSize);
+        for (int i = 1; i <= 10; i++) {
+            assertThat(store.append(DiskBufferingPriority.NORMAL, record(i))).isTrue();
+        }
+
+        assertThat(sizeOf(dir)).isLessThanOrEqualTo(maxSize);
+        // a record per segment, the other tiers keep the segments they're writing
+        assertThat(readAll(store)).containsExactly(9, 10);
+    }
+
+    private PrioritizedSegmentStore open() throws IOException {
+        return PrioritizedSegmentStore.open(dir, SEGMENT_SIZE, MAX_SIZE);
+    }
+
+    private static List<Integer> readAll(PrioritizedSegmentStore store) throws IOException {
+        List<Integer> values = new ArrayList<>();
+        for (MappedSegmentStore tier : store.getStoresByPriority()) {
+            for (byte[] record = tier.peek(); record != null; record = tier.peek()) {
+                values.add((int) record[0]);
+                tier.commit();
+            }
+        }
+        return values;
+    }
+
+    private static long sizeOf(File file) {
+        File[] children = file.listFiles();
+        if (children == null) {
+            return file.length();
+        }
+        long size = 0;
+        for (File child : children) {
+            size += sizeOf(child);
+        }
+        return size;
+    }
+
+    private static byte[] record(int value) {
+        byte[] record = new byte[20];
+        Arrays.fill(record, (byte) value);
+        return record;
+    }
+}
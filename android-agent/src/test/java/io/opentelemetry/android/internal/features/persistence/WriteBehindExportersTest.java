@@ -0,0 +1,174 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.internal.features.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import io.opentelemetry.android.features.diskbuffering.SignalDrainResult.Signal;
+import io.opentelemetry.android.internal.features.persistence.WriteBehindExporters.WriteBehindExport;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindExportersTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final DiskBufferingMetrics metrics = new DiskBufferingMetrics();
+    private final List<Collection<String>> exported = new ArrayList<>();
+    // written from the scheduler on timeouts
+    private final List<Collection<String>> written = new CopyOnWriteArrayList<>();
+    private CompletableResultCode exportResult = CompletableResultCode.ofSuccess();
+    private boolean diskOnly;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void exportWithoutWritingToDisk() {
+        WriteBehindExport<String> export = create(10, 1000);
+
+        assertThat(export.export(Arrays.asList("a", "b")).isSuccess()).isTrue();
+
+        assertThat(exported).containsExactly(Arrays.asList("a", "b"));
+        assertThat(written).isEmpty();
+        assertThat(export.getInFlightItems()).isZero();
+    }
+
+    @Test
+    void writeToDiskWhenExportFails() {
+        exportResult = CompletableResultCode.ofFailure();
+        WriteBehindExport<String> export = create(10, 1000);
+
+        export.export(Arrays.asList("a"));
+
+        assertThat(written).containsExactly(Arrays.asList("a"));
+        assertThat(export.getInFlightItems()).isZero();
+    }
+
+    @Test
+    void writeToDiskWhenExportTimesOut() {
+        exportResult = new CompletableResultCode();
+        WriteBehindExport<String> export = create(10, 50);
+
+        export.export(Arrays.asList("a"));
+        assertThat(export.getInFlightItems()).isEqualTo(1);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> !written.isEmpty());
+        assertThat(written).containsExactly(Arrays.asList("a"));
+        // a late result doesn't write it again
+        exportResult.succeed();
+        assertThat(written).hasSize(1);
+    }
+
+    @Test
+    void writeToDiskRightAwayWhenDiskOnly() {
+        diskOnly = true;
+        WriteBehindExport<String> export = create(10, 1000);
+
+        export.export(Arrays.asList("a"));
+
+        assertThat(exported).isEmpty();
+        assertThat(written).containsExactly(Arrays.asList("a"));
+    }
+
+    @Test
+    void writeToDiskRightAwayWhenRingIsFull() {
+        exportResult = new CompletableResultCode();
+        WriteBehindExport<String> export = create(3, 1000);
+
+        export.export(Arrays.asList("a", "b"));
+        export.export(Arrays.asList("c", "d"));
+
+        assertThat(exported).containsExactly(Arrays.asList("a", "b"));
+        assertThat(written).containsExactly(Arrays.asList("c", "d"));
+    }
+
+    @Test
+    void spillBatchesBeingExported() {
+        exportResult = new CompletableResultCode();
+        WriteBehindExport<String> export = create(10, 1000);
+        export.export(Arrays.asList("a"));
+        export.export(Arrays.asList("b"));
+
+        export.spillAll();
+
+        assertThat(written).containsExactly(Arrays.asList("a"), Arrays.asList("b"));
+        assertThat(export.getInFlightItems()).isZero();
+        exportResult.succeed();
+        assertThat(written).hasSize(2);
+    }
+
+    @Test
+    void reportBatchesThatNeverTouchedDisk() {
+        InMemoryMetricReader reader = InMemoryMetricReader.create();
+        metrics.registerMetrics(
+                SdkMeterProvider.builder().registerMetricReader(reader).build().get("test"));
+        WriteBehindExport<String> export = create(10, 1000);
+        export.export(Arrays.asList("a"));
+        export.export(Arrays.asList("b"));
+        diskOnly = true;
+        export.export(Arrays.asList("c"));
+
+        List<LongPointData> points = new ArrayList<>();
+        reader.collectAllMetrics().stream()
+                .filter(
+                        it ->
+                                it.getName()
+                                        .equals("otel.android.disk_buffering.write_behind.batches"))
+                .forEach(it -> points.addAll(it.getLongSumData().getPoints()));
+
+        assertThat(value(points, "direct")).isEqualTo(2);
+        assertThat(value(points, "spilled")).isEqualTo(1);
+    }
+
+    private WriteBehindExport<String> create(int maxInFlightItems, long timeoutMillis) {
+        return new WriteBehindExport<>(
+                Signal.SPANS,
+                items -> {
+                    exported.add(items);
+                    return exportResult;
+                },
+                items -> {
+                    written.add(items);
+                    return CompletableResultCode.ofSuccess();
+                },
+                () -> diskOnly,
+                scheduler,
+                metrics,
+                maxInFlightItems,
+                timeoutMillis);
+    }
+
+    private static long value(List<LongPointData> points, String result) {
+        Attributes attributes =
+                Attributes.of(
+                        DiskBufferingMetrics.SIGNAL_KEY,
+                        "spans",
+                        DiskBufferingMetrics.RESULT_KEY,
+                        result);
+        for (LongPointData point : points) {
+            if (point.getAttributes().equals(attributes)) {
+                return point.getValue();
+            }
+        }
+        throw new AssertionError("No point for " + result);
+    }
+}
@@ -63,19 +63,19 @@ class PeriodicRunnableTest {
     }
 
     @Test
-    fun `When needed to run again, enqueue for next loop`() {
+    fun `When needed to run again, schedule once the minimum delay has passed`() {
         val runnable = TestRunnable(1000)
 
         runnable.run()
 
         assertThat(runnable.timesRun).isEqualTo(1)
         verify {
-            periodicWorkService.enqueue(runnable)
+            periodicWorkService.schedule(runnable, 1000)
         }
     }
 
     @Test
-    fun `When no need to run again, do not enqueue for next loop`() {
+    fun `When no need to run again, do not schedule`() {
         val runnable = TestRunnable(1000)
         runnable.stopAfterRun = true
 
@@ -83,13 +83,33 @@ class PeriodicRunnableTest {
 
         assertThat(runnable.timesRun).isEqualTo(1)
         verify(exactly = 0) {
-            periodicWorkService.enqueue(runnable)
+            periodicWorkService.schedule(runnable, any())
         }
     }
 
+    @Test
+    fun `Back off exponentially after consecutive failures`() {
+        val runnable = TestRunnable(1000)
+        runnable.failRuns = true
+
+        runnable.run()
+        verify { periodicWorkService.schedule(runnable, 2000) }
+
+        testSystemTime.advanceTimeByMillis(2000)
+        runnable.run()
+        verify { periodicWorkService.schedule(runnable, 4000) }
+
+        // A successful run resets the delay
+        runnable.failRuns = false
+        testSystemTime.advanceTimeByMillis(4000)
+        runnable.run()
+        assertThat(runnable.timesRun).isEqualTo(3)
+        verify { periodicWorkService.schedule(runnable, 1000) }
+    }
+
     private fun createPeriodicWorkServiceMock(): PeriodicWorkAppWorker {
         val periodicWorkService = mockk<PeriodicWorkAppWorker>()
-        every { periodicWorkService.enqueue(any()) } just Runs
+        every { periodicWorkService.schedule(any(), any()) } just Runs
 
         return periodicWorkService
     }
@@ -107,10 +127,14 @@ class PeriodicRunnableTest {
     private class TestRunnable(val minimumDelayInMillis: Long) : PeriodicRunnable() {
         var timesRun = 0
         var stopAfterRun = false
+        var failRuns = false
         private var stopRunning = false
 
         override fun onRun() {
             timesRun++
+            if (failRuns) {
+                throw IllegalStateException("boom")
+            }
             if (stopAfterRun) {
                 stopRunning = true
             }
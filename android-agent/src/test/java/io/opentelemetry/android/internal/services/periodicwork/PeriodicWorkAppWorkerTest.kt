@@ -5,124 +5,221 @@
 
 package io.opentelemetry.android.internal.services.periodicwork
 
+import io.mockk.every
+import io.mockk.mockk
+import io.opentelemetry.android.internal.tools.time.SystemTime
 import org.assertj.core.api.Assertions.assertThat
-import org.junit.Assert.fail
 import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.robolectric.RobolectricTestRunner
-import org.robolectric.shadows.ShadowLooper
-import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
 import java.util.concurrent.TimeUnit
 
 @RunWith(RobolectricTestRunner::class)
 class PeriodicWorkAppWorkerTest {
-    companion object {
-        private const val DELAY_BETWEEN_EXECUTIONS_IN_SECONDS = 10L
-    }
-
+    private lateinit var scheduler: ScheduledExecutorService
+    private lateinit var wakeUps: MutableList<WakeUp>
+    private lateinit var testSystemTime: TestSystemTime
     private lateinit var service: PeriodicWorkAppWorker
 
     @Before
     fun setUp() {
-        service = PeriodicWorkAppWorker()
+        scheduler = mockk()
+        wakeUps = mutableListOf()
+        every {
+            scheduler.schedule(any<Runnable>(), any(), TimeUnit.MILLISECONDS)
+        } answers {
+            val future = mockk<ScheduledFuture<*>>()
+            val wakeUp = WakeUp(firstArg(), secondArg())
+            every { future.cancel(any()) } answers {
+                wakeUp.cancelled = true
+                true
+            }
+            wakeUps.add(wakeUp)
+            future
+        }
+        testSystemTime = TestSystemTime()
+        SystemTime.setForTest(testSystemTime)
+        service = PeriodicWorkAppWorker(scheduler)
     }
 
     @Test
     fun `Execute enqueued work on start`() {
-        val numberOfTasks = 5
-        val latch = CountDownLatch(numberOfTasks)
-        val threadIds = mutableSetOf<Long>()
-        repeat(numberOfTasks) {
-            service.enqueue {
-                threadIds.add(Thread.currentThread().id)
-                latch.countDown()
-            }
+        val executed = mutableListOf<Int>()
+        repeat(5) { index ->
+            service.enqueue { executed.add(index) }
         }
+        assertThat(wakeUps).isEmpty()
 
         service.start()
-        latch.await()
-
-        // All ran in a single worker thread
-        assertThat(threadIds.size).isEqualTo(1)
+        assertThat(wakeUps).hasSize(1)
+        assertThat(wakeUps[0].delayMillis).isEqualTo(0)
+        runPendingWakeUp()
 
-        // The worker thread is not the same as the main thread
-        assertThat(threadIds.first()).isNotEqualTo(Thread.currentThread().id)
+        assertThat(executed).containsExactly(0, 1, 2, 3, 4)
     }
 
     @Test
     fun `Start only once`() {
-        val latch = CountDownLatch(1)
+        service.enqueue {}
+        service.start()
+        service.start()
 
-        // First start (should work)
-        service.enqueue {
-            latch.countDown()
-        }
+        assertThat(wakeUps).hasSize(1)
+    }
+
+    @Test
+    fun `Nothing is scheduled while the queue is empty`() {
         service.start()
-        latch.await()
 
-        // Trying to re-start (should not work)
-        service.enqueue {
-            fail("Must not execute this right away.")
-        }
+        assertThat(wakeUps).isEmpty()
+    }
+
+    @Test
+    fun `Sleep until the earliest work is due`() {
+        val executed = mutableListOf<String>()
+        service.start()
+        service.schedule({ executed.add("late") }, 5000)
+        service.schedule({ executed.add("early") }, 1000)
+
+        // the earlier work replaces the pending wake up
+        assertThat(wakeUps).hasSize(2)
+        assertThat(wakeUps[0].cancelled).isTrue()
+        assertThat(wakeUps[1].delayMillis).isEqualTo(1000)
+
+        testSystemTime.advanceTimeByMillis(1000)
+        runPendingWakeUp()
+        assertThat(executed).containsExactly("early")
+        assertThat(wakeUps.last().delayMillis).isEqualTo(4000)
+
+        testSystemTime.advanceTimeByMillis(4000)
+        runPendingWakeUp()
+        assertThat(executed).containsExactly("early", "late")
+        assertThat(wakeUps.filter { !it.cancelled && !it.ran }).isEmpty()
+    }
+
+    @Test
+    fun `Work scheduled while running waits for its own deadline`() {
+        var timesExecuted = 0
+        val work =
+            object : Runnable {
+                override fun run() {
+                    timesExecuted++
+                    service.schedule(this, 10_000)
+                }
+            }
+
+        service.enqueue(work)
         service.start()
+        runPendingWakeUp()
+        assertThat(timesExecuted).isEqualTo(1)
+        assertThat(wakeUps.last().delayMillis).isEqualTo(10_000)
 
-        Thread.sleep(200) // Giving some time for the test to fail.
+        testSystemTime.advanceTimeByMillis(10_000)
+        runPendingWakeUp()
+        assertThat(timesExecuted).isEqualTo(2)
     }
 
     @Test
-    fun `Check for pending work after a delay`() {
-        val firstRunLatch = CountDownLatch(1)
-        val secondRunLatch = CountDownLatch(1)
-        var secondRunExecuted = false
-
-        // First run right away
-        service.enqueue {
-            firstRunLatch.countDown()
-        }
+    fun `Cancelled work does not run`() {
+        var executed = false
+        val work = Runnable { executed = true }
         service.start()
-        service.enqueue {
-            secondRunExecuted = true
-            secondRunLatch.countDown()
-        }
-        firstRunLatch.await()
-        assertThat(secondRunExecuted).isFalse()
+        service.schedule(work, 1000)
+
+        service.cancel(work)
 
-        // Second run after delay
-        fastForwardBySeconds(DELAY_BETWEEN_EXECUTIONS_IN_SECONDS)
-        secondRunLatch.await(1, TimeUnit.SECONDS)
-        assertThat(secondRunExecuted).isTrue()
+        assertThat(wakeUps.single().cancelled).isTrue()
+        assertThat(executed).isFalse()
     }
 
     @Test
-    fun `Remove delegated work from further executions`() {
-        val firstRunLatch = CountDownLatch(1)
-        val secondRunLatch = CountDownLatch(1)
-        var timesExecutedFirstWork = 0
-        var timesExecutedSecondWork = 0
-
-        // First run right away
-        service.enqueue {
-            timesExecutedFirstWork++
-            firstRunLatch.countDown()
-        }
+    fun `Work cancelled while running does not schedule itself again`() {
+        var timesExecuted = 0
+        val work =
+            object : Runnable {
+                override fun run() {
+                    timesExecuted++
+                    service.cancel(this)
+                    service.schedule(this, 10_000)
+                }
+            }
+
+        service.enqueue(work)
         service.start()
-        service.enqueue {
-            timesExecutedSecondWork++
-            secondRunLatch.countDown()
-        }
-        firstRunLatch.await()
-        assertThat(timesExecutedFirstWork).isEqualTo(1)
-        assertThat(timesExecutedSecondWork).isEqualTo(0)
-
-        // Second run after delay
-        fastForwardBySeconds(DELAY_BETWEEN_EXECUTIONS_IN_SECONDS)
-        secondRunLatch.await(1, TimeUnit.SECONDS)
-        assertThat(timesExecutedFirstWork).isEqualTo(1)
-        assertThat(timesExecutedSecondWork).isEqualTo(1)
+        runPendingWakeUp()
+        assertThat(timesExecuted).isEqualTo(1)
+        assertThat(wakeUps.filter { !it.cancelled && !it.ran }).isEmpty()
+
+        // it can be scheduled again once its run is over
+        service.schedule(work, 0)
+        runPendingWakeUp()
+        assertThat(timesExecuted).isEqualTo(2)
+    }
+
+    @Test
+    fun `Work cancelled by earlier work of the same wake up does not run`() {
+        var executed = false
+        val cancelled = Runnable { executed = true }
+        service.enqueue { service.cancel(cancelled) }
+        service.enqueue(cancelled)
+
+        service.start()
+        runPendingWakeUp()
+
+        assertThat(executed).isFalse()
     }
 
-    private fun fastForwardBySeconds(seconds: Long) {
-        ShadowLooper.idleMainLooper(seconds, TimeUnit.SECONDS)
+    @Test
+    fun `No work runs while the app is in the background`() {
+        var executed = false
+        service.start()
+        service.schedule({ executed = true }, 1000)
+
+        service.onApplicationBackgrounded()
+        assertThat(wakeUps.single().cancelled).isTrue()
+        testSystemTime.advanceTimeByMillis(5000)
+
+        service.onApplicationForegrounded()
+        assertThat(wakeUps.last().delayMillis).isEqualTo(0)
+        runPendingWakeUp()
+        assertThat(executed).isTrue()
+    }
+
+    @Test
+    fun `Failing work does not prevent the rest of the batch from running`() {
+        var executed = false
+        service.enqueue { throw IllegalStateException("boom") }
+        service.enqueue { executed = true }
+
+        service.start()
+        runPendingWakeUp()
+
+        assertThat(executed).isTrue()
+    }
+
+    private fun runPendingWakeUp() {
+        val wakeUp = wakeUps.last { !it.cancelled && !it.ran }
+        wakeUp.ran = true
+        wakeUp.runnable.run()
+    }
+
+    private class WakeUp(val runnable: Runnable, val delayMillis: Long) {
+        var cancelled = false
+        var ran = false
+    }
+
+    private class TestSystemTime : SystemTime {
+        var currentTime = 1000L
+
+        override fun getCurrentTimeMillis(): Long {
+            return currentTime
+        }
+
+        fun advanceTimeByMillis(millis: Long) {
+            currentTime += millis
+        }
     }
 }
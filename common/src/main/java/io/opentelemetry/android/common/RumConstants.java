@@ -32,6 +32,8 @@ public class RumConstants {
     public static final AttributeKey<String> PREVIOUS_SESSION_ID_KEY =
             stringKey("session.previous_id");
 
+    public static final AttributeKey<String> EXPORT_BATCH_ID_KEY = stringKey("export.batch_id");
+
     public static final String APP_START_SPAN_NAME = "AppStart";
 
     private RumConstants() {}
@@ -0,0 +1,18 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.common;
+
+/**
+ * Tag of the HTTP requests that export the SDK's own telemetry, such as OkHttp's {@code
+ * Request.tag(TelemetryExportTag.class)}. The HTTP client instrumentations don't trace these
+ * requests, as every export would otherwise create more telemetry to export.
+ */
+public final class TelemetryExportTag {
+
+    public static final TelemetryExportTag INSTANCE = new TelemetryExportTag();
+
+    private TelemetryExportTag() {}
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.common;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pools of background threads shared by all the instrumentations.
+ *
+ * <p>Instrumentations borrow a {@linkplain #forTask(String) named view} of the scheduler instead of
+ * creating their own executors. The time spent running the tasks of each name is tracked, and can
+ * be reported with {@link #registerMetrics(Meter)}. Idle threads are let go after a while, so the
+ * scheduler holds no thread at all when nothing is queued.
+ *
+ * <p>Tasks that wait, on the main thread, the network or a timeout, are run by a {@linkplain
+ * #forBlockingTask(String) separate pool}, so that they can't hold up the short tasks.
+ *
+ * <p>This class is internal and not for public use. Its APIs are unstable and can change at any
+ * time.
+ */
+public final class TelemetryScheduler {
+
+    static final AttributeKey<String> TASK_NAME_KEY = stringKey("task.name");
+
+    private static final int MAX_THREADS = 2;
+    // the ANR watcher, the disk exports, the background flush and the write-behind timeouts
+    private static final int MAX_BLOCKING_THREADS = 4;
+    private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Creates a new scheduler, backed by at most 2 daemon threads, and 4 more for the blocking
+     * tasks.
+     */
+    public static TelemetryScheduler create() {
+        return new TelemetryScheduler(
+                createExecutor(MAX_THREADS, "otel-android-scheduler-"),
+                createExecutor(MAX_BLOCKING_THREADS, "otel-android-blocking-"));
+    }
+
+    private static ScheduledExecutorService createExecutor(int maxThreads, String threadPrefix) {
+        ScheduledThreadPoolExecutor executor =
+                new ScheduledThreadPoolExecutor(maxThreads, new DaemonThreadFactory(threadPrefix));
+        executor.setKeepAliveTime(IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        // don't keep cancelled periodic tasks in the queue until their next run
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private final ScheduledExecutorService executor;
+    private final ScheduledExecutorService blockingExecutor;
+    private final ConcurrentMap<String, TaskExecutor> tasks = new ConcurrentHashMap<>();
+
+    // visible for tests
+    TelemetryScheduler(
+            ScheduledExecutorService executor, ScheduledExecutorService blockingExecutor) {
+        this.executor = executor;
+        this.blockingExecutor = blockingExecutor;
+    }
+
+    /**
+     * Returns a view of this scheduler that runs the tasks submitted to it under the given name.
+     * The tasks must not block: use {@link #forBlockingTask(String)} for those. Shutting the
+     * returned executor down has no effect: the scheduler is shared.
+     */
+    public ScheduledExecutorService forTask(String taskName) {
+        return getTask(taskName, executor);
+    }
+
+    /**
+     * Like {@link #forTask(String)}, for tasks that wait on something else: the main thread, the
+     * network, or a timeout. They run on their own threads, so that the other tasks aren't delayed
+     * while they wait.
+     */
+    public ScheduledExecutorService forBlockingTask(String taskName) {
+        return getTask(taskName, blockingExecutor);
+    }
+
+    private TaskExecutor getTask(String taskName, ScheduledExecutorService pool) {
+        TaskExecutor task = tasks.get(taskName);
+        if (task == null) {
+            TaskExecutor newTask = new TaskExecutor(taskName, pool);
+            task = tasks.putIfAbsent(taskName, newTask);
+            if (task == null) {
+                task = newTask;
+            }
+        }
+        return task;
+    }
+
+    /** Reports the number of runs and the total run time of the tasks, per task name. */
+    public void registerMetrics(Meter meter) {
+        meter.counterBuilder("otel.android.scheduler.task.runs")
+                .setDescription("Number of times the background tasks ran")
+                .setUnit("{run}")
+                .buildWithCallback(
+                        measurement -> {
+                            for (TaskExecutor task : tasks.values()) {
+                                measurement.record(task.runs.get(), task.attributes);
+                            }
+                        });
+        meter.counterBuilder("otel.android.scheduler.task.duration")
+                .ofDoubles()
+                .setDescription("Time spent running the background tasks")
+                .setUnit("ms")
+                .buildWithCallback(
+                        measurement -> {
+                            for (TaskExecutor task : tasks.values()) {
+                                measurement.record(
+                                        task.runNanos.get() / 1_000_000.0, task.attributes);
+                            }
+                        });
+    }
+
+    /** Stops the underlying threads. Queued tasks are discarded. */
+    public void shutdown() {
+        executor.shutdownNow();
+        blockingExecutor.shutdownNow();
+    }
+
+    // visible for tests
+    long getRunCount(String taskName) {
+        TaskExecutor task = tasks.get(taskName);
+        return task == null ? 0 : task.runs.get();
+    }
+
+    private final class TaskExecutor extends AbstractExecutorService
+            implements ScheduledExecutorService {
+
+        private final Attributes attributes;
+        private final ScheduledExecutorService pool;
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong runNanos = new AtomicLong();
+
+        TaskExecutor(String taskName, ScheduledExecutorService pool) {
+            this.attributes = Attributes.of(TASK_NAME_KEY, taskName);
+            this.pool = pool;
+        }
+
+        private Runnable measured(Runnable command) {
+            return () -> {
+                long start = System.nanoTime();
+                try {
+                    command.run();
+                } finally {
+                    runNanos.addAndGet(System.nanoTime() - start);
+                    runs.incrementAndGet();
+                }
+            };
+        }
+
+        private <V> Callable<V> measured(Callable<V> callable) {
+            return () -> {
+                long start = System.nanoTime();
+                try {
+                    return callable.call();
+                } finally {
+                    runNanos.addAndGet(System.nanoTime() - start);
+                    runs.incrementAndGet();
+                }
+            };
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            pool.execute(measured(command));
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            return pool.schedule(measured(command), delay, unit);
+        }
+
+        @Override
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+            return pool.schedule(measured(callable), delay, unit);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(
+                Runnable command, long initialDelay, long period, TimeUnit unit) {
+            return pool.scheduleAtFixedRate(measured(command), initialDelay, period, unit);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(
+                Runnable command, long initialDelay, long delay, TimeUnit unit) {
+            return pool.scheduleWithFixedDelay(measured(command), initialDelay, delay, unit);
+        }
+
+        @Override
+        public void shutdown() {}
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return pool.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return pool.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return pool.awaitTermination(timeout, unit);
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final String threadPrefix;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        DaemonThreadFactory(String threadPrefix) {
+            this.threadPrefix = threadPrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, threadPrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
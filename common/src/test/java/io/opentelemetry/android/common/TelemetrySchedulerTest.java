@@ -0,0 +1,116 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class TelemetrySchedulerTest {
+
+    @Test
+    void countsRunsPerTask() {
+        ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+        doAnswer(
+                        invocation -> {
+                            Runnable runnable = invocation.getArgument(0);
+                            runnable.run();
+                            return null;
+                        })
+                .when(executor)
+                .execute(any());
+        TelemetryScheduler scheduler =
+                new TelemetryScheduler(executor, mock(ScheduledExecutorService.class));
+        AtomicInteger runs = new AtomicInteger();
+
+        scheduler.forTask("first").execute(runs::incrementAndGet);
+        scheduler.forTask("first").execute(runs::incrementAndGet);
+        scheduler.forTask("second").execute(runs::incrementAndGet);
+
+        assertThat(runs.get()).isEqualTo(3);
+        assertThat(scheduler.getRunCount("first")).isEqualTo(2);
+        assertThat(scheduler.getRunCount("second")).isEqualTo(1);
+        assertThat(scheduler.getRunCount("third")).isZero();
+    }
+
+    @Test
+    void borrowedExecutorsCannotShutTheSchedulerDown() {
+        ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+        ScheduledExecutorService blockingExecutor = mock(ScheduledExecutorService.class);
+        TelemetryScheduler scheduler = new TelemetryScheduler(executor, blockingExecutor);
+
+        scheduler.forTask("task").shutdown();
+        scheduler.forTask("task").shutdownNow();
+        scheduler.forBlockingTask("blocking-task").shutdown();
+        scheduler.forBlockingTask("blocking-task").shutdownNow();
+
+        verify(executor, never()).shutdown();
+        verify(executor, never()).shutdownNow();
+        verify(blockingExecutor, never()).shutdown();
+        verify(blockingExecutor, never()).shutdownNow();
+    }
+
+    @Test
+    void runsOnSchedulerThreads() throws Exception {
+        TelemetryScheduler scheduler = TelemetryScheduler.create();
+        try {
+            Callable<String> threadName = () -> Thread.currentThread().getName();
+            String name =
+                    scheduler
+                            .forTask("task")
+                            .schedule(threadName, 1, TimeUnit.MILLISECONDS)
+                            .get(5, TimeUnit.SECONDS);
+
+            assertThat(name).startsWith("otel-android-scheduler-");
+            assertThat(scheduler.getRunCount("task")).isEqualTo(1);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void blockingTasksRunOnTheirOwnThreads() throws Exception {
+        TelemetryScheduler scheduler = TelemetryScheduler.create();
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            // keeps more threads waiting than the scheduler has for the short tasks
+            for (int i = 0; i < 2; i++) {
+                scheduler.forBlockingTask("blocking-task").execute(() -> await(release));
+            }
+            Callable<String> threadName = () -> Thread.currentThread().getName();
+            String name = scheduler.forTask("task").submit(threadName).get(5, TimeUnit.SECONDS);
+            String blockingName =
+                    scheduler
+                            .forBlockingTask("other-blocking-task")
+                            .submit(threadName)
+                            .get(5, TimeUnit.SECONDS);
+            release.countDown();
+
+            assertThat(name).startsWith("otel-android-scheduler-");
+            assertThat(blockingName).startsWith("otel-android-blocking-");
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -13,6 +13,7 @@ import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.instrumentation.api.instrumenter.AttributesExtractor;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import java.util.List;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
 /** Entrypoint for installing the ANR (application not responding) detection instrumentation. */
@@ -35,7 +36,10 @@ public final class AnrDetector {
     AnrDetector(AnrDetectorBuilder builder) {
         this.additionalExtractors = builder.additionalExtractors;
         this.mainLooper = builder.mainLooper;
-        this.scheduler = builder.scheduler;
+        this.scheduler =
+                builder.scheduler == null
+                        ? Executors.newScheduledThreadPool(1)
+                        : builder.scheduler;
     }
 
     /**
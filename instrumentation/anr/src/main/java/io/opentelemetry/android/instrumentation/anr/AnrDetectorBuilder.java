@@ -6,10 +6,10 @@
 package io.opentelemetry.android.instrumentation.anr;
 
 import android.os.Looper;
+import androidx.annotation.Nullable;
 import io.opentelemetry.instrumentation.api.instrumenter.AttributesExtractor;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
 /** A builder of {@link AnrDetector}. */
@@ -20,7 +20,7 @@ public final class AnrDetectorBuilder {
     final List<AttributesExtractor<StackTraceElement[], Void>> additionalExtractors =
             new ArrayList<>();
     Looper mainLooper = Looper.getMainLooper();
-    ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    @Nullable ScheduledExecutorService scheduler;
 
     /** Adds an {@link AttributesExtractor} that will extract additional attributes. */
     public AnrDetectorBuilder addAttributesExtractor(
@@ -35,8 +35,11 @@ public final class AnrDetectorBuilder {
         return this;
     }
 
-    // visible for tests
-    AnrDetectorBuilder setScheduler(ScheduledExecutorService scheduler) {
+    /**
+     * Sets the {@link ScheduledExecutorService} that checks the main thread for ANRs. By default, a
+     * dedicated single thread executor is used.
+     */
+    public AnrDetectorBuilder setScheduler(ScheduledExecutorService scheduler) {
         this.scheduler = scheduler;
         return this;
     }
@@ -5,20 +5,80 @@
 
 package io.opentelemetry.android.instrumentation.network;
 
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.os.Build;
 import android.telephony.TelephonyManager;
+import android.util.Log;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
+import io.opentelemetry.android.common.RumConstants;
 
+/**
+ * Finds the carrier of the current SIM.
+ *
+ * <p>Looking up the carrier takes several binder calls, so once {@linkplain
+ * #cacheUntilCarrierChanges(Context) enabled}, the carrier is cached until the system reports that
+ * the SIM or its carrier has changed.
+ */
 @RequiresApi(api = Build.VERSION_CODES.P)
 class CarrierFinder {
 
     private final TelephonyManager telephonyManager;
+    private volatile boolean cacheEnabled;
+    @Nullable private volatile Carrier cachedCarrier;
+    // bumped on every carrier change, so that a lookup that started before it isn't cached
+    private int generation;
 
     CarrierFinder(TelephonyManager telephonyManager) {
         this.telephonyManager = telephonyManager;
     }
 
+    /**
+     * Starts caching the carrier, and registers a receiver that drops the cached carrier whenever
+     * the carrier identity of the SIM changes. If the receiver can't be registered, the carrier is
+     * looked up on every {@link #get()} call, as before.
+     */
+    void cacheUntilCarrierChanges(Context context) {
+        try {
+            // this is a protected broadcast, only the system can send it
+            context.registerReceiver(
+                    new CarrierChangeReceiver(),
+                    new IntentFilter(
+                            TelephonyManager.ACTION_SUBSCRIPTION_CARRIER_IDENTITY_CHANGED));
+            cacheEnabled = true;
+        } catch (Exception e) {
+            Log.w(
+                    RumConstants.OTEL_RUM_LOG_TAG,
+                    "Failed to register the carrier change receiver. Carrier info won't be cached.",
+                    e);
+        }
+    }
+
     Carrier get() {
+        if (!cacheEnabled) {
+            return find();
+        }
+        Carrier carrier = cachedCarrier;
+        if (carrier != null) {
+            return carrier;
+        }
+        int lookupGeneration;
+        synchronized (this) {
+            lookupGeneration = generation;
+        }
+        carrier = find();
+        synchronized (this) {
+            if (generation == lookupGeneration) {
+                cachedCarrier = carrier;
+            }
+        }
+        return carrier;
+    }
+
+    private Carrier find() {
         Carrier.Builder builder = Carrier.builder();
         int id = telephonyManager.getSimCarrierId();
         builder.id(id);
@@ -42,4 +102,15 @@ class CarrierFinder {
     private boolean validString(CharSequence str) {
         return !(str == null || str.length() == 0);
     }
+
+    private final class CarrierChangeReceiver extends BroadcastReceiver {
+
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            synchronized (CarrierFinder.this) {
+                generation++;
+                cachedCarrier = null;
+            }
+        }
+    }
 }
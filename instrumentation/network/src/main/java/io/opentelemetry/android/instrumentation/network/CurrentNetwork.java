@@ -27,6 +27,14 @@ public final class CurrentNetwork {
         return getState() != NetworkState.NO_NETWORK_AVAILABLE;
     }
 
+    /**
+     * Returns {@code true} if the device is connected through a cellular network, which is usually
+     * metered; {@code false} otherwise.
+     */
+    public boolean isCellular() {
+        return getState() == NetworkState.TRANSPORT_CELLULAR;
+    }
+
     NetworkState getState() {
         return state;
     }
@@ -15,8 +15,14 @@ import android.os.Build;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import io.opentelemetry.android.common.RumConstants;
+import io.opentelemetry.api.common.Attributes;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
 // note: based on ideas from stack overflow:
@@ -25,6 +31,16 @@ import java.util.function.Supplier;
 /**
  * A provider of {@link CurrentNetwork} information. Registers itself in the Android {@link
  * ConnectivityManager} and listens for network changes.
+ *
+ * <p>The span attributes describing the current network are computed once per network change and
+ * kept next to it in an immutable snapshot, so that reading them on the span path is a single
+ * volatile read that doesn't allocate.
+ *
+ * <p>The network is detected once when monitoring starts, on the calling thread, so that the spans
+ * started right away get the current network. Later detections run on a background executor.
+ * Network callbacks arriving in a burst (e.g. while the connection flaps) within the detection
+ * debounce window are collapsed into a single detection, and listeners are notified once with the
+ * resulting network, if it changed.
  */
 public final class CurrentNetworkProvider {
 
@@ -32,15 +48,59 @@ public final class CurrentNetworkProvider {
             CurrentNetwork.builder(NetworkState.NO_NETWORK_AVAILABLE).build();
     static final CurrentNetwork UNKNOWN_NETWORK =
             CurrentNetwork.builder(NetworkState.TRANSPORT_UNKNOWN).build();
+    static final Duration DEFAULT_DETECTION_DEBOUNCE_WINDOW = Duration.ofMillis(500);
+    // the detection thread goes away when there's no network change for this long
+    private static final long DETECTION_THREAD_KEEP_ALIVE_SECONDS = 30;
 
     /**
      * Creates a new {@link CurrentNetworkProvider} instance and registers network callbacks in the
      * Android {@link ConnectivityManager}.
      */
     public static CurrentNetworkProvider createAndStart(Application application) {
+        return createAndStart(application, DEFAULT_DETECTION_DEBOUNCE_WINDOW);
+    }
+
+    /**
+     * Creates a new {@link CurrentNetworkProvider} instance and registers network callbacks in the
+     * Android {@link ConnectivityManager}. Network callbacks received within the given window are
+     * collapsed into a single network detection, which runs on a daemon thread that stops when
+     * idle.
+     */
+    public static CurrentNetworkProvider createAndStart(
+            Application application, Duration detectionDebounceWindow) {
+        return createAndStart(application, detectionDebounceWindow, createDetectionExecutor());
+    }
+
+    private static ScheduledExecutorService createDetectionExecutor() {
+        ScheduledThreadPoolExecutor executor =
+                new ScheduledThreadPoolExecutor(
+                        1,
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "otel-network-detection");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        executor.setKeepAliveTime(DETECTION_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates a new {@link CurrentNetworkProvider} instance and registers network callbacks in the
+     * Android {@link ConnectivityManager}. The network is detected once on the calling thread, then
+     * on the given executor, and network callbacks received within the given window are collapsed
+     * into a single network detection.
+     */
+    public static CurrentNetworkProvider createAndStart(
+            Application application,
+            Duration detectionDebounceWindow,
+            ScheduledExecutorService detectionExecutor) {
         Context context = application.getApplicationContext();
         CurrentNetworkProvider currentNetworkProvider =
-                new CurrentNetworkProvider(NetworkDetector.create(context));
+                new CurrentNetworkProvider(
+                        NetworkDetector.create(context),
+                        detectionExecutor,
+                        detectionDebounceWindow);
         currentNetworkProvider.startMonitoring(
                 CurrentNetworkProvider::createNetworkMonitoringRequest,
                 (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE));
@@ -48,19 +108,35 @@ public final class CurrentNetworkProvider {
     }
 
     private final NetworkDetector networkDetector;
+    private final ScheduledExecutorService detectionExecutor;
+    private final long detectionDebounceWindowMillis;
+    private final AtomicBoolean detectionScheduled = new AtomicBoolean();
+    private final CurrentNetworkAttributesExtractor networkAttributesExtractor =
+            new CurrentNetworkAttributesExtractor();
 
-    private volatile CurrentNetwork currentNetwork = UNKNOWN_NETWORK;
+    private volatile NetworkSnapshot snapshot;
+    // whether the last network callback reported the network as lost
+    private volatile boolean networkLost;
     private final List<NetworkChangeListener> listeners = new CopyOnWriteArrayList<>();
 
     // visible for tests
-    CurrentNetworkProvider(NetworkDetector networkDetector) {
+    CurrentNetworkProvider(
+            NetworkDetector networkDetector,
+            ScheduledExecutorService detectionExecutor,
+            Duration detectionDebounceWindow) {
         this.networkDetector = networkDetector;
+        this.detectionExecutor = detectionExecutor;
+        this.detectionDebounceWindowMillis = detectionDebounceWindow.toMillis();
+        this.snapshot =
+                new NetworkSnapshot(
+                        UNKNOWN_NETWORK, networkAttributesExtractor.extract(UNKNOWN_NETWORK), 0);
     }
 
     // visible for tests
     void startMonitoring(
             Supplier<NetworkRequest> createNetworkMonitoringRequest,
             ConnectivityManager connectivityManager) {
+        // spans started before the first network callback get the actual network
         refreshNetworkStatus();
         try {
             registerNetworkCallbacks(createNetworkMonitoringRequest, connectivityManager);
@@ -86,6 +162,7 @@ public final class CurrentNetworkProvider {
 
     /** Returns up-to-date {@linkplain CurrentNetwork current network information}. */
     public CurrentNetwork refreshNetworkStatus() {
+        CurrentNetwork currentNetwork;
         try {
             currentNetwork = networkDetector.detectCurrentNetwork();
         } catch (Exception e) {
@@ -93,7 +170,48 @@ public final class CurrentNetworkProvider {
             // see: https://issuetracker.google.com/issues/175055271
             currentNetwork = UNKNOWN_NETWORK;
         }
-        return currentNetwork;
+        return updateCurrentNetwork(currentNetwork);
+    }
+
+    private void scheduleDetection() {
+        if (detectionScheduled.compareAndSet(false, true)) {
+            detectionExecutor.schedule(
+                    this::detectAndNotify, detectionDebounceWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void detectAndNotify() {
+        // callbacks arriving from now on need another detection
+        detectionScheduled.set(false);
+        long previousVersion = snapshot.version;
+        CurrentNetwork activeNetwork;
+        if (networkLost) {
+            // it seems that the "currentNetwork" is still the one that is being lost, so in
+            // this case, we'll force it to be NO_NETWORK, rather than relying on the
+            // ConnectivityManager to have the right state at the right time.
+            activeNetwork = updateCurrentNetwork(NO_NETWORK);
+        } else {
+            activeNetwork = refreshNetworkStatus();
+        }
+        if (snapshot.version != previousVersion) {
+            Log.d(
+                    RumConstants.OTEL_RUM_LOG_TAG,
+                    "Network changed: currentNetwork=" + activeNetwork);
+            notifyListeners(activeNetwork);
+        }
+    }
+
+    private synchronized CurrentNetwork updateCurrentNetwork(CurrentNetwork currentNetwork) {
+        NetworkSnapshot previous = snapshot;
+        // keep the previous snapshot (and its version) if nothing actually changed
+        if (!previous.network.equals(currentNetwork)) {
+            snapshot =
+                    new NetworkSnapshot(
+                            currentNetwork,
+                            networkAttributesExtractor.extract(currentNetwork),
+                            previous.version + 1);
+        }
+        return snapshot.network;
     }
 
     private static NetworkRequest createNetworkMonitoringRequest() {
@@ -107,8 +225,28 @@ public final class CurrentNetworkProvider {
                 .build();
     }
 
-    CurrentNetwork getCurrentNetwork() {
-        return currentNetwork;
+    /**
+     * Returns the last known {@linkplain CurrentNetwork current network information}, without
+     * refreshing it. The returned instance is only replaced when the network status is refreshed.
+     */
+    public CurrentNetwork getCurrentNetwork() {
+        return snapshot.network;
+    }
+
+    /**
+     * Returns the span attributes describing the {@linkplain #getCurrentNetwork() current network}.
+     * The same instance is returned until the network changes.
+     */
+    public Attributes getCurrentNetworkAttributes() {
+        return snapshot.attributes;
+    }
+
+    /**
+     * Returns a counter that gets incremented every time the current network changes. It can be
+     * used to cache values derived from the current network.
+     */
+    public long getCurrentNetworkVersion() {
+        return snapshot.version;
     }
 
     void addNetworkChangeListener(NetworkChangeListener listener) {
@@ -125,23 +263,26 @@ public final class CurrentNetworkProvider {
 
         @Override
         public void onAvailable(@NonNull Network network) {
-            CurrentNetwork activeNetwork = refreshNetworkStatus();
-            Log.d(RumConstants.OTEL_RUM_LOG_TAG, "  onAvailable: currentNetwork=" + activeNetwork);
-
-            notifyListeners(activeNetwork);
+            networkLost = false;
+            scheduleDetection();
         }
 
         @Override
         public void onLost(@NonNull Network network) {
-            // it seems that the "currentNetwork" is still the one that is being lost, so for
-            // this method, we'll force it to be NO_NETWORK, rather than relying on the
-            // ConnectivityManager to have the right
-            // state at the right time during this event.
-            CurrentNetwork currentNetwork = NO_NETWORK;
-            CurrentNetworkProvider.this.currentNetwork = currentNetwork;
-            Log.d(RumConstants.OTEL_RUM_LOG_TAG, "  onLost: currentNetwork=" + currentNetwork);
-
-            notifyListeners(currentNetwork);
+            networkLost = true;
+            scheduleDetection();
+        }
+    }
+
+    private static final class NetworkSnapshot {
+        private final CurrentNetwork network;
+        private final Attributes attributes;
+        private final long version;
+
+        private NetworkSnapshot(CurrentNetwork network, Attributes attributes, long version) {
+            this.network = network;
+            this.attributes = attributes;
+            this.version = version;
         }
     }
 }
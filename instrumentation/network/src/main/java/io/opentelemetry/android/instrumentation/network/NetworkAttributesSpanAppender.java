@@ -25,8 +25,6 @@ public final class NetworkAttributesSpanAppender implements SpanProcessor {
     }
 
     private final CurrentNetworkProvider currentNetworkProvider;
-    private final CurrentNetworkAttributesExtractor networkAttributesExtractor =
-            new CurrentNetworkAttributesExtractor();
 
     NetworkAttributesSpanAppender(CurrentNetworkProvider currentNetworkProvider) {
         this.currentNetworkProvider = currentNetworkProvider;
@@ -34,8 +32,7 @@ public final class NetworkAttributesSpanAppender implements SpanProcessor {
 
     @Override
     public void onStart(Context parentContext, ReadWriteSpan span) {
-        CurrentNetwork currentNetwork = currentNetworkProvider.getCurrentNetwork();
-        span.setAllAttributes(networkAttributesExtractor.extract(currentNetwork));
+        span.setAllAttributes(currentNetworkProvider.getCurrentNetworkAttributes());
     }
 
     @Override
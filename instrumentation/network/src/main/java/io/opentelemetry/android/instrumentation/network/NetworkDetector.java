@@ -20,6 +20,7 @@ interface NetworkDetector {
             TelephonyManager telephonyManager =
                     (TelephonyManager) context.getSystemService(Context.TELEPHONY_SERVICE);
             CarrierFinder carrierFinder = new CarrierFinder(telephonyManager);
+            carrierFinder.cacheUntilCarrierChanges(context);
             return new PostApi28NetworkDetector(
                     connectivityManager, telephonyManager, carrierFinder, context);
         }
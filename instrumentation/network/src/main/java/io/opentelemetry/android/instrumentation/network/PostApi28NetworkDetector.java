@@ -25,6 +25,8 @@ class PostApi28NetworkDetector implements NetworkDetector {
     private final TelephonyManager telephonyManager;
     private final CarrierFinder carrierFinder;
     private final Context context;
+    // once granted, a runtime permission stays granted: revoking it kills the app process
+    private volatile boolean readPhoneStateGranted;
 
     PostApi28NetworkDetector(
             ConnectivityManager connectivityManager,
@@ -49,7 +51,7 @@ class PostApi28NetworkDetector implements NetworkDetector {
         Carrier carrier = carrierFinder.get();
         if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)) {
             // If the app has the permission, use it to get a subtype.
-            if (hasPermission(Manifest.permission.READ_PHONE_STATE)) {
+            if (hasReadPhoneStatePermission()) {
                 subType = getDataNetworkTypeName(telephonyManager.getDataNetworkType());
             }
             return CurrentNetwork.builder(NetworkState.TRANSPORT_CELLULAR)
@@ -65,6 +67,13 @@ class PostApi28NetworkDetector implements NetworkDetector {
         return UNKNOWN_NETWORK;
     }
 
+    private boolean hasReadPhoneStatePermission() {
+        if (!readPhoneStateGranted) {
+            readPhoneStateGranted = hasPermission(Manifest.permission.READ_PHONE_STATE);
+        }
+        return readPhoneStateGranted;
+    }
+
     // visible for testing
     boolean hasPermission(String permission) {
         return ActivityCompat.checkSelfPermission(context, permission)
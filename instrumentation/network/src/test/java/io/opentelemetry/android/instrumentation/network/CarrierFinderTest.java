@@ -6,11 +6,20 @@
 package io.opentelemetry.android.instrumentation.network;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.telephony.TelephonyManager;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 class CarrierFinderTest {
 
@@ -51,4 +60,66 @@ class CarrierFinderTest {
         Carrier carrier = finder.get();
         assertThat(carrier).isEqualTo(expected);
     }
+
+    @Test
+    void testCachedUntilCarrierChanges() {
+        TelephonyManager manager = mock(TelephonyManager.class);
+        when(manager.getSimCarrierIdName()).thenReturn("ShadyTel", "ShadyTel", "FlakyTel");
+        Context context = mock(Context.class);
+
+        CarrierFinder finder = new CarrierFinder(manager);
+        finder.cacheUntilCarrierChanges(context);
+        ArgumentCaptor<BroadcastReceiver> receiverCaptor =
+                ArgumentCaptor.forClass(BroadcastReceiver.class);
+        verify(context).registerReceiver(receiverCaptor.capture(), isA(IntentFilter.class));
+
+        assertThat(finder.get().getName()).isEqualTo("ShadyTel");
+        assertThat(finder.get().getName()).isEqualTo("ShadyTel");
+        verify(manager).getSimCarrierIdName();
+
+        receiverCaptor.getValue().onReceive(context, mock(Intent.class));
+
+        assertThat(finder.get().getName()).isEqualTo("ShadyTel");
+        verify(manager, times(2)).getSimCarrierIdName();
+    }
+
+    @Test
+    void testLookupRacingACarrierChangeIsNotCached() {
+        TelephonyManager manager = mock(TelephonyManager.class);
+        Context context = mock(Context.class);
+        CarrierFinder finder = new CarrierFinder(manager);
+        finder.cacheUntilCarrierChanges(context);
+        ArgumentCaptor<BroadcastReceiver> receiverCaptor =
+                ArgumentCaptor.forClass(BroadcastReceiver.class);
+        verify(context).registerReceiver(receiverCaptor.capture(), isA(IntentFilter.class));
+        when(manager.getSimCarrierIdName())
+                .thenAnswer(
+                        invocation -> {
+                            // the carrier changes while the old one is being looked up
+                            receiverCaptor.getValue().onReceive(context, mock(Intent.class));
+                            return "ShadyTel";
+                        })
+                .thenReturn("FlakyTel");
+
+        assertThat(finder.get().getName()).isEqualTo("ShadyTel");
+        assertThat(finder.get().getName()).isEqualTo("FlakyTel");
+        assertThat(finder.get().getName()).isEqualTo("FlakyTel");
+        verify(manager, times(2)).getSimCarrierIdName();
+    }
+
+    @Test
+    void testNotCachedWhenReceiverRegistrationFails() {
+        TelephonyManager manager = mock(TelephonyManager.class);
+        when(manager.getSimCarrierIdName()).thenReturn("ShadyTel");
+        Context context = mock(Context.class);
+        when(context.registerReceiver(any(), any()))
+                .thenThrow(new SecurityException("nope"));
+
+        CarrierFinder finder = new CarrierFinder(manager);
+        finder.cacheUntilCarrierChanges(context);
+        finder.get();
+        finder.get();
+
+        verify(manager, times(2)).getSimCarrierIdName();
+    }
 }
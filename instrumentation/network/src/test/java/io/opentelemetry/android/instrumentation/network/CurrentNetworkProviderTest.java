@@ -6,13 +6,16 @@
 package io.opentelemetry.android.instrumentation.network;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -21,6 +24,11 @@ import android.net.ConnectivityManager.NetworkCallback;
 import android.net.Network;
 import android.net.NetworkRequest;
 import android.os.Build;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.semconv.SemanticAttributes;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Test;
@@ -34,6 +42,28 @@ import org.robolectric.annotation.Config;
 @Config(maxSdk = Build.VERSION_CODES.S)
 public class CurrentNetworkProviderTest {
 
+    private static CurrentNetworkProvider createProvider(NetworkDetector networkDetector) {
+        // runs the detection tasks right away, on the calling thread
+        ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+        doAnswer(
+                        invocation -> {
+                            Runnable task = invocation.getArgument(0);
+                            task.run();
+                            return null;
+                        })
+                .when(executor)
+                .execute(any());
+        doAnswer(
+                        invocation -> {
+                            Runnable task = invocation.getArgument(0);
+                            task.run();
+                            return null;
+                        })
+                .when(executor)
+                .schedule(any(Runnable.class), anyLong(), any());
+        return new CurrentNetworkProvider(networkDetector, executor, Duration.ZERO);
+    }
+
     @Test
     @Config(maxSdk = Build.VERSION_CODES.LOLLIPOP)
     public void lollipop() {
@@ -50,7 +80,7 @@ public class CurrentNetworkProviderTest {
                                 .subType("LTE")
                                 .build());
 
-        CurrentNetworkProvider currentNetworkProvider = new CurrentNetworkProvider(networkDetector);
+        CurrentNetworkProvider currentNetworkProvider = createProvider(networkDetector);
         currentNetworkProvider.startMonitoring(() -> networkRequest, connectivityManager);
 
         Assert.assertEquals(
@@ -100,7 +130,7 @@ public class CurrentNetworkProviderTest {
                                 .subType("LTE")
                                 .build());
 
-        CurrentNetworkProvider currentNetworkProvider = new CurrentNetworkProvider(networkDetector);
+        CurrentNetworkProvider currentNetworkProvider = createProvider(networkDetector);
         currentNetworkProvider.startMonitoring(() -> networkRequest, connectivityManager);
 
         Assert.assertEquals(
@@ -142,7 +172,7 @@ public class CurrentNetworkProviderTest {
         NetworkDetector networkDetector = Mockito.mock(NetworkDetector.class);
         when(networkDetector.detectCurrentNetwork()).thenThrow(new SecurityException("bug"));
 
-        CurrentNetworkProvider currentNetworkProvider = new CurrentNetworkProvider(networkDetector);
+        CurrentNetworkProvider currentNetworkProvider = createProvider(networkDetector);
         Assert.assertEquals(
                 CurrentNetworkProvider.UNKNOWN_NETWORK,
                 currentNetworkProvider.refreshNetworkStatus());
@@ -160,7 +190,7 @@ public class CurrentNetworkProviderTest {
                 .when(connectivityManager)
                 .registerDefaultNetworkCallback(isA(NetworkCallback.class));
 
-        CurrentNetworkProvider currentNetworkProvider = new CurrentNetworkProvider(networkDetector);
+        CurrentNetworkProvider currentNetworkProvider = createProvider(networkDetector);
         currentNetworkProvider.startMonitoring(
                 () -> mock(NetworkRequest.class), connectivityManager);
         Assert.assertEquals(
@@ -181,7 +211,7 @@ public class CurrentNetworkProviderTest {
                 .when(connectivityManager)
                 .registerNetworkCallback(eq(networkRequest), isA(NetworkCallback.class));
 
-        CurrentNetworkProvider currentNetworkProvider = new CurrentNetworkProvider(networkDetector);
+        CurrentNetworkProvider currentNetworkProvider = createProvider(networkDetector);
         currentNetworkProvider.startMonitoring(() -> networkRequest, connectivityManager);
         Assert.assertEquals(
                 CurrentNetwork.builder(NetworkState.TRANSPORT_WIFI).build(),
@@ -204,7 +234,7 @@ public class CurrentNetworkProviderTest {
                 .when(connectivityManager)
                 .registerNetworkCallback(eq(networkRequest), any(NetworkCallback.class));
 
-        CurrentNetworkProvider currentNetworkProvider = new CurrentNetworkProvider(networkDetector);
+        CurrentNetworkProvider currentNetworkProvider = createProvider(networkDetector);
         currentNetworkProvider.startMonitoring(() -> networkRequest, connectivityManager);
     }
 
@@ -224,7 +254,109 @@ public class CurrentNetworkProviderTest {
                 .when(connectivityManager)
                 .registerDefaultNetworkCallback(any(NetworkCallback.class));
 
-        CurrentNetworkProvider currentNetworkProvider = new CurrentNetworkProvider(networkDetector);
+        CurrentNetworkProvider currentNetworkProvider = createProvider(networkDetector);
         currentNetworkProvider.startMonitoring(() -> networkRequest, connectivityManager);
     }
+
+    @Test
+    public void networkAttributesAreSwappedWithTheNetwork() {
+        NetworkDetector networkDetector = Mockito.mock(NetworkDetector.class);
+        when(networkDetector.detectCurrentNetwork())
+                .thenReturn(
+                        CurrentNetwork.builder(NetworkState.TRANSPORT_CELLULAR)
+                                .subType("LTE")
+                                .build());
+
+        CurrentNetworkProvider currentNetworkProvider = createProvider(networkDetector);
+        assertEquals(0, currentNetworkProvider.getCurrentNetworkVersion());
+        assertEquals(
+                Attributes.of(SemanticAttributes.NETWORK_CONNECTION_TYPE, "unknown"),
+                currentNetworkProvider.getCurrentNetworkAttributes());
+
+        currentNetworkProvider.refreshNetworkStatus();
+
+        Attributes attributes = currentNetworkProvider.getCurrentNetworkAttributes();
+        assertEquals(1, currentNetworkProvider.getCurrentNetworkVersion());
+        assertEquals(
+                Attributes.of(
+                        SemanticAttributes.NETWORK_CONNECTION_TYPE, "cell",
+                        SemanticAttributes.NETWORK_CONNECTION_SUBTYPE, "LTE"),
+                attributes);
+        assertSame(attributes, currentNetworkProvider.getCurrentNetworkAttributes());
+    }
+
+    @Test
+    public void unchangedNetworkKeepsTheSnapshot() {
+        NetworkDetector networkDetector = Mockito.mock(NetworkDetector.class);
+        when(networkDetector.detectCurrentNetwork())
+                .thenReturn(CurrentNetwork.builder(NetworkState.TRANSPORT_WIFI).build())
+                .thenReturn(CurrentNetwork.builder(NetworkState.TRANSPORT_WIFI).build());
+
+        CurrentNetworkProvider currentNetworkProvider = createProvider(networkDetector);
+        currentNetworkProvider.refreshNetworkStatus();
+        CurrentNetwork network = currentNetworkProvider.getCurrentNetwork();
+        Attributes attributes = currentNetworkProvider.getCurrentNetworkAttributes();
+
+        currentNetworkProvider.refreshNetworkStatus();
+
+        assertEquals(1, currentNetworkProvider.getCurrentNetworkVersion());
+        assertSame(network, currentNetworkProvider.getCurrentNetwork());
+        assertSame(attributes, currentNetworkProvider.getCurrentNetworkAttributes());
+    }
+
+    @Test
+    @Config(maxSdk = Build.VERSION_CODES.S, minSdk = Build.VERSION_CODES.O)
+    public void callbackBurstIsCollapsedIntoOneDetection() {
+        NetworkDetector networkDetector = Mockito.mock(NetworkDetector.class);
+        ConnectivityManager connectivityManager = mock(ConnectivityManager.class);
+        ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+
+        when(networkDetector.detectCurrentNetwork())
+                .thenReturn(CurrentNetwork.builder(NetworkState.TRANSPORT_WIFI).build())
+                .thenReturn(
+                        CurrentNetwork.builder(NetworkState.TRANSPORT_CELLULAR)
+                                .subType("LTE")
+                                .build());
+
+        CurrentNetworkProvider currentNetworkProvider =
+                new CurrentNetworkProvider(networkDetector, executor, Duration.ofMillis(500));
+        currentNetworkProvider.startMonitoring(
+                () -> mock(NetworkRequest.class), connectivityManager);
+        // the initial detection runs on the calling thread, so that it's known right away
+        verify(executor, never()).execute(any());
+        verify(networkDetector).detectCurrentNetwork();
+        assertEquals(
+                CurrentNetwork.builder(NetworkState.TRANSPORT_WIFI).build(),
+                currentNetworkProvider.getCurrentNetwork());
+
+        ArgumentCaptor<NetworkCallback> monitorCaptor =
+                ArgumentCaptor.forClass(NetworkCallback.class);
+        verify(connectivityManager).registerDefaultNetworkCallback(monitorCaptor.capture());
+        AtomicInteger notified = new AtomicInteger(0);
+        currentNetworkProvider.addNetworkChangeListener(network -> notified.incrementAndGet());
+
+        monitorCaptor.getValue().onLost(mock(Network.class));
+        monitorCaptor.getValue().onAvailable(mock(Network.class));
+        monitorCaptor.getValue().onLost(mock(Network.class));
+        monitorCaptor.getValue().onAvailable(mock(Network.class));
+
+        ArgumentCaptor<Runnable> detectionCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor)
+                .schedule(detectionCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+        detectionCaptor.getValue().run();
+
+        verify(networkDetector, times(2)).detectCurrentNetwork();
+        assertEquals(1, notified.get());
+        assertEquals(
+                CurrentNetwork.builder(NetworkState.TRANSPORT_CELLULAR).subType("LTE").build(),
+                currentNetworkProvider.getCurrentNetwork());
+
+        // a callback arriving after the detection ran schedules another one, but listeners
+        // aren't notified when the network didn't change
+        monitorCaptor.getValue().onAvailable(mock(Network.class));
+        verify(executor, times(2))
+                .schedule(detectionCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+        detectionCaptor.getValue().run();
+        assertEquals(1, notified.get());
+    }
 }
@@ -30,11 +30,11 @@ class NetworkAttributesSpanAppenderTest {
 
     @Test
     void shouldAppendNetworkAttributes() {
-        when(currentNetworkProvider.getCurrentNetwork())
+        when(currentNetworkProvider.getCurrentNetworkAttributes())
                 .thenReturn(
-                        CurrentNetwork.builder(NetworkState.TRANSPORT_CELLULAR)
-                                .subType("LTE")
-                                .build());
+                        Attributes.of(
+                                SemanticAttributes.NETWORK_CONNECTION_TYPE, "cell",
+                                SemanticAttributes.NETWORK_CONNECTION_SUBTYPE, "LTE"));
 
         assertTrue(underTest.isStartRequired());
         underTest.onStart(Context.current(), span);
@@ -14,7 +14,10 @@ android {
 }
 
 dependencies {
+    implementation(project(":common"))
     compileOnly(libs.okhttp)
     api(libs.opentelemetry.instrumentation.okhttp)
     implementation(libs.opentelemetry.instrumentation.apiSemconv)
+
+    testImplementation(libs.okhttp)
 }
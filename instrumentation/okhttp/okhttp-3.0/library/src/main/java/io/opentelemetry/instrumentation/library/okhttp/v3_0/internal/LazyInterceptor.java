@@ -5,16 +5,25 @@
 
 package io.opentelemetry.instrumentation.library.okhttp.v3_0.internal;
 
+import io.opentelemetry.android.common.TelemetryExportTag;
 import java.io.IOException;
 import okhttp3.Interceptor;
+import okhttp3.Request;
 import okhttp3.Response;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * This class is internal and is hence not for public use. Its APIs are unstable and can change at
- * any time.
+ * Skips the requests tagged with a {@link TelemetryExportTag}. The typed tags that the SDK's
+ * exporters use need OkHttp 3.11 or newer: with older versions, only a {@link TelemetryExportTag}
+ * set as the request's untyped tag is recognized.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
  */
 public class LazyInterceptor<T extends Interceptor> implements Interceptor {
+    // Request.tag(Class) was added in OkHttp 3.11
+    private static volatile boolean typedTagsSupported = true;
+
     private final CachedSupplier<T> interceptorSupplier;
 
     public LazyInterceptor(CachedSupplier<T> interceptorSupplier) {
@@ -24,6 +33,24 @@ public class LazyInterceptor<T extends Interceptor> implements Interceptor {
     @NotNull
     @Override
     public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (isTelemetryExport(request)) {
+            // the SDK's own exports aren't traced
+            return chain.proceed(request);
+        }
         return interceptorSupplier.get().intercept(chain);
     }
+
+    private static boolean isTelemetryExport(Request request) {
+        if (typedTagsSupported) {
+            try {
+                if (request.tag(TelemetryExportTag.class) != null) {
+                    return true;
+                }
+            } catch (NoSuchMethodError e) {
+                typedTagsSupported = false;
+            }
+        }
+        return request.tag() instanceof TelemetryExportTag;
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.library.okhttp.v3_0.internal;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.opentelemetry.android.common.TelemetryExportTag;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import org.junit.jupiter.api.Test;
+
+class LazyInterceptorTest {
+
+    private final Interceptor delegate = mock(Interceptor.class);
+    private final LazyInterceptor<Interceptor> interceptor =
+            new LazyInterceptor<>(CachedSupplier.create(() -> delegate));
+    private final Interceptor.Chain chain = mock(Interceptor.Chain.class);
+
+    @Test
+    void interceptRequests() throws Exception {
+        Request request = new Request.Builder().url("http://localhost/products").build();
+        when(chain.request()).thenReturn(request);
+
+        interceptor.intercept(chain);
+
+        verify(delegate).intercept(chain);
+        verify(chain, never()).proceed(request);
+    }
+
+    @Test
+    void skipTelemetryExportRequests() throws Exception {
+        Request request =
+                new Request.Builder()
+                        .url("http://localhost/v1/traces")
+                        .tag(TelemetryExportTag.class, TelemetryExportTag.INSTANCE)
+                        .build();
+        when(chain.request()).thenReturn(request);
+
+        interceptor.intercept(chain);
+
+        verify(chain).proceed(request);
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void skipTelemetryExportRequestsWithAnUntypedTag() throws Exception {
+        // how the requests are tagged before OkHttp 3.11
+        Request request =
+                new Request.Builder()
+                        .url("http://localhost/v1/traces")
+                        .tag(TelemetryExportTag.INSTANCE)
+                        .build();
+        when(chain.request()).thenReturn(request);
+
+        interceptor.intercept(chain);
+
+        verify(chain).proceed(request);
+        verifyNoInteractions(delegate);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.instrumentation.slowrendering;
+
+import android.os.Build;
+import android.view.FrameMetrics;
+import androidx.annotation.RequiresApi;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the frames of an activity since the last {@link #reset()}, along with those that missed
+ * their deadline, the time by which they missed it, and the frozen ones. The duration of each phase
+ * of a frame is handed to a {@link PhaseRecorder} as it is recorded.
+ *
+ * <p>This class is not thread safe: it is meant to be recorded into, read and reset by a single
+ * thread (the {@code FrameMetricsCollector} thread). Recording a frame doesn't allocate.
+ */
+@RequiresApi(api = Build.VERSION_CODES.N)
+final class FrameStats {
+
+    static final int PHASE_INPUT = 0;
+    static final int PHASE_ANIMATION = 1;
+    static final int PHASE_LAYOUT = 2;
+    static final int PHASE_DRAW = 3;
+    static final int PHASE_SYNC = 4;
+    static final int PHASE_GPU = 5;
+    static final int PHASE_TOTAL = 6;
+    static final int PHASE_COUNT = 7;
+
+    static final String[] PHASE_NAMES = {
+        "input", "animation", "layout", "draw", "sync", "gpu", "total"
+    };
+
+    private static final long NANOS_PER_MS = TimeUnit.MILLISECONDS.toNanos(1);
+    // rounding value adds half a millisecond, for rounding to nearest ms
+    private static final long NANOS_ROUNDING_VALUE = NANOS_PER_MS / 2;
+
+    private long frames;
+    private long missedDeadlineFrames;
+    private long jankNanos;
+    private long frozenFrames;
+
+    /**
+     * Records a single frame, which had the given deadline (in nanoseconds) to be rendered, and
+     * hands the duration of each of its phases to the recorder.
+     */
+    void record(FrameMetrics frameMetrics, long deadlineNanos, PhaseRecorder recorder) {
+        recordPhase(
+                recorder,
+                PHASE_INPUT,
+                frameMetrics.getMetric(FrameMetrics.INPUT_HANDLING_DURATION));
+        recordPhase(
+                recorder,
+                PHASE_ANIMATION,
+                frameMetrics.getMetric(FrameMetrics.ANIMATION_DURATION));
+        recordPhase(
+                recorder,
+                PHASE_LAYOUT,
+                frameMetrics.getMetric(FrameMetrics.LAYOUT_MEASURE_DURATION));
+        recordPhase(recorder, PHASE_DRAW, frameMetrics.getMetric(FrameMetrics.DRAW_DURATION));
+        recordPhase(recorder, PHASE_SYNC, frameMetrics.getMetric(FrameMetrics.SYNC_DURATION));
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            recordPhase(recorder, PHASE_GPU, frameMetrics.getMetric(FrameMetrics.GPU_DURATION));
+        }
+        long totalNanos = frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION);
+        recordPhase(recorder, PHASE_TOTAL, totalNanos);
+        recordFrame(totalNanos, deadlineNanos);
+    }
+
+    private static void recordPhase(PhaseRecorder recorder, int phase, long durationNanos) {
+        // ignore values < 0; something must have gone wrong
+        if (durationNanos >= 0) {
+            recorder.record(phase, durationNanos);
+        }
+    }
+
+    // visible for tests
+    void recordFrame(long totalNanos, long deadlineNanos) {
+        if (totalNanos < 0) {
+            return;
+        }
+        frames++;
+        if (deadlineNanos > 0 && totalNanos > deadlineNanos) {
+            missedDeadlineFrames++;
+            jankNanos += totalNanos - deadlineNanos;
+        }
+        // calculation copied from FrameMetricsAggregator
+        long totalMs = (totalNanos + NANOS_ROUNDING_VALUE) / NANOS_PER_MS;
+        if (totalMs > SlowRenderListener.FROZEN_THRESHOLD_MS) {
+            frozenFrames++;
+        }
+    }
+
+    /** Returns the number of frames recorded since the last {@link #reset()}. */
+    long getFrameCount() {
+        return frames;
+    }
+
+    /** Returns the number of frames that took longer to render than their deadline. */
+    long getMissedDeadlineCount() {
+        return missedDeadlineFrames;
+    }
+
+    /** Returns the total time by which frames overran their deadline, in milliseconds. */
+    double getJankTimeMillis() {
+        return jankNanos / (double) NANOS_PER_MS;
+    }
+
+    long getFrozenFrameCount() {
+        return frozenFrames;
+    }
+
+    /**
+     * Returns the ratio of frames that missed their deadline to all frames, or 0 if there were no
+     * frames.
+     */
+    double getJankRatio() {
+        return frames == 0 ? 0 : (double) missedDeadlineFrames / frames;
+    }
+
+    /** Clears all the recorded values. */
+    void reset() {
+        frames = 0;
+        missedDeadlineFrames = 0;
+        jankNanos = 0;
+        frozenFrames = 0;
+    }
+
+    interface PhaseRecorder {
+        void record(int phase, long durationNanos);
+    }
+}
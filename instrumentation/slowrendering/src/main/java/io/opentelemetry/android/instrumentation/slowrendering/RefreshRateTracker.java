@@ -0,0 +1,76 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.instrumentation.slowrendering;
+
+import android.hardware.display.DisplayManager;
+import android.os.Handler;
+import android.util.SparseLongArray;
+import android.view.Display;
+import androidx.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of the frame interval (the inverse of the refresh rate) of each display, and of its
+ * changes when the display switches modes.
+ *
+ * <p>This class is not thread safe: it is meant to be used on the thread of the {@link Handler} it
+ * is {@linkplain #start(Handler) started} with, which is also the thread display changes are
+ * delivered on.
+ */
+class RefreshRateTracker implements DisplayManager.DisplayListener {
+
+    static final float DEFAULT_REFRESH_RATE = 60f;
+    static final long DEFAULT_FRAME_INTERVAL_NANOS = frameIntervalNanos(DEFAULT_REFRESH_RATE);
+
+    @Nullable private final DisplayManager displayManager;
+    private final SparseLongArray frameIntervals = new SparseLongArray();
+
+    RefreshRateTracker(@Nullable DisplayManager displayManager) {
+        this.displayManager = displayManager;
+    }
+
+    void start(Handler handler) {
+        if (displayManager != null) {
+            displayManager.registerDisplayListener(this, handler);
+        }
+    }
+
+    /** Returns the time available to render one frame on the given display, in nanoseconds. */
+    long getFrameIntervalNanos(int displayId) {
+        long frameInterval = frameIntervals.get(displayId);
+        if (frameInterval == 0) {
+            frameInterval = findFrameIntervalNanos(displayId);
+            frameIntervals.put(displayId, frameInterval);
+        }
+        return frameInterval;
+    }
+
+    private long findFrameIntervalNanos(int displayId) {
+        Display display = displayManager == null ? null : displayManager.getDisplay(displayId);
+        if (display == null || display.getRefreshRate() <= 0) {
+            return DEFAULT_FRAME_INTERVAL_NANOS;
+        }
+        return frameIntervalNanos(display.getRefreshRate());
+    }
+
+    private static long frameIntervalNanos(float refreshRate) {
+        return (long) (TimeUnit.SECONDS.toNanos(1) / refreshRate);
+    }
+
+    @Override
+    public void onDisplayAdded(int displayId) {}
+
+    @Override
+    public void onDisplayRemoved(int displayId) {
+        frameIntervals.delete(displayId);
+    }
+
+    @Override
+    public void onDisplayChanged(int displayId) {
+        // the refresh rate may have changed with the display mode; look it up again on next frame
+        frameIntervals.delete(displayId);
+    }
+}
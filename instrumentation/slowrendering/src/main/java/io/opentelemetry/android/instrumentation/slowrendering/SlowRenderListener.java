@@ -5,8 +5,8 @@
 
 package io.opentelemetry.android.instrumentation.slowrendering;
 
-import static android.view.FrameMetrics.DRAW_DURATION;
 import static android.view.FrameMetrics.FIRST_DRAW_FRAME;
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
 
 import android.app.Activity;
 import android.os.Build;
@@ -14,63 +14,128 @@ import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
 import android.util.Log;
-import android.util.SparseIntArray;
+import android.view.Display;
 import android.view.FrameMetrics;
 import android.view.Window;
-import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import io.opentelemetry.android.common.RumConstants;
 import io.opentelemetry.android.instrumentation.common.DefaultingActivityLifecycleCallbacks;
-import io.opentelemetry.api.trace.Span;
-import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleCounter;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Collects frame metrics of the resumed activities. The duration of each frame phase is recorded
+ * as the frame comes in, to an explicit-bucket histogram that can be aggregated across intervals
+ * and devices. The frames are also counted in {@link FrameStats} per activity, from which the jank
+ * ratio, the missed deadlines and the frozen frames are periodically reported.
+ *
+ * <p>Each frame is compared against its own deadline: the {@link FrameMetrics#DEADLINE} metric on
+ * Android S and above, or the frame interval of the display the activity is shown on (which is
+ * tracked across display mode changes) on older versions.
+ *
+ * <p>All the frame stats are recorded, read and reset on the {@code FrameMetricsCollector} thread
+ * only, so recording a frame takes no lock.
+ */
 @RequiresApi(api = Build.VERSION_CODES.N)
 class SlowRenderListener implements DefaultingActivityLifecycleCallbacks {
 
-    static final int SLOW_THRESHOLD_MS = 16;
     static final int FROZEN_THRESHOLD_MS = 700;
 
-    private static final int NANOS_PER_MS = (int) TimeUnit.MILLISECONDS.toNanos(1);
-    // rounding value adds half a millisecond, for rounding to nearest ms
-    private static final int NANOS_ROUNDING_VALUE = NANOS_PER_MS / 2;
+    static final AttributeKey<String> ACTIVITY_NAME_KEY = stringKey("activity.name");
+    static final AttributeKey<String> FRAME_PHASE_KEY = stringKey("frame.phase");
+
+    // in milliseconds, finer around the frame deadlines of 60 to 120Hz displays
+    static final List<Double> FRAME_DURATION_BUCKETS =
+            Collections.unmodifiableList(
+                    Arrays.asList(
+                            1.024, 2.048, 4.096, 6.144, 8.192, 12.288, 16.384, 20.48, 24.576,
+                            32.768, 49.152, 65.536, 98.304, 131.072, 262.144, 524.288, 720.896));
+    static final List<Double> JANK_RATIO_BUCKETS =
+            Collections.unmodifiableList(Arrays.asList(0.01, 0.05, 0.1, 0.25, 0.5, 1.0));
 
     private static final HandlerThread frameMetricsThread =
             new HandlerThread("FrameMetricsCollector");
 
-    private final Tracer tracer;
     private final ScheduledExecutorService executorService;
     private final Handler frameMetricsHandler;
+    private final RefreshRateTracker refreshRateTracker;
     private final Duration pollInterval;
+    private final DoubleHistogram frameDuration;
+    private final DoubleHistogram jankRatio;
+    private final LongCounter missedDeadlineFrames;
+    private final DoubleCounter jankTime;
+    private final LongCounter frozenFrames;
 
     private final ConcurrentMap<Activity, PerActivityListener> activities =
             new ConcurrentHashMap<>();
 
-    SlowRenderListener(Tracer tracer, Duration pollInterval) {
+    SlowRenderListener(
+            Meter meter,
+            ScheduledExecutorService executorService,
+            RefreshRateTracker refreshRateTracker,
+            Duration pollInterval) {
         this(
-                tracer,
-                Executors.newScheduledThreadPool(1),
+                meter,
+                executorService,
                 new Handler(startFrameMetricsLoop()),
+                refreshRateTracker,
                 pollInterval);
     }
 
     // Exists for testing
     SlowRenderListener(
-            Tracer tracer,
+            Meter meter,
             ScheduledExecutorService executorService,
             Handler frameMetricsHandler,
+            RefreshRateTracker refreshRateTracker,
             Duration pollInterval) {
-        this.tracer = tracer;
         this.executorService = executorService;
         this.frameMetricsHandler = frameMetricsHandler;
+        this.refreshRateTracker = refreshRateTracker;
         this.pollInterval = pollInterval;
+        this.frameDuration =
+                meter.histogramBuilder("app.frame.duration")
+                        .setDescription("Durations of the frame phases")
+                        .setUnit("ms")
+                        .setExplicitBucketBoundariesAdvice(FRAME_DURATION_BUCKETS)
+                        .build();
+        this.jankRatio =
+                meter.histogramBuilder("app.frame.jank_ratio")
+                        .setDescription(
+                                "Ratio of frames that missed their deadline, per poll interval")
+                        .setUnit("1")
+                        .setExplicitBucketBoundariesAdvice(JANK_RATIO_BUCKETS)
+                        .build();
+        this.missedDeadlineFrames =
+                meter.counterBuilder("app.frame.missed_deadline")
+                        .setDescription("Number of frames that took longer than their deadline")
+                        .setUnit("{frame}")
+                        .build();
+        this.jankTime =
+                meter.counterBuilder("app.frame.jank_time")
+                        .ofDoubles()
+                        .setDescription("Total time by which frames overran their deadline")
+                        .setUnit("ms")
+                        .build();
+        this.frozenFrames =
+                meter.counterBuilder("app.frame.frozen")
+                        .setDescription("Number of frames slower than 700ms")
+                        .setUnit("{frame}")
+                        .build();
     }
 
     private static Looper startFrameMetricsLoop() {
@@ -85,6 +150,9 @@ class SlowRenderListener implements DefaultingActivityLifecycleCallbacks {
     // the returned future is very unlikely to fail
     @SuppressWarnings("FutureReturnValueIgnored")
     void start() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S) {
+            refreshRateTracker.start(frameMetricsHandler);
+        }
         executorService.scheduleAtFixedRate(
                 this::reportSlowRenders,
                 pollInterval.toMillis(),
@@ -94,7 +162,9 @@ class SlowRenderListener implements DefaultingActivityLifecycleCallbacks {
 
     @Override
     public void onActivityResumed(@NonNull Activity activity) {
-        PerActivityListener listener = new PerActivityListener(activity);
+        PerActivityListener listener =
+                new PerActivityListener(
+                        activity, getDisplayId(activity), refreshRateTracker, frameDuration);
         PerActivityListener existing = activities.putIfAbsent(activity, listener);
         if (existing == null) {
             activity.getWindow().addOnFrameMetricsAvailableListener(listener, frameMetricsHandler);
@@ -106,20 +176,43 @@ class SlowRenderListener implements DefaultingActivityLifecycleCallbacks {
         PerActivityListener listener = activities.remove(activity);
         if (listener != null) {
             activity.getWindow().removeOnFrameMetricsAvailableListener(listener);
-            reportSlow(listener);
+            // frames already queued on the handler are recorded before this runs
+            frameMetricsHandler.post(() -> report(listener));
         }
     }
 
-    static class PerActivityListener implements Window.OnFrameMetricsAvailableListener {
+    // WindowManager.getDefaultDisplay() is deprecated, but Activity.getDisplay() needs R
+    @SuppressWarnings("deprecation")
+    private static int getDisplayId(Activity activity) {
+        Display display =
+                Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                        ? activity.getDisplay()
+                        : activity.getWindowManager().getDefaultDisplay();
+        return display == null ? Display.DEFAULT_DISPLAY : display.getDisplayId();
+    }
 
-        private final Activity activity;
-        private final Object lock = new Object();
+    static class PerActivityListener
+            implements Window.OnFrameMetricsAvailableListener, FrameStats.PhaseRecorder {
 
-        @GuardedBy("lock")
-        private SparseIntArray drawDurationHistogram = new SparseIntArray();
+        private static final double NANOS_PER_MS = TimeUnit.MILLISECONDS.toNanos(1);
 
-        PerActivityListener(Activity activity) {
+        private final Activity activity;
+        private final int displayId;
+        private final RefreshRateTracker refreshRateTracker;
+        private final DoubleHistogram frameDuration;
+        // only ever accessed on the FrameMetricsCollector thread
+        private final FrameStats stats = new FrameStats();
+        @Nullable private ReportAttributes reportAttributes;
+
+        PerActivityListener(
+                Activity activity,
+                int displayId,
+                RefreshRateTracker refreshRateTracker,
+                DoubleHistogram frameDuration) {
             this.activity = activity;
+            this.displayId = displayId;
+            this.refreshRateTracker = refreshRateTracker;
+            this.frameDuration = frameDuration;
         }
 
         @Override
@@ -130,26 +223,27 @@ class SlowRenderListener implements DefaultingActivityLifecycleCallbacks {
             if (firstDrawFrame == 1) {
                 return;
             }
+            long deadlineNanos =
+                    Build.VERSION.SDK_INT >= Build.VERSION_CODES.S
+                            ? frameMetrics.getMetric(FrameMetrics.DEADLINE)
+                            : refreshRateTracker.getFrameIntervalNanos(displayId);
+            stats.record(frameMetrics, deadlineNanos, this);
+        }
 
-            long drawDurationsNs = frameMetrics.getMetric(DRAW_DURATION);
-            // ignore values < 0; something must have gone wrong
-            if (drawDurationsNs >= 0) {
-                synchronized (lock) {
-                    // calculation copied from FrameMetricsAggregator
-                    int durationMs =
-                            (int) ((drawDurationsNs + NANOS_ROUNDING_VALUE) / NANOS_PER_MS);
-                    int oldValue = drawDurationHistogram.get(durationMs);
-                    drawDurationHistogram.put(durationMs, (oldValue + 1));
-                }
-            }
+        @Override
+        public void record(int phase, long durationNanos) {
+            frameDuration.record(durationNanos / NANOS_PER_MS, getReportAttributes().phases[phase]);
+        }
+
+        FrameStats getStats() {
+            return stats;
         }
 
-        SparseIntArray resetMetrics() {
-            synchronized (lock) {
-                SparseIntArray metrics = drawDurationHistogram;
-                drawDurationHistogram = new SparseIntArray();
-                return metrics;
+        ReportAttributes getReportAttributes() {
+            if (reportAttributes == null) {
+                reportAttributes = new ReportAttributes(getActivityName());
             }
+            return reportAttributes;
         }
 
         public String getActivityName() {
@@ -157,50 +251,65 @@ class SlowRenderListener implements DefaultingActivityLifecycleCallbacks {
         }
     }
 
+    /** The attributes of all the metrics reported for an activity, built once per activity. */
+    static final class ReportAttributes {
+
+        final Attributes activity;
+        final Attributes[] phases = new Attributes[FrameStats.PHASE_COUNT];
+
+        ReportAttributes(String activityName) {
+            activity = Attributes.of(ACTIVITY_NAME_KEY, activityName);
+            for (int phase = 0; phase < FrameStats.PHASE_COUNT; phase++) {
+                phases[phase] =
+                        activity.toBuilder()
+                                .put(FRAME_PHASE_KEY, FrameStats.PHASE_NAMES[phase])
+                                .build();
+            }
+        }
+    }
+
     private void reportSlowRenders() {
         try {
-            activities.forEach((activity, listener) -> reportSlow(listener));
+            activities.forEach(
+                    (activity, listener) -> frameMetricsHandler.post(() -> report(listener)));
         } catch (Exception e) {
             Log.w(RumConstants.OTEL_RUM_LOG_TAG, "Exception while processing frame metrics", e);
         }
     }
 
-    private void reportSlow(PerActivityListener listener) {
-        int slowCount = 0;
-        int frozenCount = 0;
-        SparseIntArray durationToCountHistogram = listener.resetMetrics();
-        for (int i = 0; i < durationToCountHistogram.size(); i++) {
-            int duration = durationToCountHistogram.keyAt(i);
-            int count = durationToCountHistogram.get(duration);
-            if (duration > FROZEN_THRESHOLD_MS) {
-                Log.d(
-                        RumConstants.OTEL_RUM_LOG_TAG,
-                        "* FROZEN RENDER DETECTED: " + duration + " ms." + count + " times");
-                frozenCount += count;
-            } else if (duration > SLOW_THRESHOLD_MS) {
-                Log.d(
-                        RumConstants.OTEL_RUM_LOG_TAG,
-                        "* Slow render detected: " + duration + " ms. " + count + " times");
-                slowCount += count;
-            }
+    // runs on the FrameMetricsCollector thread
+    private void report(PerActivityListener listener) {
+        try {
+            reportMetrics(listener);
+        } catch (Exception e) {
+            Log.w(RumConstants.OTEL_RUM_LOG_TAG, "Exception while processing frame metrics", e);
+        } finally {
+            listener.getStats().reset();
         }
+    }
 
-        Instant now = Instant.now();
-        if (slowCount > 0) {
-            makeSpan("slowRenders", listener.getActivityName(), slowCount, now);
+    private void reportMetrics(PerActivityListener listener) {
+        FrameStats stats = listener.getStats();
+        if (stats.getFrameCount() == 0) {
+            return;
+        }
+        ReportAttributes attributes = listener.getReportAttributes();
+        jankRatio.record(stats.getJankRatio(), attributes.activity);
+
+        long missedDeadlineCount = stats.getMissedDeadlineCount();
+        long frozenCount = stats.getFrozenFrameCount();
+        if (missedDeadlineCount > 0) {
+            Log.d(
+                    RumConstants.OTEL_RUM_LOG_TAG,
+                    "* Slow renders detected: " + missedDeadlineCount + " times");
+            missedDeadlineFrames.add(missedDeadlineCount, attributes.activity);
+            jankTime.add(stats.getJankTimeMillis(), attributes.activity);
         }
         if (frozenCount > 0) {
-            makeSpan("frozenRenders", listener.getActivityName(), frozenCount, now);
+            Log.d(
+                    RumConstants.OTEL_RUM_LOG_TAG,
+                    "* FROZEN RENDERS DETECTED: " + frozenCount + " times");
+            frozenFrames.add(frozenCount, attributes.activity);
         }
     }
-
-    private void makeSpan(String spanName, String activityName, int slowCount, Instant now) {
-        Span span =
-                tracer.spanBuilder(spanName)
-                        .setAttribute("count", slowCount)
-                        .setAttribute("activity.name", activityName)
-                        .setStartTimestamp(now)
-                        .startSpan();
-        span.end(now);
-    }
 }
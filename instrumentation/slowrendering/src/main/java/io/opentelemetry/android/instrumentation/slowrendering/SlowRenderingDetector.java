@@ -5,11 +5,17 @@
 
 package io.opentelemetry.android.instrumentation.slowrendering;
 
+import android.app.Application;
+import android.content.Context;
+import android.hardware.display.DisplayManager;
 import android.os.Build;
 import android.util.Log;
+import androidx.annotation.Nullable;
 import io.opentelemetry.android.common.RumConstants;
 import io.opentelemetry.android.instrumentation.common.InstrumentedApplication;
 import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Entrypoint for installing the slow rendering detection instrumentation.
@@ -28,9 +34,11 @@ public final class SlowRenderingDetector {
     }
 
     private final Duration slowRenderingDetectionPollInterval;
+    @Nullable private final ScheduledExecutorService scheduler;
 
     SlowRenderingDetector(SlowRenderingDetectorBuilder builder) {
         this.slowRenderingDetectionPollInterval = builder.slowRenderingDetectionPollInterval;
+        this.scheduler = builder.scheduler;
     }
 
     /**
@@ -45,14 +53,19 @@ public final class SlowRenderingDetector {
             return;
         }
 
+        Application application = instrumentedApplication.getApplication();
         SlowRenderListener detector =
                 new SlowRenderListener(
                         instrumentedApplication
                                 .getOpenTelemetrySdk()
-                                .getTracer("io.opentelemetry.slow-rendering"),
+                                .getMeter("io.opentelemetry.slow-rendering"),
+                        scheduler == null ? Executors.newScheduledThreadPool(1) : scheduler,
+                        new RefreshRateTracker(
+                                (DisplayManager)
+                                        application.getSystemService(Context.DISPLAY_SERVICE)),
                         slowRenderingDetectionPollInterval);
 
-        instrumentedApplication.getApplication().registerActivityLifecycleCallbacks(detector);
+        application.registerActivityLifecycleCallbacks(detector);
         detector.start();
     }
 }
@@ -6,8 +6,10 @@
 package io.opentelemetry.android.instrumentation.slowrendering;
 
 import android.util.Log;
+import androidx.annotation.Nullable;
 import io.opentelemetry.android.common.RumConstants;
 import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * A builder of {@link SlowRenderingDetector}.
@@ -20,6 +22,7 @@ public final class SlowRenderingDetectorBuilder {
     SlowRenderingDetectorBuilder() {}
 
     Duration slowRenderingDetectionPollInterval = Duration.ofSeconds(1);
+    @Nullable ScheduledExecutorService scheduler;
 
     /**
      * Configures the rate at which frame render durations are polled.
@@ -40,6 +43,17 @@ public final class SlowRenderingDetectorBuilder {
         return this;
     }
 
+    /**
+     * Sets the {@link ScheduledExecutorService} that polls the frame render durations. By default,
+     * a dedicated single thread executor is used.
+     *
+     * @return {@code this}
+     */
+    public SlowRenderingDetectorBuilder setScheduler(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
     public SlowRenderingDetector build() {
         return new SlowRenderingDetector(this);
     }
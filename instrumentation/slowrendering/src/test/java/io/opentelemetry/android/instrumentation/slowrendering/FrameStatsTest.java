@@ -0,0 +1,50 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.instrumentation.slowrendering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class FrameStatsTest {
+
+    @Test
+    void framesAreComparedAgainstTheirDeadline() {
+        FrameStats stats = new FrameStats();
+        long deadline = TimeUnit.MILLISECONDS.toNanos(8);
+        stats.recordFrame(TimeUnit.MILLISECONDS.toNanos(7), deadline);
+        stats.recordFrame(TimeUnit.MILLISECONDS.toNanos(10), deadline);
+        stats.recordFrame(TimeUnit.MILLISECONDS.toNanos(20), deadline);
+        stats.recordFrame(TimeUnit.MILLISECONDS.toNanos(701), deadline);
+
+        assertThat(stats.getFrameCount()).isEqualTo(4);
+        assertThat(stats.getMissedDeadlineCount()).isEqualTo(3);
+        assertThat(stats.getJankTimeMillis()).isEqualTo(2 + 12 + 693);
+        assertThat(stats.getJankRatio()).isEqualTo(0.75);
+        assertThat(stats.getFrozenFrameCount()).isEqualTo(1);
+    }
+
+    @Test
+    void negativeDurationsAreIgnored() {
+        FrameStats stats = new FrameStats();
+        stats.recordFrame(-1, TimeUnit.MILLISECONDS.toNanos(8));
+
+        assertThat(stats.getFrameCount()).isZero();
+    }
+
+    @Test
+    void reset() {
+        FrameStats stats = new FrameStats();
+        stats.recordFrame(TimeUnit.MILLISECONDS.toNanos(20), TimeUnit.MILLISECONDS.toNanos(8));
+        stats.reset();
+
+        assertThat(stats.getFrameCount()).isZero();
+        assertThat(stats.getMissedDeadlineCount()).isZero();
+        assertThat(stats.getJankTimeMillis()).isZero();
+        assertThat(stats.getJankRatio()).isZero();
+    }
+}
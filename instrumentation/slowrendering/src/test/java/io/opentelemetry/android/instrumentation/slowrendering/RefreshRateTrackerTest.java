@@ -0,0 +1,50 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.android.instrumentation.slowrendering;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.hardware.display.DisplayManager;
+import android.os.Handler;
+import android.view.Display;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class RefreshRateTrackerTest {
+
+    @Test
+    public void tracksDisplayModeChanges() {
+        DisplayManager displayManager = mock(DisplayManager.class);
+        Display display = mock(Display.class);
+        when(displayManager.getDisplay(1)).thenReturn(display);
+        when(display.getRefreshRate()).thenReturn(120f, 90f);
+        Handler handler = mock(Handler.class);
+
+        RefreshRateTracker tracker = new RefreshRateTracker(displayManager);
+        tracker.start(handler);
+        verify(displayManager).registerDisplayListener(tracker, handler);
+
+        assertEquals(8_333_333, tracker.getFrameIntervalNanos(1));
+        // cached until the display changes
+        assertEquals(8_333_333, tracker.getFrameIntervalNanos(1));
+
+        tracker.onDisplayChanged(1);
+        assertEquals(11_111_111, tracker.getFrameIntervalNanos(1));
+    }
+
+    @Test
+    public void unknownDisplay() {
+        RefreshRateTracker tracker = new RefreshRateTracker(mock(DisplayManager.class));
+
+        assertEquals(
+                RefreshRateTracker.DEFAULT_FRAME_INTERVAL_NANOS, tracker.getFrameIntervalNanos(2));
+    }
+}
@@ -7,6 +7,9 @@ package io.opentelemetry.android.instrumentation.slowrendering;
 
 import static android.view.FrameMetrics.DRAW_DURATION;
 import static android.view.FrameMetrics.FIRST_DRAW_FRAME;
+import static android.view.FrameMetrics.TOTAL_DURATION;
+import static io.opentelemetry.android.instrumentation.slowrendering.SlowRenderListener.ACTIVITY_NAME_KEY;
+import static io.opentelemetry.android.instrumentation.slowrendering.SlowRenderListener.FRAME_PHASE_KEY;
 import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -24,11 +27,14 @@ import android.content.ComponentName;
 import android.os.Build;
 import android.os.Handler;
 import android.view.FrameMetrics;
-import io.opentelemetry.api.common.AttributeKey;
-import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.sdk.metrics.data.HistogramPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
 import io.opentelemetry.sdk.testing.junit4.OpenTelemetryRule;
-import io.opentelemetry.sdk.trace.data.SpanData;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -51,7 +57,13 @@ import org.robolectric.annotation.Config;
 @Config(sdk = Build.VERSION_CODES.N)
 public class SlowRenderListenerTest {
 
-    private static final AttributeKey<Long> COUNT_KEY = AttributeKey.longKey("count");
+    private static final Attributes ACTIVITY_ATTRIBUTES =
+            Attributes.of(ACTIVITY_NAME_KEY, "io.otel/Komponent");
+
+    private static final double[] FRAME_DURATION_BOUNDARIES =
+            SlowRenderListener.FRAME_DURATION_BUCKETS.stream()
+                    .mapToDouble(Double::doubleValue)
+                    .toArray();
 
     @Rule public OpenTelemetryRule otelTesting = OpenTelemetryRule.create();
     @Rule public MockitoRule mocks = MockitoJUnit.rule();
@@ -63,21 +75,32 @@ public class SlowRenderListenerTest {
     Activity activity;
 
     @Mock FrameMetrics frameMetrics;
-    Tracer tracer;
+    Meter meter;
+    // no display manager: all displays are assumed to refresh at 60Hz
+    RefreshRateTracker refreshRateTracker = new RefreshRateTracker(null);
 
     @Captor ArgumentCaptor<SlowRenderListener.PerActivityListener> activityListenerCaptor;
 
     @Before
     public void setup() {
-        tracer = otelTesting.getOpenTelemetry().getTracer("testTracer");
+        meter = otelTesting.getOpenTelemetry().getMeter("testMeter");
         ComponentName componentName = new ComponentName("io.otel", "Komponent");
         when(activity.getComponentName()).thenReturn(componentName);
+        doAnswer(
+                        invocation -> {
+                            Runnable runnable = invocation.getArgument(0);
+                            runnable.run(); // just call it immediately
+                            return true;
+                        })
+                .when(frameMetricsHandler)
+                .post(any());
     }
 
     @Test
     public void add() {
         SlowRenderListener testInstance =
-                new SlowRenderListener(tracer, null, frameMetricsHandler, Duration.ZERO);
+                new SlowRenderListener(
+                        meter, null, frameMetricsHandler, refreshRateTracker, Duration.ZERO);
 
         testInstance.onActivityResumed(activity);
 
@@ -90,18 +113,20 @@ public class SlowRenderListenerTest {
     @Test
     public void removeBeforeAddOk() {
         SlowRenderListener testInstance =
-                new SlowRenderListener(tracer, null, frameMetricsHandler, Duration.ZERO);
+                new SlowRenderListener(
+                        meter, null, frameMetricsHandler, refreshRateTracker, Duration.ZERO);
 
         testInstance.onActivityPaused(activity);
 
         verifyNoInteractions(activity);
-        assertThat(otelTesting.getSpans()).hasSize(0);
+        assertThat(otelTesting.getMetrics()).isEmpty();
     }
 
     @Test
     public void addAndRemove() {
         SlowRenderListener testInstance =
-                new SlowRenderListener(tracer, null, frameMetricsHandler, Duration.ZERO);
+                new SlowRenderListener(
+                        meter, null, frameMetricsHandler, refreshRateTracker, Duration.ZERO);
 
         testInstance.onActivityResumed(activity);
         testInstance.onActivityPaused(activity);
@@ -112,13 +137,14 @@ public class SlowRenderListenerTest {
         verify(activity.getWindow())
                 .removeOnFrameMetricsAvailableListener(activityListenerCaptor.getValue());
 
-        assertThat(otelTesting.getSpans()).hasSize(0);
+        assertThat(otelTesting.getMetrics()).isEmpty();
     }
 
     @Test
     public void removeWithMetrics() {
         SlowRenderListener testInstance =
-                new SlowRenderListener(tracer, null, frameMetricsHandler, Duration.ZERO);
+                new SlowRenderListener(
+                        meter, null, frameMetricsHandler, refreshRateTracker, Duration.ZERO);
 
         testInstance.onActivityResumed(activity);
 
@@ -126,14 +152,12 @@ public class SlowRenderListenerTest {
                 .addOnFrameMetricsAvailableListener(activityListenerCaptor.capture(), any());
         SlowRenderListener.PerActivityListener listener = activityListenerCaptor.getValue();
         for (long duration : makeSomeDurations()) {
-            when(frameMetrics.getMetric(DRAW_DURATION)).thenReturn(duration);
-            listener.onFrameMetricsAvailable(null, frameMetrics, 0);
+            recordFrame(listener, duration);
         }
 
         testInstance.onActivityPaused(activity);
 
-        List<SpanData> spans = otelTesting.getSpans();
-        assertSpanContent(spans);
+        assertMetricsContent(otelTesting.getMetrics());
     }
 
     @Test
@@ -150,7 +174,12 @@ public class SlowRenderListenerTest {
                 .scheduleAtFixedRate(any(), eq(1001L), eq(1001L), eq(TimeUnit.MILLISECONDS));
 
         SlowRenderListener testInstance =
-                new SlowRenderListener(tracer, exec, frameMetricsHandler, Duration.ofMillis(1001));
+                new SlowRenderListener(
+                        meter,
+                        exec,
+                        frameMetricsHandler,
+                        refreshRateTracker,
+                        Duration.ofMillis(1001));
 
         testInstance.onActivityResumed(activity);
 
@@ -158,45 +187,112 @@ public class SlowRenderListenerTest {
                 .addOnFrameMetricsAvailableListener(activityListenerCaptor.capture(), any());
         SlowRenderListener.PerActivityListener listener = activityListenerCaptor.getValue();
         for (long duration : makeSomeDurations()) {
-            when(frameMetrics.getMetric(DRAW_DURATION)).thenReturn(duration);
-            listener.onFrameMetricsAvailable(null, frameMetrics, 0);
+            recordFrame(listener, duration);
         }
 
         testInstance.start();
 
-        List<SpanData> spans = otelTesting.getSpans();
-        assertSpanContent(spans);
+        assertMetricsContent(otelTesting.getMetrics());
     }
 
     @Test
     public void activityListenerSkipsFirstFrame() {
         SlowRenderListener.PerActivityListener listener =
-                new SlowRenderListener.PerActivityListener(null);
+                new SlowRenderListener.PerActivityListener(
+                        null, 0, refreshRateTracker, mock(DoubleHistogram.class));
         when(frameMetrics.getMetric(FIRST_DRAW_FRAME)).thenReturn(1L);
         listener.onFrameMetricsAvailable(null, frameMetrics, 99);
         verify(frameMetrics, never()).getMetric(DRAW_DURATION);
     }
 
-    private static void assertSpanContent(List<SpanData> spans) {
-        assertThat(spans)
-                .hasSize(2)
-                .satisfiesExactly(
-                        span ->
-                                assertThat(span)
-                                        .hasName("slowRenders")
-                                        .endsAt(span.getStartEpochNanos())
-                                        .hasAttribute(COUNT_KEY, 3L)
-                                        .hasAttribute(
-                                                AttributeKey.stringKey("activity.name"),
-                                                "io.otel/Komponent"),
-                        span ->
-                                assertThat(span)
-                                        .hasName("frozenRenders")
-                                        .endsAt(span.getStartEpochNanos())
-                                        .hasAttribute(COUNT_KEY, 1L)
-                                        .hasAttribute(
-                                                AttributeKey.stringKey("activity.name"),
-                                                "io.otel/Komponent"));
+    @Test
+    public void statsAreResetAfterReporting() {
+        SlowRenderListener testInstance =
+                new SlowRenderListener(
+                        meter, null, frameMetricsHandler, refreshRateTracker, Duration.ZERO);
+        testInstance.onActivityResumed(activity);
+        verify(activity.getWindow())
+                .addOnFrameMetricsAvailableListener(activityListenerCaptor.capture(), any());
+        recordFrame(activityListenerCaptor.getValue(), TimeUnit.MILLISECONDS.toNanos(701));
+        testInstance.onActivityPaused(activity);
+
+        FrameStats stats = activityListenerCaptor.getValue().getStats();
+        assertEquals(0, stats.getFrameCount());
+        assertEquals(0, stats.getFrozenFrameCount());
+    }
+
+    private void recordFrame(SlowRenderListener.PerActivityListener listener, long duration) {
+        when(frameMetrics.getMetric(DRAW_DURATION)).thenReturn(duration);
+        when(frameMetrics.getMetric(TOTAL_DURATION)).thenReturn(duration);
+        listener.onFrameMetricsAvailable(null, frameMetrics, 0);
+    }
+
+    private static void assertMetricsContent(Collection<MetricData> metrics) {
+        assertThat(findMetric(metrics, "app.frame.missed_deadline"))
+                .hasLongSumSatisfying(
+                        sum ->
+                                sum.hasPointsSatisfying(
+                                        point ->
+                                                point.hasValue(4)
+                                                        .hasAttributes(ACTIVITY_ATTRIBUTES)));
+        assertThat(findMetric(metrics, "app.frame.frozen"))
+                .hasLongSumSatisfying(
+                        sum ->
+                                sum.hasPointsSatisfying(
+                                        point ->
+                                                point.hasValue(1)
+                                                        .hasAttributes(ACTIVITY_ATTRIBUTES)));
+        // 101 + 701 + 17 + 17 - 4 * 16.67 (the 60Hz frame interval)
+        assertThat(findMetric(metrics, "app.frame.jank_time"))
+                .hasDoubleSumSatisfying(
+                        sum ->
+                                sum.hasPointsSatisfying(
+                                        point ->
+                                                point.hasValue(769.333332)
+                                                        .hasAttributes(ACTIVITY_ATTRIBUTES)));
+        assertThat(findMetric(metrics, "app.frame.jank_ratio"))
+                .hasHistogramSatisfying(
+                        histogram ->
+                                histogram.hasPointsSatisfying(
+                                        point ->
+                                                point.hasSum(0.5)
+                                                        .hasCount(1)
+                                                        .hasBucketBoundaries(
+                                                                0.01, 0.05, 0.1, 0.25, 0.5, 1.0)
+                                                        .hasBucketCounts(0, 0, 0, 0, 1, 0, 0)
+                                                        .hasAttributes(ACTIVITY_ATTRIBUTES)));
+
+        MetricData frameDuration = findMetric(metrics, "app.frame.duration");
+        // a point for every phase but the GPU one, which isn't available before Android S
+        Collection<HistogramPointData> points = frameDuration.getHistogramData().getPoints();
+        assertThat(points).hasSize(6);
+        // the durations that aren't mocked are all 0
+        assertPhase(points, "input", 0, 8, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        // the actual durations: 5 + 11 + 101 + 701 + 17 + 17 + 16 + 11
+        assertPhase(points, "draw", 879, 0, 0, 0, 1, 0, 2, 1, 2, 0, 0, 0, 0, 0, 1, 0, 0, 1, 0);
+        assertPhase(points, "total", 879, 0, 0, 0, 1, 0, 2, 1, 2, 0, 0, 0, 0, 0, 1, 0, 0, 1, 0);
+    }
+
+    private static MetricData findMetric(Collection<MetricData> metrics, String name) {
+        return metrics.stream()
+                .filter(metric -> metric.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("missing metric " + name));
+    }
+
+    private static void assertPhase(
+            Collection<HistogramPointData> points, String phase, double sum, long... counts) {
+        Attributes attributes = ACTIVITY_ATTRIBUTES.toBuilder().put(FRAME_PHASE_KEY, phase).build();
+        assertThat(points)
+                .anySatisfy(
+                        point -> {
+                            assertEquals(attributes, point.getAttributes());
+                            assertEquals(sum, point.getSum(), 0.001);
+                            assertThat(point)
+                                    .hasCount(8)
+                                    .hasBucketBoundaries(FRAME_DURATION_BOUNDARIES)
+                                    .hasBucketCounts(counts);
+                        });
     }
 
     private List<Long> makeSomeDurations() {